@@ -0,0 +1,361 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.bulk;
+
+import com.google.common.io.BaseEncoding;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Attachment;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Message;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import javax.json.Json;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Export of bouts to newline-delimited JSON.
+ *
+ * <p>Bouts are read in parallel, each one by its own thread, while lines
+ * are written in the order of bouts in the inbox. Messages are read
+ * without marking them as seen. Content of attachments is not read
+ * in advance: it is streamed by the thread which writes lines, by
+ * chunks, that's why not more than one chunk is kept in memory. See
+ * {@link com.netbout.bulk} for the format.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @checkstyle MultipleStringLiteralsCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "inbox")
+@EqualsAndHashCode(of = { "inbox", "threads" })
+public final class Export {
+
+    /**
+     * Size of one chunk of attachment content, in bytes.
+     */
+    private static final int CHUNK = 48 * 1024;
+
+    /**
+     * Inbox to export from.
+     */
+    private final transient Inbox inbox;
+
+    /**
+     * How many bouts to read in parallel.
+     */
+    private final transient int threads;
+
+    /**
+     * Public ctor.
+     * @param ibx Inbox to export from
+     */
+    public Export(final Inbox ibx) {
+        this(ibx, Tv.EIGHT);
+    }
+
+    /**
+     * Public ctor.
+     * @param ibx Inbox to export from
+     * @param total How many bouts to read in parallel
+     */
+    public Export(final Inbox ibx, final int total) {
+        this.inbox = ibx;
+        this.threads = total;
+    }
+
+    /**
+     * Export all bouts of the inbox.
+     * @param output Where to write them
+     * @return How many lines were written
+     * @throws IOException If fails
+     */
+    public long bouts(final OutputStream output) throws IOException {
+        return this.write(this.inbox.iterate(), output);
+    }
+
+    /**
+     * Export one bout.
+     * @param number Number of the bout
+     * @param output Where to write it
+     * @return How many lines were written
+     * @throws IOException If fails
+     */
+    public long bout(final long number, final OutputStream output)
+        throws IOException {
+        return this.write(
+            Collections.singletonList(this.inbox.bout(number)), output
+        );
+    }
+
+    /**
+     * Export bouts.
+     * @param bouts Bouts to export
+     * @param output Where to write them
+     * @return How many lines were written
+     * @throws IOException If fails
+     */
+    private long write(final Iterable<Bout> bouts, final OutputStream output)
+        throws IOException {
+        final long start = System.currentTimeMillis();
+        final Export.Lines lines = new Export.Lines(
+            new OutputStreamWriter(output, StandardCharsets.UTF_8)
+        );
+        try (final Pipeline<Export.Dump> pipeline =
+            new Pipeline<>(this.threads, lines)) {
+            for (final Bout bout : bouts) {
+                pipeline.add(
+                    new Callable<Export.Dump>() {
+                        @Override
+                        public Export.Dump call() throws IOException {
+                            return Export.dump(bout);
+                        }
+                    }
+                );
+            }
+        }
+        lines.flush();
+        final long msec = Math.max(System.currentTimeMillis() - start, 1L);
+        Logger.info(
+            this, "%d item(s) of %d bout(s) exported in %[ms]s, %.1f items/sec",
+            lines.items(), lines.bouts(), msec,
+            (double) lines.items() * (double) Tv.THOUSAND / (double) msec
+        );
+        return lines.items();
+    }
+
+    /**
+     * Lines of one bout, except attachments.
+     * @param bout The bout
+     * @return Lines, without line breaks, and attachments
+     * @throws IOException If fails
+     */
+    private static Export.Dump dump(final Bout bout) throws IOException {
+        final long number = bout.number();
+        final List<String> lines = new LinkedList<>();
+        lines.add(
+            Json.createObjectBuilder()
+                .add("type", "bout")
+                .add("bout", number)
+                .add("title", bout.title())
+                .add("date", bout.date().getTime())
+                .add("updated", bout.updated().getTime())
+                .build().toString()
+        );
+        for (final Friend friend : bout.friends().iterate()) {
+            lines.add(
+                Json.createObjectBuilder()
+                    .add("type", "friend")
+                    .add("bout", number)
+                    .add("alias", friend.alias())
+                    .build().toString()
+            );
+        }
+        final SortedMap<Long, String> msgs = new TreeMap<>();
+        for (final Message msg
+            : bout.messages().jump(Long.MAX_VALUE).iterate()) {
+            msgs.put(
+                msg.number(),
+                Json.createObjectBuilder()
+                    .add("type", "message")
+                    .add("bout", number)
+                    .add("number", msg.number())
+                    .add("date", msg.date().getTime())
+                    .add("author", msg.author())
+                    .add("text", msg.text())
+                    .build().toString()
+            );
+        }
+        lines.addAll(msgs.values());
+        final List<Attachment> atmts = new LinkedList<>();
+        for (final Attachment atmt : bout.attachments().iterate()) {
+            atmts.add(atmt);
+        }
+        return new Export.Dump(number, lines, atmts);
+    }
+
+    /**
+     * Lines of one bout and its attachments, to be streamed.
+     */
+    @ToString(of = "number")
+    @EqualsAndHashCode(of = "number")
+    private static final class Dump {
+        /**
+         * Number of the bout.
+         */
+        private final transient long number;
+        /**
+         * Lines.
+         */
+        private final transient List<String> lines;
+        /**
+         * Attachments.
+         */
+        private final transient List<Attachment> atmts;
+        /**
+         * Ctor.
+         * @param num Number of the bout
+         * @param lns Lines
+         * @param list Attachments
+         */
+        Dump(final long num, final List<String> lns,
+            final List<Attachment> list) {
+            this.number = num;
+            this.lines = lns;
+            this.atmts = list;
+        }
+    }
+
+    /**
+     * Lines of bouts, written one by one.
+     */
+    @ToString(of = { "total", "done" })
+    @EqualsAndHashCode(of = "writer")
+    private static final class Lines implements Pipeline.Sink<Export.Dump> {
+        /**
+         * Writer.
+         */
+        private final transient Writer writer;
+        /**
+         * Lines written.
+         */
+        private transient long total;
+        /**
+         * Bouts written.
+         */
+        private transient long done;
+        /**
+         * Ctor.
+         * @param wrt Writer
+         */
+        Lines(final Writer wrt) {
+            this.writer = wrt;
+        }
+        @Override
+        public void accept(final Export.Dump dump) throws IOException {
+            for (final String line : dump.lines) {
+                this.line(line);
+            }
+            for (final Attachment atmt : dump.atmts) {
+                this.attachment(dump.number, atmt);
+            }
+            ++this.done;
+        }
+        /**
+         * Write an attachment, its content goes by chunks.
+         * @param number Number of the bout
+         * @param atmt The attachment
+         * @throws IOException If fails
+         */
+        private void attachment(final long number, final Attachment atmt)
+            throws IOException {
+            final String name = atmt.name();
+            this.line(
+                Json.createObjectBuilder()
+                    .add("type", "attachment")
+                    .add("bout", number)
+                    .add("name", name)
+                    .add("ctype", atmt.ctype())
+                    .add("etag", atmt.etag())
+                    .build().toString()
+            );
+            final byte[] chunk = new byte[Export.CHUNK];
+            try (final InputStream stream = atmt.read()) {
+                while (true) {
+                    final int len = IOUtils.read(stream, chunk);
+                    if (len == 0) {
+                        break;
+                    }
+                    this.writer.write(
+                        Json.createObjectBuilder()
+                            .add("type", "chunk")
+                            .add("bout", number)
+                            .add("name", name)
+                            .add(
+                                "data",
+                                BaseEncoding.base64().encode(chunk, 0, len)
+                            )
+                            .build().toString()
+                    );
+                    this.writer.write('\n');
+                }
+            }
+        }
+        /**
+         * Write a line.
+         * @param line The line
+         * @throws IOException If fails
+         */
+        private void line(final String line) throws IOException {
+            this.writer.write(line);
+            this.writer.write('\n');
+            ++this.total;
+        }
+        /**
+         * Flush them all.
+         * @throws IOException If fails
+         */
+        public void flush() throws IOException {
+            this.writer.flush();
+        }
+        /**
+         * How many lines were written.
+         * @return Total
+         */
+        public long items() {
+            return this.total;
+        }
+        /**
+         * How many bouts were written.
+         * @return Total
+         */
+        public long bouts() {
+            return this.done;
+        }
+    }
+
+}
@@ -0,0 +1,515 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.bulk;
+
+import com.google.common.io.BaseEncoding;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Friends;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Restore;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Import of bouts from newline-delimited JSON, made by {@link Export}.
+ *
+ * <p>All lines of a bout are read into one batch, and batches are
+ * written in parallel, each one by its own thread. Content of
+ * attachments is not kept in memory: its chunks are appended to
+ * a temporary file, which is read when the attachment is written
+ * and deleted after the bout is written.
+ *
+ * <p>Bouts are written to a {@link Restore}, which keeps numbers of
+ * bouts and messages, authors and dates of messages, and all friends,
+ * for example {@link com.netbout.mock.MkBase#restore()} or the one
+ * of the DynamoDB base.
+ * That's how bouts are moved from one base to another one.
+ *
+ * <p>When an {@link Inbox} is given instead, every bout is started
+ * again in it, with a new number, and messages are posted on behalf
+ * of the owner of the inbox, from the oldest, since the inbox doesn't
+ * let anyone post on behalf of others or with a given date: authors
+ * and dates of the exported messages are lost. Friends are invited
+ * after all messages and attachments are written, in order not to
+ * notify them about every replayed message and not to make them all
+ * unread. Friends, which are unknown to the base, are skipped.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @checkstyle MultipleStringLiteralsCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "restore")
+@EqualsAndHashCode(of = { "restore", "threads" })
+@SuppressWarnings("PMD.ExcessiveImports")
+public final class Import {
+
+    /**
+     * Where to restore bouts.
+     */
+    private final transient Restore restore;
+
+    /**
+     * How many bouts to write in parallel.
+     */
+    private final transient int threads;
+
+    /**
+     * Public ctor.
+     * @param ibx Inbox to import to
+     */
+    public Import(final Inbox ibx) {
+        this(ibx, Tv.EIGHT);
+    }
+
+    /**
+     * Public ctor.
+     * @param ibx Inbox to import to
+     * @param total How many bouts to write in parallel
+     */
+    public Import(final Inbox ibx, final int total) {
+        this(new Import.Replay(ibx), total);
+    }
+
+    /**
+     * Public ctor.
+     * @param rst Where to restore bouts
+     */
+    public Import(final Restore rst) {
+        this(rst, Tv.EIGHT);
+    }
+
+    /**
+     * Public ctor.
+     * @param rst Where to restore bouts
+     * @param total How many bouts to write in parallel
+     */
+    public Import(final Restore rst, final int total) {
+        this.restore = rst;
+        this.threads = total;
+    }
+
+    /**
+     * Import all bouts from the stream.
+     * @param input Where to read them from
+     * @return How many lines were imported
+     * @throws IOException If fails
+     */
+    public long bouts(final InputStream input) throws IOException {
+        final long start = System.currentTimeMillis();
+        final Import.Count count = new Import.Count();
+        final BufferedReader reader = new BufferedReader(
+            new InputStreamReader(input, StandardCharsets.UTF_8)
+        );
+        try (final Pipeline<Long> pipeline =
+            new Pipeline<>(this.threads, count)) {
+            Import.Batch batch = new Import.Batch();
+            long pos = 1L;
+            for (String line = reader.readLine(); line != null;
+                line = reader.readLine()) {
+                if (!line.trim().isEmpty()) {
+                    final JsonObject json = Import.parse(line, pos);
+                    if ("bout".equals(json.getString("type"))) {
+                        this.submit(pipeline, batch);
+                        batch = new Import.Batch();
+                    }
+                    batch.add(json, pos);
+                }
+                ++pos;
+            }
+            this.submit(pipeline, batch);
+        }
+        final long msec = Math.max(System.currentTimeMillis() - start, 1L);
+        Logger.info(
+            this, "%d item(s) of %d bout(s) imported in %[ms]s, %.1f items/sec",
+            count.items(), count.bouts(), msec,
+            (double) count.items() * (double) Tv.THOUSAND / (double) msec
+        );
+        return count.items();
+    }
+
+    /**
+     * Write the batch in background, if it's not empty.
+     * @param pipeline Pipeline to use
+     * @param batch Lines of one bout
+     * @throws IOException If one of previous batches failed
+     */
+    private void submit(final Pipeline<Long> pipeline,
+        final Import.Batch batch) throws IOException {
+        if (!batch.isEmpty()) {
+            pipeline.add(
+                new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        try {
+                            return Import.this.replay(batch);
+                        } finally {
+                            batch.close();
+                        }
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Restore a bout and all lines of it.
+     * @param batch Lines of one bout, starting with the bout itself
+     * @return How many lines were written
+     * @throws IOException If fails
+     */
+    private long replay(final Import.Batch batch) throws IOException {
+        final List<JsonObject> lines = batch.lines();
+        final JsonObject head = lines.get(0);
+        long total = 1L;
+        try (final Restore.Bout bout = this.restore.bout(
+            Import.bout(head), head.getString("title"),
+            new Date(head.getJsonNumber("date").longValue())
+        )) {
+            for (final JsonObject json : lines.subList(1, lines.size())) {
+                Import.write(bout, batch, json);
+                ++total;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Write one line to the bout.
+     * @param bout The bout
+     * @param batch Batch the line belongs to
+     * @param json The line
+     * @throws IOException If fails
+     */
+    private static void write(final Restore.Bout bout,
+        final Import.Batch batch, final JsonObject json) throws IOException {
+        final String type = json.getString("type");
+        if ("friend".equals(type)) {
+            bout.friend(json.getString("alias"));
+        } else if ("message".equals(type)) {
+            bout.message(
+                json.getJsonNumber("number").longValue(),
+                json.getString("author"),
+                new Date(json.getJsonNumber("date").longValue()),
+                json.getString("text")
+            );
+        } else if ("attachment".equals(type)) {
+            try (final InputStream content = batch.content(json)) {
+                bout.attachment(
+                    json.getString("name"), json.getString("ctype"),
+                    json.getString("etag"), content
+                );
+            }
+        } else {
+            throw new IOException(
+                String.format("unknown type of line: %s", json)
+            );
+        }
+    }
+
+    /**
+     * Number of the bout the line belongs to.
+     * @param json The line
+     * @return Number of the bout
+     */
+    private static long bout(final JsonObject json) {
+        return json.getJsonNumber("bout").longValue();
+    }
+
+    /**
+     * Parse one line.
+     * @param line The line
+     * @param pos Its number in the stream
+     * @return JSON object
+     * @throws IOException If it's broken
+     */
+    private static JsonObject parse(final String line, final long pos)
+        throws IOException {
+        final JsonObject json;
+        try (final JsonReader reader = Json.createReader(
+            new StringReader(line)
+        )) {
+            json = reader.readObject();
+        } catch (final JsonException ex) {
+            throw new IOException(
+                String.format("line #%d is broken", pos), ex
+            );
+        }
+        if (!json.containsKey("type") || !json.containsKey("bout")) {
+            throw new IOException(
+                String.format("line #%d has no type or bout", pos)
+            );
+        }
+        return json;
+    }
+
+    /**
+     * Lines of one bout, with content of its attachments in files.
+     */
+    @ToString(of = "items")
+    @EqualsAndHashCode(of = "items")
+    private static final class Batch implements Closeable {
+        /**
+         * Lines, except chunks.
+         */
+        private final transient List<JsonObject> items =
+            new LinkedList<>();
+        /**
+         * Files with content of attachments, by their names.
+         */
+        private final transient Map<String, File> files = new HashMap<>(0);
+        /**
+         * Add a line.
+         * @param json The line
+         * @param pos Its number in the stream
+         * @throws IOException If it's out of its bout or fails
+         */
+        public void add(final JsonObject json, final long pos)
+            throws IOException {
+            final String type = json.getString("type");
+            if (!"bout".equals(type) && (this.items.isEmpty()
+                || Import.bout(json) != Import.bout(this.items.get(0)))) {
+                throw new IOException(
+                    String.format("line #%d is out of its bout", pos)
+                );
+            }
+            if ("chunk".equals(type)) {
+                final File file = this.files.get(json.getString("name"));
+                if (file == null) {
+                    throw new IOException(
+                        String.format("line #%d is out of attachment", pos)
+                    );
+                }
+                FileUtils.writeByteArrayToFile(
+                    file,
+                    BaseEncoding.base64().decode(json.getString("data")),
+                    true
+                );
+            } else {
+                if ("attachment".equals(type) && !json.containsKey("data")) {
+                    final File file = File.createTempFile("netbout", ".bin");
+                    file.deleteOnExit();
+                    this.files.put(json.getString("name"), file);
+                }
+                this.items.add(json);
+            }
+        }
+        /**
+         * Lines, except chunks.
+         * @return Lines
+         */
+        public List<JsonObject> lines() {
+            return this.items;
+        }
+        /**
+         * Is it empty?
+         * @return TRUE if there are no lines
+         */
+        public boolean isEmpty() {
+            return this.items.isEmpty();
+        }
+        /**
+         * Content of the attachment.
+         *
+         * <p>Older exports carry the content in the line itself.
+         *
+         * @param json The line of the attachment
+         * @return Content
+         * @throws IOException If fails
+         */
+        public InputStream content(final JsonObject json) throws IOException {
+            final InputStream stream;
+            if (json.containsKey("data")) {
+                stream = new ByteArrayInputStream(
+                    BaseEncoding.base64().decode(json.getString("data"))
+                );
+            } else {
+                stream = new FileInputStream(
+                    this.files.get(json.getString("name"))
+                );
+            }
+            return stream;
+        }
+        @Override
+        public void close() {
+            for (final File file : this.files.values()) {
+                FileUtils.deleteQuietly(file);
+            }
+        }
+    }
+
+    /**
+     * Restore, which replays bouts in an inbox.
+     */
+    @Immutable
+    @ToString
+    @EqualsAndHashCode(of = "inbox")
+    private static final class Replay implements Restore {
+        /**
+         * Inbox to replay in.
+         */
+        private final transient Inbox inbox;
+        /**
+         * Ctor.
+         * @param ibx Inbox to replay in
+         */
+        Replay(final Inbox ibx) {
+            this.inbox = ibx;
+        }
+        @Override
+        public Restore.Bout bout(final long number, final String title,
+            final Date date) throws IOException {
+            final com.netbout.spi.Bout bout =
+                this.inbox.bout(this.inbox.start());
+            bout.rename(title);
+            return new Import.Replayed(bout);
+        }
+    }
+
+    /**
+     * Bout being replayed, friends go last.
+     */
+    @ToString(of = "bout")
+    @EqualsAndHashCode(of = "bout")
+    private static final class Replayed implements Restore.Bout {
+        /**
+         * The bout.
+         */
+        private final transient Bout bout;
+        /**
+         * Friends to invite.
+         */
+        private final transient Collection<String> invites =
+            new LinkedList<>();
+        /**
+         * Ctor.
+         * @param bot The bout
+         */
+        Replayed(final Bout bot) {
+            this.bout = bot;
+        }
+        @Override
+        public void friend(final String alias) {
+            this.invites.add(alias);
+        }
+        @Override
+        public void message(final long number, final String author,
+            final Date date, final String text) throws IOException {
+            this.bout.messages().post(text);
+        }
+        @Override
+        public void attachment(final String name, final String ctype,
+            final String etag, final InputStream content) throws IOException {
+            this.bout.attachments().create(name);
+            this.bout.attachments().get(name).write(content, ctype, etag);
+        }
+        @Override
+        public void close() throws IOException {
+            final Set<String> friends = new HashSet<>(0);
+            for (final Friend friend : this.bout.friends().iterate()) {
+                friends.add(friend.alias());
+            }
+            for (final String alias : this.invites) {
+                if (!friends.contains(alias)) {
+                    try {
+                        this.bout.friends().invite(alias);
+                    } catch (final Friends.UnknownAliasException ex) {
+                        Logger.warn(this, "@%s skipped: %s", alias, ex);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Counter of lines written.
+     */
+    @ToString
+    @EqualsAndHashCode
+    private static final class Count implements Pipeline.Sink<Long> {
+        /**
+         * Lines written.
+         */
+        private transient long total;
+        /**
+         * Bouts written.
+         */
+        private transient long done;
+        @Override
+        public void accept(final Long lines) {
+            this.total += lines;
+            ++this.done;
+        }
+        /**
+         * How many lines were written.
+         * @return Total
+         */
+        public long items() {
+            return this.total;
+        }
+        /**
+         * How many bouts were written.
+         * @return Total
+         */
+        public long bouts() {
+            return this.done;
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.bulk;
+
+import com.jcabi.log.VerboseThreads;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Tasks executed in parallel, with results taken in order.
+ *
+ * <p>Not more than two tasks per thread are waiting for their results
+ * to be taken, that's why memory stays bounded no matter how many tasks
+ * are added. The class is not thread-safe, tasks must be added and the
+ * pipeline closed by one thread.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @param <T> Type of results
+ */
+@ToString(of = "window")
+@EqualsAndHashCode(of = { "pool", "queue" })
+final class Pipeline<T> implements Closeable {
+
+    /**
+     * Threads.
+     */
+    private final transient ExecutorService pool;
+
+    /**
+     * Tasks in progress, in order of adding.
+     */
+    private final transient Deque<Future<T>> queue;
+
+    /**
+     * Maximum number of tasks in progress.
+     */
+    private final transient int window;
+
+    /**
+     * Where results go.
+     */
+    private final transient Pipeline.Sink<T> sink;
+
+    /**
+     * Ctor.
+     * @param threads How many threads to use
+     * @param snk Where results go
+     */
+    Pipeline(final int threads, final Pipeline.Sink<T> snk) {
+        this.pool = Executors.newFixedThreadPool(
+            threads, new VerboseThreads(Pipeline.class)
+        );
+        this.queue = new LinkedList<>();
+        this.window = threads << 1;
+        this.sink = snk;
+    }
+
+    /**
+     * Add a task, waiting for the oldest ones if there are too many.
+     * @param task The task
+     * @throws IOException If one of previous tasks failed
+     */
+    public void add(final Callable<T> task) throws IOException {
+        this.queue.add(this.pool.submit(task));
+        while (this.queue.size() > this.window) {
+            this.sink.accept(this.take());
+        }
+    }
+
+    /**
+     * Wait for all tasks and stop the threads.
+     * @throws IOException If one of tasks failed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            while (!this.queue.isEmpty()) {
+                this.sink.accept(this.take());
+            }
+        } finally {
+            this.pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Wait for the oldest task.
+     * @return Its result
+     * @throws IOException If it failed
+     */
+    private T take() throws IOException {
+        try {
+            return this.queue.poll().get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (final ExecutionException ex) {
+            throw new IOException(ex.getCause());
+        }
+    }
+
+    /**
+     * Receiver of results.
+     * @param <T> Type of results
+     */
+    interface Sink<T> {
+        /**
+         * Take the result.
+         * @param result Result of a task
+         * @throws IOException If fails
+         */
+        void accept(T result) throws IOException;
+    }
+
+}
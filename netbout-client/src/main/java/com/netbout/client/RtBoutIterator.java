@@ -131,7 +131,9 @@ final class RtBoutIterator implements Iterator<Bout> {
                 }
             )
         );
-        if (xml.nodes("/page/bouts/bout").isEmpty()) {
+        if (xml.nodes(
+            "/page/bouts/bout[last()]/links/link[@rel='more']"
+        ).isEmpty()) {
             this.more = false;
         } else {
             this.request = response.rel(
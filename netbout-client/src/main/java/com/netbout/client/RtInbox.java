@@ -112,6 +112,11 @@ final class RtInbox implements Inbox {
         throw new UnsupportedOperationException("#jump()");
     }
 
+    @Override
+    public Pageable.Page<Bout> page(final String cursor) {
+        throw new UnsupportedOperationException("#page()");
+    }
+
     @Override
     public Iterable<Bout> iterate() {
         return new Iterable<Bout>() {
@@ -122,6 +127,11 @@ final class RtInbox implements Inbox {
         };
     }
 
+    @Override
+    public Pageable.Page<Inbox.Row> rows(final String cursor) {
+        throw new UnsupportedOperationException("#rows()");
+    }
+
     @Override
     public Iterable<Bout> search(final String term) throws IOException {
         final List<Bout> result = new ArrayList<>(16);
@@ -127,7 +127,9 @@ final class RtMessageIterator implements Iterator<Message> {
                 }
             )
         );
-        if (xml.nodes("/page/bout/messages/message ").isEmpty()) {
+        if (xml.nodes(
+            "/page/bout/messages/message[last()]/links/link[@rel='more']"
+        ).isEmpty()) {
             this.more = false;
         } else {
             this.request = response.rel(
@@ -92,6 +92,11 @@ final class RtMessages implements Messages {
         throw new UnsupportedOperationException("#jump()");
     }
 
+    @Override
+    public Pageable.Page<Message> page(final String cursor) {
+        throw new UnsupportedOperationException("#page()");
+    }
+
     @Override
     public Iterable<Message> iterate() {
         return new Iterable<Message>() {
@@ -100,6 +100,26 @@ public final class CdInbox implements Inbox {
         );
     }
 
+    @Override
+    @Cacheable
+    public Pageable.Page<Bout> page(final String cursor) throws IOException {
+        return this.origin.page(cursor).transform(
+            new Function<Bout, Bout>() {
+                @Override
+                public Bout apply(final Bout bout) {
+                    return new CdBout(bout);
+                }
+            }
+        );
+    }
+
+    @Override
+    @Cacheable
+    public Pageable.Page<Inbox.Row> rows(final String cursor)
+        throws IOException {
+        return this.origin.rows(cursor);
+    }
+
     @Override
     @Cacheable
     public Iterable<Bout> search(final String term) throws IOException {
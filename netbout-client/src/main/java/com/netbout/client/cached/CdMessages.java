@@ -94,6 +94,20 @@ public final class CdMessages implements Messages {
         );
     }
 
+    @Override
+    @Cacheable.FlushBefore
+    public Pageable.Page<Message> page(final String cursor)
+        throws IOException {
+        return this.origin.page(cursor).transform(
+            new Function<Message, Message>() {
+                @Override
+                public Message apply(final Message message) {
+                    return new CdMessage(message);
+                }
+            }
+        );
+    }
+
     @Override
     @Cacheable.FlushBefore
     public Iterable<Message> search(final String term) throws IOException {
@@ -119,6 +119,32 @@ public final class ReInbox implements Inbox {
         );
     }
 
+    @Override
+    @RetryOnFailure(
+        verbose = false, attempts = Tv.TWENTY,
+        delay = Tv.FIVE, unit = TimeUnit.SECONDS
+    )
+    public Pageable.Page<Bout> page(final String cursor) throws IOException {
+        return this.origin.page(cursor).transform(
+            new Function<Bout, Bout>() {
+                @Override
+                public Bout apply(final Bout bout) {
+                    return new ReBout(bout);
+                }
+            }
+        );
+    }
+
+    @Override
+    @RetryOnFailure(
+        verbose = false, attempts = Tv.TWENTY,
+        delay = Tv.FIVE, unit = TimeUnit.SECONDS
+    )
+    public Pageable.Page<Inbox.Row> rows(final String cursor)
+        throws IOException {
+        return this.origin.rows(cursor);
+    }
+
     @Override
     @RetryOnFailure(
         verbose = false, attempts = Tv.TWENTY,
@@ -110,6 +110,23 @@ public final class ReMessages implements Messages {
         );
     }
 
+    @Override
+    @RetryOnFailure(
+        verbose = false, attempts = Tv.TWENTY,
+        delay = Tv.FIVE, unit = TimeUnit.SECONDS
+    )
+    public Pageable.Page<Message> page(final String cursor)
+        throws IOException {
+        return this.origin.page(cursor).transform(
+            new Function<Message, Message>() {
+                @Override
+                public Message apply(final Message message) {
+                    return new ReMessage(message);
+                }
+            }
+        );
+    }
+
     @Override
     @RetryOnFailure(
         verbose = false, attempts = Tv.TWENTY,
@@ -34,6 +34,7 @@ import com.netbout.spi.Aliases;
 import com.netbout.spi.Base;
 import com.netbout.spi.Bout;
 import com.netbout.spi.Inbox;
+import com.netbout.spi.Restore;
 import com.netbout.spi.User;
 import java.io.IOException;
 import java.security.SecureRandom;
@@ -77,6 +78,14 @@ public final class MkBase implements Base {
         return new MkUser(this.sql, urn);
     }
 
+    /**
+     * Restore of bouts, as they were in another base.
+     * @return Restore
+     */
+    public Restore restore() {
+        return new MkRestore(this.sql);
+    }
+
     @Override
     public void close() {
         // nothing to do
@@ -26,6 +26,7 @@
  */
 package com.netbout.mock;
 
+import com.google.common.collect.Iterables;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.jdbc.JdbcSession;
@@ -58,6 +59,22 @@ import lombok.ToString;
 @EqualsAndHashCode(of = { "sql", "self" })
 final class MkInbox implements Inbox {
 
+    /**
+     * Numbers from the first column.
+     */
+    private static final Outcome<List<Long>> NUMBERS =
+        new Outcome<List<Long>>() {
+            @Override
+            public List<Long> handle(final ResultSet rset,
+                final Statement stmt) throws SQLException {
+                final List<Long> list = new LinkedList<>();
+                while (rset.next()) {
+                    list.add(rset.getLong(1));
+                }
+                return list;
+            }
+        };
+
     /**
      * SQL data source provider.
      */
@@ -151,6 +168,41 @@ final class MkInbox implements Inbox {
         }
     }
 
+    @Override
+    public Pageable.Page<Bout> page(final String cursor) throws IOException {
+        long after = Long.MAX_VALUE;
+        if (!cursor.isEmpty()) {
+            after = new Pageable.Keyset(cursor, 1).get(0);
+        }
+        final List<Long> numbers;
+        try {
+            numbers = new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("SELECT b.number FROM bout b JOIN friend f ON b.number = f.bout WHERE f.alias = ? AND b.number < ? ORDER BY b.number DESC LIMIT ?")
+                .set(this.self)
+                .set(after)
+                .set(Inbox.PAGE + 1)
+                .select(MkInbox.NUMBERS);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        final List<Bout> bouts = new ArrayList<>(Inbox.PAGE);
+        for (final Long number : Iterables.limit(numbers, Inbox.PAGE)) {
+            bouts.add(new MkBout(this.sql, number, this.self));
+        }
+        String next = "";
+        if (numbers.size() > Inbox.PAGE) {
+            next = new Pageable.Keyset(numbers.get(Inbox.PAGE - 1)).toString();
+        }
+        return new Pageable.Page<>(bouts, next);
+    }
+
+    @Override
+    public Pageable.Page<Inbox.Row> rows(final String cursor)
+        throws IOException {
+        return Inbox.Row.hydrate(this.page(cursor));
+    }
+
     @Override
     public Iterable<Bout> search(final String term) throws IOException {
         final List<Bout> result = new ArrayList<>(16);
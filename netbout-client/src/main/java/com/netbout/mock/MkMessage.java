@@ -33,11 +33,7 @@ import com.jcabi.jdbc.SingleOutcome;
 import com.netbout.spi.Message;
 import java.io.IOException;
 import java.sql.SQLException;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Locale;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
@@ -88,19 +84,14 @@ final class MkMessage implements Message {
 
     @Override
     public Date date() throws IOException {
-        final DateFormat format = new SimpleDateFormat(
-            "yyyy-MM-DD HH:mm:ss.sss", Locale.ENGLISH
-        );
         try {
-            return format.parse(
-                new JdbcSession(this.sql.source())
-                    // @checkstyle LineLength (1 line)
-                    .sql("SELECT date FROM message WHERE bout = ? AND number = ?")
-                    .set(this.bout)
-                    .set(this.num)
-                    .select(new SingleOutcome<>(String.class))
-            );
-        } catch (final SQLException | ParseException ex) {
+            return new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("SELECT date FROM message WHERE bout = ? AND number = ?")
+                .set(this.bout)
+                .set(this.num)
+                .select(new SingleOutcome<Date>(Date.class));
+        } catch (final SQLException ex) {
             throw new IOException(ex);
         }
     }
@@ -26,6 +26,7 @@
  */
 package com.netbout.mock;
 
+import com.google.common.collect.Iterables;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.jdbc.JdbcSession;
@@ -57,6 +58,22 @@ import lombok.ToString;
 @EqualsAndHashCode(of = { "sql", "bout", "self" })
 final class MkMessages implements Messages {
 
+    /**
+     * Numbers from the first column.
+     */
+    private static final Outcome<List<Long>> NUMBERS =
+        new Outcome<List<Long>>() {
+            @Override
+            public List<Long> handle(final ResultSet rset,
+                final Statement stmt) throws SQLException {
+                final List<Long> list = new LinkedList<>();
+                while (rset.next()) {
+                    list.add(rset.getLong(1));
+                }
+                return list;
+            }
+        };
+
     /**
      * SQL data source provider.
      */
@@ -140,6 +157,38 @@ final class MkMessages implements Messages {
         }
     }
 
+    @Override
+    public Pageable.Page<Message> page(final String cursor)
+        throws IOException {
+        long after = Long.MAX_VALUE;
+        if (!cursor.isEmpty()) {
+            after = new Pageable.Keyset(cursor, 1).get(0);
+        }
+        final List<Long> numbers;
+        try {
+            numbers = new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("SELECT number FROM message WHERE bout = ? AND number < ? ORDER BY number DESC LIMIT ?")
+                .set(this.bout)
+                .set(after)
+                .set(Messages.PAGE + 1)
+                .select(MkMessages.NUMBERS);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        final List<Message> messages = new ArrayList<>(Messages.PAGE);
+        for (final Long number : Iterables.limit(numbers, Messages.PAGE)) {
+            messages.add(new MkMessage(this.sql, this.bout, number));
+        }
+        String next = "";
+        if (numbers.size() > Messages.PAGE) {
+            next = new Pageable.Keyset(
+                numbers.get(Messages.PAGE - 1)
+            ).toString();
+        }
+        return new Pageable.Page<>(messages, next);
+    }
+
     @Override
     public Iterable<Message> search(final String term) throws IOException {
         final List<Message> result = new ArrayList<>(16);
@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.mock;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.jdbc.JdbcSession;
+import com.jcabi.jdbc.Outcome;
+import com.netbout.spi.Restore;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.CharEncoding;
+
+/**
+ * Mock restore.
+ *
+ * <p>Rows are inserted with the numbers given, H2 moves its
+ * auto-increment counters forward by itself. Attachments are attributed
+ * to the first friend of the bout, since their authors are not known.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString
+@Loggable(Loggable.DEBUG)
+@EqualsAndHashCode(of = "sql")
+final class MkRestore implements Restore {
+
+    /**
+     * SQL data source provider.
+     */
+    private final transient Sql sql;
+
+    /**
+     * Public ctor.
+     * @param src Source
+     */
+    MkRestore(final Sql src) {
+        this.sql = src;
+    }
+
+    @Override
+    public Restore.Bout bout(final long number, final String title,
+        final Date date) throws IOException {
+        try {
+            final boolean exists = new JdbcSession(this.sql.source())
+                .sql("SELECT number FROM bout WHERE number = ?")
+                .set(number)
+                .select(Outcome.NOT_EMPTY);
+            if (exists) {
+                throw new IOException(
+                    String.format("bout #%d already exists", number)
+                );
+            }
+            new JdbcSession(this.sql.source())
+                .sql("INSERT INTO bout (number, title, date) VALUES (?, ?, ?)")
+                .set(number)
+                .set(title)
+                .set(new Timestamp(date.getTime()))
+                .insert(Outcome.VOID);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        return new MkRestore.Bout(this.sql, number);
+    }
+
+    /**
+     * Bout being restored.
+     */
+    @ToString
+    @EqualsAndHashCode(of = { "sql", "number" })
+    private static final class Bout implements Restore.Bout {
+        /**
+         * SQL data source provider.
+         */
+        private final transient Sql sql;
+        /**
+         * Number of the bout.
+         */
+        private final transient long number;
+        /**
+         * First friend.
+         */
+        private transient String first;
+        /**
+         * Ctor.
+         * @param src Source
+         * @param num Number of the bout
+         */
+        Bout(final Sql src, final long num) {
+            this.sql = src;
+            this.number = num;
+        }
+        @Override
+        public void friend(final String alias) throws IOException {
+            try {
+                new JdbcSession(this.sql.source())
+                    // @checkstyle LineLength (1 line)
+                    .sql("INSERT INTO friend (bout, alias, subscription) VALUES (?, ?, ?)")
+                    .set(this.number)
+                    .set(alias)
+                    .set(true)
+                    .insert(Outcome.VOID);
+            } catch (final SQLException ex) {
+                throw new IOException(ex);
+            }
+            if (this.first == null) {
+                this.first = alias;
+            }
+        }
+        @Override
+        public void message(final long num, final String author,
+            final Date date, final String text) throws IOException {
+            try {
+                new JdbcSession(this.sql.source())
+                    // @checkstyle LineLength (1 line)
+                    .sql("INSERT INTO message (number, bout, text, author, date) VALUES (?, ?, ?, ?, ?)")
+                    .set(num)
+                    .set(this.number)
+                    .set(text)
+                    .set(author)
+                    .set(new Timestamp(date.getTime()))
+                    .insert(Outcome.VOID);
+            } catch (final SQLException ex) {
+                throw new IOException(ex);
+            }
+        }
+        @Override
+        public void attachment(final String name, final String ctype,
+            final String etag, final InputStream content) throws IOException {
+            try {
+                new JdbcSession(this.sql.source())
+                    // @checkstyle LineLength (1 line)
+                    .sql("INSERT INTO attachment (name, bout, data, author, ctype, etag) VALUES (?, ?, ?, ?, ?, ?)")
+                    .set(name)
+                    .set(this.number)
+                    .set(IOUtils.toString(content, CharEncoding.UTF_8))
+                    .set(this.first)
+                    .set(ctype)
+                    .set(etag)
+                    .insert(Outcome.VOID);
+            } catch (final SQLException ex) {
+                throw new IOException(ex);
+            }
+        }
+        @Override
+        public void close() {
+            // nothing to do
+        }
+    }
+
+}
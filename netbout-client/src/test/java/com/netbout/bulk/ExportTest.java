@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.bulk;
+
+import com.jcabi.aspects.Tv;
+import com.netbout.mock.MkBase;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Inbox;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Export}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class ExportTest {
+
+    /**
+     * Export can write a bout as lines of JSON, messages from the oldest.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void exportsBoutAsLines() throws Exception {
+        final Inbox inbox = new MkBase().randomAlias().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.rename("export me");
+        bout.messages().post("older");
+        bout.messages().post("newer");
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MatcherAssert.assertThat(
+            new Export(inbox).bout(bout.number(), output),
+            Matchers.equalTo(4L)
+        );
+        final String[] lines = new String(
+            output.toByteArray(), StandardCharsets.UTF_8
+        ).split("\n");
+        MatcherAssert.assertThat(lines.length, Matchers.equalTo(4));
+        MatcherAssert.assertThat(
+            lines[0],
+            Matchers.allOf(
+                Matchers.containsString("\"type\":\"bout\""),
+                Matchers.containsString("\"title\":\"export me\"")
+            )
+        );
+        MatcherAssert.assertThat(
+            lines[1], Matchers.containsString("\"type\":\"friend\"")
+        );
+        MatcherAssert.assertThat(
+            lines[2], Matchers.containsString("\"text\":\"older\"")
+        );
+        MatcherAssert.assertThat(
+            lines[Tv.THREE], Matchers.containsString("\"text\":\"newer\"")
+        );
+    }
+
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.bulk;
+
+import com.jcabi.aspects.Tv;
+import com.netbout.mock.MkBase;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Attachment;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Message;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Import}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class ImportTest {
+
+    /**
+     * Import can copy bouts exported from another inbox.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void importsExportedBouts() throws Exception {
+        final MkBase base = new MkBase();
+        final Alias source = base.randomAlias();
+        final Inbox inbox = source.inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.rename("copy me");
+        bout.messages().post("hi there");
+        bout.attachments().create("notes.txt");
+        bout.attachments().get("notes.txt").write(
+            IOUtils.toInputStream("some notes", StandardCharsets.UTF_8),
+            "text/plain", "etag-1"
+        );
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new Export(inbox).bouts(output);
+        final Inbox target = base.randomAlias().inbox();
+        new Import(target).bouts(
+            new ByteArrayInputStream(output.toByteArray())
+        );
+        final Bout copy = target.iterate().iterator().next();
+        MatcherAssert.assertThat(copy.title(), Matchers.equalTo("copy me"));
+        MatcherAssert.assertThat(
+            copy.friends().iterate(),
+            Matchers.hasItem(
+                new Friend.HasAlias(Matchers.equalTo(source.name()))
+            )
+        );
+        MatcherAssert.assertThat(
+            copy.messages().iterate().iterator().next().text(),
+            Matchers.equalTo("hi there")
+        );
+        final Attachment atmt = copy.attachments().get("notes.txt");
+        MatcherAssert.assertThat(
+            ImportTest.content(atmt), Matchers.equalTo("some notes")
+        );
+    }
+
+    /**
+     * Import can restore bouts with their numbers, authors and dates.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void restoresBoutsAsTheyWere() throws Exception {
+        final MkBase base = new MkBase();
+        final Alias source = base.randomAlias();
+        final Inbox inbox = source.inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.rename("restore me");
+        bout.messages().post("first");
+        final Message msg = bout.messages().iterate().iterator().next();
+        final String big = StringUtils.repeat(
+            "0123456789", Tv.TEN * Tv.THOUSAND
+        );
+        bout.attachments().create("big.txt");
+        bout.attachments().get("big.txt").write(
+            IOUtils.toInputStream(big, StandardCharsets.UTF_8),
+            "text/plain", "etag-2"
+        );
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new Export(inbox).bouts(output);
+        final MkBase target = new MkBase();
+        new Import(target.restore()).bouts(
+            new ByteArrayInputStream(output.toByteArray())
+        );
+        final Inbox other = target.randomAlias().inbox();
+        final Bout copy = other.bout(bout.number());
+        MatcherAssert.assertThat(copy.title(), Matchers.equalTo("restore me"));
+        MatcherAssert.assertThat(
+            copy.friends().iterate(),
+            Matchers.contains(
+                new Friend.HasAlias(Matchers.equalTo(source.name()))
+            )
+        );
+        final Message restored = copy.messages().iterate().iterator().next();
+        MatcherAssert.assertThat(
+            restored.number(), Matchers.equalTo(msg.number())
+        );
+        MatcherAssert.assertThat(
+            restored.author(), Matchers.equalTo(source.name())
+        );
+        MatcherAssert.assertThat(
+            restored.date(), Matchers.equalTo(msg.date())
+        );
+        MatcherAssert.assertThat(
+            ImportTest.content(copy.attachments().get("big.txt")),
+            Matchers.equalTo(big)
+        );
+        MatcherAssert.assertThat(
+            other.start(), Matchers.greaterThan(bout.number())
+        );
+    }
+
+    /**
+     * Import can reject lines out of their bouts.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void rejectsLinesOutOfBout() throws Exception {
+        new Import(new MkBase().randomAlias().inbox()).bouts(
+            new ByteArrayInputStream(
+                "{\"type\":\"message\",\"bout\":1,\"text\":\"hey\"}\n"
+                    .getBytes(StandardCharsets.UTF_8)
+            )
+        );
+    }
+
+    /**
+     * Read content of the attachment.
+     * @param atmt The attachment
+     * @return Content
+     * @throws IOException If fails
+     */
+    private static String content(final Attachment atmt) throws IOException {
+        try (final InputStream stream = atmt.read()) {
+            return IOUtils.toString(stream, StandardCharsets.UTF_8);
+        }
+    }
+
+}
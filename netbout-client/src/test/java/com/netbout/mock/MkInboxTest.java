@@ -31,6 +31,8 @@ import com.netbout.spi.Alias;
 import com.netbout.spi.Aliases;
 import com.netbout.spi.Bout;
 import com.netbout.spi.Friend;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Pageable;
 import java.io.IOException;
 import java.security.SecureRandom;
 import org.hamcrest.MatcherAssert;
@@ -71,4 +73,39 @@ public class MkInboxTest {
             Matchers.hasItem(new Friend.HasAlias(Matchers.is(name)))
         );
     }
+
+    /**
+     * MkInbox can list bouts page by page, by cursors.
+     * @throws IOException If SQL fails
+     */
+    @Test
+    public final void pagesBoutsByCursor() throws IOException {
+        final String name = "pager";
+        final Sql sql = new H2Sql();
+        final Aliases aliases = new MkUser(
+            sql,
+            URN.create(
+                String.format(
+                    "urn:test:%d",
+                    new SecureRandom().nextInt(Integer.MAX_VALUE)
+                )
+            )
+        ).aliases();
+        aliases.add(name);
+        final MkInbox inbox = new MkInbox(sql, name);
+        for (int idx = 0; idx < Inbox.PAGE + 1; ++idx) {
+            inbox.start();
+        }
+        final Pageable.Page<Bout> first = inbox.page("");
+        MatcherAssert.assertThat(first.items(), Matchers.hasSize(Inbox.PAGE));
+        final Pageable.Page<Bout> second = inbox.page(first.next());
+        MatcherAssert.assertThat(second.items(), Matchers.hasSize(1));
+        MatcherAssert.assertThat(second.next(), Matchers.isEmptyString());
+        MatcherAssert.assertThat(
+            second.items().get(0).number(),
+            Matchers.lessThan(
+                first.items().get(Inbox.PAGE - 1).number()
+            )
+        );
+    }
 }
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.jdbc.JdbcSession;
+import com.jcabi.jdbc.Outcome;
+import com.jcabi.jdbc.SingleOutcome;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Inbox;
+import java.io.IOException;
+import java.net.URI;
+import java.sql.SQLException;
+import java.util.Locale;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * JDBC Alias.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString(of = "label")
+@Loggable(Loggable.DEBUG)
+@EqualsAndHashCode(of = { "sql", "label" })
+final class JdAlias implements Alias {
+
+    /**
+     * SQL database.
+     */
+    private final transient Sql sql;
+
+    /**
+     * Alias.
+     */
+    private final transient String label;
+
+    /**
+     * Ctor.
+     * @param src SQL database
+     * @param name Alias
+     */
+    JdAlias(final Sql src, final String name) {
+        this.sql = src;
+        this.label = name;
+    }
+
+    @Override
+    public String name() {
+        return this.label;
+    }
+
+    @Override
+    public URI photo() throws IOException {
+        return URI.create(this.column("photo"));
+    }
+
+    @Override
+    public Locale locale() throws IOException {
+        return new Locale(this.column("locale"));
+    }
+
+    @Override
+    public void photo(final URI uri) throws IOException {
+        this.update("photo", uri.toString());
+    }
+
+    @Override
+    public String email() throws IOException {
+        return this.column("email");
+    }
+
+    @Override
+    public void email(final String email) throws IOException {
+        this.update("email", email);
+    }
+
+    @Override
+    public void email(final String email, final String urn, final Bout bout)
+        throws IOException {
+        this.email(email);
+    }
+
+    @Override
+    public void email(final String email, final String link)
+        throws IOException {
+        this.email(email);
+    }
+
+    @Override
+    public Inbox inbox() {
+        return new JdInbox(this.sql, this.label);
+    }
+
+    /**
+     * Read a column of the alias.
+     * @param column Name of the column
+     * @return Value
+     * @throws IOException If fails
+     */
+    private String column(final String column) throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                .sql(
+                    String.format(
+                        "SELECT %s FROM alias WHERE name = ?", column
+                    )
+                )
+                .set(this.label)
+                .select(new SingleOutcome<String>(String.class));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Change a column of the alias.
+     * @param column Name of the column
+     * @param value New value
+     * @throws IOException If fails
+     */
+    private void update(final String column, final String value)
+        throws IOException {
+        try {
+            new JdbcSession(this.sql.source())
+                .sql(
+                    String.format(
+                        "UPDATE alias SET %s = ? WHERE name = ?", column
+                    )
+                )
+                .set(value)
+                .set(this.label)
+                .update(Outcome.VOID);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.jdbc.JdbcSession;
+import com.jcabi.jdbc.ListOutcome;
+import com.jcabi.jdbc.Outcome;
+import com.jcabi.log.Logger;
+import com.jcabi.urn.URN;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Aliases;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * JDBC Aliases.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString(of = "urn")
+@Loggable(Loggable.DEBUG)
+@EqualsAndHashCode(of = { "sql", "urn" })
+final class JdAliases implements Aliases {
+
+    /**
+     * SQL database.
+     */
+    private final transient Sql sql;
+
+    /**
+     * URN of the user.
+     */
+    private final transient URN urn;
+
+    /**
+     * Ctor.
+     * @param src SQL database
+     * @param name URN of the user
+     */
+    JdAliases(final Sql src, final URN name) {
+        this.sql = src;
+        this.urn = name;
+    }
+
+    @Override
+    public String check(final String name) throws IOException {
+        final String answer;
+        if (name.length() < Tv.FOUR) {
+            answer = "too short, must be 4 letters at least";
+        } else if (name.length() > Tv.TWENTY) {
+            answer = "too long, must be 20 letters at most";
+        } else if (name.matches("[a-z0-9]+")) {
+            if (this.occupied(name)) {
+                answer = "this alias is occupied";
+            } else {
+                answer = "";
+            }
+        } else {
+            answer = "only lower case English letters and numbers are accepted";
+        }
+        return answer;
+    }
+
+    @Override
+    public Alias add(final String name) throws IOException {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("alias can't be empty");
+        }
+        if (name.length() > Tv.HUNDRED) {
+            throw new IllegalArgumentException("alias is too long");
+        }
+        if (this.occupied(name)) {
+            throw new IllegalArgumentException(
+                String.format("alias '%s' is occupied", name)
+            );
+        }
+        try {
+            new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("INSERT INTO alias (name, urn, photo, locale, email) VALUES (?, ?, ?, ?, ?)")
+                .set(name)
+                .set(this.urn.toString())
+                .set(Alias.BLANK.toString())
+                .set(Locale.ENGLISH.toString())
+                .set("")
+                .insert(Outcome.VOID);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        Logger.info(this, "alias @%s added to %s", name, this.urn);
+        return new JdAlias(this.sql, name);
+    }
+
+    @Override
+    public Iterable<Alias> iterate() throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                .sql("SELECT name FROM alias WHERE urn = ? ORDER BY name")
+                .set(this.urn.toString())
+                .select(
+                    new ListOutcome<Alias>(
+                        new ListOutcome.Mapping<Alias>() {
+                            @Override
+                            public Alias map(final ResultSet rset)
+                                throws SQLException {
+                                return new JdAlias(
+                                    JdAliases.this.sql, rset.getString(1)
+                                );
+                            }
+                        }
+                    )
+                );
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Is it occupied already?
+     * @param name Alias
+     * @return TRUE if occupied
+     * @throws IOException If fails
+     */
+    private boolean occupied(final String name) throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                .sql("SELECT name FROM alias WHERE name = ?")
+                .set(name)
+                .select(Outcome.NOT_EMPTY);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.jdbc.JdbcSession;
+import com.jcabi.jdbc.Outcome;
+import com.jcabi.jdbc.Preparation;
+import com.jcabi.jdbc.SingleOutcome;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Attachment;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+/**
+ * JDBC Attachment.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString(of = { "bout", "label" })
+@Loggable(Loggable.DEBUG)
+@EqualsAndHashCode(of = { "sql", "bout", "label" })
+final class JdAttachment implements Attachment {
+
+    /**
+     * Maximum size of content, in bytes.
+     */
+    private static final int MAX = Tv.TEN * Tv.MILLION;
+
+    /**
+     * SQL database.
+     */
+    private final transient Sql sql;
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long bout;
+
+    /**
+     * Name of the attachment.
+     */
+    private final transient String label;
+
+    /**
+     * Ctor.
+     * @param src SQL database
+     * @param bot Number of the bout
+     * @param name Name of the attachment
+     */
+    JdAttachment(final Sql src, final long bot, final String name) {
+        this.sql = src;
+        this.bout = bot;
+        this.label = name;
+    }
+
+    @Override
+    public String name() {
+        return this.label;
+    }
+
+    @Override
+    public String ctype() throws IOException {
+        return this.column("ctype");
+    }
+
+    @Override
+    public String etag() throws IOException {
+        return this.column("etag");
+    }
+
+    @Override
+    public boolean unseen() {
+        return false;
+    }
+
+    @Override
+    public InputStream read() throws IOException {
+        try {
+            return new ByteArrayInputStream(
+                new JdbcSession(this.sql.source())
+                    // @checkstyle LineLength (1 line)
+                    .sql("SELECT data FROM attachment WHERE bout = ? AND name = ?")
+                    .set(this.bout)
+                    .set(this.label)
+                    .select(
+                        new Outcome<byte[]>() {
+                            @Override
+                            public byte[] handle(final ResultSet rset,
+                                final Statement stmt) throws SQLException {
+                                if (!rset.next()) {
+                                    throw new SQLException(
+                                        "attachment not found"
+                                    );
+                                }
+                                return rset.getBytes(1);
+                            }
+                        }
+                    )
+            );
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public void write(final InputStream stream, final String ctype,
+        final String etag) throws IOException {
+        if (etag.isEmpty()) {
+            throw new Attachment.BrokenContentException(
+                "etag can't be empty"
+            );
+        }
+        if (etag.length() > 2 * Tv.HUNDRED) {
+            throw new Attachment.BrokenContentException(
+                "etag is too big, 200 bytes maximum is allowed"
+            );
+        }
+        if (ctype.isEmpty()) {
+            throw new Attachment.BrokenContentException(
+                "ctype is empty"
+            );
+        }
+        if (ctype.length() > Tv.HUNDRED) {
+            throw new Attachment.BrokenContentException(
+                "ctype is too long, 100 bytes maximum allowed"
+            );
+        }
+        final byte[] data = IOUtils.toByteArray(
+            new BoundedInputStream(stream, (long) JdAttachment.MAX + 1L)
+        );
+        if (data.length > JdAttachment.MAX) {
+            throw new Attachment.TooBigException(
+                String.format(
+                    "attachment \"%s\" is too big, %d bytes maximum",
+                    this.label, JdAttachment.MAX
+                )
+            );
+        }
+        if (data.length == 0) {
+            throw new Attachment.BrokenContentException(
+                String.format(
+                    "content of attachment \"%s\" can't be empty",
+                    this.label
+                )
+            );
+        }
+        final int updated;
+        try {
+            final JdbcSession session = new JdbcSession(this.sql.source())
+                .autocommit(false);
+            updated = session
+                // @checkstyle LineLength (1 line)
+                .sql("UPDATE attachment SET ctype = ?, etag = ?, data = ? WHERE bout = ? AND name = ? AND etag <> ?")
+                .prepare(
+                    new Preparation() {
+                        @Override
+                        public void prepare(final PreparedStatement stmt)
+                            throws SQLException {
+                            stmt.setString(1, ctype);
+                            stmt.setString(2, etag);
+                            stmt.setBytes(Tv.THREE, data);
+                            stmt.setLong(Tv.FOUR, JdAttachment.this.bout);
+                            stmt.setString(Tv.FIVE, JdAttachment.this.label);
+                            stmt.setString(Tv.SIX, etag);
+                        }
+                    }
+                )
+                .update(Outcome.UPDATE_COUNT);
+            if (updated > 0) {
+                JdBout.touch(session, this.bout);
+            }
+            session.commit();
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        if (updated > 0) {
+            Logger.info(
+                this, "attachment %s (%d bytes) uploaded into #%d",
+                this.label, data.length, this.bout
+            );
+        }
+    }
+
+    /**
+     * Read a column of the attachment.
+     * @param column Name of the column
+     * @return Value
+     * @throws IOException If fails
+     */
+    private String column(final String column) throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                .sql(
+                    String.format(
+                        "SELECT %s FROM attachment WHERE bout = ? AND name = ?",
+                        column
+                    )
+                )
+                .set(this.bout)
+                .set(this.label)
+                .select(new SingleOutcome<String>(String.class));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+}
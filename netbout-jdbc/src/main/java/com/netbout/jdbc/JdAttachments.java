@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.jdbc.JdbcSession;
+import com.jcabi.jdbc.ListOutcome;
+import com.jcabi.jdbc.Outcome;
+import com.jcabi.jdbc.Preparation;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Attachment;
+import com.netbout.spi.Attachments;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * JDBC Attachments.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString(of = { "bout", "self" })
+@Loggable(Loggable.DEBUG)
+@EqualsAndHashCode(of = { "sql", "bout", "self" })
+final class JdAttachments implements Attachments {
+
+    /**
+     * SQL database.
+     */
+    private final transient Sql sql;
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long bout;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Ctor.
+     * @param src SQL database
+     * @param bot Number of the bout
+     * @param slf My alias
+     */
+    JdAttachments(final Sql src, final long bot, final String slf) {
+        this.sql = src;
+        this.bout = bot;
+        this.self = slf;
+    }
+
+    @Override
+    public int unseen() {
+        return 0;
+    }
+
+    @Override
+    public void create(final String name) throws IOException {
+        if (!name.matches("[a-zA-Z\\.\\-0-9]{3,100}")) {
+            throw new Attachments.InvalidNameException(
+                String.format(
+                    "invalid attachment name \"%s\". %s%s",
+                    name,
+                    "Attachment name can contains letters in upper ",
+                    "or lower case, numbers, dots, dashes."
+                )
+            );
+        }
+        try {
+            final JdbcSession session = new JdbcSession(this.sql.source())
+                .autocommit(false);
+            session
+                // @checkstyle LineLength (1 line)
+                .sql("INSERT INTO attachment (bout, name, author, ctype, etag, data) VALUES (?, ?, ?, ?, ?, ?)")
+                .set(this.bout)
+                .set(name)
+                .set(this.self)
+                .set("text/plain")
+                .set("empty")
+                .prepare(
+                    new Preparation() {
+                        @Override
+                        public void prepare(final PreparedStatement stmt)
+                            throws SQLException {
+                            stmt.setBytes(
+                                Tv.SIX, " ".getBytes(StandardCharsets.UTF_8)
+                            );
+                        }
+                    }
+                )
+                .insert(Outcome.VOID);
+            JdBout.touch(session, this.bout);
+            session.commit();
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        Logger.info(this, "attachment %s created in #%d", name, this.bout);
+    }
+
+    @Override
+    public void delete(final String name) throws IOException {
+        if (name.isEmpty()) {
+            throw new Attachments.InvalidNameException(
+                "attachment name can't be empty"
+            );
+        }
+        if (name.length() > Tv.HUNDRED) {
+            throw new Attachments.InvalidNameException(
+                String.format("attachment name \"%s\" is too long", name)
+            );
+        }
+        final int deleted;
+        try {
+            deleted = new JdbcSession(this.sql.source())
+                .sql("DELETE FROM attachment WHERE bout = ? AND name = ?")
+                .set(this.bout)
+                .set(name)
+                .update(Outcome.UPDATE_COUNT);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        if (deleted == 0) {
+            throw new Attachments.InvalidNameException(
+                String.format(
+                    "attachment \"%s\" not found, can't delete", name
+                )
+            );
+        }
+        Logger.info(this, "attachment %s deleted from #%d", name, this.bout);
+    }
+
+    @Override
+    public Attachment get(final String name) throws IOException {
+        final boolean exists;
+        try {
+            exists = new JdbcSession(this.sql.source())
+                .sql("SELECT name FROM attachment WHERE bout = ? AND name = ?")
+                .set(this.bout)
+                .set(name)
+                .select(Outcome.NOT_EMPTY);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        if (!exists) {
+            throw new Attachments.NotFoundException(
+                String.format("attachment \"%s\" not found", name)
+            );
+        }
+        return new JdAttachment(this.sql, this.bout, name);
+    }
+
+    @Override
+    public Iterable<Attachment> iterate() throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("SELECT name FROM attachment WHERE bout = ? ORDER BY name")
+                .set(this.bout)
+                .select(
+                    new ListOutcome<Attachment>(
+                        new ListOutcome.Mapping<Attachment>() {
+                            @Override
+                            public Attachment map(final ResultSet rset)
+                                throws SQLException {
+                                return new JdAttachment(
+                                    JdAttachments.this.sql,
+                                    JdAttachments.this.bout,
+                                    rset.getString(1)
+                                );
+                            }
+                        }
+                    )
+                );
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+}
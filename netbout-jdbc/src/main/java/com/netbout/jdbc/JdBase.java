@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.urn.URN;
+import com.netbout.spi.Base;
+import com.netbout.spi.User;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * JDBC Base.
+ *
+ * <p>Everything is kept in an SQL database, available through a pool of
+ * JDBC connections, see {@link Sql}. Tables and indexes are created
+ * when the base is made, if they don't exist yet. The base must be closed
+ * to release the connections.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "sql")
+@EqualsAndHashCode(of = "sql")
+public final class JdBase implements Base {
+
+    /**
+     * SQL database.
+     */
+    private final transient Sql sql;
+
+    /**
+     * Public ctor.
+     * @param url JDBC URL
+     * @param user User name
+     * @param password Password
+     * @throws IOException If fails to connect
+     */
+    public JdBase(final String url, final String user, final String password)
+        throws IOException {
+        this(url, user, password, Tv.TWENTY);
+    }
+
+    /**
+     * Public ctor.
+     * @param url JDBC URL
+     * @param user User name
+     * @param password Password
+     * @param size Maximum number of connections
+     * @throws IOException If fails to connect
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public JdBase(final String url, final String user, final String password,
+        final int size) throws IOException {
+        this.sql = new Sql(url, user, password, size);
+        this.sql.open();
+    }
+
+    @Override
+    public User user(final URN urn) {
+        return new JdUser(this.sql, urn);
+    }
+
+    @Override
+    public void close() {
+        this.sql.close();
+    }
+
+}
@@ -0,0 +1,226 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.jdbc.JdbcSession;
+import com.jcabi.jdbc.Outcome;
+import com.jcabi.jdbc.SingleOutcome;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Attachments;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friends;
+import com.netbout.spi.Messages;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Date;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * JDBC Bout.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString(of = { "bout", "self" })
+@Loggable(Loggable.DEBUG)
+@EqualsAndHashCode(of = { "sql", "bout", "self" })
+@SuppressWarnings("PMD.TooManyMethods")
+final class JdBout implements Bout {
+
+    /**
+     * SQL database.
+     */
+    private final transient Sql sql;
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long bout;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Ctor.
+     * @param src SQL database
+     * @param bot Number of the bout
+     * @param slf My alias
+     */
+    JdBout(final Sql src, final long bot, final String slf) {
+        this.sql = src;
+        this.bout = bot;
+        this.self = slf;
+    }
+
+    @Override
+    public long number() {
+        return this.bout;
+    }
+
+    @Override
+    public Date date() throws IOException {
+        return new Date(this.time("date"));
+    }
+
+    @Override
+    public Date updated() throws IOException {
+        return new Date(this.time("updated"));
+    }
+
+    @Override
+    public String title() throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                .sql("SELECT title FROM bout WHERE number = ?")
+                .set(this.bout)
+                .select(new SingleOutcome<String>(String.class));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public void rename(final String text) throws IOException {
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("bout title can't be empty");
+        }
+        if (text.length() > 2 * Tv.HUNDRED) {
+            throw new IllegalArgumentException("bout name is too long");
+        }
+        try {
+            final JdbcSession session = new JdbcSession(this.sql.source())
+                .autocommit(false);
+            session.sql("UPDATE bout SET title = ? WHERE number = ?")
+                .set(text)
+                .set(this.bout)
+                .update(Outcome.VOID);
+            JdBout.touch(session, this.bout);
+            session.commit();
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        Logger.info(this, "bout #%d renamed to \"%s\"", this.bout, text);
+    }
+
+    @Override
+    public boolean subscription() throws IOException {
+        return this.subscription(this.self);
+    }
+
+    @Override
+    public boolean subscription(final String alias) throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("SELECT subscription FROM friend WHERE bout = ? AND alias = ?")
+                .set(this.bout)
+                .set(alias)
+                .select(new SingleOutcome<Boolean>(Boolean.class));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public void subscribe(final boolean subs) throws IOException {
+        try {
+            new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("UPDATE friend SET subscription = ? WHERE bout = ? AND alias = ?")
+                .set(subs)
+                .set(this.bout)
+                .set(this.self)
+                .update(Outcome.VOID);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public Messages messages() {
+        return new JdMessages(this.sql, this.bout, this.self);
+    }
+
+    @Override
+    public Friends friends() {
+        return new JdFriends(this.sql, this.bout);
+    }
+
+    @Override
+    public Attachments attachments() {
+        return new JdAttachments(this.sql, this.bout, this.self);
+    }
+
+    /**
+     * Mark the bout as updated right now, in all inboxes.
+     * @param session Session to use
+     * @param number Number of the bout
+     * @throws SQLException If fails
+     */
+    static void touch(final JdbcSession session, final long number)
+        throws SQLException {
+        final long now = System.currentTimeMillis();
+        session.sql("UPDATE bout SET updated = ? WHERE number = ?")
+            .set(now)
+            .set(number)
+            .update(Outcome.VOID);
+        session.sql("UPDATE friend SET updated = ? WHERE bout = ?")
+            .set(now)
+            .set(number)
+            .update(Outcome.VOID);
+    }
+
+    /**
+     * Read a time column of the bout.
+     * @param column Name of the column
+     * @return Time in milliseconds
+     * @throws IOException If fails
+     */
+    private long time(final String column) throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                .sql(
+                    String.format(
+                        "SELECT %s FROM bout WHERE number = ?", column
+                    )
+                )
+                .set(this.bout)
+                .select(new SingleOutcome<Long>(Long.class));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.jdbc.JdbcSession;
+import com.jcabi.jdbc.ListOutcome;
+import com.jcabi.jdbc.Outcome;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Friends;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * JDBC Friends.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString(of = "bout")
+@Loggable(Loggable.DEBUG)
+@EqualsAndHashCode(of = { "sql", "bout" })
+final class JdFriends implements Friends {
+
+    /**
+     * SQL database.
+     */
+    private final transient Sql sql;
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long bout;
+
+    /**
+     * Ctor.
+     * @param src SQL database
+     * @param bot Number of the bout
+     */
+    JdFriends(final Sql src, final long bot) {
+        this.sql = src;
+        this.bout = bot;
+    }
+
+    @Override
+    public void invite(final String friend) throws IOException {
+        final String alias = JdFriends.clean(friend);
+        try {
+            final boolean exists = new JdbcSession(this.sql.source())
+                .sql("SELECT name FROM alias WHERE name = ?")
+                .set(alias)
+                .select(Outcome.NOT_EMPTY);
+            if (!exists) {
+                throw new Friends.UnknownAliasException(
+                    String.format("alias '%s' doesn't exist", friend)
+                );
+            }
+            if (!this.has(alias)) {
+                final JdbcSession session = new JdbcSession(this.sql.source())
+                    .autocommit(false);
+                session
+                    // @checkstyle LineLength (1 line)
+                    .sql("INSERT INTO friend (bout, alias, subscription, unread, updated) VALUES (?, ?, TRUE, 0, 0)")
+                    .set(this.bout)
+                    .set(alias)
+                    .insert(Outcome.VOID);
+                JdBout.touch(session, this.bout);
+                session.commit();
+            }
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        Logger.info(this, "@%s invited to #%d", friend, this.bout);
+    }
+
+    @Override
+    public void kick(final String friend) throws IOException {
+        final String alias = JdFriends.clean(friend);
+        if (!this.has(alias)) {
+            throw new Friends.UnknownAliasException(
+                String.format("alias '%s' is not in the bout", friend)
+            );
+        }
+        try {
+            new JdbcSession(this.sql.source())
+                .sql("DELETE FROM friend WHERE bout = ? AND alias = ?")
+                .set(this.bout)
+                .set(alias)
+                .update(Outcome.VOID);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        Logger.info(this, "@%s kicked off #%d", friend, this.bout);
+    }
+
+    @Override
+    public Iterable<Friend> iterate() throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                .sql("SELECT alias FROM friend WHERE bout = ? ORDER BY alias")
+                .set(this.bout)
+                .select(
+                    new ListOutcome<Friend>(
+                        new ListOutcome.Mapping<Friend>() {
+                            @Override
+                            public Friend map(final ResultSet rset)
+                                throws SQLException {
+                                return new JdFriend(
+                                    JdFriends.this.sql, rset.getString(1)
+                                );
+                            }
+                        }
+                    )
+                );
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Is this alias in the bout?
+     * @param alias Alias
+     * @return TRUE if it is
+     * @throws IOException If fails
+     */
+    private boolean has(final String alias) throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                .sql("SELECT alias FROM friend WHERE bout = ? AND alias = ?")
+                .set(this.bout)
+                .set(alias)
+                .select(Outcome.NOT_EMPTY);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Clean alias of a friend.
+     * @param friend Alias as it was given
+     * @return Clean alias
+     */
+    private static String clean(final String friend) {
+        final String alias = StringUtils.strip(friend, " @\n\t\r");
+        if (alias.isEmpty()) {
+            throw new IllegalArgumentException("alias can't be empty");
+        }
+        if (alias.length() > Tv.HUNDRED) {
+            throw new IllegalArgumentException("alias is too long");
+        }
+        return alias;
+    }
+
+}
@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.jdbc.JdbcSession;
+import com.jcabi.jdbc.ListOutcome;
+import com.jcabi.jdbc.Outcome;
+import com.jcabi.jdbc.SingleOutcome;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Pageable;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * JDBC Inbox.
+ *
+ * <p>Bouts are listed page by page, from the most recently updated,
+ * right from the {@code friend_inbox} index, see {@link Stamp}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString(of = { "self", "since" })
+@Loggable(Loggable.DEBUG)
+@EqualsAndHashCode(of = { "sql", "self", "since" })
+final class JdInbox implements Inbox {
+
+    /**
+     * Mapping of rows with bout and time of update.
+     */
+    private static final ListOutcome.Mapping<Stamp> STAMPS =
+        new ListOutcome.Mapping<Stamp>() {
+            @Override
+            public Stamp map(final ResultSet rset) throws SQLException {
+                return new Stamp(rset.getLong(2), rset.getLong(1));
+            }
+        };
+
+    /**
+     * SQL database.
+     */
+    private final transient Sql sql;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Time of update to start before.
+     */
+    private final transient long since;
+
+    /**
+     * Ctor.
+     * @param src SQL database
+     * @param name My alias
+     */
+    JdInbox(final Sql src, final String name) {
+        this(src, name, Inbox.NEVER);
+    }
+
+    /**
+     * Ctor.
+     * @param src SQL database
+     * @param name My alias
+     * @param start Time of update to start before
+     */
+    JdInbox(final Sql src, final String name, final long start) {
+        this.sql = src;
+        this.self = name;
+        this.since = start;
+    }
+
+    @Override
+    public long start() throws IOException {
+        final long now = System.currentTimeMillis();
+        final long number;
+        try {
+            final JdbcSession session = new JdbcSession(this.sql.source())
+                .autocommit(false);
+            number = session
+                // @checkstyle LineLength (1 line)
+                .sql("INSERT INTO bout (title, date, updated) VALUES (?, ?, ?)")
+                .set("untitled")
+                .set(now)
+                .set(now)
+                .insert(new SingleOutcome<Long>(Long.class));
+            session
+                // @checkstyle LineLength (1 line)
+                .sql("INSERT INTO friend (bout, alias, subscription, unread, updated) VALUES (?, ?, TRUE, 0, ?)")
+                .set(number)
+                .set(this.self)
+                .set(now)
+                .insert(Outcome.VOID);
+            session.commit();
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        Logger.info(this, "bout #%d started by @%s", number, this.self);
+        return number;
+    }
+
+    @Override
+    public long unread() throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("SELECT COALESCE(SUM(unread), 0) FROM friend WHERE alias = ?")
+                .set(this.self)
+                .select(new SingleOutcome<Long>(Long.class));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    @Loggable(
+        value = Loggable.DEBUG,
+        ignore = Inbox.BoutNotFoundException.class
+    )
+    public Bout bout(final long number) throws Inbox.BoutNotFoundException {
+        final boolean mine;
+        try {
+            mine = new JdbcSession(this.sql.source())
+                .sql("SELECT bout FROM friend WHERE bout = ? AND alias = ?")
+                .set(number)
+                .set(this.self)
+                .select(Outcome.NOT_EMPTY);
+        } catch (final SQLException ex) {
+            throw new Inbox.BoutNotFoundException(number, ex);
+        }
+        if (!mine) {
+            throw new Inbox.BoutNotFoundException(number);
+        }
+        return new JdBout(this.sql, number, this.self);
+    }
+
+    @Override
+    public Pageable<Bout> jump(final long number) {
+        return new JdInbox(this.sql, this.self, number);
+    }
+
+    @Override
+    public Iterable<Bout> iterate() {
+        return this.bouts(
+            new Pages<Stamp, Stamp>(
+                new Pages.Source<Stamp, Stamp>() {
+                    @Override
+                    public List<Stamp> page(final Stamp after)
+                        throws IOException {
+                        return JdInbox.this.page(after, Inbox.PAGE);
+                    }
+                    @Override
+                    public Stamp key(final Stamp item) {
+                        return item;
+                    }
+                },
+                new Stamp(this.since, Long.MIN_VALUE)
+            )
+        );
+    }
+
+    @Override
+    public Pageable.Page<Bout> page(final String cursor) throws IOException {
+        Stamp after = new Stamp(Long.MAX_VALUE, Long.MAX_VALUE);
+        if (!cursor.isEmpty()) {
+            final Pageable.Keyset key = new Pageable.Keyset(cursor, 2);
+            after = new Stamp(key.get(0), key.get(1));
+        }
+        final List<Stamp> stamps = this.page(after, Inbox.PAGE + 1);
+        String next = "";
+        if (stamps.size() > Inbox.PAGE) {
+            final Stamp last = stamps.get(Inbox.PAGE - 1);
+            next = new Pageable.Keyset(last.updated(), last.number())
+                .toString();
+        }
+        return new Pageable.Page<>(
+            Lists.newArrayList(
+                this.bouts(Iterables.limit(stamps, Inbox.PAGE))
+            ),
+            next
+        );
+    }
+
+    @Override
+    public Pageable.Page<Inbox.Row> rows(final String cursor)
+        throws IOException {
+        return Inbox.Row.hydrate(this.page(cursor));
+    }
+
+    @Override
+    public Iterable<Bout> search(final String term) throws IOException {
+        try {
+            return this.bouts(
+                new JdbcSession(this.sql.source())
+                    // @checkstyle LineLength (1 line)
+                    .sql("SELECT f.bout, f.updated FROM friend f WHERE f.alias = ? AND EXISTS (SELECT m.number FROM message m WHERE m.bout = f.bout AND m.text LIKE ? ESCAPE '!') ORDER BY f.updated DESC, f.bout DESC LIMIT ?")
+                    .set(this.self)
+                    .set(String.format("%%%s%%", Sql.escape(term)))
+                    .set(Inbox.PAGE)
+                    .select(new ListOutcome<Stamp>(JdInbox.STAMPS))
+            );
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Fetch one page of bouts.
+     * @param after Position to start after
+     * @param limit Maximum number of bouts
+     * @return Positions of bouts, not more than the limit
+     * @throws IOException If fails
+     */
+    private List<Stamp> page(final Stamp after, final int limit)
+        throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("SELECT bout, updated FROM friend WHERE alias = ? AND (updated < ? OR updated = ? AND bout < ?) ORDER BY updated DESC, bout DESC LIMIT ?")
+                .set(this.self)
+                .set(after.updated())
+                .set(after.updated())
+                .set(after.number())
+                .set(limit)
+                .select(new ListOutcome<Stamp>(JdInbox.STAMPS));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Bouts by positions.
+     * @param stamps Positions of bouts
+     * @return Bouts
+     */
+    private Iterable<Bout> bouts(final Iterable<Stamp> stamps) {
+        return Iterables.transform(
+            stamps,
+            new Function<Stamp, Bout>() {
+                @Override
+                public Bout apply(final Stamp stamp) {
+                    return new Bout.ReadOnly(
+                        new JdBout(
+                            JdInbox.this.sql, stamp.number(), JdInbox.this.self
+                        )
+                    );
+                }
+            }
+        );
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Message;
+import java.util.Date;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * JDBC Message.
+ *
+ * <p>All columns of the message are fetched together with the page of
+ * messages it belongs to, see {@link JdMessages}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString(of = { "num", "alias" })
+@Loggable(Loggable.DEBUG)
+@EqualsAndHashCode(of = "num")
+final class JdMessage implements Message {
+
+    /**
+     * Number of the message.
+     */
+    private final transient long num;
+
+    /**
+     * Date of the message.
+     */
+    private final transient long time;
+
+    /**
+     * Author of the message.
+     */
+    private final transient String alias;
+
+    /**
+     * Text of the message.
+     */
+    private final transient String body;
+
+    /**
+     * Ctor.
+     * @param number Number of the message
+     * @param date Date of the message
+     * @param author Author of the message
+     * @param text Text of the message
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    JdMessage(final long number, final long date, final String author,
+        final String text) {
+        this.num = number;
+        this.time = date;
+        this.alias = author;
+        this.body = text;
+    }
+
+    @Override
+    public long number() {
+        return this.num;
+    }
+
+    @Override
+    public Date date() {
+        return new Date(this.time);
+    }
+
+    @Override
+    public String text() {
+        return this.body;
+    }
+
+    @Override
+    public String author() {
+        return this.alias;
+    }
+
+}
@@ -0,0 +1,277 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.jdbc.JdbcSession;
+import com.jcabi.jdbc.ListOutcome;
+import com.jcabi.jdbc.Outcome;
+import com.jcabi.jdbc.SingleOutcome;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Message;
+import com.netbout.spi.Messages;
+import com.netbout.spi.Pageable;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * JDBC Messages.
+ *
+ * <p>Messages are listed page by page, from the newest, right from the
+ * {@code message_bout} index, see {@link Pages}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString(of = { "bout", "self", "start" })
+@Loggable(Loggable.DEBUG)
+@EqualsAndHashCode(of = { "sql", "bout", "self", "start" })
+final class JdMessages implements Messages {
+
+    /**
+     * Mapping of rows with messages.
+     */
+    private static final ListOutcome.Mapping<Message> MESSAGES =
+        new ListOutcome.Mapping<Message>() {
+            @Override
+            public Message map(final ResultSet rset) throws SQLException {
+                return new JdMessage(
+                    rset.getLong(1), rset.getLong(2), rset.getString(Tv.THREE),
+                    rset.getString(Tv.FOUR)
+                );
+            }
+        };
+
+    /**
+     * SQL database.
+     */
+    private final transient Sql sql;
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long bout;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Number of the message to start below.
+     */
+    private final transient long start;
+
+    /**
+     * Ctor.
+     * @param src SQL database
+     * @param bot Number of the bout
+     * @param slf My alias
+     */
+    JdMessages(final Sql src, final long bot, final String slf) {
+        this(src, bot, slf, Inbox.NEVER);
+    }
+
+    /**
+     * Ctor.
+     * @param src SQL database
+     * @param bot Number of the bout
+     * @param slf My alias
+     * @param strt Number of the message to start below
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    JdMessages(final Sql src, final long bot, final String slf,
+        final long strt) {
+        this.sql = src;
+        this.bout = bot;
+        this.self = slf;
+        this.start = strt;
+    }
+
+    @Override
+    public void post(final String text) throws IOException {
+        final String clean = StringUtils.strip(text);
+        if (clean.isEmpty()) {
+            throw new Messages.BrokenPostException(
+                "empty message content is not allowed"
+            );
+        }
+        if (clean.length() > Tv.TEN * Tv.THOUSAND) {
+            throw new Messages.BrokenPostException(
+                "message is too big, break it into parts or upload attachment"
+            );
+        }
+        try {
+            final JdbcSession session = new JdbcSession(this.sql.source())
+                .autocommit(false);
+            session
+                // @checkstyle LineLength (1 line)
+                .sql("INSERT INTO message (bout, author, date, text) VALUES (?, ?, ?, ?)")
+                .set(this.bout)
+                .set(this.self)
+                .set(System.currentTimeMillis())
+                .set(clean)
+                .insert(Outcome.VOID);
+            session
+                // @checkstyle LineLength (1 line)
+                .sql("UPDATE friend SET unread = unread + 1 WHERE bout = ? AND alias <> ?")
+                .set(this.bout)
+                .set(this.self)
+                .update(Outcome.VOID);
+            JdBout.touch(session, this.bout);
+            session.commit();
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+        Logger.info(this, "posted to #%d by @%s", this.bout, this.self);
+    }
+
+    @Override
+    public long unread() throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("SELECT COALESCE(SUM(unread), 0) FROM friend WHERE bout = ? AND alias = ?")
+                .set(this.bout)
+                .set(this.self)
+                .select(new SingleOutcome<Long>(Long.class));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public Pageable<Message> jump(final long number) {
+        return new JdMessages(this.sql, this.bout, this.self, number);
+    }
+
+    @Override
+    public Iterable<Message> iterate() throws IOException {
+        if (this.start != Long.MAX_VALUE) {
+            this.seen();
+        }
+        return new Pages<Long, Message>(
+            new Pages.Source<Long, Message>() {
+                @Override
+                public List<Message> page(final Long after)
+                    throws IOException {
+                    return JdMessages.this.page(after, Messages.PAGE);
+                }
+                @Override
+                public Long key(final Message item) throws IOException {
+                    return item.number();
+                }
+            },
+            this.start
+        );
+    }
+
+    @Override
+    public Pageable.Page<Message> page(final String cursor)
+        throws IOException {
+        long after = Long.MAX_VALUE;
+        if (!cursor.isEmpty()) {
+            after = new Pageable.Keyset(cursor, 1).get(0);
+        }
+        final List<Message> msgs = this.page(after, Messages.PAGE + 1);
+        this.seen();
+        String next = "";
+        if (msgs.size() > Messages.PAGE) {
+            next = new Pageable.Keyset(
+                msgs.get(Messages.PAGE - 1).number()
+            ).toString();
+        }
+        return new Pageable.Page<>(
+            msgs.subList(0, Math.min(msgs.size(), Messages.PAGE)), next
+        );
+    }
+
+    @Override
+    public Iterable<Message> search(final String term) throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("SELECT number, date, author, text FROM message WHERE bout = ? AND text LIKE ? ESCAPE '!' ORDER BY number DESC LIMIT ?")
+                .set(this.bout)
+                .set(String.format("%%%s%%", Sql.escape(term)))
+                .set(Messages.PAGE)
+                .select(new ListOutcome<Message>(JdMessages.MESSAGES));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Fetch one page of messages.
+     * @param after Number of the message to start below
+     * @param limit Maximum number of messages
+     * @return Messages, not more than the limit
+     * @throws IOException If fails
+     */
+    private List<Message> page(final long after, final int limit)
+        throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("SELECT number, date, author, text FROM message WHERE bout = ? AND number < ? ORDER BY number DESC LIMIT ?")
+                .set(this.bout)
+                .set(after)
+                .set(limit)
+                .select(new ListOutcome<Message>(JdMessages.MESSAGES));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Mark all messages as seen by me.
+     * @throws IOException If fails
+     */
+    private void seen() throws IOException {
+        try {
+            new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("UPDATE friend SET unread = 0 WHERE bout = ? AND alias = ? AND unread > 0")
+                .set(this.bout)
+                .set(this.self)
+                .update(Outcome.VOID);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+}
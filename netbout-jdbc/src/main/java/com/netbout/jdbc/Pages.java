@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.google.common.collect.AbstractIterator;
+import com.jcabi.aspects.Immutable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Iterable, which reads items page by page, on demand.
+ *
+ * <p>Every page is fetched by one query, which starts right after the key
+ * of the last item of the previous page (keyset pagination), so that
+ * the database never skips rows of previous pages.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @param <K> Type of keys
+ * @param <T> Type of items
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = { "source", "first" })
+final class Pages<K, T> implements Iterable<T> {
+
+    /**
+     * Source of pages.
+     */
+    private final transient Pages.Source<K, T> source;
+
+    /**
+     * Key to start after.
+     */
+    private final transient K first;
+
+    /**
+     * Ctor.
+     * @param src Source of pages
+     * @param start Key to start after
+     */
+    Pages(final Pages.Source<K, T> src, final K start) {
+        this.source = src;
+        this.first = start;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        final Queue<T> buffer = new LinkedList<>();
+        // @checkstyle AnonInnerLengthCheck (50 lines)
+        return new AbstractIterator<T>() {
+            private K last = Pages.this.first;
+            private boolean done;
+            @Override
+            protected T computeNext() {
+                if (buffer.isEmpty() && !this.done) {
+                    final List<T> page;
+                    try {
+                        page = Pages.this.source.page(this.last);
+                    } catch (final IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                    this.done = page.isEmpty();
+                    buffer.addAll(page);
+                }
+                final T next;
+                if (buffer.isEmpty()) {
+                    next = this.endOfData();
+                } else {
+                    next = buffer.poll();
+                    try {
+                        this.last = Pages.this.source.key(next);
+                    } catch (final IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+                return next;
+            }
+        };
+    }
+
+    /**
+     * Source of pages.
+     * @param <K> Type of keys
+     * @param <T> Type of items
+     */
+    @Immutable
+    interface Source<K, T> {
+        /**
+         * Read one page.
+         * @param after Key to start after, exclusively
+         * @return Items, empty if there is nothing after
+         * @throws IOException If fails
+         */
+        List<T> page(K after) throws IOException;
+        /**
+         * Key of the item.
+         * @param item The item
+         * @return Its key
+         * @throws IOException If fails
+         */
+        K key(T item) throws IOException;
+    }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.jdbc.JdbcSession;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * SQL database.
+ *
+ * <p>Connections are pooled by HikariCP. The pool of a database is
+ * shared by all objects of the same JDBC URL: it is created by the
+ * first {@link #open()} and closed by the {@link #close()}, which
+ * matches the last of them. Prepared statements are not cached by the
+ * pool, the JDBC driver does it, if it's configured to.
+ *
+ * <p>Tables are created if they don't exist yet, with the following keys
+ * and indexes:
+ *
+ * <pre>
+ * alias: (name), (urn, name)
+ * bout: (number)
+ * friend: (bout, alias), (alias, updated, bout)
+ * message: (number), (bout, number)
+ * attachment: (bout, name)
+ * </pre>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString(of = "url")
+@EqualsAndHashCode(of = "url")
+final class Sql implements Closeable {
+
+    /**
+     * Open pools, by JDBC URLs.
+     */
+    private static final ConcurrentMap<String, HikariDataSource> POOLS =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * How many times pools were opened and not closed yet, by JDBC URLs.
+     */
+    private static final Map<String, Integer> USERS = new HashMap<>(0);
+
+    /**
+     * Statements, which create the schema.
+     */
+    private static final String[] SCHEMA = {
+        // @checkstyle LineLength (12 lines)
+        "CREATE TABLE IF NOT EXISTS alias (name VARCHAR(100) PRIMARY KEY, urn VARCHAR(255) NOT NULL, photo VARCHAR(1024) NOT NULL, locale VARCHAR(16) NOT NULL, email VARCHAR(255) NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS alias_urn ON alias (urn, name)",
+        "CREATE TABLE IF NOT EXISTS bout (number BIGINT AUTO_INCREMENT PRIMARY KEY, title VARCHAR(255) NOT NULL, date BIGINT NOT NULL, updated BIGINT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS friend (bout BIGINT NOT NULL, alias VARCHAR(100) NOT NULL, subscription BOOLEAN NOT NULL, unread BIGINT NOT NULL, updated BIGINT NOT NULL, PRIMARY KEY (bout, alias))",
+        "CREATE INDEX IF NOT EXISTS friend_inbox ON friend (alias, updated, bout)",
+        "CREATE TABLE IF NOT EXISTS message (number BIGINT AUTO_INCREMENT PRIMARY KEY, bout BIGINT NOT NULL, author VARCHAR(100) NOT NULL, date BIGINT NOT NULL, text VARCHAR(10000) NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS message_bout ON message (bout, number)",
+        "CREATE TABLE IF NOT EXISTS attachment (bout BIGINT NOT NULL, name VARCHAR(100) NOT NULL, author VARCHAR(100) NOT NULL, ctype VARCHAR(100) NOT NULL, etag VARCHAR(200) NOT NULL, data BLOB NOT NULL, PRIMARY KEY (bout, name))",
+    };
+
+    /**
+     * JDBC URL.
+     */
+    private final transient String url;
+
+    /**
+     * User name.
+     */
+    private final transient String user;
+
+    /**
+     * Password.
+     */
+    private final transient String password;
+
+    /**
+     * Maximum number of connections.
+     */
+    private final transient int size;
+
+    /**
+     * Ctor.
+     * @param jdbc JDBC URL
+     * @param name User name
+     * @param pwd Password
+     * @param max Maximum number of connections
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    Sql(final String jdbc, final String name, final String pwd,
+        final int max) {
+        this.url = jdbc;
+        this.user = name;
+        this.password = pwd;
+        this.size = max;
+    }
+
+    /**
+     * Open the pool and create the schema, if it's not done yet.
+     *
+     * <p>Every call must be followed by one {@link #close()}.
+     *
+     * @throws IOException If fails
+     */
+    public void open() throws IOException {
+        synchronized (Sql.POOLS) {
+            if (!Sql.POOLS.containsKey(this.url)) {
+                final HikariConfig config = new HikariConfig();
+                config.setJdbcUrl(this.url);
+                config.setUsername(this.user);
+                config.setPassword(this.password);
+                config.setMaximumPoolSize(this.size);
+                config.setConnectionTimeout(
+                    TimeUnit.SECONDS.toMillis((long) Tv.THIRTY)
+                );
+                Sql.POOLS.put(this.url, new HikariDataSource(config));
+                Sql.USERS.put(this.url, 0);
+            }
+            Sql.USERS.put(this.url, Sql.USERS.get(this.url) + 1);
+        }
+        final JdbcSession session = new JdbcSession(this.source());
+        try {
+            for (final String stmt : Sql.SCHEMA) {
+                session.sql(stmt).execute();
+            }
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Get SQL source.
+     * @return Data source
+     */
+    public DataSource source() {
+        final DataSource source = Sql.POOLS.get(this.url);
+        if (source == null) {
+            throw new IllegalStateException(
+                String.format("%s is not open", this.url)
+            );
+        }
+        return source;
+    }
+
+    @Override
+    public void close() {
+        synchronized (Sql.POOLS) {
+            final Integer users = Sql.USERS.get(this.url);
+            if (users != null) {
+                if (users > 1) {
+                    Sql.USERS.put(this.url, users - 1);
+                } else {
+                    Sql.USERS.remove(this.url);
+                    Sql.POOLS.remove(this.url).close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Escape a term for LIKE, with escape character {@code !}.
+     * @param term The term
+     * @return Escaped term
+     */
+    static String escape(final String term) {
+        return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.jdbc;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.urn.URN;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Message;
+import com.netbout.spi.Pageable;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test case for {@link JdBase}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class JdBaseTest {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Rule
+    public final transient TemporaryFolder temp = new TemporaryFolder();
+
+    /**
+     * JdBase can make bouts, post messages and attach files.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void makesBoutsAndPostsMessages() throws Exception {
+        final JdBase base = this.base();
+        try {
+            base.user(new URN("urn:test:1")).aliases().add("jeff");
+            base.user(new URN("urn:test:2")).aliases().add("walter");
+            final Alias alias = base.user(new URN("urn:test:1"))
+                .aliases().iterate().iterator().next();
+            final Bout bout = alias.inbox().bout(alias.inbox().start());
+            bout.rename("hello");
+            bout.friends().invite("walter");
+            bout.messages().post("how are you?");
+            bout.messages().post("привет");
+            bout.attachments().create("a.txt");
+            bout.attachments().get("a.txt").write(
+                new ByteArrayInputStream(
+                    "some data".getBytes(StandardCharsets.UTF_8)
+                ),
+                "text/plain", "etag-1"
+            );
+            MatcherAssert.assertThat(
+                bout.messages().iterate().iterator().next().text(),
+                Matchers.equalTo("привет")
+            );
+            MatcherAssert.assertThat(
+                bout.friends().iterate(), Matchers.<Friend>iterableWithSize(2)
+            );
+            MatcherAssert.assertThat(
+                IOUtils.toString(
+                    bout.attachments().get("a.txt").read(),
+                    StandardCharsets.UTF_8
+                ),
+                Matchers.equalTo("some data")
+            );
+            final Inbox inbox = base.user(new URN("urn:test:2")).aliases()
+                .iterate().iterator().next().inbox();
+            MatcherAssert.assertThat(inbox.unread(), Matchers.equalTo(2L));
+            MatcherAssert.assertThat(
+                inbox.search("how").iterator().next().title(),
+                Matchers.equalTo("hello")
+            );
+        } finally {
+            base.close();
+        }
+    }
+
+    /**
+     * JdBase can page through messages and bouts by keys.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void pagesThroughMessagesAndBouts() throws Exception {
+        final JdBase base = this.base();
+        try {
+            base.user(new URN("urn:test:3")).aliases().add("frank");
+            final Inbox inbox = base.user(new URN("urn:test:3")).aliases()
+                .iterate().iterator().next().inbox();
+            final int total = Tv.TWENTY;
+            for (int idx = 0; idx < total; ++idx) {
+                inbox.start();
+            }
+            MatcherAssert.assertThat(
+                inbox.iterate(), Matchers.<Bout>iterableWithSize(total)
+            );
+            final Bout bout = inbox.bout(inbox.start());
+            for (int idx = 0; idx < total; ++idx) {
+                bout.messages().post(String.format("msg #%d", idx));
+            }
+            Pageable<Message> pageable = bout.messages();
+            int found = 0;
+            while (true) {
+                final Iterator<Message> iterator =
+                    pageable.iterate().iterator();
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                pageable = pageable.jump(iterator.next().number());
+                ++found;
+            }
+            MatcherAssert.assertThat(found, Matchers.equalTo(total));
+        } finally {
+            base.close();
+        }
+    }
+
+    /**
+     * JdBase can keep the pool open for other bases of the same database.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void sharesPoolWithOtherBases() throws Exception {
+        final String url = String.format(
+            "jdbc:h2:%s", this.temp.newFolder().getAbsolutePath()
+        );
+        final JdBase first = new JdBase(url, "", "");
+        final JdBase second = new JdBase(url, "", "");
+        try {
+            first.close();
+            second.user(new URN("urn:test:4")).aliases().add("shared");
+            MatcherAssert.assertThat(
+                second.user(new URN("urn:test:4")).aliases().iterate(),
+                Matchers.<Alias>iterableWithSize(1)
+            );
+        } finally {
+            second.close();
+        }
+    }
+
+    /**
+     * Make a base in a temporary H2 database.
+     * @return Base
+     * @throws Exception If fails
+     */
+    private JdBase base() throws Exception {
+        return new JdBase(
+            String.format(
+                "jdbc:h2:%s", this.temp.newFolder().getAbsolutePath()
+            ),
+            "", ""
+        );
+    }
+
+}
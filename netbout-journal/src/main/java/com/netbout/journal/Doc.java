@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Immutable;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Attachment, as it is kept in memory by {@link State}.
+ *
+ * <p>The content stays in the journal, only its {@link Pointer} is here.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = "label")
+final class Doc {
+
+    /**
+     * Name of the attachment.
+     */
+    private final transient String label;
+
+    /**
+     * Author of the last upload.
+     */
+    private final transient String alias;
+
+    /**
+     * Content type.
+     */
+    private final transient String type;
+
+    /**
+     * ETag.
+     */
+    private final transient String tag;
+
+    /**
+     * Position of the content.
+     */
+    private final transient Pointer pointer;
+
+    /**
+     * Ctor.
+     * @param name Name of the attachment
+     * @param author Author of the last upload
+     * @param ctype Content type
+     * @param etag ETag
+     * @param content Position of the content
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    Doc(final String name, final String author, final String ctype,
+        final String etag, final Pointer content) {
+        this.label = name;
+        this.alias = author;
+        this.type = ctype;
+        this.tag = etag;
+        this.pointer = content;
+    }
+
+    /**
+     * Name of the attachment.
+     * @return Name
+     */
+    public String name() {
+        return this.label;
+    }
+
+    /**
+     * Author of the last upload.
+     * @return Alias
+     */
+    public String author() {
+        return this.alias;
+    }
+
+    /**
+     * Content type.
+     * @return MIME type
+     */
+    public String ctype() {
+        return this.type;
+    }
+
+    /**
+     * ETag.
+     * @return ETag
+     */
+    public String etag() {
+        return this.tag;
+    }
+
+    /**
+     * Position of the content.
+     * @return Pointer
+     */
+    public Pointer content() {
+        return this.pointer;
+    }
+
+}
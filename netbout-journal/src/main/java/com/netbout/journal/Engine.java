@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.log.Logger;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Journal and its in-memory indexes, open in one directory.
+ *
+ * <p>Writers are served one by one: every change is validated against the
+ * current {@link State}, appended to the {@link Journal}, flushed to disk,
+ * and only then applied to the state. Readers never wait for the disk,
+ * they only wait while a flushed change is applied to the state.
+ *
+ * <p>Compaction blocks writers, but not readers, until the compacted
+ * segment is written and swapped in.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@ToString(of = "journal")
+@EqualsAndHashCode(of = "journal")
+final class Engine implements Closeable {
+
+    /**
+     * Maximum size of a segment.
+     */
+    private static final long SEGMENT = 64L << 20;
+
+    /**
+     * Journal size, after which it may be compacted.
+     */
+    private static final long DIRTY = 16L << 20;
+
+    /**
+     * Journal.
+     */
+    private final transient Journal journal;
+
+    /**
+     * Lock of the state.
+     */
+    private final transient ReadWriteLock lock;
+
+    /**
+     * Lock of writers.
+     */
+    private final transient Lock writer;
+
+    /**
+     * State, replaced on compaction.
+     */
+    private transient State state;
+
+    /**
+     * Is it closed already?
+     */
+    private transient boolean closed;
+
+    /**
+     * Ctor.
+     * @param dir Directory
+     * @throws IOException If fails
+     */
+    Engine(final File dir) throws IOException {
+        this.journal = new Journal(dir, Engine.SEGMENT);
+        this.lock = new ReentrantReadWriteLock();
+        this.writer = new ReentrantLock();
+        final long start = System.currentTimeMillis();
+        this.state = new State(this.journal);
+        try {
+            this.journal.replay(this.state);
+        } catch (final IOException ex) {
+            this.journal.close();
+            throw ex;
+        }
+        Logger.info(
+            this, "%s opened in %[ms]s: %d bout(s), %d message(s), %d bytes",
+            dir, System.currentTimeMillis() - start, this.state.bouts(),
+            this.state.messages(), this.journal.size()
+        );
+    }
+
+    /**
+     * Read the state.
+     * @param read Reader
+     * @param <T> Type of result
+     * @return Result
+     * @throws IOException If fails
+     */
+    public <T> T read(final Store.Read<T> read) throws IOException {
+        this.lock.readLock().lock();
+        try {
+            this.alive();
+            return read.read(this.state);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Change the state.
+     * @param write Writer
+     * @return Records written
+     * @throws IOException If fails
+     */
+    public List<Record> write(final Store.Write write) throws IOException {
+        this.writer.lock();
+        try {
+            this.alive();
+            final List<Record> records = write.records(this.state);
+            if (!records.isEmpty()) {
+                final List<Pointer> pointers = this.journal.append(records);
+                this.lock.writeLock().lock();
+                try {
+                    for (int idx = 0; idx < records.size(); ++idx) {
+                        this.state.visit(records.get(idx), pointers.get(idx));
+                    }
+                } finally {
+                    this.lock.writeLock().unlock();
+                }
+            }
+            return records;
+        } finally {
+            this.writer.unlock();
+        }
+    }
+
+    /**
+     * Is it time to compact?
+     * @return TRUE if more than a half of a big journal is garbage
+     */
+    public boolean dirty() {
+        this.lock.readLock().lock();
+        try {
+            final long size = this.journal.size();
+            return !this.closed && size > Engine.DIRTY
+                && this.state.garbage() > size / 2L;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compact the journal, if it is still dirty.
+     * @throws IOException If fails
+     */
+    public void vacuum() throws IOException {
+        this.writer.lock();
+        try {
+            if (this.dirty()) {
+                this.compact();
+            }
+        } finally {
+            this.writer.unlock();
+        }
+    }
+
+    /**
+     * Compact the journal.
+     * @throws IOException If fails
+     */
+    public void compact() throws IOException {
+        this.writer.lock();
+        try {
+            this.alive();
+            final long start = System.currentTimeMillis();
+            final long before = this.journal.size();
+            final State fresh = new State(this.journal);
+            final Segment seg = this.journal.dump(this.state, fresh);
+            final Collection<Segment> old;
+            this.lock.writeLock().lock();
+            try {
+                old = this.journal.swap(seg);
+                this.state = fresh;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+            this.journal.drop(old);
+            Logger.info(
+                this, "compacted in %[ms]s from %d to %d bytes",
+                System.currentTimeMillis() - start, before, this.journal.size()
+            );
+        } finally {
+            this.writer.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writer.lock();
+        try {
+            this.lock.writeLock().lock();
+            try {
+                if (!this.closed) {
+                    this.closed = true;
+                    this.journal.close();
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        } finally {
+            this.writer.unlock();
+        }
+    }
+
+    /**
+     * Make sure it's not closed yet.
+     * @throws IOException If closed
+     */
+    private void alive() throws IOException {
+        if (this.closed) {
+            throw new IOException(String.format("%s is closed", this.journal));
+        }
+    }
+
+}
@@ -0,0 +1,386 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.log.Logger;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Append-only journal, as a directory of numbered segments.
+ *
+ * <p>New records go to the end of the last segment, until it grows over
+ * the limit and a new one is started. Compaction writes a new segment,
+ * which starts with {@link Record.Type#BASE} and makes all segments
+ * before it obsolete, see {@link #dump(Journal.Source, Journal.Visitor)}.
+ *
+ * <p>The class is not thread-safe for writing: appending, dumping and
+ * swapping must be done by one thread at a time, while reading may happen
+ * concurrently with appending.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@ToString(of = "dir")
+@EqualsAndHashCode(of = "dir")
+final class Journal implements Closeable {
+
+    /**
+     * Extension of segment files.
+     */
+    private static final String EXT = ".seg";
+
+    /**
+     * Extension of unfinished compacted segments.
+     */
+    private static final String TMP = ".tmp";
+
+    /**
+     * Directory.
+     */
+    private final transient File dir;
+
+    /**
+     * Maximum size of a segment, in bytes.
+     */
+    private final transient long limit;
+
+    /**
+     * Segments, by numbers.
+     */
+    private final transient NavigableMap<Long, Segment> segments;
+
+    /**
+     * Ctor.
+     * @param path Directory
+     * @param max Maximum size of a segment, in bytes
+     */
+    Journal(final File path, final long max) {
+        this.dir = path;
+        this.limit = max;
+        this.segments = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Open all segments and read all records, recovering after a crash.
+     *
+     * <p>A broken or incomplete record at the end of the last segment is
+     * the trace of an append interrupted by a crash, it is cut off. A broken
+     * record anywhere else means that the journal is damaged.
+     *
+     * @param visitor Visitor of records
+     * @throws IOException If fails
+     */
+    public void replay(final Journal.Visitor visitor) throws IOException {
+        if (!this.dir.exists() && !this.dir.mkdirs()) {
+            throw new IOException(String.format("can't create %s", this.dir));
+        }
+        for (final File tmp : this.files(Journal.TMP)) {
+            Files.delete(tmp.toPath());
+            Logger.warn(this, "unfinished compaction %s deleted", tmp);
+        }
+        for (final File file : this.files(Journal.EXT)) {
+            final String name = file.getName();
+            final long number = Long.parseLong(
+                name.substring(0, name.length() - Journal.EXT.length())
+            );
+            final Segment seg = new Segment(file, number);
+            final Record head = seg.head();
+            if (head != null && head.type() == Record.Type.BASE) {
+                this.drop(this.swap(seg));
+            } else {
+                this.segments.put(number, seg);
+            }
+        }
+        for (final Segment seg : this.segments.values()) {
+            final long end = seg.scan(visitor);
+            if (end < seg.size()) {
+                if (seg.number() != this.segments.lastKey()) {
+                    throw new IOException(
+                        String.format(
+                            "%s is broken at byte #%d of %d",
+                            seg.file(), end, seg.size()
+                        )
+                    );
+                }
+                Logger.warn(
+                    this, "%s cut off at byte #%d, %d bytes lost",
+                    seg.file(), end, seg.size() - end
+                );
+                seg.truncate(end);
+            }
+        }
+        if (this.segments.isEmpty()) {
+            this.create(1L);
+        }
+    }
+
+    /**
+     * Append records and flush them to disk.
+     * @param records Records to append
+     * @return Positions of their data, in the same order
+     * @throws IOException If fails
+     */
+    public List<Pointer> append(final List<Record> records)
+        throws IOException {
+        int total = 0;
+        for (final Record record : records) {
+            total += record.size();
+        }
+        Segment seg = this.segments.lastEntry().getValue();
+        if (seg.size() > 0L && seg.size() + total > this.limit) {
+            seg = this.create(seg.number() + 1L);
+        }
+        final ByteBuffer buf = ByteBuffer.allocate(total);
+        for (final Record record : records) {
+            buf.put(record.frame());
+        }
+        buf.flip();
+        long pos = seg.append(buf);
+        seg.force();
+        final List<Pointer> pointers = new ArrayList<>(records.size());
+        for (final Record record : records) {
+            pointers.add(
+                new Pointer(
+                    seg.number(), pos + record.offset(),
+                    record.size() - record.offset()
+                )
+            );
+            pos += record.size();
+        }
+        return pointers;
+    }
+
+    /**
+     * Read data.
+     * @param pointer Position of data
+     * @return Bytes
+     * @throws IOException If fails
+     */
+    public byte[] read(final Pointer pointer) throws IOException {
+        final Segment seg = this.segments.get(pointer.segment());
+        if (seg == null) {
+            throw new IOException(
+                String.format("segment #%d is gone", pointer.segment())
+            );
+        }
+        return seg.read(pointer.offset(), pointer.length());
+    }
+
+    /**
+     * Total size of all segments.
+     * @return Bytes
+     */
+    public long size() {
+        long size = 0L;
+        for (final Segment seg : this.segments.values()) {
+            size += seg.size();
+        }
+        return size;
+    }
+
+    /**
+     * Write a compacted segment, which is not used until
+     * {@link #swap(Segment)}.
+     *
+     * <p>The segment is written to a temporary file first, flushed to disk
+     * and then atomically renamed, so that a crash in the middle leaves
+     * nothing but a temporary file, which is deleted on next start.
+     *
+     * @param source Source of all records
+     * @param visitor Visitor of records written
+     * @return New segment
+     * @throws IOException If fails
+     */
+    public Segment dump(final Journal.Source source,
+        final Journal.Visitor visitor) throws IOException {
+        final long number = this.segments.lastKey() + 1L;
+        final Segment seg = new Segment(
+            new File(this.dir, Journal.name(number, Journal.TMP)), number
+        );
+        final Journal.Sink sink = new Journal.Sink() {
+            @Override
+            public void write(final Record record) throws IOException {
+                final long pos = seg.append(record.frame());
+                visitor.visit(
+                    record,
+                    new Pointer(
+                        number, pos + record.offset(),
+                        record.size() - record.offset()
+                    )
+                );
+            }
+        };
+        sink.write(new Record(Record.Type.BASE));
+        source.dump(sink);
+        seg.force();
+        seg.rename(new File(this.dir, Journal.name(number, Journal.EXT)));
+        this.sync();
+        return seg;
+    }
+
+    /**
+     * Replace all segments with this compacted one.
+     * @param seg The segment written by {@link #dump(Source, Visitor)}
+     * @return Obsolete segments, to be deleted by {@link #drop(Collection)}
+     */
+    public Collection<Segment> swap(final Segment seg) {
+        final Collection<Segment> old = new ArrayList<>(
+            this.segments.values()
+        );
+        this.segments.put(seg.number(), seg);
+        this.segments.headMap(seg.number()).clear();
+        return old;
+    }
+
+    /**
+     * Delete obsolete segments.
+     * @param old Segments returned by {@link #swap(Segment)}
+     * @throws IOException If fails
+     */
+    public void drop(final Collection<Segment> old) throws IOException {
+        for (final Segment seg : old) {
+            seg.delete();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final Segment seg : this.segments.values()) {
+            seg.close();
+        }
+        this.segments.clear();
+    }
+
+    /**
+     * Start a new empty segment.
+     * @param number Its number
+     * @return Segment
+     * @throws IOException If fails
+     */
+    private Segment create(final long number) throws IOException {
+        final Segment seg = new Segment(
+            new File(this.dir, Journal.name(number, Journal.EXT)), number
+        );
+        this.sync();
+        this.segments.put(number, seg);
+        return seg;
+    }
+
+    /**
+     * Flush the directory itself to disk, after files were added or renamed.
+     * @throws IOException If fails
+     */
+    private void sync() throws IOException {
+        try (final FileChannel chan = FileChannel.open(
+            this.dir.toPath(), StandardOpenOption.READ
+        )) {
+            chan.force(true);
+        }
+    }
+
+    /**
+     * Files with this extension, sorted by name.
+     * @param ext Extension
+     * @return Files
+     */
+    private File[] files(final String ext) {
+        final File[] files = this.dir.listFiles(
+            new FileFilter() {
+                @Override
+                public boolean accept(final File file) {
+                    return file.getName().endsWith(ext);
+                }
+            }
+        );
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * Name of a segment file.
+     * @param number Number of the segment
+     * @param ext Extension
+     * @return File name
+     */
+    private static String name(final long number, final String ext) {
+        return String.format("%08d%s", number, ext);
+    }
+
+    /**
+     * Visitor of records.
+     */
+    interface Visitor {
+        /**
+         * Visit one record.
+         * @param record The record
+         * @param data Position of its data in the journal
+         * @throws IOException If fails
+         */
+        void visit(Record record, Pointer data) throws IOException;
+    }
+
+    /**
+     * Sink of records.
+     */
+    interface Sink {
+        /**
+         * Write one record.
+         * @param record The record
+         * @throws IOException If fails
+         */
+        void write(Record record) throws IOException;
+    }
+
+    /**
+     * Source of all records, to be written into a compacted segment.
+     */
+    interface Source {
+        /**
+         * Write all records.
+         * @param sink Where to write them
+         * @throws IOException If fails
+         */
+        void dump(Journal.Sink sink) throws IOException;
+    }
+
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Inbox;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Journal Alias.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "label")
+@EqualsAndHashCode(of = { "store", "label" })
+final class JrAlias implements Alias {
+
+    /**
+     * Email pattern.
+     */
+    private static final Pattern MAIL;
+
+    /**
+     * Store.
+     */
+    private final transient Store store;
+
+    /**
+     * Name of the alias.
+     */
+    private final transient String label;
+
+    static {
+        final String valid = "[a-z_\\.@\\-A-Z0-9]";
+        MAIL = Pattern.compile(
+            String.format("%s+|%s*!%s+", valid, valid, valid)
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param name Name of the alias
+     */
+    JrAlias(final Store str, final String name) {
+        this.store = str;
+        this.label = name;
+    }
+
+    @Override
+    public String name() {
+        return this.label;
+    }
+
+    @Override
+    public URI photo() throws IOException {
+        return URI.create(
+            this.store.read(
+                new Store.Read<String>() {
+                    @Override
+                    public String read(final State state) {
+                        return state.profile(JrAlias.this.label).photo();
+                    }
+                }
+            )
+        );
+    }
+
+    @Override
+    public Locale locale() throws IOException {
+        return new Locale(
+            this.store.read(
+                new Store.Read<String>() {
+                    @Override
+                    public String read(final State state) {
+                        return state.profile(JrAlias.this.label).locale();
+                    }
+                }
+            )
+        );
+    }
+
+    @Override
+    public void photo(final URI uri) throws IOException {
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state) {
+                    return Collections.singletonList(
+                        new Record(Record.Type.PHOTO, JrAlias.this.label, uri)
+                    );
+                }
+            }
+        );
+    }
+
+    @Override
+    public String email() throws IOException {
+        return this.store.read(
+            new Store.Read<String>() {
+                @Override
+                public String read(final State state) {
+                    return state.profile(JrAlias.this.label).email();
+                }
+            }
+        );
+    }
+
+    @Override
+    public void email(final String email) throws IOException {
+        if (!JrAlias.MAIL.matcher(email).matches()) {
+            throw new Alias.InvalidEmailException(email);
+        }
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state) {
+                    return Collections.singletonList(
+                        new Record(
+                            Record.Type.EMAIL, JrAlias.this.label, email
+                        )
+                    );
+                }
+            }
+        );
+        Logger.info(this, "@%s changed email to %s", this.label, email);
+    }
+
+    @Override
+    public void email(final String email, final String urn, final Bout bout) {
+        throw new UnsupportedOperationException("Not Implemented");
+    }
+
+    @Override
+    public void email(final String email, final String link)
+        throws IOException {
+        this.email(email);
+    }
+
+    @Override
+    public Inbox inbox() {
+        return new JrInbox(this.store, this.label);
+    }
+
+}
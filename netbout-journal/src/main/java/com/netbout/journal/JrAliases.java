@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Aliases;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Journal Aliases.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "urn")
+@EqualsAndHashCode(of = { "store", "urn" })
+final class JrAliases implements Aliases {
+
+    /**
+     * Store.
+     */
+    private final transient Store store;
+
+    /**
+     * URN of the user.
+     */
+    private final transient String urn;
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param user URN of the user
+     */
+    JrAliases(final Store str, final String user) {
+        this.store = str;
+        this.urn = user;
+    }
+
+    @Override
+    public String check(final String name) throws IOException {
+        final String answer;
+        if (name.length() < Tv.FOUR) {
+            answer = "too short, must be 4 letters at least";
+        } else if (name.length() > Tv.TWENTY) {
+            answer = "too long, must be 20 letters at most";
+        } else if (name.matches("[a-z0-9]+")) {
+            if (this.occupied(name)) {
+                answer = "this alias is occupied";
+            } else {
+                answer = "";
+            }
+        } else {
+            answer = "only lower case English letters and numbers are accepted";
+        }
+        return answer;
+    }
+
+    @Override
+    public Alias add(final String name) throws IOException {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("alias can't be empty");
+        }
+        if (name.length() > Tv.HUNDRED) {
+            throw new IllegalArgumentException("alias is too long");
+        }
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state) {
+                    if (state.profile(name) != null) {
+                        throw new IllegalArgumentException(
+                            String.format("alias '%s' is occupied", name)
+                        );
+                    }
+                    return Collections.singletonList(
+                        new Record(
+                            Record.Type.ALIAS, name, JrAliases.this.urn,
+                            Alias.BLANK, Locale.ENGLISH
+                        )
+                    );
+                }
+            }
+        );
+        Logger.info(this, "alias @%s added to %s", name, this.urn);
+        return new JrAlias(this.store, name);
+    }
+
+    @Override
+    public Iterable<Alias> iterate() throws IOException {
+        return Iterables.transform(
+            this.store.read(
+                new Store.Read<Collection<String>>() {
+                    @Override
+                    public Collection<String> read(final State state) {
+                        return state.aliases(JrAliases.this.urn);
+                    }
+                }
+            ),
+            new Function<String, Alias>() {
+                @Override
+                public Alias apply(final String name) {
+                    return new JrAlias(JrAliases.this.store, name);
+                }
+            }
+        );
+    }
+
+    /**
+     * Is it occupied already?
+     * @param name Alias
+     * @return TRUE if occupied
+     * @throws IOException If fails
+     */
+    private boolean occupied(final String name) throws IOException {
+        return this.store.read(
+            new Store.Read<Boolean>() {
+                @Override
+                public Boolean read(final State state) {
+                    return state.profile(name) != null;
+                }
+            }
+        );
+    }
+
+}
@@ -0,0 +1,274 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Attachment;
+import com.netbout.spi.Attachments;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+/**
+ * Journal Attachment.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = { "bout", "label", "self" })
+@EqualsAndHashCode(of = { "store", "bout", "label", "self" })
+final class JrAttachment implements Attachment {
+
+    /**
+     * Maximum size of content, in bytes.
+     */
+    private static final int MAX = Tv.TEN * Tv.MILLION;
+
+    /**
+     * Store.
+     */
+    private final transient Store store;
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long bout;
+
+    /**
+     * Name of the attachment.
+     */
+    private final transient String label;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param num Number of the bout
+     * @param name Name of the attachment
+     * @param slf My alias
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    JrAttachment(final Store str, final long num, final String name,
+        final String slf) {
+        this.store = str;
+        this.bout = num;
+        this.label = name;
+        this.self = slf;
+    }
+
+    @Override
+    public String name() {
+        return this.label;
+    }
+
+    @Override
+    public String ctype() throws IOException {
+        return this.store.read(
+            new Store.Read<String>() {
+                @Override
+                public String read(final State state) throws IOException {
+                    return JrAttachment.this.doc(state).ctype();
+                }
+            }
+        );
+    }
+
+    @Override
+    public String etag() throws IOException {
+        return this.store.read(
+            new Store.Read<String>() {
+                @Override
+                public String read(final State state) throws IOException {
+                    return JrAttachment.this.doc(state).etag();
+                }
+            }
+        );
+    }
+
+    @Override
+    public boolean unseen() throws IOException {
+        return this.store.read(
+            new Store.Read<Boolean>() {
+                @Override
+                public Boolean read(final State state) throws IOException {
+                    return JrAttachment.this.unseen(state);
+                }
+            }
+        );
+    }
+
+    @Override
+    public InputStream read() throws IOException {
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state)
+                    throws IOException {
+                    final List<Record> records;
+                    if (JrAttachment.this.unseen(state)) {
+                        records = Collections.singletonList(
+                            new Record(
+                                Record.Type.OPENED, JrAttachment.this.bout,
+                                JrAttachment.this.label, JrAttachment.this.self
+                            )
+                        );
+                    } else {
+                        records = Collections.emptyList();
+                    }
+                    return records;
+                }
+            }
+        );
+        return new ByteArrayInputStream(
+            this.store.read(
+                new Store.Read<byte[]>() {
+                    @Override
+                    public byte[] read(final State state) throws IOException {
+                        return state.content(JrAttachment.this.doc(state));
+                    }
+                }
+            )
+        );
+    }
+
+    @Override
+    public void write(final InputStream stream, final String ctype,
+        final String etag) throws IOException {
+        if (etag.isEmpty()) {
+            throw new Attachment.BrokenContentException(
+                "etag can't be empty"
+            );
+        }
+        if (etag.length() > 2 * Tv.HUNDRED) {
+            throw new Attachment.BrokenContentException(
+                "etag is too big, 200 bytes maximum is allowed"
+            );
+        }
+        if (ctype.isEmpty()) {
+            throw new Attachment.BrokenContentException(
+                "ctype is empty"
+            );
+        }
+        if (ctype.length() > Tv.HUNDRED) {
+            throw new Attachment.BrokenContentException(
+                "ctype is too long, 100 bytes maximum allowed"
+            );
+        }
+        final byte[] data = IOUtils.toByteArray(
+            new BoundedInputStream(stream, (long) JrAttachment.MAX + 1L)
+        );
+        if (data.length > JrAttachment.MAX) {
+            throw new Attachment.TooBigException(
+                String.format(
+                    "attachment \"%s\" is too big, %d bytes maximum",
+                    this.label, JrAttachment.MAX
+                )
+            );
+        }
+        if (data.length == 0) {
+            throw new Attachment.BrokenContentException(
+                String.format(
+                    "content of attachment \"%s\" can't be empty",
+                    this.label
+                )
+            );
+        }
+        final List<Record> written = this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state)
+                    throws IOException {
+                    final List<Record> records;
+                    if (etag.equals(JrAttachment.this.doc(state).etag())) {
+                        records = Collections.emptyList();
+                    } else {
+                        records = Collections.singletonList(
+                            new Record(
+                                Record.Type.ATTACH, data,
+                                JrAttachment.this.bout,
+                                JrAttachment.this.label,
+                                JrAttachment.this.self, ctype, etag,
+                                System.currentTimeMillis(), true
+                            )
+                        );
+                    }
+                    return records;
+                }
+            }
+        );
+        if (!written.isEmpty()) {
+            Logger.info(
+                this, "attachment %s (%d bytes) uploaded into #%d by @%s",
+                this.label, data.length, this.bout, this.self
+            );
+        }
+    }
+
+    /**
+     * Get the attachment from the state.
+     * @param state State
+     * @return Attachment
+     * @throws IOException If fails
+     */
+    private Doc doc(final State state) throws IOException {
+        final Doc doc = state.talk(this.bout).doc(this.label);
+        if (doc == null) {
+            throw new Attachments.NotFoundException(
+                String.format("attachment \"%s\" not found", this.label)
+            );
+        }
+        return doc;
+    }
+
+    /**
+     * Is it unseen by me?
+     * @param state State
+     * @return TRUE if unseen
+     * @throws IOException If fails
+     */
+    private boolean unseen(final State state) throws IOException {
+        return state.talk(this.bout).member(this.self).unseen()
+            .contains(this.doc(state).name());
+    }
+
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Attachment;
+import com.netbout.spi.Attachments;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Journal Attachments.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = { "bout", "self" })
+@EqualsAndHashCode(of = { "store", "bout", "self" })
+final class JrAttachments implements Attachments {
+
+    /**
+     * Store.
+     */
+    private final transient Store store;
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long bout;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param num Number of the bout
+     * @param slf My alias
+     */
+    JrAttachments(final Store str, final long num, final String slf) {
+        this.store = str;
+        this.bout = num;
+        this.self = slf;
+    }
+
+    @Override
+    public int unseen() throws IOException {
+        return this.store.read(
+            new Store.Read<Integer>() {
+                @Override
+                public Integer read(final State state) throws IOException {
+                    return state.talk(JrAttachments.this.bout)
+                        .member(JrAttachments.this.self).unseen().size();
+                }
+            }
+        );
+    }
+
+    @Override
+    public void create(final String name) throws IOException {
+        if (!name.matches("[a-zA-Z\\.\\-0-9]{3,100}")) {
+            throw new Attachments.InvalidNameException(
+                String.format(
+                    "invalid attachment name \"%s\". %s%s",
+                    name,
+                    "Attachment name can contains letters in upper ",
+                    "or lower case, numbers, dots, dashes."
+                )
+            );
+        }
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state)
+                    throws IOException {
+                    state.talk(JrAttachments.this.bout);
+                    return Collections.singletonList(
+                        new Record(
+                            Record.Type.ATTACH,
+                            " ".getBytes(StandardCharsets.UTF_8),
+                            JrAttachments.this.bout, name,
+                            JrAttachments.this.self, "text/plain", "empty",
+                            System.currentTimeMillis(), false
+                        )
+                    );
+                }
+            }
+        );
+        Logger.info(this, "attachment %s created in #%d", name, this.bout);
+    }
+
+    @Override
+    public void delete(final String name) throws IOException {
+        if (name.isEmpty()) {
+            throw new Attachments.InvalidNameException(
+                "attachment name can't be empty"
+            );
+        }
+        if (name.length() > Tv.HUNDRED) {
+            throw new Attachments.InvalidNameException(
+                String.format("attachment name \"%s\" is too long", name)
+            );
+        }
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state)
+                    throws IOException {
+                    if (state.talk(JrAttachments.this.bout).doc(name) == null) {
+                        throw new Attachments.InvalidNameException(
+                            String.format(
+                                "attachment \"%s\" not found, can't delete",
+                                name
+                            )
+                        );
+                    }
+                    return Collections.singletonList(
+                        new Record(
+                            Record.Type.DETACH, JrAttachments.this.bout, name
+                        )
+                    );
+                }
+            }
+        );
+        Logger.info(this, "attachment %s deleted from #%d", name, this.bout);
+    }
+
+    @Override
+    public Attachment get(final String name) throws IOException {
+        final boolean exists = this.store.read(
+            new Store.Read<Boolean>() {
+                @Override
+                public Boolean read(final State state) throws IOException {
+                    return state.talk(JrAttachments.this.bout)
+                        .doc(name) != null;
+                }
+            }
+        );
+        if (!exists) {
+            throw new Attachments.NotFoundException(
+                String.format("attachment \"%s\" not found", name)
+            );
+        }
+        return new JrAttachment(this.store, this.bout, name, this.self);
+    }
+
+    @Override
+    public Iterable<Attachment> iterate() throws IOException {
+        return Iterables.transform(
+            this.store.read(
+                new Store.Read<Collection<String>>() {
+                    @Override
+                    public Collection<String> read(final State state)
+                        throws IOException {
+                        final Collection<Doc> docs =
+                            state.talk(JrAttachments.this.bout).docs();
+                        final Collection<String> names =
+                            new ArrayList<>(docs.size());
+                        for (final Doc doc : docs) {
+                            names.add(doc.name());
+                        }
+                        return names;
+                    }
+                }
+            ),
+            new Function<String, Attachment>() {
+                @Override
+                public Attachment apply(final String name) {
+                    return new JrAttachment(
+                        JrAttachments.this.store, JrAttachments.this.bout,
+                        name, JrAttachments.this.self
+                    );
+                }
+            }
+        );
+    }
+
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Attachments;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friends;
+import com.netbout.spi.Messages;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Journal Bout.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = { "num", "self" })
+@EqualsAndHashCode(of = { "store", "num", "self" })
+@SuppressWarnings("PMD.TooManyMethods")
+final class JrBout implements Bout {
+
+    /**
+     * Store.
+     */
+    private final transient Store store;
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long num;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param number Number of the bout
+     * @param slf My alias
+     */
+    JrBout(final Store str, final long number, final String slf) {
+        this.store = str;
+        this.num = number;
+        this.self = slf;
+    }
+
+    @Override
+    public long number() {
+        return this.num;
+    }
+
+    @Override
+    public Date date() throws IOException {
+        return new Date(
+            this.store.read(
+                new Store.Read<Long>() {
+                    @Override
+                    public Long read(final State state) throws IOException {
+                        return state.talk(JrBout.this.num).date();
+                    }
+                }
+            )
+        );
+    }
+
+    @Override
+    public Date updated() throws IOException {
+        return new Date(
+            this.store.read(
+                new Store.Read<Long>() {
+                    @Override
+                    public Long read(final State state) throws IOException {
+                        return state.talk(JrBout.this.num).updated();
+                    }
+                }
+            )
+        );
+    }
+
+    @Override
+    public String title() throws IOException {
+        return this.store.read(
+            new Store.Read<String>() {
+                @Override
+                public String read(final State state) throws IOException {
+                    return state.talk(JrBout.this.num).title();
+                }
+            }
+        );
+    }
+
+    @Override
+    public void rename(final String text) throws IOException {
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("bout title can't be empty");
+        }
+        if (text.length() > 2 * Tv.HUNDRED) {
+            throw new IllegalArgumentException("bout name is too long");
+        }
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state)
+                    throws IOException {
+                    state.talk(JrBout.this.num);
+                    return Collections.singletonList(
+                        new Record(Record.Type.RENAME, JrBout.this.num, text)
+                    );
+                }
+            }
+        );
+        Logger.info(this, "bout #%d renamed to \"%s\"", this.num, text);
+    }
+
+    @Override
+    public boolean subscription() throws IOException {
+        return this.subscription(this.self);
+    }
+
+    @Override
+    public boolean subscription(final String alias) throws IOException {
+        return this.store.read(
+            new Store.Read<Boolean>() {
+                @Override
+                public Boolean read(final State state) throws IOException {
+                    return state.talk(JrBout.this.num).member(alias)
+                        .subscription();
+                }
+            }
+        );
+    }
+
+    @Override
+    public void subscribe(final boolean subs) throws IOException {
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state)
+                    throws IOException {
+                    state.talk(JrBout.this.num);
+                    return Collections.singletonList(
+                        new Record(
+                            Record.Type.SUBSCRIBE, JrBout.this.num,
+                            JrBout.this.self, subs
+                        )
+                    );
+                }
+            }
+        );
+        Logger.info(
+            this, "bout #%d subscribe to \"%s\" by %s",
+            this.num, subs, this.self
+        );
+    }
+
+    @Override
+    public Messages messages() {
+        return new JrMessages(this.store, this.num, this.self);
+    }
+
+    @Override
+    public Friends friends() {
+        return new JrFriends(this.store, this.num);
+    }
+
+    @Override
+    public Attachments attachments() {
+        return new JrAttachments(this.store, this.num, this.self);
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Friend;
+import java.io.IOException;
+import java.net.URI;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Journal Friend.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "name")
+@EqualsAndHashCode(of = { "store", "name" })
+final class JrFriend implements Friend {
+
+    /**
+     * Store.
+     */
+    private final transient Store store;
+
+    /**
+     * Alias.
+     */
+    private final transient String name;
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param alias Alias
+     */
+    JrFriend(final Store str, final String alias) {
+        this.store = str;
+        this.name = alias;
+    }
+
+    @Override
+    public String alias() {
+        return this.name;
+    }
+
+    @Override
+    public URI photo() throws IOException {
+        return URI.create(
+            this.store.read(
+                new Store.Read<String>() {
+                    @Override
+                    public String read(final State state) {
+                        final Profile profile =
+                            state.profile(JrFriend.this.name);
+                        String photo = Alias.BLANK.toString();
+                        if (profile != null) {
+                            photo = profile.photo();
+                        }
+                        return photo;
+                    }
+                }
+            )
+        );
+    }
+
+    @Override
+    public String email() throws IOException {
+        String email = this.store.read(
+            new Store.Read<String>() {
+                @Override
+                public String read(final State state) {
+                    final Profile profile = state.profile(JrFriend.this.name);
+                    String mail = "";
+                    if (profile != null) {
+                        mail = profile.email();
+                    }
+                    return mail;
+                }
+            }
+        );
+        if (email.contains("!")) {
+            email = email.substring(0, email.indexOf('!'));
+        }
+        return email;
+    }
+
+}
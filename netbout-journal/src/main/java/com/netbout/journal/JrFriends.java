@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Friends;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Journal Friends.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "bout")
+@EqualsAndHashCode(of = { "store", "bout" })
+final class JrFriends implements Friends {
+
+    /**
+     * Store.
+     */
+    private final transient Store store;
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long bout;
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param num Number of the bout
+     */
+    JrFriends(final Store str, final long num) {
+        this.store = str;
+        this.bout = num;
+    }
+
+    @Override
+    public void invite(final String friend) throws IOException {
+        final String alias = JrFriends.clean(friend);
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state)
+                    throws IOException {
+                    if (state.profile(alias) == null) {
+                        throw new Friends.UnknownAliasException(
+                            String.format("alias '%s' doesn't exist", friend)
+                        );
+                    }
+                    final List<Record> records;
+                    if (state.talk(JrFriends.this.bout).has(alias)) {
+                        records = Collections.emptyList();
+                    } else {
+                        records = Collections.singletonList(
+                            new Record(
+                                Record.Type.INVITE, JrFriends.this.bout, alias
+                            )
+                        );
+                    }
+                    return records;
+                }
+            }
+        );
+        Logger.info(this, "@%s invited to #%d", friend, this.bout);
+    }
+
+    @Override
+    public void kick(final String friend) throws IOException {
+        final String alias = JrFriends.clean(friend);
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state)
+                    throws IOException {
+                    if (!state.talk(JrFriends.this.bout).has(alias)) {
+                        throw new Friends.UnknownAliasException(
+                            String.format(
+                                "alias '%s' is not in the bout", friend
+                            )
+                        );
+                    }
+                    return Collections.singletonList(
+                        new Record(Record.Type.KICK, JrFriends.this.bout, alias)
+                    );
+                }
+            }
+        );
+        Logger.info(this, "@%s kicked off #%d", friend, this.bout);
+    }
+
+    @Override
+    public Iterable<Friend> iterate() throws IOException {
+        return Iterables.transform(
+            this.store.read(
+                new Store.Read<Collection<String>>() {
+                    @Override
+                    public Collection<String> read(final State state)
+                        throws IOException {
+                        final Collection<Member> members =
+                            state.talk(JrFriends.this.bout).members();
+                        final Collection<String> aliases =
+                            new ArrayList<>(members.size());
+                        for (final Member member : members) {
+                            aliases.add(member.alias());
+                        }
+                        return aliases;
+                    }
+                }
+            ),
+            new Function<String, Friend>() {
+                @Override
+                public Friend apply(final String alias) {
+                    return new JrFriend(JrFriends.this.store, alias);
+                }
+            }
+        );
+    }
+
+    /**
+     * Clean alias of a friend.
+     * @param friend Alias as it was given
+     * @return Clean alias
+     */
+    private static String clean(final String friend) {
+        final String alias = StringUtils.strip(friend, " @\n\t\r");
+        if (alias.isEmpty()) {
+            throw new IllegalArgumentException("alias can't be empty");
+        }
+        if (alias.length() > Tv.HUNDRED) {
+            throw new IllegalArgumentException("alias is too long");
+        }
+        return alias;
+    }
+
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Pageable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Journal Inbox.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "self")
+@EqualsAndHashCode(of = { "store", "self", "since" })
+final class JrInbox implements Inbox {
+
+    /**
+     * Store.
+     */
+    private final transient Store store;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Start moment.
+     */
+    private final transient long since;
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param slf My alias
+     */
+    JrInbox(final Store str, final String slf) {
+        this(str, slf, Inbox.NEVER);
+    }
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param slf My alias
+     * @param strt Start
+     */
+    JrInbox(final Store str, final String slf, final long strt) {
+        this.store = str;
+        this.self = slf;
+        this.since = strt;
+    }
+
+    @Override
+    public long start() throws IOException {
+        final long number = this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state) {
+                    return Collections.singletonList(
+                        new Record(
+                            Record.Type.START, state.bouts() + 1L,
+                            JrInbox.this.self, System.currentTimeMillis()
+                        )
+                    );
+                }
+            }
+        ).get(0).number(0);
+        Logger.info(this, "bout #%d started by @%s", number, this.self);
+        return number;
+    }
+
+    @Override
+    public long unread() throws IOException {
+        return this.store.read(
+            new Store.Read<Long>() {
+                @Override
+                public Long read(final State state) {
+                    return state.unread(JrInbox.this.self);
+                }
+            }
+        );
+    }
+
+    @Override
+    @Loggable(
+        value = Loggable.DEBUG,
+        ignore = Inbox.BoutNotFoundException.class
+    )
+    public Bout bout(final long number) throws Inbox.BoutNotFoundException {
+        final boolean mine;
+        try {
+            mine = this.store.read(
+                new Store.Read<Boolean>() {
+                    @Override
+                    public Boolean read(final State state) throws IOException {
+                        return state.talk(number).has(JrInbox.this.self);
+                    }
+                }
+            );
+        } catch (final Inbox.BoutNotFoundException ex) {
+            throw ex;
+        } catch (final IOException ex) {
+            throw new Inbox.BoutNotFoundException(number, ex);
+        }
+        if (!mine) {
+            throw new Inbox.BoutNotFoundException(number);
+        }
+        return new JrBout(this.store, number, this.self);
+    }
+
+    @Override
+    public Pageable<Bout> jump(final long number) {
+        return new JrInbox(this.store, this.self, number);
+    }
+
+    @Override
+    public Iterable<Bout> iterate() {
+        return Iterables.transform(
+            new Pages<State.Stamp>(
+                new Pages.Source<State.Stamp>() {
+                    @Override
+                    public List<State.Stamp> page(final State.Stamp after)
+                        throws IOException {
+                        return JrInbox.this.page(after);
+                    }
+                },
+                new State.Stamp(this.since, Long.MIN_VALUE)
+            ),
+            new Function<State.Stamp, Bout>() {
+                @Override
+                public Bout apply(final State.Stamp stamp) {
+                    return new Bout.ReadOnly(
+                        new JrBout(
+                            JrInbox.this.store, stamp.bout(),
+                            JrInbox.this.self
+                        )
+                    );
+                }
+            }
+        );
+    }
+
+    @Override
+    public Pageable.Page<Bout> page(final String cursor) throws IOException {
+        State.Stamp after = State.Stamp.TOP;
+        if (!cursor.isEmpty()) {
+            final Pageable.Keyset key = new Pageable.Keyset(cursor, 2);
+            after = new State.Stamp(key.get(0), key.get(1));
+        }
+        final State.Stamp start = after;
+        final List<State.Stamp> stamps = this.store.read(
+            new Store.Read<List<State.Stamp>>() {
+                @Override
+                public List<State.Stamp> read(final State state) {
+                    return state.inbox(
+                        JrInbox.this.self, start, Inbox.PAGE + 1
+                    );
+                }
+            }
+        );
+        final List<Bout> bouts = new ArrayList<>(Inbox.PAGE);
+        for (final State.Stamp stamp : Iterables.limit(stamps, Inbox.PAGE)) {
+            bouts.add(
+                new Bout.ReadOnly(
+                    new JrBout(this.store, stamp.bout(), this.self)
+                )
+            );
+        }
+        String next = "";
+        if (stamps.size() > Inbox.PAGE) {
+            final State.Stamp last = stamps.get(Inbox.PAGE - 1);
+            next = new Pageable.Keyset(last.date(), last.bout()).toString();
+        }
+        return new Pageable.Page<>(bouts, next);
+    }
+
+    @Override
+    public Pageable.Page<Inbox.Row> rows(final String cursor)
+        throws IOException {
+        return Inbox.Row.hydrate(this.page(cursor));
+    }
+
+    @Override
+    public Iterable<Bout> search(final String term) throws IOException {
+        final List<Long> numbers = this.store.read(
+            new Store.Read<List<Long>>() {
+                @Override
+                public List<Long> read(final State state) throws IOException {
+                    final List<Long> found = new ArrayList<>(Inbox.PAGE);
+                    final Iterator<State.Stamp> stamps = state.inbox(
+                        JrInbox.this.self, State.Stamp.TOP, Integer.MAX_VALUE
+                    ).iterator();
+                    while (found.size() < Inbox.PAGE && stamps.hasNext()) {
+                        final long bout = stamps.next().bout();
+                        if (!state.search(bout, term, 1).isEmpty()) {
+                            found.add(bout);
+                        }
+                    }
+                    return found;
+                }
+            }
+        );
+        final List<Bout> bouts = new ArrayList<>(numbers.size());
+        for (final Long number : numbers) {
+            bouts.add(
+                new Bout.ReadOnly(new JrBout(this.store, number, this.self))
+            );
+        }
+        return bouts;
+    }
+
+    /**
+     * Fetch one page of bouts.
+     * @param after Stamp to start after
+     * @return Stamps of bouts, not more than a page
+     * @throws IOException If fails
+     */
+    private List<State.Stamp> page(final State.Stamp after)
+        throws IOException {
+        return this.store.read(
+            new Store.Read<List<State.Stamp>>() {
+                @Override
+                public List<State.Stamp> read(final State state) {
+                    return state.inbox(JrInbox.this.self, after, Inbox.PAGE);
+                }
+            }
+        );
+    }
+
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Message;
+import java.io.IOException;
+import java.util.Date;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Journal Message.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = { "bout", "num" })
+@EqualsAndHashCode(of = { "store", "bout", "num" })
+final class JrMessage implements Message {
+
+    /**
+     * Store.
+     */
+    private final transient Store store;
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long bout;
+
+    /**
+     * Number of the message.
+     */
+    private final transient long num;
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param bnum Number of the bout
+     * @param number Number of the message
+     */
+    JrMessage(final Store str, final long bnum, final long number) {
+        this.store = str;
+        this.bout = bnum;
+        this.num = number;
+    }
+
+    @Override
+    public long number() {
+        return this.num;
+    }
+
+    @Override
+    public Date date() throws IOException {
+        return new Date(
+            this.store.read(
+                new Store.Read<Long>() {
+                    @Override
+                    public Long read(final State state) throws IOException {
+                        return JrMessage.this.post(state).date();
+                    }
+                }
+            )
+        );
+    }
+
+    @Override
+    public String text() throws IOException {
+        return this.store.read(
+            new Store.Read<String>() {
+                @Override
+                public String read(final State state) throws IOException {
+                    return state.text(JrMessage.this.post(state));
+                }
+            }
+        );
+    }
+
+    @Override
+    public String author() throws IOException {
+        return this.store.read(
+            new Store.Read<String>() {
+                @Override
+                public String read(final State state) throws IOException {
+                    return JrMessage.this.post(state).author();
+                }
+            }
+        );
+    }
+
+    /**
+     * Find the message.
+     * @param state State
+     * @return Message
+     * @throws IOException If not found
+     */
+    private Post post(final State state) throws IOException {
+        final Post post = state.talk(this.bout).post(this.num);
+        if (post == null) {
+            throw new IOException(
+                String.format(
+                    "message #%d not found in bout #%d", this.num, this.bout
+                )
+            );
+        }
+        return post;
+    }
+
+}
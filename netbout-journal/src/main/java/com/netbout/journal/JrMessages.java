@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Message;
+import com.netbout.spi.Messages;
+import com.netbout.spi.Pageable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Journal Messages.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = { "bout", "self" })
+@EqualsAndHashCode(of = { "store", "bout", "self", "start" })
+final class JrMessages implements Messages {
+
+    /**
+     * Store.
+     */
+    private final transient Store store;
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long bout;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Number of the message to start below.
+     */
+    private final transient long start;
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param num Number of the bout
+     * @param slf My alias
+     */
+    JrMessages(final Store str, final long num, final String slf) {
+        this(str, num, slf, Inbox.NEVER);
+    }
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param num Number of the bout
+     * @param slf My alias
+     * @param strt Number of the message to start below
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    JrMessages(final Store str, final long num, final String slf,
+        final long strt) {
+        this.store = str;
+        this.bout = num;
+        this.self = slf;
+        this.start = strt;
+    }
+
+    @Override
+    public void post(final String text) throws IOException {
+        final String clean = StringUtils.strip(text);
+        if (clean.isEmpty()) {
+            throw new Messages.BrokenPostException(
+                "empty message content is not allowed"
+            );
+        }
+        if (clean.length() > Tv.TEN * Tv.THOUSAND) {
+            throw new Messages.BrokenPostException(
+                "message is too big, break it into parts or upload attachment"
+            );
+        }
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state)
+                    throws IOException {
+                    state.talk(JrMessages.this.bout);
+                    return Collections.singletonList(
+                        new Record(
+                            Record.Type.POST,
+                            clean.getBytes(StandardCharsets.UTF_8),
+                            JrMessages.this.bout, state.messages() + 1L,
+                            JrMessages.this.self, System.currentTimeMillis()
+                        )
+                    );
+                }
+            }
+        );
+        Logger.info(this, "posted to #%d by @%s", this.bout, this.self);
+    }
+
+    @Override
+    public long unread() throws IOException {
+        return this.store.read(
+            new Store.Read<Long>() {
+                @Override
+                public Long read(final State state) throws IOException {
+                    return state.talk(JrMessages.this.bout)
+                        .member(JrMessages.this.self).unread();
+                }
+            }
+        );
+    }
+
+    @Override
+    public Pageable<Message> jump(final long number) {
+        return new JrMessages(this.store, this.bout, this.self, number);
+    }
+
+    @Override
+    public Iterable<Message> iterate() throws IOException {
+        if (this.start != Long.MAX_VALUE) {
+            this.seen();
+        }
+        return this.messages(
+            new Pages<Long>(
+                new Pages.Source<Long>() {
+                    @Override
+                    public List<Long> page(final Long after)
+                        throws IOException {
+                        return JrMessages.this.page(after, Messages.PAGE);
+                    }
+                },
+                this.start
+            )
+        );
+    }
+
+    @Override
+    public Pageable.Page<Message> page(final String cursor)
+        throws IOException {
+        long after = Long.MAX_VALUE;
+        if (!cursor.isEmpty()) {
+            after = new Pageable.Keyset(cursor, 1).get(0);
+        }
+        final List<Long> numbers = this.page(after, Messages.PAGE + 1);
+        this.seen();
+        final List<Message> msgs = new ArrayList<>(Messages.PAGE);
+        Iterables.addAll(
+            msgs, this.messages(Iterables.limit(numbers, Messages.PAGE))
+        );
+        String next = "";
+        if (numbers.size() > Messages.PAGE) {
+            next = new Pageable.Keyset(
+                numbers.get(Messages.PAGE - 1)
+            ).toString();
+        }
+        return new Pageable.Page<>(msgs, next);
+    }
+
+    @Override
+    public Iterable<Message> search(final String term) throws IOException {
+        return this.messages(
+            this.store.read(
+                new Store.Read<List<Long>>() {
+                    @Override
+                    public List<Long> read(final State state)
+                        throws IOException {
+                        return state.search(
+                            JrMessages.this.bout, term, Messages.PAGE
+                        );
+                    }
+                }
+            )
+        );
+    }
+
+    /**
+     * Fetch one page of messages.
+     * @param after Number of the message to start below
+     * @param limit Maximum number of messages
+     * @return Numbers of messages, not more than the limit
+     * @throws IOException If fails
+     */
+    private List<Long> page(final long after, final int limit)
+        throws IOException {
+        return this.store.read(
+            new Store.Read<List<Long>>() {
+                @Override
+                public List<Long> read(final State state) throws IOException {
+                    final List<Post> posts = state.talk(JrMessages.this.bout)
+                        .posts(after, limit);
+                    final List<Long> numbers = new ArrayList<>(posts.size());
+                    for (final Post post : posts) {
+                        numbers.add(post.number());
+                    }
+                    return numbers;
+                }
+            }
+        );
+    }
+
+    /**
+     * Messages by numbers.
+     * @param numbers Numbers of messages
+     * @return Messages
+     */
+    private Iterable<Message> messages(final Iterable<Long> numbers) {
+        return Iterables.transform(
+            numbers,
+            new Function<Long, Message>() {
+                @Override
+                public Message apply(final Long number) {
+                    return new JrMessage(
+                        JrMessages.this.store, JrMessages.this.bout, number
+                    );
+                }
+            }
+        );
+    }
+
+    /**
+     * Mark all messages as seen by me.
+     * @throws IOException If fails
+     */
+    private void seen() throws IOException {
+        this.store.write(
+            new Store.Write() {
+                @Override
+                public List<Record> records(final State state)
+                    throws IOException {
+                    final Talk talk = state.talk(JrMessages.this.bout);
+                    final List<Record> records;
+                    if (talk.member(JrMessages.this.self).unread() > 0L) {
+                        records = Collections.singletonList(
+                            new Record(
+                                Record.Type.SEEN, JrMessages.this.bout,
+                                JrMessages.this.self
+                            )
+                        );
+                    } else {
+                        records = Collections.emptyList();
+                    }
+                    return records;
+                }
+            }
+        );
+    }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.netbout.spi.Aliases;
+import com.netbout.spi.Friend;
+import com.netbout.spi.User;
+import java.io.IOException;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Journal User.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "urn")
+@EqualsAndHashCode(of = { "store", "urn" })
+final class JrUser implements User {
+
+    /**
+     * How many suggestions to show.
+     */
+    private static final int SUGGESTIONS = Tv.TEN;
+
+    /**
+     * Store.
+     */
+    private final transient Store store;
+
+    /**
+     * URN of the user.
+     */
+    private final transient String urn;
+
+    /**
+     * Ctor.
+     * @param str Store
+     * @param name URN of the user
+     */
+    JrUser(final Store str, final String name) {
+        this.store = str;
+        this.urn = name;
+    }
+
+    @Override
+    public Aliases aliases() {
+        return new JrAliases(this.store, this.urn);
+    }
+
+    @Override
+    public Iterable<Friend> friends(final String text) throws IOException {
+        return Iterables.transform(
+            this.store.read(
+                new Store.Read<List<String>>() {
+                    @Override
+                    public List<String> read(final State state) {
+                        return state.prefixed(text, JrUser.SUGGESTIONS);
+                    }
+                }
+            ),
+            new Function<String, Friend>() {
+                @Override
+                public Friend apply(final String alias) {
+                    return new JrFriend(JrUser.this.store, alias);
+                }
+            }
+        );
+    }
+
+}
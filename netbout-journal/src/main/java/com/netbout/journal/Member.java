@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Friend of a bout, as it is kept in memory by {@link State}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@ToString(of = "name")
+@EqualsAndHashCode(of = "name")
+final class Member {
+
+    /**
+     * Alias.
+     */
+    private final transient String name;
+
+    /**
+     * Names of unseen attachments.
+     */
+    private final transient Set<String> docs;
+
+    /**
+     * Subscription.
+     */
+    private transient boolean subscribed;
+
+    /**
+     * How many messages are unread.
+     */
+    private transient long count;
+
+    /**
+     * Ctor.
+     * @param alias Alias
+     */
+    Member(final String alias) {
+        this.name = alias;
+        this.docs = new TreeSet<>();
+        this.subscribed = true;
+    }
+
+    /**
+     * Alias.
+     * @return Alias
+     */
+    public String alias() {
+        return this.name;
+    }
+
+    /**
+     * Subscription.
+     * @return TRUE if subscribed
+     */
+    public boolean subscription() {
+        return this.subscribed;
+    }
+
+    /**
+     * Change subscription.
+     * @param subs Subscription
+     */
+    public void subscribe(final boolean subs) {
+        this.subscribed = subs;
+    }
+
+    /**
+     * How many messages are unread.
+     * @return Number of them
+     */
+    public long unread() {
+        return this.count;
+    }
+
+    /**
+     * Set the number of unread messages.
+     * @param total Number of them
+     */
+    public void unread(final long total) {
+        this.count = total;
+    }
+
+    /**
+     * Names of unseen attachments.
+     * @return Names
+     */
+    public Set<String> unseen() {
+        return Collections.unmodifiableSet(this.docs);
+    }
+
+    /**
+     * Mark attachment as seen or unseen.
+     * @param doc Name of the attachment
+     * @param seen TRUE if seen
+     */
+    public void seen(final String doc, final boolean seen) {
+        if (seen) {
+            this.docs.remove(doc);
+        } else {
+            this.docs.add(doc);
+        }
+    }
+
+}
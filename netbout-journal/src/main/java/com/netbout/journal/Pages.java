@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.google.common.collect.AbstractIterator;
+import com.jcabi.aspects.Immutable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Iterable, which reads items page by page, on demand.
+ *
+ * <p>Every page is read from the store with a short read lock, so that
+ * a long iteration never blocks writers.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @param <T> Type of keys
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = { "source", "first" })
+final class Pages<T> implements Iterable<T> {
+
+    /**
+     * Source of pages.
+     */
+    private final transient Pages.Source<T> source;
+
+    /**
+     * Key to start after.
+     */
+    private final transient T first;
+
+    /**
+     * Ctor.
+     * @param src Source of pages
+     * @param start Key to start after
+     */
+    Pages(final Pages.Source<T> src, final T start) {
+        this.source = src;
+        this.first = start;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        final Queue<T> buffer = new LinkedList<>();
+        // @checkstyle AnonInnerLengthCheck (50 lines)
+        return new AbstractIterator<T>() {
+            private T last = Pages.this.first;
+            private boolean done;
+            @Override
+            protected T computeNext() {
+                if (buffer.isEmpty() && !this.done) {
+                    final List<T> page;
+                    try {
+                        page = Pages.this.source.page(this.last);
+                    } catch (final IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                    this.done = page.isEmpty();
+                    buffer.addAll(page);
+                }
+                final T next;
+                if (buffer.isEmpty()) {
+                    next = this.endOfData();
+                } else {
+                    next = buffer.poll();
+                    this.last = next;
+                }
+                return next;
+            }
+        };
+    }
+
+    /**
+     * Source of pages.
+     * @param <T> Type of keys
+     */
+    @Immutable
+    interface Source<T> {
+        /**
+         * Read one page.
+         * @param after Key to start after, exclusively
+         * @return Keys, empty if there is nothing after
+         * @throws IOException If fails
+         */
+        List<T> page(T after) throws IOException;
+    }
+
+}
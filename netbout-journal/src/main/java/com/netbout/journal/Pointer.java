@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Immutable;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Position of record data in the journal.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = { "segment", "offset", "length" })
+final class Pointer {
+
+    /**
+     * Number of the segment.
+     */
+    private final transient long segment;
+
+    /**
+     * Offset of data inside the segment.
+     */
+    private final transient long offset;
+
+    /**
+     * Length of data.
+     */
+    private final transient int length;
+
+    /**
+     * Ctor.
+     * @param seg Number of the segment
+     * @param pos Offset of data inside the segment
+     * @param len Length of data
+     */
+    Pointer(final long seg, final long pos, final int len) {
+        this.segment = seg;
+        this.offset = pos;
+        this.length = len;
+    }
+
+    /**
+     * Number of the segment.
+     * @return Number
+     */
+    public long segment() {
+        return this.segment;
+    }
+
+    /**
+     * Offset of data inside the segment.
+     * @return Offset in bytes
+     */
+    public long offset() {
+        return this.offset;
+    }
+
+    /**
+     * Length of data.
+     * @return Length in bytes
+     */
+    public int length() {
+        return this.length;
+    }
+
+}
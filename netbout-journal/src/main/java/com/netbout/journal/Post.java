@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Immutable;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Message, as it is kept in memory by {@link State}.
+ *
+ * <p>The text stays in the journal, only its {@link Pointer} is here.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = "num")
+final class Post {
+
+    /**
+     * Number of the message.
+     */
+    private final transient long num;
+
+    /**
+     * Author.
+     */
+    private final transient String alias;
+
+    /**
+     * Date of posting.
+     */
+    private final transient long time;
+
+    /**
+     * Position of the text.
+     */
+    private final transient Pointer pointer;
+
+    /**
+     * Ctor.
+     * @param number Number of the message
+     * @param author Author
+     * @param date Date of posting
+     * @param text Position of the text
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    Post(final long number, final String author, final long date,
+        final Pointer text) {
+        this.num = number;
+        this.alias = author;
+        this.time = date;
+        this.pointer = text;
+    }
+
+    /**
+     * Number of the message.
+     * @return Number
+     */
+    public long number() {
+        return this.num;
+    }
+
+    /**
+     * Author.
+     * @return Alias
+     */
+    public String author() {
+        return this.alias;
+    }
+
+    /**
+     * Date of posting.
+     * @return Milliseconds
+     */
+    public long date() {
+        return this.time;
+    }
+
+    /**
+     * Position of the text.
+     * @return Pointer
+     */
+    public Pointer text() {
+        return this.pointer;
+    }
+
+}
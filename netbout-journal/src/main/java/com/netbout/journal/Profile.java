@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Alias, as it is kept in memory by {@link State}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@ToString(of = "name")
+@EqualsAndHashCode(of = "name")
+final class Profile {
+
+    /**
+     * Name of the alias.
+     */
+    private final transient String name;
+
+    /**
+     * URN of the user.
+     */
+    private final transient String urn;
+
+    /**
+     * Locale.
+     */
+    private final transient String locale;
+
+    /**
+     * Photo.
+     */
+    private transient String image;
+
+    /**
+     * Email, empty if not set.
+     */
+    private transient String mail;
+
+    /**
+     * Ctor.
+     * @param alias Name of the alias
+     * @param user URN of the user
+     * @param photo Photo
+     * @param lcl Locale
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    Profile(final String alias, final String user, final String photo,
+        final String lcl) {
+        this.name = alias;
+        this.urn = user;
+        this.image = photo;
+        this.locale = lcl;
+        this.mail = "";
+    }
+
+    /**
+     * Name of the alias.
+     * @return Name
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * URN of the user.
+     * @return URN
+     */
+    public String urn() {
+        return this.urn;
+    }
+
+    /**
+     * Locale.
+     * @return Locale
+     */
+    public String locale() {
+        return this.locale;
+    }
+
+    /**
+     * Photo.
+     * @return URI of the photo
+     */
+    public String photo() {
+        return this.image;
+    }
+
+    /**
+     * Change photo.
+     * @param uri URI of the photo
+     */
+    public void photo(final String uri) {
+        this.image = uri;
+    }
+
+    /**
+     * Email.
+     * @return Email or empty string
+     */
+    public String email() {
+        return this.mail;
+    }
+
+    /**
+     * Change email.
+     * @param email Email
+     */
+    public void email(final String email) {
+        this.mail = email;
+    }
+
+}
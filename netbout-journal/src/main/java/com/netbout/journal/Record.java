@@ -0,0 +1,323 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import lombok.EqualsAndHashCode;
+
+/**
+ * One record of the journal.
+ *
+ * <p>On disk every record is framed as its body length (four bytes),
+ * CRC32 of the body (four bytes) and the body itself: type code (one byte),
+ * number of arguments (two bytes), each argument as length and UTF-8 bytes,
+ * and the data blob as length and bytes. A frame with a wrong length or
+ * checksum marks the end of a segment, see
+ * {@link Segment#scan(Journal.Visitor)}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@EqualsAndHashCode(of = { "kind", "args", "data" })
+final class Record {
+
+    /**
+     * Size of the frame header, length and checksum.
+     */
+    public static final int HEADER = 8;
+
+    /**
+     * Empty data.
+     */
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * Type of it.
+     */
+    private final transient Record.Type kind;
+
+    /**
+     * Arguments.
+     */
+    @Immutable.Array
+    private final transient String[] args;
+
+    /**
+     * Data.
+     */
+    @Immutable.Array
+    private final transient byte[] data;
+
+    /**
+     * Ctor.
+     * @param type Type of it
+     * @param arguments Arguments
+     */
+    Record(final Record.Type type, final Object... arguments) {
+        this(type, Record.EMPTY, arguments);
+    }
+
+    /**
+     * Ctor.
+     * @param type Type of it
+     * @param bytes Data
+     * @param arguments Arguments
+     */
+    Record(final Record.Type type, final byte[] bytes,
+        final Object... arguments) {
+        this.kind = type;
+        this.data = Arrays.copyOf(bytes, bytes.length);
+        this.args = new String[arguments.length];
+        for (int idx = 0; idx < arguments.length; ++idx) {
+            this.args[idx] = arguments[idx].toString();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s%s+%d", this.kind, Arrays.toString(this.args), this.data.length
+        );
+    }
+
+    /**
+     * Its type.
+     * @return Type
+     */
+    public Record.Type type() {
+        return this.kind;
+    }
+
+    /**
+     * Argument.
+     * @param pos Position of it
+     * @return Value
+     */
+    public String arg(final int pos) {
+        return this.args[pos];
+    }
+
+    /**
+     * Argument as a number.
+     * @param pos Position of it
+     * @return Value
+     */
+    public long number(final int pos) {
+        return Long.parseLong(this.args[pos]);
+    }
+
+    /**
+     * Data.
+     * @return Bytes
+     */
+    public byte[] data() {
+        return Arrays.copyOf(this.data, this.data.length);
+    }
+
+    /**
+     * Position of the data inside the frame.
+     * @return Offset in bytes from the beginning of the frame
+     */
+    public int offset() {
+        int offset = Record.HEADER + 1 + 2;
+        for (final String arg : this.args) {
+            offset += Tv.FOUR + Record.utf(arg).length;
+        }
+        return offset + Tv.FOUR;
+    }
+
+    /**
+     * Size of the frame.
+     * @return Total bytes, including header
+     */
+    public int size() {
+        return this.offset() + this.data.length;
+    }
+
+    /**
+     * Frame it for writing to disk.
+     * @return Bytes of the frame, ready to read
+     */
+    public ByteBuffer frame() {
+        final ByteBuffer buf = ByteBuffer.allocate(this.size());
+        buf.position(Record.HEADER);
+        buf.put((byte) this.kind.ordinal());
+        buf.putShort((short) this.args.length);
+        for (final String arg : this.args) {
+            final byte[] bytes = Record.utf(arg);
+            buf.putInt(bytes.length);
+            buf.put(bytes);
+        }
+        buf.putInt(this.data.length);
+        buf.put(this.data);
+        final CRC32 crc = new CRC32();
+        crc.update(buf.array(), Record.HEADER, buf.capacity() - Record.HEADER);
+        buf.putInt(0, buf.capacity() - Record.HEADER);
+        buf.putInt(Tv.FOUR, (int) crc.getValue());
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * Parse a frame.
+     * @param frame The frame, starting at its header
+     * @return Record or NULL if the frame is broken or incomplete
+     */
+    static Record parse(final ByteBuffer frame) {
+        Record record = null;
+        if (frame.remaining() >= Record.HEADER) {
+            final ByteBuffer buf = frame.slice();
+            final int length = buf.getInt();
+            final int expected = buf.getInt();
+            if (length > 0 && length <= buf.remaining()) {
+                final byte[] body = new byte[length];
+                buf.get(body);
+                final CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() == expected) {
+                    record = Record.body(ByteBuffer.wrap(body));
+                }
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Parse a body, which passed the checksum.
+     * @param body The body
+     * @return Record or NULL if the body is broken
+     */
+    private static Record body(final ByteBuffer body) {
+        Record record = null;
+        final int code = body.get();
+        if (code >= 0 && code < Record.Type.values().length) {
+            final Object[] args = new Object[body.getShort()];
+            for (int idx = 0; idx < args.length; ++idx) {
+                final byte[] bytes = new byte[body.getInt()];
+                body.get(bytes);
+                args[idx] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            final byte[] bytes = new byte[body.getInt()];
+            body.get(bytes);
+            record = new Record(Record.Type.values()[code], bytes, args);
+        }
+        return record;
+    }
+
+    /**
+     * UTF-8 bytes of a string.
+     * @param text Text
+     * @return Bytes
+     */
+    private static byte[] utf(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Types of records, their codes on disk are ordinals, so new types
+     * can only be added to the end of this list.
+     */
+    enum Type {
+        /**
+         * Beginning of a compacted journal, everything before is obsolete.
+         */
+        BASE,
+        /**
+         * Alias added: alias, URN, photo, locale.
+         */
+        ALIAS,
+        /**
+         * Photo changed: alias, photo.
+         */
+        PHOTO,
+        /**
+         * Email changed: alias, email.
+         */
+        EMAIL,
+        /**
+         * Bout started: bout, alias, date.
+         */
+        START,
+        /**
+         * Bout renamed: bout, title.
+         */
+        RENAME,
+        /**
+         * Friend invited: bout, alias.
+         */
+        INVITE,
+        /**
+         * Friend kicked off: bout, alias.
+         */
+        KICK,
+        /**
+         * Subscription changed: bout, alias, flag.
+         */
+        SUBSCRIBE,
+        /**
+         * Message posted: bout, message, alias, date; data is the text.
+         */
+        POST,
+        /**
+         * All messages seen: bout, alias.
+         */
+        SEEN,
+        /**
+         * Attachment saved: bout, name, alias, ctype, etag, date, fan-out
+         * flag; data is the content.
+         */
+        ATTACH,
+        /**
+         * Attachment deleted: bout, name.
+         */
+        DETACH,
+        /**
+         * Attachment seen: bout, name, alias.
+         */
+        OPENED,
+        /**
+         * Unread messages in compacted journal: bout, alias, count.
+         */
+        UNREAD,
+        /**
+         * Unseen attachment in compacted journal: bout, alias, name.
+         */
+        UNSEEN,
+        /**
+         * Update time in compacted journal: bout, date.
+         */
+        UPDATED
+    }
+
+}
@@ -0,0 +1,326 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * One file of the journal.
+ *
+ * <p>Records are only appended to the end of the file, and never changed
+ * after that. The file is mapped into memory by windows of a fixed size,
+ * {@link #WINDOW} bytes by default, read-only. A window is mapped once,
+ * when the file grows over its end, and the mapping is never made again,
+ * that's why address space is not wasted, no matter how many times
+ * the file grows. Bytes of the last, incomplete, window and bytes that
+ * cross a border between windows are read from the file by positional
+ * reads. Offsets are long, a segment may be bigger than 2Gb, for example
+ * after compaction.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@ToString(of = "path")
+@EqualsAndHashCode(of = "num")
+final class Segment implements Closeable {
+
+    /**
+     * Default size of a window, in bytes.
+     */
+    private static final int WINDOW = 64 << 20;
+
+    /**
+     * Number of it.
+     */
+    private final transient long num;
+
+    /**
+     * Channel of the file.
+     */
+    private final transient FileChannel channel;
+
+    /**
+     * File, which changes when the segment is renamed.
+     */
+    private transient File path;
+
+    /**
+     * Size of the file, changed by the only writer.
+     */
+    private transient volatile long length;
+
+    /**
+     * Size of a window, in bytes.
+     */
+    private final transient int window;
+
+    /**
+     * Mapped windows, by their numbers.
+     */
+    private final transient ConcurrentMap<Long, MappedByteBuffer> windows;
+
+    /**
+     * Ctor.
+     * @param file File
+     * @param number Number of the segment
+     * @throws IOException If fails
+     */
+    Segment(final File file, final long number) throws IOException {
+        this(file, number, Segment.WINDOW);
+    }
+
+    /**
+     * Ctor.
+     * @param file File
+     * @param number Number of the segment
+     * @param size Size of a window, in bytes
+     * @throws IOException If fails
+     */
+    Segment(final File file, final long number, final int size)
+        throws IOException {
+        this.path = file;
+        this.num = number;
+        this.window = size;
+        this.windows = new ConcurrentHashMap<>(0);
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+        this.length = this.channel.size();
+    }
+
+    /**
+     * Number of it.
+     * @return Number
+     */
+    public long number() {
+        return this.num;
+    }
+
+    /**
+     * File of it.
+     * @return File
+     */
+    public File file() {
+        return this.path;
+    }
+
+    /**
+     * Size of it.
+     * @return Bytes
+     */
+    public long size() {
+        return this.length;
+    }
+
+    /**
+     * Append bytes to the end, without flushing them to disk.
+     * @param bytes Bytes to append
+     * @return Position where they were written
+     * @throws IOException If fails
+     */
+    public long append(final ByteBuffer bytes) throws IOException {
+        final long start = this.length;
+        long pos = start;
+        while (bytes.hasRemaining()) {
+            pos += this.channel.write(bytes, pos);
+        }
+        this.length = pos;
+        return start;
+    }
+
+    /**
+     * Flush all appended bytes to disk.
+     * @throws IOException If fails
+     */
+    public void force() throws IOException {
+        this.channel.force(false);
+    }
+
+    /**
+     * Read bytes.
+     * @param offset Where to start
+     * @param len How many bytes to read
+     * @return Bytes
+     * @throws IOException If fails
+     */
+    public byte[] read(final long offset, final int len) throws IOException {
+        final byte[] bytes = new byte[len];
+        final long idx = offset / (long) this.window;
+        final long end = (idx + 1L) * (long) this.window;
+        if (offset + (long) len <= end && end <= this.length) {
+            final ByteBuffer buf = this.map(idx).duplicate();
+            buf.position((int) (offset - idx * (long) this.window));
+            buf.get(bytes);
+        } else {
+            final ByteBuffer buf = ByteBuffer.wrap(bytes);
+            while (buf.hasRemaining()) {
+                final int done = this.channel.read(
+                    buf, offset + (long) buf.position()
+                );
+                if (done < 0) {
+                    throw new IOException(
+                        String.format(
+                            "%s has no bytes #%d..%d",
+                            this.path, offset, offset + (long) len
+                        )
+                    );
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * First record in the segment.
+     * @return Record or NULL if there are no valid records
+     * @throws IOException If fails
+     */
+    public Record head() throws IOException {
+        return this.record(0L);
+    }
+
+    /**
+     * Read all valid records, from the beginning.
+     * @param visitor Visitor of records
+     * @return Position of the first byte after the last valid record
+     * @throws IOException If fails
+     */
+    public long scan(final Journal.Visitor visitor) throws IOException {
+        long pos = 0L;
+        Record record = this.record(pos);
+        while (record != null) {
+            visitor.visit(
+                record,
+                new Pointer(
+                    this.num, pos + (long) record.offset(),
+                    record.size() - record.offset()
+                )
+            );
+            pos += (long) record.size();
+            record = this.record(pos);
+        }
+        return pos;
+    }
+
+    /**
+     * Cut off everything after this position.
+     * @param size New size
+     * @throws IOException If fails
+     */
+    public void truncate(final long size) throws IOException {
+        synchronized (this.channel) {
+            this.windows.clear();
+            this.channel.truncate(size);
+            this.channel.force(true);
+            this.length = size;
+        }
+    }
+
+    /**
+     * Rename the file, atomically.
+     * @param file New file
+     * @throws IOException If fails
+     */
+    public void rename(final File file) throws IOException {
+        Files.move(
+            this.path.toPath(), file.toPath(),
+            StandardCopyOption.ATOMIC_MOVE
+        );
+        this.path = file;
+    }
+
+    /**
+     * Close and delete the file.
+     * @throws IOException If fails
+     */
+    public void delete() throws IOException {
+        this.close();
+        Files.delete(this.path.toPath());
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Valid record at the position.
+     * @param pos Position of its frame
+     * @return Record or NULL if there is no valid record
+     * @throws IOException If fails
+     */
+    private Record record(final long pos) throws IOException {
+        Record record = null;
+        final long left = this.length - pos;
+        if (left >= (long) Record.HEADER) {
+            final int len = ByteBuffer.wrap(
+                this.read(pos, Record.HEADER)
+            ).getInt();
+            if (len > 0 && (long) len <= left - (long) Record.HEADER) {
+                record = Record.parse(
+                    ByteBuffer.wrap(this.read(pos, Record.HEADER + len))
+                );
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Mapping of the window, which is complete.
+     * @param idx Number of the window
+     * @return Mapped bytes
+     * @throws IOException If fails
+     */
+    private ByteBuffer map(final long idx) throws IOException {
+        MappedByteBuffer buf = this.windows.get(idx);
+        if (buf == null) {
+            synchronized (this.channel) {
+                buf = this.windows.get(idx);
+                if (buf == null) {
+                    buf = this.channel.map(
+                        FileChannel.MapMode.READ_ONLY,
+                        idx * (long) this.window, (long) this.window
+                    );
+                    this.windows.put(idx, buf);
+                }
+            }
+        }
+        return buf;
+    }
+
+}
@@ -0,0 +1,644 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.jcabi.aspects.Tv;
+import com.netbout.spi.Inbox;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * In-memory indexes of everything written to the journal.
+ *
+ * <p>Only numbers, names and short strings are kept in memory, message
+ * texts and attachment contents are read from the journal through their
+ * {@link Pointer}s. The class is not thread-safe, {@link Engine} guards it
+ * with a read-write lock.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle CyclomaticComplexityCheck (500 lines)
+ */
+@ToString(of = { "bouts", "messages", "garbage" })
+@EqualsAndHashCode(of = "journal")
+@SuppressWarnings({ "PMD.TooManyMethods", "PMD.GodClass" })
+final class State implements Journal.Visitor, Journal.Source {
+
+    /**
+     * Journal.
+     */
+    private final transient Journal journal;
+
+    /**
+     * Aliases, by names.
+     */
+    private final transient NavigableMap<String, Profile> profiles;
+
+    /**
+     * Names of aliases, by URNs of users.
+     */
+    private final transient Map<String, Collection<String>> users;
+
+    /**
+     * Bouts, by numbers.
+     */
+    private final transient Map<Long, Talk> talks;
+
+    /**
+     * Bouts of every alias, the most recently updated first.
+     */
+    private final transient Map<String, NavigableSet<State.Stamp>> inboxes;
+
+    /**
+     * Number of the last bout.
+     */
+    private transient long bouts;
+
+    /**
+     * Number of the last message.
+     */
+    private transient long messages;
+
+    /**
+     * Bytes in the journal, which are not needed any more.
+     */
+    private transient long garbage;
+
+    /**
+     * Ctor.
+     * @param jrnl Journal
+     */
+    State(final Journal jrnl) {
+        this.journal = jrnl;
+        this.profiles = new TreeMap<>();
+        this.users = new HashMap<>(0);
+        this.talks = new HashMap<>(0);
+        this.inboxes = new HashMap<>(0);
+    }
+
+    /**
+     * Alias by name.
+     * @param name Name of it
+     * @return Alias or NULL if absent
+     */
+    public Profile profile(final String name) {
+        return this.profiles.get(name);
+    }
+
+    /**
+     * All aliases of a user.
+     * @param urn URN of the user
+     * @return Names, in order of creation
+     */
+    public Collection<String> aliases(final String urn) {
+        Collection<String> names = this.users.get(urn);
+        if (names == null) {
+            names = Collections.emptyList();
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Aliases starting with this text.
+     * @param text Prefix
+     * @param limit Maximum to return
+     * @return Names, alphabetically
+     */
+    public List<String> prefixed(final String text, final int limit) {
+        return Lists.newArrayList(
+            Iterables.limit(
+                this.profiles.subMap(
+                    text, true, String.format("%s\uffff", text), false
+                ).keySet(),
+                limit
+            )
+        );
+    }
+
+    /**
+     * Bout by number.
+     * @param number Number of the bout
+     * @return Bout
+     * @throws Inbox.BoutNotFoundException If absent
+     */
+    public Talk talk(final long number) throws Inbox.BoutNotFoundException {
+        final Talk talk = this.talks.get(number);
+        if (talk == null) {
+            throw new Inbox.BoutNotFoundException(number);
+        }
+        return talk;
+    }
+
+    /**
+     * Number of the last bout.
+     * @return Number
+     */
+    public long bouts() {
+        return this.bouts;
+    }
+
+    /**
+     * Number of the last message.
+     * @return Number
+     */
+    public long messages() {
+        return this.messages;
+    }
+
+    /**
+     * Bouts of the alias, updated before the given stamp.
+     * @param alias Alias
+     * @param after Stamp to start after, exclusively
+     * @param limit Maximum to return
+     * @return Stamps of bouts, the most recently updated first
+     */
+    public List<State.Stamp> inbox(final String alias, final State.Stamp after,
+        final int limit) {
+        NavigableSet<State.Stamp> stamps = this.inboxes.get(alias);
+        if (stamps == null) {
+            stamps = new TreeSet<>();
+        }
+        return Lists.newArrayList(
+            Iterables.limit(stamps.tailSet(after, false), limit)
+        );
+    }
+
+    /**
+     * Messages of the bout, which contain the term.
+     * @param bout Number of the bout
+     * @param term Term to search for
+     * @param limit Maximum to return
+     * @return Numbers of messages, newest first
+     * @throws IOException If fails
+     */
+    public List<Long> search(final long bout, final String term,
+        final int limit) throws IOException {
+        final List<Long> found = new ArrayList<>(limit);
+        final Iterator<Post> posts = this.talk(bout)
+            .posts(Long.MAX_VALUE, Integer.MAX_VALUE).iterator();
+        while (found.size() < limit && posts.hasNext()) {
+            final Post post = posts.next();
+            if (this.text(post).contains(term)) {
+                found.add(post.number());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Total number of unread messages of the alias.
+     * @param alias Alias
+     * @return Number of them
+     */
+    public long unread(final String alias) {
+        long total = 0L;
+        for (final State.Stamp stamp : this.inbox(alias, State.Stamp.TOP,
+            Integer.MAX_VALUE)) {
+            total += this.talks.get(stamp.bout()).member(alias).unread();
+        }
+        return total;
+    }
+
+    /**
+     * Text of a message.
+     * @param post The message
+     * @return Text
+     * @throws IOException If fails
+     */
+    public String text(final Post post) throws IOException {
+        return new String(
+            this.journal.read(post.text()), StandardCharsets.UTF_8
+        );
+    }
+
+    /**
+     * Content of an attachment.
+     * @param doc The attachment
+     * @return Bytes
+     * @throws IOException If fails
+     */
+    public byte[] content(final Doc doc) throws IOException {
+        return this.journal.read(doc.content());
+    }
+
+    /**
+     * Bytes in the journal, which are not needed any more.
+     * @return Bytes
+     */
+    public long garbage() {
+        return this.garbage;
+    }
+
+    @Override
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    public void visit(final Record record, final Pointer data) {
+        switch (record.type()) {
+            case BASE:
+                break;
+            case ALIAS:
+                this.alias(record);
+                break;
+            case PHOTO:
+                this.profiles.get(record.arg(0)).photo(record.arg(1));
+                this.garbage += record.size();
+                break;
+            case EMAIL:
+                this.email(record);
+                break;
+            case START:
+                this.start(record);
+                break;
+            case INVITE:
+                this.join(this.talks.get(record.number(0)), record.arg(1));
+                break;
+            case KICK:
+                this.leave(this.talks.get(record.number(0)), record.arg(1));
+                this.garbage += record.size();
+                break;
+            case POST:
+                this.post(record, data);
+                break;
+            case ATTACH:
+                this.attach(record, data);
+                break;
+            case UPDATED:
+            case UNREAD:
+            case UNSEEN:
+                this.restore(record);
+                break;
+            default:
+                this.member(record);
+                break;
+        }
+    }
+
+    @Override
+    public void dump(final Journal.Sink sink) throws IOException {
+        for (final Profile profile : this.profiles.values()) {
+            sink.write(
+                new Record(
+                    Record.Type.ALIAS, profile.name(), profile.urn(),
+                    profile.photo(), profile.locale()
+                )
+            );
+            if (!profile.email().isEmpty()) {
+                sink.write(
+                    new Record(
+                        Record.Type.EMAIL, profile.name(), profile.email()
+                    )
+                );
+            }
+        }
+        final Collection<Long> numbers = new TreeSet<>(this.talks.keySet());
+        for (final Long number : numbers) {
+            this.dump(this.talks.get(number), sink);
+        }
+    }
+
+    /**
+     * Dump one bout.
+     * @param talk The bout
+     * @param sink Where to write records
+     * @throws IOException If fails
+     */
+    private void dump(final Talk talk, final Journal.Sink sink)
+        throws IOException {
+        final long number = talk.number();
+        final Collection<Member> members = talk.members();
+        String first = "";
+        if (!members.isEmpty()) {
+            first = members.iterator().next().alias();
+        }
+        sink.write(new Record(Record.Type.START, number, first, talk.date()));
+        if (!Talk.UNTITLED.equals(talk.title())) {
+            sink.write(new Record(Record.Type.RENAME, number, talk.title()));
+        }
+        for (final Member member : members) {
+            if (!member.alias().equals(first)) {
+                sink.write(
+                    new Record(Record.Type.INVITE, number, member.alias())
+                );
+            }
+        }
+        for (final Post post : talk.posts()) {
+            sink.write(
+                new Record(
+                    Record.Type.POST,
+                    this.journal.read(post.text()),
+                    number, post.number(), post.author(), post.date()
+                )
+            );
+        }
+        for (final Doc doc : talk.docs()) {
+            sink.write(
+                new Record(
+                    Record.Type.ATTACH, this.content(doc), number, doc.name(),
+                    doc.author(), doc.ctype(), doc.etag(), talk.date(), false
+                )
+            );
+        }
+        for (final Member member : members) {
+            if (!member.subscription()) {
+                sink.write(
+                    new Record(
+                        Record.Type.SUBSCRIBE, number, member.alias(), false
+                    )
+                );
+            }
+            if (member.unread() > 0L) {
+                sink.write(
+                    new Record(
+                        Record.Type.UNREAD, number, member.alias(),
+                        member.unread()
+                    )
+                );
+            }
+            for (final String name : member.unseen()) {
+                sink.write(
+                    new Record(
+                        Record.Type.UNSEEN, number, member.alias(), name
+                    )
+                );
+            }
+        }
+        sink.write(new Record(Record.Type.UPDATED, number, talk.updated()));
+    }
+
+    /**
+     * Add alias.
+     * @param record The record
+     */
+    private void alias(final Record record) {
+        final String name = record.arg(0);
+        final String urn = record.arg(1);
+        this.profiles.put(
+            name, new Profile(name, urn, record.arg(2), record.arg(3))
+        );
+        Collection<String> names = this.users.get(urn);
+        if (names == null) {
+            names = new LinkedHashSet<>(1);
+            this.users.put(urn, names);
+        }
+        names.add(name);
+    }
+
+    /**
+     * Change email.
+     * @param record The record
+     */
+    private void email(final Record record) {
+        final Profile profile = this.profiles.get(record.arg(0));
+        if (!profile.email().isEmpty()) {
+            this.garbage += record.size();
+        }
+        profile.email(record.arg(1));
+    }
+
+    /**
+     * Start a bout.
+     * @param record The record
+     */
+    private void start(final Record record) {
+        final long number = record.number(0);
+        final Talk talk = new Talk(number, record.number(2));
+        this.talks.put(number, talk);
+        this.bouts = Math.max(this.bouts, number);
+        if (!record.arg(1).isEmpty()) {
+            this.join(talk, record.arg(1));
+        }
+    }
+
+    /**
+     * Post a message.
+     * @param record The record
+     * @param data Position of the text
+     */
+    private void post(final Record record, final Pointer data) {
+        final Talk talk = this.talks.get(record.number(0));
+        final String author = record.arg(2);
+        final Post post = new Post(
+            record.number(1), author, record.number(Tv.THREE), data
+        );
+        talk.post(post);
+        this.messages = Math.max(this.messages, post.number());
+        for (final Member member : talk.members()) {
+            if (!member.alias().equals(author)) {
+                member.unread(member.unread() + 1L);
+            }
+        }
+        this.touch(talk, post.date());
+    }
+
+    /**
+     * Save an attachment.
+     * @param record The record
+     * @param data Position of the content
+     */
+    private void attach(final Record record, final Pointer data) {
+        final Talk talk = this.talks.get(record.number(0));
+        final String author = record.arg(2);
+        final Doc doc = new Doc(
+            record.arg(1), author, record.arg(Tv.THREE), record.arg(Tv.FOUR),
+            data
+        );
+        final Doc before = talk.attach(doc);
+        if (before != null) {
+            this.garbage += before.content().length();
+        }
+        if (Boolean.parseBoolean(record.arg(Tv.SIX))) {
+            for (final Member member : talk.members()) {
+                if (!member.alias().equals(author)) {
+                    member.seen(doc.name(), false);
+                }
+            }
+            this.touch(talk, record.number(Tv.FIVE));
+        }
+    }
+
+    /**
+     * Apply a record, which changes a bout or one of its friends.
+     * @param record The record
+     */
+    private void member(final Record record) {
+        final Talk talk = this.talks.get(record.number(0));
+        if (record.type() == Record.Type.RENAME) {
+            talk.title(record.arg(1));
+        } else if (record.type() == Record.Type.DETACH) {
+            final Doc doc = talk.detach(record.arg(1));
+            if (doc != null) {
+                this.garbage += doc.content().length();
+            }
+        } else if (record.type() == Record.Type.OPENED) {
+            talk.member(record.arg(2)).seen(record.arg(1), true);
+        } else if (talk.has(record.arg(1))) {
+            final Member member = talk.member(record.arg(1));
+            if (record.type() == Record.Type.SUBSCRIBE) {
+                member.subscribe(Boolean.parseBoolean(record.arg(2)));
+            } else if (record.type() == Record.Type.SEEN) {
+                member.unread(0L);
+            }
+        }
+        this.garbage += record.size();
+    }
+
+    /**
+     * Apply a record, which exists only in compacted journals.
+     * @param record The record
+     */
+    private void restore(final Record record) {
+        final Talk talk = this.talks.get(record.number(0));
+        if (record.type() == Record.Type.UPDATED) {
+            this.touch(talk, record.number(1));
+        } else if (record.type() == Record.Type.UNREAD) {
+            talk.member(record.arg(1)).unread(record.number(2));
+        } else {
+            talk.member(record.arg(1)).seen(record.arg(2), false);
+        }
+    }
+
+    /**
+     * Add a friend to the bout.
+     * @param talk The bout
+     * @param alias Alias of the friend
+     */
+    private void join(final Talk talk, final String alias) {
+        if (talk.join(alias)) {
+            NavigableSet<State.Stamp> stamps = this.inboxes.get(alias);
+            if (stamps == null) {
+                stamps = new TreeSet<>();
+                this.inboxes.put(alias, stamps);
+            }
+            stamps.add(new State.Stamp(talk));
+        }
+    }
+
+    /**
+     * Remove a friend from the bout.
+     * @param talk The bout
+     * @param alias Alias of the friend
+     */
+    private void leave(final Talk talk, final String alias) {
+        if (talk.leave(alias)) {
+            this.inboxes.get(alias).remove(new State.Stamp(talk));
+        }
+    }
+
+    /**
+     * Change the time of the last update of the bout.
+     * @param talk The bout
+     * @param date New time
+     */
+    private void touch(final Talk talk, final long date) {
+        final State.Stamp before = new State.Stamp(talk);
+        talk.updated(date);
+        final State.Stamp after = new State.Stamp(talk);
+        for (final Member member : talk.members()) {
+            final NavigableSet<State.Stamp> stamps =
+                this.inboxes.get(member.alias());
+            stamps.remove(before);
+            stamps.add(after);
+        }
+    }
+
+    /**
+     * Position of a bout in an inbox.
+     */
+    @ToString
+    @EqualsAndHashCode(of = { "updated", "number" })
+    static final class Stamp implements Comparable<State.Stamp> {
+        /**
+         * Stamp before all others.
+         */
+        public static final State.Stamp TOP =
+            new State.Stamp(Long.MAX_VALUE, Long.MAX_VALUE);
+        /**
+         * Time of the last update.
+         */
+        private final transient long updated;
+        /**
+         * Number of the bout.
+         */
+        private final transient long number;
+        /**
+         * Ctor.
+         * @param talk The bout
+         */
+        Stamp(final Talk talk) {
+            this(talk.updated(), talk.number());
+        }
+        /**
+         * Ctor.
+         * @param date Time of the last update
+         * @param bout Number of the bout
+         */
+        Stamp(final long date, final long bout) {
+            this.updated = date;
+            this.number = bout;
+        }
+        /**
+         * Time of the last update.
+         * @return Time
+         */
+        public long date() {
+            return this.updated;
+        }
+        /**
+         * Number of the bout.
+         * @return Number
+         */
+        public long bout() {
+            return this.number;
+        }
+        @Override
+        public int compareTo(final State.Stamp stamp) {
+            int cmp = Long.compare(stamp.updated, this.updated);
+            if (cmp == 0) {
+                cmp = Long.compare(stamp.number, this.number);
+            }
+            return cmp;
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Async;
+import com.jcabi.aspects.Immutable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Store in a directory.
+ *
+ * <p>The {@link Engine} of a directory is opened on first use and stays
+ * open, shared by all stores of the same directory, until one of them is
+ * closed.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = "dir")
+final class Store implements Closeable {
+
+    /**
+     * Open engines, by directories.
+     */
+    private static final ConcurrentMap<String, Engine> ENGINES =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Directory.
+     */
+    private final transient String dir;
+
+    /**
+     * Ctor.
+     * @param path Directory
+     */
+    Store(final String path) {
+        this.dir = path;
+    }
+
+    /**
+     * Open the journal, if it's not open yet.
+     * @throws IOException If fails
+     */
+    public void open() throws IOException {
+        this.engine();
+    }
+
+    /**
+     * Read the state.
+     * @param read Reader
+     * @param <T> Type of result
+     * @return Result
+     * @throws IOException If fails
+     */
+    public <T> T read(final Store.Read<T> read) throws IOException {
+        return this.engine().read(read);
+    }
+
+    /**
+     * Change the state.
+     * @param write Writer
+     * @return Records written
+     * @throws IOException If fails
+     */
+    public List<Record> write(final Store.Write write) throws IOException {
+        final Engine engine = this.engine();
+        final List<Record> records = engine.write(write);
+        if (engine.dirty()) {
+            this.vacuum();
+        }
+        return records;
+    }
+
+    /**
+     * Compact the journal now.
+     * @throws IOException If fails
+     */
+    public void compact() throws IOException {
+        this.engine().compact();
+    }
+
+    @Override
+    public void close() throws IOException {
+        final Engine engine = Store.ENGINES.remove(this.dir);
+        if (engine != null) {
+            engine.close();
+        }
+    }
+
+    /**
+     * Open engine.
+     * @return Engine
+     * @throws IOException If fails
+     */
+    private Engine engine() throws IOException {
+        Engine engine = Store.ENGINES.get(this.dir);
+        if (engine == null) {
+            synchronized (Store.ENGINES) {
+                engine = Store.ENGINES.get(this.dir);
+                if (engine == null) {
+                    engine = new Engine(new File(this.dir));
+                    Store.ENGINES.put(this.dir, engine);
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Compact the journal in background, if it is still dirty.
+     * @throws IOException If fails
+     */
+    @Async
+    private void vacuum() throws IOException {
+        final Engine engine = Store.ENGINES.get(this.dir);
+        if (engine != null) {
+            engine.vacuum();
+        }
+    }
+
+    /**
+     * Reader of the state.
+     * @param <T> Type of result
+     */
+    interface Read<T> {
+        /**
+         * Read it.
+         * @param state The state, which can't be changed
+         * @return Result
+         * @throws IOException If fails
+         */
+        T read(State state) throws IOException;
+    }
+
+    /**
+     * Writer to the state.
+     */
+    interface Write {
+        /**
+         * Validate the change and make records for it.
+         * @param state The state, which can't be changed
+         * @return Records to write, possibly empty
+         * @throws IOException If the change is not valid
+         */
+        List<Record> records(State state) throws IOException;
+    }
+
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Bout, as it is kept in memory by {@link State}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@ToString(of = "num")
+@EqualsAndHashCode(of = "num")
+final class Talk {
+
+    /**
+     * Title of a new bout.
+     */
+    public static final String UNTITLED = "untitled";
+
+    /**
+     * Number of the bout.
+     */
+    private final transient long num;
+
+    /**
+     * Date of creation.
+     */
+    private final transient long time;
+
+    /**
+     * Friends, in order of joining.
+     */
+    private final transient Map<String, Member> friends;
+
+    /**
+     * Messages, by numbers.
+     */
+    private final transient NavigableMap<Long, Post> posts;
+
+    /**
+     * Attachments, by names.
+     */
+    private final transient NavigableMap<String, Doc> docs;
+
+    /**
+     * Title.
+     */
+    private transient String label;
+
+    /**
+     * Date of the last update.
+     */
+    private transient long touched;
+
+    /**
+     * Ctor.
+     * @param number Number of the bout
+     * @param date Date of creation
+     */
+    Talk(final long number, final long date) {
+        this.num = number;
+        this.time = date;
+        this.touched = date;
+        this.label = Talk.UNTITLED;
+        this.friends = new LinkedHashMap<>(0);
+        this.posts = new TreeMap<>();
+        this.docs = new TreeMap<>();
+    }
+
+    /**
+     * Number of the bout.
+     * @return Number
+     */
+    public long number() {
+        return this.num;
+    }
+
+    /**
+     * Date of creation.
+     * @return Milliseconds
+     */
+    public long date() {
+        return this.time;
+    }
+
+    /**
+     * Title.
+     * @return Title
+     */
+    public String title() {
+        return this.label;
+    }
+
+    /**
+     * Change title.
+     * @param text Title
+     */
+    public void title(final String text) {
+        this.label = text;
+    }
+
+    /**
+     * Date of the last update.
+     * @return Milliseconds
+     */
+    public long updated() {
+        return this.touched;
+    }
+
+    /**
+     * Change date of the last update.
+     * @param date Milliseconds
+     */
+    public void updated(final long date) {
+        this.touched = date;
+    }
+
+    /**
+     * Is this alias a friend here?
+     * @param alias Alias
+     * @return TRUE if a friend
+     */
+    public boolean has(final String alias) {
+        return this.friends.containsKey(alias);
+    }
+
+    /**
+     * Friend by alias, or a detached blank one if he is not here.
+     * @param alias Alias
+     * @return Member
+     */
+    public Member member(final String alias) {
+        Member member = this.friends.get(alias);
+        if (member == null) {
+            member = new Member(alias);
+        }
+        return member;
+    }
+
+    /**
+     * All friends.
+     * @return Friends, in order of joining
+     */
+    public Collection<Member> members() {
+        return new ArrayList<>(this.friends.values());
+    }
+
+    /**
+     * Add a friend, unless he is already here.
+     * @param alias Alias
+     * @return TRUE if added
+     */
+    public boolean join(final String alias) {
+        final boolean added = !this.friends.containsKey(alias);
+        if (added) {
+            this.friends.put(alias, new Member(alias));
+        }
+        return added;
+    }
+
+    /**
+     * Remove a friend.
+     * @param alias Alias
+     * @return TRUE if removed
+     */
+    public boolean leave(final String alias) {
+        return this.friends.remove(alias) != null;
+    }
+
+    /**
+     * Message by number.
+     * @param number Number of it
+     * @return Message or NULL if absent
+     */
+    public Post post(final long number) {
+        return this.posts.get(number);
+    }
+
+    /**
+     * Add a message.
+     * @param post Message
+     */
+    public void post(final Post post) {
+        this.posts.put(post.number(), post);
+    }
+
+    /**
+     * Messages with numbers below the given one, newest first.
+     * @param below Number to start below
+     * @param limit Maximum to return
+     * @return Messages
+     */
+    public List<Post> posts(final long below, final int limit) {
+        return Lists.newArrayList(
+            Iterables.limit(
+                this.posts.headMap(below, false).descendingMap().values(),
+                limit
+            )
+        );
+    }
+
+    /**
+     * All messages, oldest first.
+     * @return Messages
+     */
+    public Collection<Post> posts() {
+        return new ArrayList<>(this.posts.values());
+    }
+
+    /**
+     * Attachment by name.
+     * @param name Name of it
+     * @return Attachment or NULL if absent
+     */
+    public Doc doc(final String name) {
+        return this.docs.get(name);
+    }
+
+    /**
+     * All attachments, ordered by name.
+     * @return Attachments
+     */
+    public Collection<Doc> docs() {
+        return new ArrayList<>(this.docs.values());
+    }
+
+    /**
+     * Add or replace an attachment.
+     * @param doc Attachment
+     * @return Attachment replaced or NULL
+     */
+    public Doc attach(final Doc doc) {
+        return this.docs.put(doc.name(), doc);
+    }
+
+    /**
+     * Remove an attachment.
+     * @param name Name of it
+     * @return Attachment removed or NULL
+     */
+    public Doc detach(final String name) {
+        for (final Member member : this.friends.values()) {
+            member.seen(name, true);
+        }
+        return this.docs.remove(name);
+    }
+
+}
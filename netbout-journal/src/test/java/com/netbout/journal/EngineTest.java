@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Tv;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test case for {@link Engine}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class EngineTest {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Rule
+    public final transient TemporaryFolder temp = new TemporaryFolder();
+
+    /**
+     * Engine can cut off a record broken by a crash.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void recoversAfterBrokenAppend() throws Exception {
+        final File dir = this.temp.newFolder();
+        final Engine engine = new Engine(dir);
+        try {
+            EngineTest.start(engine, "jeff", 1L);
+            EngineTest.start(engine, "jeff", 2L);
+        } finally {
+            engine.close();
+        }
+        final File seg = new File(dir, "00000001.seg");
+        try (final RandomAccessFile file = new RandomAccessFile(seg, "rw")) {
+            file.setLength(file.length() - 2L);
+        }
+        final Engine fresh = new Engine(dir);
+        try {
+            MatcherAssert.assertThat(
+                EngineTest.bouts(fresh), Matchers.equalTo(1L)
+            );
+            EngineTest.start(fresh, "jeff", 2L);
+            MatcherAssert.assertThat(
+                EngineTest.bouts(fresh), Matchers.equalTo(2L)
+            );
+        } finally {
+            fresh.close();
+        }
+    }
+
+    /**
+     * Engine can compact the journal and keep the state.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void compactsJournal() throws Exception {
+        final File dir = this.temp.newFolder();
+        final Engine engine = new Engine(dir);
+        final long size;
+        try {
+            EngineTest.start(engine, "walter", 1L);
+            for (int idx = 0; idx < Tv.TEN; ++idx) {
+                engine.write(
+                    EngineTest.write(
+                        new Record(
+                            Record.Type.RENAME, 1L,
+                            String.format("title #%d", idx)
+                        )
+                    )
+                );
+            }
+            size = EngineTest.size(dir);
+            engine.compact();
+            MatcherAssert.assertThat(
+                EngineTest.size(dir), Matchers.lessThan(size)
+            );
+        } finally {
+            engine.close();
+        }
+        MatcherAssert.assertThat(
+            dir.list(), Matchers.arrayContaining("00000002.seg")
+        );
+        final Engine fresh = new Engine(dir);
+        try {
+            MatcherAssert.assertThat(
+                fresh.read(
+                    new Store.Read<String>() {
+                        @Override
+                        public String read(final State state)
+                            throws IOException {
+                            return state.talk(1L).title();
+                        }
+                    }
+                ),
+                Matchers.equalTo("title #9")
+            );
+        } finally {
+            fresh.close();
+        }
+    }
+
+    /**
+     * Start a bout.
+     * @param engine Engine
+     * @param alias Alias of the author
+     * @param number Number of the bout
+     * @throws IOException If fails
+     */
+    private static void start(final Engine engine, final String alias,
+        final long number) throws IOException {
+        engine.write(
+            EngineTest.write(
+                new Record(Record.Type.START, number, alias, 0L)
+            )
+        );
+    }
+
+    /**
+     * Total number of bouts.
+     * @param engine Engine
+     * @return Number of bouts
+     * @throws IOException If fails
+     */
+    private static long bouts(final Engine engine) throws IOException {
+        return engine.read(
+            new Store.Read<Long>() {
+                @Override
+                public Long read(final State state) {
+                    return state.bouts();
+                }
+            }
+        );
+    }
+
+    /**
+     * Writer of these records.
+     * @param records Records
+     * @return Writer
+     */
+    private static Store.Write write(final Record... records) {
+        return new Store.Write() {
+            @Override
+            public List<Record> records(final State state) {
+                return Arrays.asList(records);
+            }
+        };
+    }
+
+    /**
+     * Total size of files in the directory.
+     * @param dir Directory
+     * @return Bytes
+     */
+    private static long size(final File dir) {
+        long size = 0L;
+        for (final File file : dir.listFiles()) {
+            size += file.length();
+        }
+        return size;
+    }
+
+}
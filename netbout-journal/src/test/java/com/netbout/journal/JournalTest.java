@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Tv;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test case for {@link Journal}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class JournalTest {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Rule
+    public final transient TemporaryFolder temp = new TemporaryFolder();
+
+    /**
+     * Journal can cut off a broken tail of the last segment only.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void recoversBrokenTail() throws Exception {
+        final File dir = this.temp.newFolder();
+        try (final Journal journal = new Journal(dir, (long) Tv.HUNDRED)) {
+            journal.replay(new JournalTest.Texts());
+            for (int idx = 0; idx < Tv.TEN; ++idx) {
+                JournalTest.append(journal, idx);
+            }
+        }
+        final File last = JournalTest.last(dir);
+        try (final RandomAccessFile file = new RandomAccessFile(last, "rw")) {
+            file.setLength(file.length() - 2L);
+        }
+        final JournalTest.Texts texts = new JournalTest.Texts();
+        try (final Journal journal = new Journal(dir, (long) Tv.HUNDRED)) {
+            journal.replay(texts);
+            MatcherAssert.assertThat(
+                texts.all(), Matchers.hasSize(Tv.NINE)
+            );
+            final Pointer pointer = JournalTest.append(journal, Tv.NINE);
+            MatcherAssert.assertThat(
+                new String(journal.read(pointer), StandardCharsets.UTF_8),
+                Matchers.equalTo(JournalTest.data(Tv.NINE))
+            );
+        }
+        final JournalTest.Texts after = new JournalTest.Texts();
+        try (final Journal journal = new Journal(dir, (long) Tv.HUNDRED)) {
+            journal.replay(after);
+        }
+        MatcherAssert.assertThat(after.all(), Matchers.hasSize(Tv.TEN));
+    }
+
+    /**
+     * Journal can refuse to start with a broken segment in the middle.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = IOException.class)
+    public void rejectsBrokenMiddle() throws Exception {
+        final File dir = this.temp.newFolder();
+        try (final Journal journal = new Journal(dir, (long) Tv.HUNDRED)) {
+            journal.replay(new JournalTest.Texts());
+            for (int idx = 0; idx < Tv.TEN; ++idx) {
+                JournalTest.append(journal, idx);
+            }
+        }
+        final File first = new File(dir, "00000001.seg");
+        try (final RandomAccessFile file = new RandomAccessFile(first, "rw")) {
+            file.setLength(file.length() - 2L);
+        }
+        try (final Journal journal = new Journal(dir, (long) Tv.HUNDRED)) {
+            journal.replay(new JournalTest.Texts());
+        }
+    }
+
+    /**
+     * Journal can compact segments into one and read through new pointers.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void compactsSegments() throws Exception {
+        final File dir = this.temp.newFolder();
+        final List<Pointer> pointers = new ArrayList<>(0);
+        try (final Journal journal = new Journal(dir, (long) Tv.HUNDRED)) {
+            journal.replay(new JournalTest.Texts());
+            for (int idx = 0; idx < Tv.TEN; ++idx) {
+                JournalTest.append(journal, idx);
+            }
+            final Segment seg = journal.dump(
+                new Journal.Source() {
+                    @Override
+                    public void dump(final Journal.Sink sink)
+                        throws IOException {
+                        for (int idx = 0; idx < Tv.TEN; idx += 2) {
+                            sink.write(JournalTest.record(idx));
+                        }
+                    }
+                },
+                new Journal.Visitor() {
+                    @Override
+                    public void visit(final Record record,
+                        final Pointer pointer) {
+                        if (record.type() == Record.Type.POST) {
+                            pointers.add(pointer);
+                        }
+                    }
+                }
+            );
+            journal.drop(journal.swap(seg));
+            MatcherAssert.assertThat(pointers, Matchers.hasSize(Tv.FIVE));
+            for (int idx = 0; idx < pointers.size(); ++idx) {
+                MatcherAssert.assertThat(
+                    new String(
+                        journal.read(pointers.get(idx)), StandardCharsets.UTF_8
+                    ),
+                    Matchers.equalTo(JournalTest.data(idx * 2))
+                );
+            }
+        }
+        MatcherAssert.assertThat(dir.list(), Matchers.arrayWithSize(1));
+        final JournalTest.Texts texts = new JournalTest.Texts();
+        try (final Journal journal = new Journal(dir, (long) Tv.HUNDRED)) {
+            journal.replay(texts);
+        }
+        MatcherAssert.assertThat(
+            texts.all(),
+            Matchers.contains(
+                JournalTest.data(0), JournalTest.data(2),
+                JournalTest.data(Tv.FOUR),
+                JournalTest.data(Tv.SIX), JournalTest.data(Tv.EIGHT)
+            )
+        );
+    }
+
+    /**
+     * Append a record.
+     * @param journal Journal
+     * @param idx Its number
+     * @return Pointer to its data
+     * @throws IOException If fails
+     */
+    private static Pointer append(final Journal journal, final int idx)
+        throws IOException {
+        return journal.append(
+            Collections.singletonList(JournalTest.record(idx))
+        ).get(0);
+    }
+
+    /**
+     * Make a record.
+     * @param idx Its number
+     * @return Record
+     */
+    private static Record record(final int idx) {
+        return new Record(
+            Record.Type.POST,
+            JournalTest.data(idx).getBytes(StandardCharsets.UTF_8),
+            1L, "walter"
+        );
+    }
+
+    /**
+     * Data of a record.
+     * @param idx Its number
+     * @return Text
+     */
+    private static String data(final int idx) {
+        return String.format("message #%d", idx);
+    }
+
+    /**
+     * The last segment in a directory.
+     * @param dir Directory
+     * @return File
+     */
+    private static File last(final File dir) {
+        final String[] names = dir.list();
+        Arrays.sort(names);
+        return new File(dir, names[names.length - 1]);
+    }
+
+    /**
+     * Visitor collecting data of posts.
+     */
+    private static final class Texts implements Journal.Visitor {
+        /**
+         * Texts seen.
+         */
+        private final transient List<String> texts = new ArrayList<>(0);
+        @Override
+        public void visit(final Record record, final Pointer pointer) {
+            if (record.type() == Record.Type.POST) {
+                this.texts.add(
+                    new String(record.data(), StandardCharsets.UTF_8)
+                );
+            }
+        }
+        /**
+         * All texts seen.
+         * @return Texts
+         */
+        public List<String> all() {
+            return this.texts;
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.urn.URN;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Message;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test case for {@link JrBase}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class JrBaseTest {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Rule
+    public final transient TemporaryFolder temp = new TemporaryFolder();
+
+    /**
+     * JrBase can make bouts, post messages and attach files.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void makesBoutsAndPostsMessages() throws Exception {
+        final File dir = this.temp.newFolder();
+        final JrBase base = new JrBase(dir);
+        try {
+            base.user(new URN("urn:test:1")).aliases().add("jeff");
+            base.user(new URN("urn:test:2")).aliases().add("walter");
+            final Alias alias = base.user(new URN("urn:test:1"))
+                .aliases().iterate().iterator().next();
+            final Bout bout = alias.inbox().bout(alias.inbox().start());
+            bout.rename("hello");
+            bout.friends().invite("walter");
+            bout.messages().post("how are you?");
+            bout.messages().post("привет");
+            bout.attachments().create("a.txt");
+            bout.attachments().get("a.txt").write(
+                new ByteArrayInputStream(
+                    "some data".getBytes(StandardCharsets.UTF_8)
+                ),
+                "text/plain", "etag-1"
+            );
+            MatcherAssert.assertThat(
+                bout.messages().iterate().iterator().next().text(),
+                Matchers.equalTo("привет")
+            );
+            MatcherAssert.assertThat(
+                bout.friends().iterate(), Matchers.<Friend>iterableWithSize(2)
+            );
+            MatcherAssert.assertThat(
+                base.user(new URN("urn:test:2")).aliases().iterate()
+                    .iterator().next().inbox().unread(),
+                Matchers.equalTo(2L)
+            );
+        } finally {
+            base.close();
+        }
+    }
+
+    /**
+     * JrBase can restore everything after restart.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void restoresAfterRestart() throws Exception {
+        final File dir = this.temp.newFolder();
+        final URN urn = new URN("urn:test:3");
+        long number;
+        final JrBase first = new JrBase(dir);
+        try {
+            first.user(urn).aliases().add("frank");
+            final Alias alias = first.user(urn).aliases().iterate()
+                .iterator().next();
+            number = alias.inbox().start();
+            final Bout bout = alias.inbox().bout(number);
+            bout.rename("first bout");
+            bout.messages().post("first");
+            bout.messages().post("second");
+            bout.attachments().create("b.txt");
+            bout.attachments().get("b.txt").write(
+                new ByteArrayInputStream(
+                    "content".getBytes(StandardCharsets.UTF_8)
+                ),
+                "text/plain", "etag-2"
+            );
+        } finally {
+            first.close();
+        }
+        final JrBase second = new JrBase(dir);
+        try {
+            final Bout bout = second.user(urn).aliases().iterate()
+                .iterator().next().inbox().bout(number);
+            MatcherAssert.assertThat(
+                bout.title(), Matchers.equalTo("first bout")
+            );
+            final Message last = bout.messages().iterate().iterator().next();
+            MatcherAssert.assertThat(last.text(), Matchers.equalTo("second"));
+            MatcherAssert.assertThat(
+                IOUtils.toString(
+                    bout.attachments().get("b.txt").read(),
+                    StandardCharsets.UTF_8
+                ),
+                Matchers.equalTo("content")
+            );
+        } finally {
+            second.close();
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.journal;
+
+import com.jcabi.aspects.Tv;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test case for {@link Segment}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class SegmentTest {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Rule
+    public final transient TemporaryFolder temp = new TemporaryFolder();
+
+    /**
+     * Segment can read records inside of windows, across their borders
+     * and after the last complete one, while the file grows.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void readsAcrossWindows() throws Exception {
+        try (final Segment seg = new Segment(
+            this.temp.newFile(), 1L, Tv.FIFTEEN
+        )) {
+            final List<Pointer> pointers = new ArrayList<>(0);
+            for (int idx = 0; idx < Tv.TWENTY; ++idx) {
+                pointers.add(SegmentTest.append(seg, idx));
+                for (int pos = 0; pos < pointers.size(); ++pos) {
+                    MatcherAssert.assertThat(
+                        SegmentTest.text(seg, pointers.get(pos)),
+                        Matchers.equalTo(SegmentTest.data(pos))
+                    );
+                }
+            }
+            final Collection<String> texts = new ArrayList<>(0);
+            final long end = seg.scan(
+                new Journal.Visitor() {
+                    @Override
+                    public void visit(final Record record, final Pointer data)
+                        throws IOException {
+                        texts.add(SegmentTest.text(seg, data));
+                    }
+                }
+            );
+            MatcherAssert.assertThat(end, Matchers.equalTo(seg.size()));
+            MatcherAssert.assertThat(texts, Matchers.hasSize(Tv.TWENTY));
+            MatcherAssert.assertThat(
+                texts, Matchers.hasItem(SegmentTest.data(Tv.TEN))
+            );
+        }
+    }
+
+    /**
+     * Segment can be read by many threads, while it grows.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void readsWhileAppending() throws Exception {
+        final ExecutorService svc = Executors.newFixedThreadPool(Tv.EIGHT);
+        try (final Segment seg = new Segment(
+            this.temp.newFile(), 1L, Tv.HUNDRED
+        )) {
+            final List<Pointer> pointers = new CopyOnWriteArrayList<>();
+            pointers.add(SegmentTest.append(seg, 0));
+            final AtomicBoolean done = new AtomicBoolean();
+            final Collection<Future<Integer>> readers = new ArrayList<>(0);
+            for (int thread = 0; thread < Tv.SEVEN; ++thread) {
+                readers.add(
+                    svc.submit(SegmentTest.reader(seg, pointers, done))
+                );
+            }
+            for (int idx = 1; idx < Tv.THOUSAND; ++idx) {
+                pointers.add(SegmentTest.append(seg, idx));
+            }
+            done.set(true);
+            for (final Future<Integer> reader : readers) {
+                MatcherAssert.assertThat(
+                    reader.get(1L, TimeUnit.MINUTES), Matchers.greaterThan(0)
+                );
+            }
+        } finally {
+            svc.shutdown();
+        }
+    }
+
+    /**
+     * Reader, which checks all records appended so far, until done.
+     * @param seg Segment
+     * @param pointers Pointers of records appended
+     * @param done Is it time to stop
+     * @return How many times records were checked
+     */
+    private static Callable<Integer> reader(final Segment seg,
+        final List<Pointer> pointers, final AtomicBoolean done) {
+        return new Callable<Integer>() {
+            @Override
+            public Integer call() throws IOException {
+                int total = 0;
+                while (!done.get()) {
+                    final int size = pointers.size();
+                    for (int pos = 0; pos < size; ++pos) {
+                        MatcherAssert.assertThat(
+                            SegmentTest.text(seg, pointers.get(pos)),
+                            Matchers.equalTo(SegmentTest.data(pos))
+                        );
+                    }
+                    ++total;
+                }
+                return total;
+            }
+        };
+    }
+
+    /**
+     * Append a record.
+     * @param seg Segment
+     * @param idx Its number
+     * @return Pointer to its data
+     * @throws IOException If fails
+     */
+    private static Pointer append(final Segment seg, final int idx)
+        throws IOException {
+        final Record record = new Record(
+            Record.Type.POST,
+            SegmentTest.data(idx).getBytes(StandardCharsets.UTF_8),
+            1L, "jeff"
+        );
+        final long pos = seg.append(record.frame());
+        return new Pointer(
+            seg.number(), pos + (long) record.offset(),
+            record.size() - record.offset()
+        );
+    }
+
+    /**
+     * Read data of a record as text.
+     * @param seg Segment
+     * @param pointer Pointer to the data
+     * @return Text
+     * @throws IOException If fails
+     */
+    private static String text(final Segment seg, final Pointer pointer)
+        throws IOException {
+        return new String(
+            seg.read(pointer.offset(), pointer.length()),
+            StandardCharsets.UTF_8
+        );
+    }
+
+    /**
+     * Data of a record, of different length.
+     * @param idx Its number
+     * @return Text
+     */
+    private static String data(final int idx) {
+        final StringBuilder text = new StringBuilder(0);
+        for (int pos = 0; pos <= idx % Tv.TEN; ++pos) {
+            text.append(String.format("record #%d; ", idx));
+        }
+        return text.toString();
+    }
+
+}
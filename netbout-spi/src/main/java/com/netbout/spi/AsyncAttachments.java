@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.spi;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Attachments of a bout, which don't block their callers.
+ *
+ * <p>Content of an attachment is read and written by the blocking
+ * {@link Attachment}, since it is a stream anyway.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @see Attachments
+ */
+@Immutable
+public interface AsyncAttachments {
+
+    /**
+     * How many of them are unseen by me?
+     * @return Number of them
+     */
+    ListenableFuture<Integer> unseen();
+
+    /**
+     * Create a new empty attachment.
+     * @param name Name of it
+     * @return Completed when created
+     */
+    ListenableFuture<Void> create(String name);
+
+    /**
+     * Delete an attachment.
+     * @param name Name of it
+     * @return Completed when deleted
+     */
+    ListenableFuture<Void> delete(String name);
+
+    /**
+     * Get an attachment.
+     * @param name Name of it
+     * @return Attachment, or failed with
+     *  {@link Attachments.NotFoundException}
+     */
+    ListenableFuture<Attachment> get(String name);
+
+    /**
+     * Get all attachments.
+     * @return Attachments
+     */
+    ListenableFuture<List<Attachment>> iterate();
+
+    /**
+     * Attachments of a blocking bout.
+     *
+     * <p>Every call is executed by the given executor. Attachments of
+     * the bout are only asked for inside of the calls.
+     */
+    @Loggable(Loggable.DEBUG)
+    @ToString(of = "bout")
+    @EqualsAndHashCode(of = "bout")
+    final class Wrap implements AsyncAttachments {
+        /**
+         * Original bout.
+         */
+        private final transient Bout bout;
+        /**
+         * Executor of calls.
+         */
+        private final transient ListeningExecutorService exec;
+        /**
+         * Public ctor.
+         * @param origin Original bout
+         * @param svc Executor of calls
+         */
+        public Wrap(final Bout origin, final ListeningExecutorService svc) {
+            this.bout = origin;
+            this.exec = svc;
+        }
+        @Override
+        public ListenableFuture<Integer> unseen() {
+            return this.exec.submit(
+                new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws IOException {
+                        return Wrap.this.bout.attachments().unseen();
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Void> create(final String name) {
+            return this.exec.submit(
+                new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        Wrap.this.bout.attachments().create(name);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Void> delete(final String name) {
+            return this.exec.submit(
+                new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        Wrap.this.bout.attachments().delete(name);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Attachment> get(final String name) {
+            return this.exec.submit(
+                new Callable<Attachment>() {
+                    @Override
+                    public Attachment call() throws IOException {
+                        return Wrap.this.bout.attachments().get(name);
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<List<Attachment>> iterate() {
+            return this.exec.submit(
+                new Callable<List<Attachment>>() {
+                    @Override
+                    public List<Attachment> call() throws IOException {
+                        return Lists.newArrayList(
+                            Wrap.this.bout.attachments().iterate()
+                        );
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Attachments, which are read from non-blocking ones and changed
+     * in a blocking bout.
+     *
+     * <p>An attachment from {@link #get(String)} is taken from
+     * the blocking bout, in order to write its content there. Attachments
+     * from {@link #iterate()} are for reading only.
+     *
+     * @see AsyncInbox.Split
+     */
+    @Loggable(Loggable.DEBUG)
+    @ToString(of = "reads")
+    @EqualsAndHashCode(of = { "reads", "writes" })
+    final class Split implements AsyncAttachments {
+        /**
+         * Attachments to read from.
+         */
+        private final transient AsyncAttachments reads;
+        /**
+         * Writes to the blocking bout.
+         */
+        private final transient Writes writes;
+        /**
+         * Ctor.
+         * @param read Attachments to read from
+         * @param write Writes to the blocking bout
+         */
+        Split(final AsyncAttachments read, final Writes write) {
+            this.reads = read;
+            this.writes = write;
+        }
+        @Override
+        public ListenableFuture<Integer> unseen() {
+            return this.reads.unseen();
+        }
+        @Override
+        public ListenableFuture<Void> create(final String name) {
+            return this.writes.call(
+                new Writes.Action<Void>() {
+                    @Override
+                    public Void exec(final Bout bout) throws IOException {
+                        bout.attachments().create(name);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Void> delete(final String name) {
+            return this.writes.call(
+                new Writes.Action<Void>() {
+                    @Override
+                    public Void exec(final Bout bout) throws IOException {
+                        bout.attachments().delete(name);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Attachment> get(final String name) {
+            return this.writes.call(
+                new Writes.Action<Attachment>() {
+                    @Override
+                    public Attachment exec(final Bout bout)
+                        throws IOException {
+                        return bout.attachments().get(name);
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<List<Attachment>> iterate() {
+            return this.reads.iterate();
+        }
+    }
+
+}
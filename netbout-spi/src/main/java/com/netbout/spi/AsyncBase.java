@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.spi;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Base, which gives inboxes that don't block their callers.
+ *
+ * <p>A decorator of a {@link Base} implements it by means of
+ * {@link AsyncBase.Wrap}, in order to keep the non-blocking inboxes
+ * of its origin reachable.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @see AsyncInbox
+ */
+@Immutable
+public interface AsyncBase {
+
+    /**
+     * Inbox of the alias, which doesn't block its callers.
+     * @param alias The alias, from {@link Base#user(com.jcabi.urn.URN)}
+     * @return Inbox
+     * @throws IOException If fails
+     */
+    AsyncInbox inbox(Alias alias) throws IOException;
+
+    /**
+     * Base of a blocking one.
+     *
+     * <p>If the origin gives non-blocking inboxes itself, everything
+     * is read through them and everything is written through the
+     * blocking inbox of the alias, which is decorated the same way as
+     * the base (caches are flushed, emails are sent, etc.),
+     * see {@link AsyncInbox.Split}. Otherwise, the blocking inbox is
+     * wrapped, see {@link AsyncInbox.Wrap}.
+     */
+    @Loggable(Loggable.DEBUG)
+    @ToString(of = "origin")
+    @EqualsAndHashCode(of = "origin")
+    final class Wrap implements AsyncBase {
+        /**
+         * Original base.
+         */
+        private final transient Base origin;
+        /**
+         * Executor of calls.
+         */
+        private final transient ListeningExecutorService exec;
+        /**
+         * Public ctor.
+         * @param base Original base
+         * @param svc Executor of calls
+         */
+        public Wrap(final Base base, final ListeningExecutorService svc) {
+            this.origin = base;
+            this.exec = svc;
+        }
+        @Override
+        public AsyncInbox inbox(final Alias alias) throws IOException {
+            final AsyncInbox inbox;
+            if (this.origin instanceof AsyncBase) {
+                inbox = new AsyncInbox.Split(
+                    AsyncBase.class.cast(this.origin).inbox(alias),
+                    alias.inbox(), this.exec
+                );
+            } else {
+                inbox = new AsyncInbox.Wrap(alias.inbox(), this.exec);
+            }
+            return inbox;
+        }
+    }
+
+}
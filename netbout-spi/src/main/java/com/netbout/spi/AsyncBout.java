@@ -0,0 +1,362 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.spi;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.Callable;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Bout, which doesn't block its callers.
+ *
+ * <p>Messages, friends and attachments of the bout are returned
+ * without any I/O, their own calls return futures.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @see Bout
+ */
+@Immutable
+@SuppressWarnings("PMD.TooManyMethods")
+public interface AsyncBout {
+
+    /**
+     * Get its unique number.
+     * @return The number of the bout
+     */
+    ListenableFuture<Long> number();
+
+    /**
+     * When it was created.
+     * @return The date of creation
+     */
+    ListenableFuture<Date> date();
+
+    /**
+     * When it was updated.
+     * @return The date of update
+     */
+    ListenableFuture<Date> updated();
+
+    /**
+     * Get its title.
+     * @return The title of the bout
+     */
+    ListenableFuture<String> title();
+
+    /**
+     * Set its title.
+     * @param text The title of the bout
+     * @return Completed when renamed
+     */
+    ListenableFuture<Void> rename(String text);
+
+    /**
+     * Am I subscribed to it?
+     * @return TRUE if subscribed
+     * @see Bout#subscription()
+     */
+    ListenableFuture<Boolean> subscription();
+
+    /**
+     * Is this friend subscribed to it?
+     * @param alias Alias of the friend
+     * @return TRUE if subscribed
+     * @see Bout#subscription(String)
+     */
+    ListenableFuture<Boolean> subscription(String alias);
+
+    /**
+     * Subscribe or unsubscribe.
+     * @param subs TRUE to subscribe
+     * @return Completed when done
+     */
+    ListenableFuture<Void> subscribe(boolean subs);
+
+    /**
+     * Get messages.
+     * @return Messages
+     */
+    AsyncMessages messages();
+
+    /**
+     * Get friends.
+     * @return Friends
+     */
+    AsyncFriends friends();
+
+    /**
+     * Get attachments.
+     * @return Attachments
+     */
+    AsyncAttachments attachments();
+
+    /**
+     * Bout of a blocking one.
+     *
+     * <p>Every call is executed by the given executor.
+     */
+    @Loggable(Loggable.DEBUG)
+    @ToString(of = "origin")
+    @EqualsAndHashCode(of = "origin")
+    final class Wrap implements AsyncBout {
+        /**
+         * Original bout.
+         */
+        private final transient Bout origin;
+        /**
+         * Executor of calls.
+         */
+        private final transient ListeningExecutorService exec;
+        /**
+         * Public ctor.
+         * @param bout Original bout
+         * @param svc Executor of calls
+         */
+        public Wrap(final Bout bout, final ListeningExecutorService svc) {
+            this.origin = bout;
+            this.exec = svc;
+        }
+        @Override
+        public ListenableFuture<Long> number() {
+            return this.exec.submit(
+                new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return Wrap.this.origin.number();
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Date> date() {
+            return this.exec.submit(
+                new Callable<Date>() {
+                    @Override
+                    public Date call() throws IOException {
+                        return Wrap.this.origin.date();
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Date> updated() {
+            return this.exec.submit(
+                new Callable<Date>() {
+                    @Override
+                    public Date call() throws IOException {
+                        return Wrap.this.origin.updated();
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<String> title() {
+            return this.exec.submit(
+                new Callable<String>() {
+                    @Override
+                    public String call() throws IOException {
+                        return Wrap.this.origin.title();
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Void> rename(final String text) {
+            return this.exec.submit(
+                new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        Wrap.this.origin.rename(text);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Boolean> subscription() {
+            return this.exec.submit(
+                new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws IOException {
+                        return Wrap.this.origin.subscription();
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Boolean> subscription(final String alias) {
+            return this.exec.submit(
+                new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws IOException {
+                        return Wrap.this.origin.subscription(alias);
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Void> subscribe(final boolean subs) {
+            return this.exec.submit(
+                new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        Wrap.this.origin.subscribe(subs);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public AsyncMessages messages() {
+            return new AsyncMessages.Wrap(this.origin, this.exec);
+        }
+        @Override
+        public AsyncFriends friends() {
+            return new AsyncFriends.Wrap(this.origin, this.exec);
+        }
+        @Override
+        public AsyncAttachments attachments() {
+            return new AsyncAttachments.Wrap(this.origin, this.exec);
+        }
+    }
+
+    /**
+     * Bout, which reads from a non-blocking one and writes
+     * to a blocking one.
+     *
+     * @see AsyncInbox.Split
+     */
+    @Loggable(Loggable.DEBUG)
+    @ToString(of = "reads")
+    @EqualsAndHashCode(of = { "reads", "inbox" })
+    final class Split implements AsyncBout {
+        /**
+         * Bout to read from.
+         */
+        private final transient AsyncBout reads;
+        /**
+         * Blocking inbox, where the bout to write to is.
+         */
+        private final transient Inbox inbox;
+        /**
+         * Executor of writes.
+         */
+        private final transient ListeningExecutorService exec;
+        /**
+         * Public ctor.
+         * @param read Bout to read from
+         * @param write Inbox with the bout to write to
+         * @param svc Executor of writes
+         */
+        public Split(final AsyncBout read, final Inbox write,
+            final ListeningExecutorService svc) {
+            this.reads = read;
+            this.inbox = write;
+            this.exec = svc;
+        }
+        @Override
+        public ListenableFuture<Long> number() {
+            return this.reads.number();
+        }
+        @Override
+        public ListenableFuture<Date> date() {
+            return this.reads.date();
+        }
+        @Override
+        public ListenableFuture<Date> updated() {
+            return this.reads.updated();
+        }
+        @Override
+        public ListenableFuture<String> title() {
+            return this.reads.title();
+        }
+        @Override
+        public ListenableFuture<Void> rename(final String text) {
+            return this.writes().call(
+                new Writes.Action<Void>() {
+                    @Override
+                    public Void exec(final Bout bout) throws IOException {
+                        bout.rename(text);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Boolean> subscription() {
+            return this.reads.subscription();
+        }
+        @Override
+        public ListenableFuture<Boolean> subscription(final String alias) {
+            return this.reads.subscription(alias);
+        }
+        @Override
+        public ListenableFuture<Void> subscribe(final boolean subs) {
+            return this.writes().call(
+                new Writes.Action<Void>() {
+                    @Override
+                    public Void exec(final Bout bout) throws IOException {
+                        bout.subscribe(subs);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public AsyncMessages messages() {
+            return new AsyncMessages.Split(
+                this.reads.messages(), this.writes()
+            );
+        }
+        @Override
+        public AsyncFriends friends() {
+            return new AsyncFriends.Split(this.reads.friends(), this.writes());
+        }
+        @Override
+        public AsyncAttachments attachments() {
+            return new AsyncAttachments.Split(
+                this.reads.attachments(), this.writes()
+            );
+        }
+        /**
+         * Writes to the blocking bout.
+         * @return Writes
+         */
+        private Writes writes() {
+            return new Writes(this.reads.number(), this.inbox, this.exec);
+        }
+    }
+
+}
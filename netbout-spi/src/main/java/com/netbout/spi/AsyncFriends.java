@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.spi;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Friends of a bout, which don't block their callers.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @see Friends
+ */
+@Immutable
+public interface AsyncFriends {
+
+    /**
+     * Invite a new friend.
+     * @param friend The friend
+     * @return Completed when invited, or failed with
+     *  {@link Friends.UnknownAliasException}
+     */
+    ListenableFuture<Void> invite(String friend);
+
+    /**
+     * Kick a friend out.
+     * @param friend The friend
+     * @return Completed when kicked out
+     */
+    ListenableFuture<Void> kick(String friend);
+
+    /**
+     * Get all friends.
+     * @return Friends
+     */
+    ListenableFuture<List<Friend>> iterate();
+
+    /**
+     * Friends of a blocking bout.
+     *
+     * <p>Every call is executed by the given executor. Friends of
+     * the bout are only asked for inside of the calls.
+     */
+    @Loggable(Loggable.DEBUG)
+    @ToString(of = "bout")
+    @EqualsAndHashCode(of = "bout")
+    final class Wrap implements AsyncFriends {
+        /**
+         * Original bout.
+         */
+        private final transient Bout bout;
+        /**
+         * Executor of calls.
+         */
+        private final transient ListeningExecutorService exec;
+        /**
+         * Public ctor.
+         * @param origin Original bout
+         * @param svc Executor of calls
+         */
+        public Wrap(final Bout origin, final ListeningExecutorService svc) {
+            this.bout = origin;
+            this.exec = svc;
+        }
+        @Override
+        public ListenableFuture<Void> invite(final String friend) {
+            return this.exec.submit(
+                new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        Wrap.this.bout.friends().invite(friend);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Void> kick(final String friend) {
+            return this.exec.submit(
+                new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        Wrap.this.bout.friends().kick(friend);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<List<Friend>> iterate() {
+            return this.exec.submit(
+                new Callable<List<Friend>>() {
+                    @Override
+                    public List<Friend> call() throws IOException {
+                        return Lists.newArrayList(
+                            Wrap.this.bout.friends().iterate()
+                        );
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Friends, which are read from non-blocking ones and invited
+     * to a blocking bout.
+     *
+     * @see AsyncInbox.Split
+     */
+    @Loggable(Loggable.DEBUG)
+    @ToString(of = "reads")
+    @EqualsAndHashCode(of = { "reads", "writes" })
+    final class Split implements AsyncFriends {
+        /**
+         * Friends to read from.
+         */
+        private final transient AsyncFriends reads;
+        /**
+         * Writes to the blocking bout.
+         */
+        private final transient Writes writes;
+        /**
+         * Ctor.
+         * @param read Friends to read from
+         * @param write Writes to the blocking bout
+         */
+        Split(final AsyncFriends read, final Writes write) {
+            this.reads = read;
+            this.writes = write;
+        }
+        @Override
+        public ListenableFuture<Void> invite(final String friend) {
+            return this.writes.call(
+                new Writes.Action<Void>() {
+                    @Override
+                    public Void exec(final Bout bout) throws IOException {
+                        bout.friends().invite(friend);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Void> kick(final String friend) {
+            return this.writes.call(
+                new Writes.Action<Void>() {
+                    @Override
+                    public Void exec(final Bout bout) throws IOException {
+                        bout.friends().kick(friend);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<List<Friend>> iterate() {
+            return this.reads.iterate();
+        }
+    }
+
+}
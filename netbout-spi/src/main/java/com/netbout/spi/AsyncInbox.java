@@ -0,0 +1,362 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.spi;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Inbox, which doesn't block its callers.
+ *
+ * <p>Every call that may need I/O returns a future, which is completed
+ * when the result is ready, and fails with the {@link IOException}
+ * that the blocking {@link Inbox} would throw. Independent calls
+ * may be made one after another and then composed, without waiting
+ * for each of them.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+public interface AsyncInbox {
+
+    /**
+     * Start new bout.
+     * @return Bout number
+     * @see Inbox#start()
+     */
+    ListenableFuture<Long> start();
+
+    /**
+     * How many unread messages are in total, in this inbox?
+     * @return Number of them
+     * @see Inbox#unread()
+     */
+    ListenableFuture<Long> unread();
+
+    /**
+     * Get bout by its number.
+     * @param number Bout number
+     * @return Bout found
+     * @see Inbox#bout(long)
+     */
+    ListenableFuture<AsyncBout> bout(long number);
+
+    /**
+     * Go to the given position, without any I/O.
+     * @param number Position, the same as in {@link Pageable#jump(long)}
+     * @return Inbox starting from there
+     */
+    AsyncInbox jump(long number);
+
+    /**
+     * Get one page of bouts, not more than {@link Inbox#PAGE}.
+     * @return Bouts
+     * @see Inbox#iterate()
+     */
+    ListenableFuture<List<AsyncBout>> iterate();
+
+    /**
+     * Get one page of bouts, right after the cursor.
+     * @param cursor Cursor or empty string
+     * @return The page
+     * @see Pageable#page(String)
+     */
+    ListenableFuture<Pageable.Page<AsyncBout>> page(String cursor);
+
+    /**
+     * Find bouts.
+     * @param term Search term
+     * @return Bouts found
+     * @see Inbox#search(String)
+     */
+    ListenableFuture<List<AsyncBout>> search(String term);
+
+    /**
+     * Inbox of a blocking one.
+     *
+     * <p>Every call is executed by the given executor, that's why
+     * the executor is the limit of calls in progress. The class is not
+     * {@link Immutable}, because the executor isn't.
+     */
+    @Loggable(Loggable.DEBUG)
+    @ToString(of = "origin")
+    @EqualsAndHashCode(of = { "origin", "since" })
+    final class Wrap implements AsyncInbox {
+        /**
+         * Original inbox.
+         */
+        private final transient Inbox origin;
+        /**
+         * Position, or {@link Inbox#NEVER} if not moved.
+         */
+        private final transient long since;
+        /**
+         * Executor of calls.
+         */
+        private final transient ListeningExecutorService exec;
+        /**
+         * Public ctor.
+         * @param inbox Original inbox
+         * @param svc Executor of calls
+         */
+        public Wrap(final Inbox inbox, final ListeningExecutorService svc) {
+            this(inbox, Inbox.NEVER, svc);
+        }
+        /**
+         * Private ctor.
+         * @param inbox Original inbox
+         * @param number Position, or {@link Inbox#NEVER} if not moved
+         * @param svc Executor of calls
+         */
+        private Wrap(final Inbox inbox, final long number,
+            final ListeningExecutorService svc) {
+            this.origin = inbox;
+            this.since = number;
+            this.exec = svc;
+        }
+        @Override
+        public ListenableFuture<Long> start() {
+            return this.exec.submit(
+                new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return Wrap.this.origin.start();
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Long> unread() {
+            return this.exec.submit(
+                new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return Wrap.this.origin.unread();
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<AsyncBout> bout(final long number) {
+            return this.exec.submit(
+                new Callable<AsyncBout>() {
+                    @Override
+                    public AsyncBout call() throws IOException {
+                        return new AsyncBout.Wrap(
+                            Wrap.this.origin.bout(number), Wrap.this.exec
+                        );
+                    }
+                }
+            );
+        }
+        @Override
+        public AsyncInbox jump(final long number) {
+            return new AsyncInbox.Wrap(this.origin, number, this.exec);
+        }
+        @Override
+        public ListenableFuture<List<AsyncBout>> iterate() {
+            return this.exec.submit(
+                new Callable<List<AsyncBout>>() {
+                    @Override
+                    public List<AsyncBout> call() throws IOException {
+                        Pageable<Bout> pages = Wrap.this.origin;
+                        if (Wrap.this.since != Inbox.NEVER) {
+                            pages = pages.jump(Wrap.this.since);
+                        }
+                        return Wrap.this.bouts(
+                            Iterables.limit(pages.iterate(), Inbox.PAGE)
+                        );
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Pageable.Page<AsyncBout>> page(
+            final String cursor) {
+            return this.exec.submit(
+                new Callable<Pageable.Page<AsyncBout>>() {
+                    @Override
+                    public Pageable.Page<AsyncBout> call()
+                        throws IOException {
+                        final Pageable.Page<Bout> page =
+                            Wrap.this.origin.page(cursor);
+                        return new Pageable.Page<>(
+                            Wrap.this.bouts(page.items()), page.next()
+                        );
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<List<AsyncBout>> search(final String term) {
+            return this.exec.submit(
+                new Callable<List<AsyncBout>>() {
+                    @Override
+                    public List<AsyncBout> call() throws IOException {
+                        return Wrap.this.bouts(
+                            Wrap.this.origin.search(term)
+                        );
+                    }
+                }
+            );
+        }
+        /**
+         * Wrap blocking bouts.
+         * @param bouts Bouts
+         * @return Async bouts
+         */
+        private List<AsyncBout> bouts(final Iterable<Bout> bouts) {
+            final List<AsyncBout> list = new ArrayList<>(Inbox.PAGE);
+            for (final Bout bout : bouts) {
+                list.add(new AsyncBout.Wrap(bout, this.exec));
+            }
+            return list;
+        }
+    }
+
+    /**
+     * Inbox, which reads from a non-blocking one and writes
+     * to a blocking one.
+     *
+     * <p>Decorators of a base use it in order to read through
+     * the non-blocking inbox of their origin, while their own
+     * decorations of writes stay in place, see {@link AsyncBase.Wrap}.
+     */
+    @Loggable(Loggable.DEBUG)
+    @ToString(of = "reads")
+    @EqualsAndHashCode(of = { "reads", "writes" })
+    final class Split implements AsyncInbox {
+        /**
+         * Inbox to read from.
+         */
+        private final transient AsyncInbox reads;
+        /**
+         * Inbox to write to.
+         */
+        private final transient Inbox writes;
+        /**
+         * Executor of writes.
+         */
+        private final transient ListeningExecutorService exec;
+        /**
+         * Public ctor.
+         * @param read Inbox to read from
+         * @param write Inbox to write to
+         * @param svc Executor of writes
+         */
+        public Split(final AsyncInbox read, final Inbox write,
+            final ListeningExecutorService svc) {
+            this.reads = read;
+            this.writes = write;
+            this.exec = svc;
+        }
+        @Override
+        public ListenableFuture<Long> start() {
+            return new AsyncInbox.Wrap(this.writes, this.exec).start();
+        }
+        @Override
+        public ListenableFuture<Long> unread() {
+            return this.reads.unread();
+        }
+        @Override
+        public ListenableFuture<AsyncBout> bout(final long number) {
+            return Futures.transform(this.reads.bout(number), this.split());
+        }
+        @Override
+        public AsyncInbox jump(final long number) {
+            return new AsyncInbox.Split(
+                this.reads.jump(number), this.writes, this.exec
+            );
+        }
+        @Override
+        public ListenableFuture<List<AsyncBout>> iterate() {
+            return Futures.transform(this.reads.iterate(), this.all());
+        }
+        @Override
+        public ListenableFuture<Pageable.Page<AsyncBout>> page(
+            final String cursor) {
+            return Futures.transform(
+                this.reads.page(cursor),
+                new Function<Pageable.Page<AsyncBout>,
+                    Pageable.Page<AsyncBout>>() {
+                    @Override
+                    public Pageable.Page<AsyncBout> apply(
+                        final Pageable.Page<AsyncBout> page) {
+                        return page.transform(Split.this.split());
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<List<AsyncBout>> search(final String term) {
+            return Futures.transform(this.reads.search(term), this.all());
+        }
+        /**
+         * Split one bout.
+         * @return Function
+         */
+        private Function<AsyncBout, AsyncBout> split() {
+            return new Function<AsyncBout, AsyncBout>() {
+                @Override
+                public AsyncBout apply(final AsyncBout bout) {
+                    return new AsyncBout.Split(
+                        bout, Split.this.writes, Split.this.exec
+                    );
+                }
+            };
+        }
+        /**
+         * Split all bouts.
+         * @return Function
+         */
+        private Function<List<AsyncBout>, List<AsyncBout>> all() {
+            return new Function<List<AsyncBout>, List<AsyncBout>>() {
+                @Override
+                public List<AsyncBout> apply(final List<AsyncBout> bouts) {
+                    return new ArrayList<>(
+                        Lists.transform(bouts, Split.this.split())
+                    );
+                }
+            };
+        }
+    }
+
+}
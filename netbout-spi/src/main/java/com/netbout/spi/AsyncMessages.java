@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.spi;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Messages of a bout, which don't block their callers.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @see Messages
+ */
+@Immutable
+public interface AsyncMessages {
+
+    /**
+     * Post a new message.
+     * @param text The text of the new message
+     * @return Completed when posted
+     */
+    ListenableFuture<Void> post(String text);
+
+    /**
+     * How many unread messages are there?
+     * @return Number of them
+     */
+    ListenableFuture<Long> unread();
+
+    /**
+     * Go to the given position, without any I/O.
+     * @param number Position, the same as in {@link Pageable#jump(long)}
+     * @return Messages starting from there
+     */
+    AsyncMessages jump(long number);
+
+    /**
+     * Get one page of messages, not more than {@link Messages#PAGE}.
+     * @return Messages, already loaded
+     * @see Messages#iterate()
+     */
+    ListenableFuture<List<Message>> iterate();
+
+    /**
+     * Get one page of messages, right after the cursor.
+     * @param cursor Cursor or empty string
+     * @return The page
+     * @see Pageable#page(String)
+     */
+    ListenableFuture<Pageable.Page<Message>> page(String cursor);
+
+    /**
+     * Find messages.
+     * @param term Search term
+     * @return Messages found
+     */
+    ListenableFuture<List<Message>> search(String term);
+
+    /**
+     * Messages of a blocking bout.
+     *
+     * <p>Every call is executed by the given executor. Messages of
+     * the bout are only asked for inside of the calls.
+     */
+    @Loggable(Loggable.DEBUG)
+    @ToString(of = "bout")
+    @EqualsAndHashCode(of = { "bout", "since" })
+    final class Wrap implements AsyncMessages {
+        /**
+         * Original bout.
+         */
+        private final transient Bout bout;
+        /**
+         * Position, or {@link Inbox#NEVER} if not moved.
+         */
+        private final transient long since;
+        /**
+         * Executor of calls.
+         */
+        private final transient ListeningExecutorService exec;
+        /**
+         * Public ctor.
+         * @param origin Original bout
+         * @param svc Executor of calls
+         */
+        public Wrap(final Bout origin, final ListeningExecutorService svc) {
+            this(origin, Inbox.NEVER, svc);
+        }
+        /**
+         * Private ctor.
+         * @param origin Original bout
+         * @param number Position, or {@link Inbox#NEVER} if not moved
+         * @param svc Executor of calls
+         */
+        private Wrap(final Bout origin, final long number,
+            final ListeningExecutorService svc) {
+            this.bout = origin;
+            this.since = number;
+            this.exec = svc;
+        }
+        @Override
+        public ListenableFuture<Void> post(final String text) {
+            return this.exec.submit(
+                new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        Wrap.this.bout.messages().post(text);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Long> unread() {
+            return this.exec.submit(
+                new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return Wrap.this.bout.messages().unread();
+                    }
+                }
+            );
+        }
+        @Override
+        public AsyncMessages jump(final long number) {
+            return new AsyncMessages.Wrap(this.bout, number, this.exec);
+        }
+        @Override
+        public ListenableFuture<List<Message>> iterate() {
+            return this.exec.submit(
+                new Callable<List<Message>>() {
+                    @Override
+                    public List<Message> call() throws IOException {
+                        Pageable<Message> pages = Wrap.this.bout.messages();
+                        if (Wrap.this.since != Inbox.NEVER) {
+                            pages = pages.jump(Wrap.this.since);
+                        }
+                        return Lists.newArrayList(
+                            Iterables.limit(pages.iterate(), Messages.PAGE)
+                        );
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Pageable.Page<Message>> page(
+            final String cursor) {
+            return this.exec.submit(
+                new Callable<Pageable.Page<Message>>() {
+                    @Override
+                    public Pageable.Page<Message> call()
+                        throws IOException {
+                        return Wrap.this.bout.messages().page(cursor);
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<List<Message>> search(final String term) {
+            return this.exec.submit(
+                new Callable<List<Message>>() {
+                    @Override
+                    public List<Message> call() throws IOException {
+                        return Lists.newArrayList(
+                            Wrap.this.bout.messages().search(term)
+                        );
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Messages, which are read from non-blocking ones and posted
+     * to a blocking bout.
+     *
+     * @see AsyncInbox.Split
+     */
+    @Loggable(Loggable.DEBUG)
+    @ToString(of = "reads")
+    @EqualsAndHashCode(of = { "reads", "writes" })
+    final class Split implements AsyncMessages {
+        /**
+         * Messages to read from.
+         */
+        private final transient AsyncMessages reads;
+        /**
+         * Writes to the blocking bout.
+         */
+        private final transient Writes writes;
+        /**
+         * Ctor.
+         * @param read Messages to read from
+         * @param write Writes to the blocking bout
+         */
+        Split(final AsyncMessages read, final Writes write) {
+            this.reads = read;
+            this.writes = write;
+        }
+        @Override
+        public ListenableFuture<Void> post(final String text) {
+            return this.writes.call(
+                new Writes.Action<Void>() {
+                    @Override
+                    public Void exec(final Bout bout) throws IOException {
+                        bout.messages().post(text);
+                        return null;
+                    }
+                }
+            );
+        }
+        @Override
+        public ListenableFuture<Long> unread() {
+            return this.reads.unread();
+        }
+        @Override
+        public AsyncMessages jump(final long number) {
+            return new AsyncMessages.Split(
+                this.reads.jump(number), this.writes
+            );
+        }
+        @Override
+        public ListenableFuture<List<Message>> iterate() {
+            return this.reads.iterate();
+        }
+        @Override
+        public ListenableFuture<Pageable.Page<Message>> page(
+            final String cursor) {
+            return this.reads.page(cursor);
+        }
+        @Override
+        public ListenableFuture<List<Message>> search(final String term) {
+            return this.reads.search(term);
+        }
+    }
+
+}
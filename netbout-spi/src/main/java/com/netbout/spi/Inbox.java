@@ -28,6 +28,13 @@ package com.netbout.spi;
 
 import com.jcabi.aspects.Immutable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /**
  * Alias.
@@ -72,6 +79,158 @@ public interface Inbox extends Pageable<Bout>, Searchable<Bout> {
      */
     Bout bout(long number) throws Inbox.BoutNotFoundException;
 
+    /**
+     * Get one page of rows, right after the cursor, with everything
+     * the inbox shows about every bout.
+     *
+     * <p>The cursor is the same as in {@link #page(String)}. The rows
+     * are read in a fixed number of calls to the storage, no matter
+     * how many bouts and friends are there, if the storage can do it.
+     *
+     * @param cursor Cursor or empty string
+     * @return The page
+     * @throws IOException If fails
+     * @since 3.0
+     */
+    Pageable.Page<Inbox.Row> rows(String cursor) throws IOException;
+
+    /**
+     * Row of the inbox, with everything it shows about a bout.
+     * @since 3.0
+     */
+    @ToString
+    @EqualsAndHashCode
+    final class Row {
+        /**
+         * Bout number.
+         */
+        private final transient long num;
+        /**
+         * When the bout was updated.
+         */
+        private final transient long date;
+        /**
+         * How many messages are unread.
+         */
+        private final transient long fresh;
+        /**
+         * How many attachments are unseen.
+         */
+        private final transient int unknown;
+        /**
+         * Title.
+         */
+        private final transient String label;
+        /**
+         * Aliases of friends.
+         */
+        private final transient List<String> aliases;
+        /**
+         * Public ctor, which reads everything from the bout, one by one.
+         * @param bout The bout
+         * @throws IOException If fails
+         */
+        public Row(final Bout bout) throws IOException {
+            this(
+                bout.number(), bout.updated(), bout.messages().unread(),
+                bout.attachments().unseen(), bout.title(),
+                Inbox.Row.aliases(bout)
+            );
+        }
+        /**
+         * Public ctor.
+         * @param number Bout number
+         * @param updated When the bout was updated
+         * @param unread How many messages are unread
+         * @param unseen How many attachments are unseen
+         * @param title Title
+         * @param friends Aliases of friends
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public Row(final long number, final Date updated, final long unread,
+            final int unseen, final String title,
+            final Collection<String> friends) {
+            this.num = number;
+            this.date = updated.getTime();
+            this.fresh = unread;
+            this.unknown = unseen;
+            this.label = title;
+            this.aliases = Collections.unmodifiableList(
+                new ArrayList<>(friends)
+            );
+        }
+        /**
+         * Bout number.
+         * @return Number
+         */
+        public long number() {
+            return this.num;
+        }
+        /**
+         * When the bout was updated.
+         * @return Date
+         */
+        public Date updated() {
+            return new Date(this.date);
+        }
+        /**
+         * How many messages are unread.
+         * @return Number of them
+         */
+        public long unread() {
+            return this.fresh;
+        }
+        /**
+         * How many attachments are unseen.
+         * @return Number of them
+         */
+        public int unseen() {
+            return this.unknown;
+        }
+        /**
+         * Title of the bout.
+         * @return Title
+         */
+        public String title() {
+            return this.label;
+        }
+        /**
+         * Aliases of friends of the bout.
+         * @return Aliases
+         */
+        public List<String> friends() {
+            return this.aliases;
+        }
+        /**
+         * Rows of a page of bouts, read from every bout one by one.
+         * @param page Page of bouts
+         * @return Page of rows
+         * @throws IOException If fails
+         */
+        public static Pageable.Page<Inbox.Row> hydrate(
+            final Pageable.Page<Bout> page) throws IOException {
+            final List<Inbox.Row> rows = new ArrayList<>(page.items().size());
+            for (final Bout bout : page.items()) {
+                rows.add(new Inbox.Row(bout));
+            }
+            return new Pageable.Page<>(rows, page.next());
+        }
+        /**
+         * Aliases of friends of the bout.
+         * @param bout The bout
+         * @return Aliases
+         * @throws IOException If fails
+         */
+        private static Collection<String> aliases(final Bout bout)
+            throws IOException {
+            final Collection<String> aliases = new ArrayList<>(0);
+            for (final Friend friend : bout.friends().iterate()) {
+                aliases.add(friend.alias());
+            }
+            return aliases;
+        }
+    }
+
     /**
      * Thowable when bout is not found.
      * @see Inbox#bout(long)
@@ -26,8 +26,19 @@
  */
 package com.netbout.spi;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.google.common.io.BaseEncoding;
 import com.jcabi.aspects.Immutable;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 /**
  * Pageable.
@@ -54,4 +65,153 @@ public interface Pageable<T> {
      */
     Iterable<T> iterate() throws IOException;
 
+    /**
+     * Get one page, right after the cursor.
+     *
+     * <p>The cursor is opaque for the caller, it is either empty, for
+     * the first page, or taken from {@link Pageable.Page#next()} of
+     * the previous page. Items are never lost or repeated between pages,
+     * even if their dates are the same, and every page is usually read
+     * by one query.
+     *
+     * @param cursor Cursor or empty string
+     * @return The page
+     * @throws IOException If fails
+     * @since 3.0
+     */
+    Pageable.Page<T> page(String cursor) throws IOException;
+
+    /**
+     * One page of items.
+     * @param <T> Type of items
+     * @since 3.0
+     */
+    @ToString
+    @EqualsAndHashCode
+    final class Page<T> {
+        /**
+         * Items.
+         */
+        private final transient List<T> list;
+        /**
+         * Cursor of the next page, empty if there are no more pages.
+         */
+        private final transient String cursor;
+        /**
+         * Public ctor.
+         * @param items Items
+         * @param next Cursor of the next page, empty if it's the last one
+         */
+        public Page(final List<T> items, final String next) {
+            this.list = Collections.unmodifiableList(items);
+            this.cursor = next;
+        }
+        /**
+         * Items of the page.
+         * @return Items
+         */
+        public List<T> items() {
+            return this.list;
+        }
+        /**
+         * Cursor of the next page.
+         * @return Cursor, empty if there are no more pages
+         */
+        public String next() {
+            return this.cursor;
+        }
+        /**
+         * The same page, with items transformed.
+         * @param func Function to apply to every item
+         * @param <X> Type of new items
+         * @return New page
+         */
+        public <X> Pageable.Page<X> transform(final Function<T, X> func) {
+            return new Pageable.Page<>(
+                Lists.transform(this.list, func), this.cursor
+            );
+        }
+    }
+
+    /**
+     * Cursor made of a few numbers, like a key of the last item.
+     * @since 3.0
+     */
+    @Immutable
+    @EqualsAndHashCode(of = "keys")
+    final class Keyset {
+        /**
+         * Encoding of cursors.
+         */
+        private static final BaseEncoding ENCODING =
+            BaseEncoding.base64Url().omitPadding();
+        /**
+         * Numbers.
+         */
+        @Immutable.Array
+        private final transient long[] keys;
+        /**
+         * Public ctor.
+         * @param numbers Numbers of the key
+         */
+        public Keyset(final long... numbers) {
+            this.keys = Arrays.copyOf(numbers, numbers.length);
+        }
+        /**
+         * Public ctor.
+         * @param cursor Cursor made by {@link #toString()}
+         * @param size How many numbers must be there
+         */
+        public Keyset(final String cursor, final int size) {
+            this(Pageable.Keyset.parse(cursor, size));
+        }
+        /**
+         * Number of the key.
+         * @param idx Position of it, starting from zero
+         * @return The number
+         */
+        public long get(final int idx) {
+            return this.keys[idx];
+        }
+        /**
+         * The cursor.
+         * @return Opaque text
+         */
+        @Override
+        public String toString() {
+            final List<Long> list = Lists.newArrayListWithCapacity(
+                this.keys.length
+            );
+            for (final long key : this.keys) {
+                list.add(key);
+            }
+            return Pageable.Keyset.ENCODING.encode(
+                Joiner.on('.').join(list).getBytes(Charsets.UTF_8)
+            );
+        }
+        /**
+         * Parse the cursor.
+         * @param cursor Cursor made by {@link #toString()}
+         * @param size How many numbers must be there
+         * @return Numbers
+         */
+        private static long[] parse(final String cursor, final int size) {
+            final List<String> parts = Splitter.on('.').splitToList(
+                new String(
+                    Pageable.Keyset.ENCODING.decode(cursor), Charsets.UTF_8
+                )
+            );
+            if (parts.size() != size) {
+                throw new IllegalArgumentException(
+                    String.format("broken cursor \"%s\"", cursor)
+                );
+            }
+            final long[] numbers = new long[size];
+            for (int idx = 0; idx < size; ++idx) {
+                numbers[idx] = Long.parseLong(parts.get(idx));
+            }
+            return numbers;
+        }
+    }
+
 }
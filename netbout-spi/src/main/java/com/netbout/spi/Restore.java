@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.spi;
+
+import com.jcabi.aspects.Immutable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+
+/**
+ * Base, which can restore bouts exactly as they were somewhere else.
+ *
+ * <p>Unlike {@link Inbox#start()} and {@link Messages#post(String)},
+ * nothing is generated here: bouts and messages keep their numbers,
+ * messages keep their authors and dates. Nobody is notified and nothing
+ * becomes unread. Counters of the base are moved forward, in order
+ * not to give the restored numbers to new bouts and messages later.
+ * It is supposed to be done before the base starts to serve its users,
+ * for example in order to move bouts from one base to another one.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+public interface Restore {
+
+    /**
+     * Restore a bout, which must not exist yet.
+     * @param number Number of the bout
+     * @param title Its title
+     * @param date When it was updated last time
+     * @return The bout, to be closed when everything is restored in it
+     * @throws IOException If fails or the bout already exists
+     */
+    Restore.Bout bout(long number, String title, Date date)
+        throws IOException;
+
+    /**
+     * Bout being restored.
+     */
+    interface Bout extends Closeable {
+        /**
+         * Restore a friend, even if the alias is unknown to the base.
+         * @param alias The alias
+         * @throws IOException If fails
+         */
+        void friend(String alias) throws IOException;
+        /**
+         * Restore a message.
+         * @param number Number of it
+         * @param author Alias of the author
+         * @param date When it was posted
+         * @param text Its text
+         * @throws IOException If fails
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        void message(long number, String author, Date date, String text)
+            throws IOException;
+        /**
+         * Restore an attachment.
+         * @param name Its name
+         * @param ctype Content type
+         * @param etag Etag
+         * @param content The content, which is read till the end
+         * @throws IOException If fails
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        void attachment(String name, String ctype, String etag,
+            InputStream content) throws IOException;
+    }
+
+}
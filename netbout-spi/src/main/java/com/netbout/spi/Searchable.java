@@ -40,6 +40,13 @@ import java.io.IOException;
 public interface Searchable<T> {
     /**
      * Find items matching the search term.
+     *
+     * <p>Implementations backed by a full-text index match whole words
+     * of the term, ignoring case and punctuation, so that "hel" doesn't
+     * find "hello", while "Hello!" does. Others may match any part of
+     * the text. An item containing every word of the term is always
+     * found by either of them.
+     *
      * @param term String to search
      * @return Items matching the search term
      * @throws IOException If fails
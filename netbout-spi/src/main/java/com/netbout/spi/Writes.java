@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.spi;
+
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Writes to a blocking bout, on behalf of a non-blocking one.
+ *
+ * <p>The blocking bout is found in the inbox by the number of
+ * the non-blocking one, only when something is written.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@ToString(of = "inbox")
+@EqualsAndHashCode(of = { "number", "inbox" })
+final class Writes {
+
+    /**
+     * Number of the bout.
+     */
+    private final transient ListenableFuture<Long> number;
+
+    /**
+     * Blocking inbox.
+     */
+    private final transient Inbox inbox;
+
+    /**
+     * Executor of calls.
+     */
+    private final transient ListeningExecutorService exec;
+
+    /**
+     * Ctor.
+     * @param num Number of the bout
+     * @param ibx Blocking inbox
+     * @param svc Executor of calls
+     */
+    Writes(final ListenableFuture<Long> num, final Inbox ibx,
+        final ListeningExecutorService svc) {
+        this.number = num;
+        this.inbox = ibx;
+        this.exec = svc;
+    }
+
+    /**
+     * Run the action with the blocking bout.
+     * @param action The action
+     * @param <T> Type of result
+     * @return Result of the action
+     */
+    <T> ListenableFuture<T> call(final Writes.Action<T> action) {
+        return Futures.transform(
+            this.number,
+            new AsyncFunction<Long, T>() {
+                @Override
+                public ListenableFuture<T> apply(final Long num) {
+                    return Writes.this.exec.submit(
+                        new Callable<T>() {
+                            @Override
+                            public T call() throws IOException {
+                                return action.exec(Writes.this.inbox.bout(num));
+                            }
+                        }
+                    );
+                }
+            }
+        );
+    }
+
+    /**
+     * Action with a blocking bout.
+     * @param <T> Type of result
+     */
+    interface Action<T> {
+        /**
+         * Run it.
+         * @param bout The bout
+         * @return Result
+         * @throws IOException If fails
+         */
+        T exec(Bout bout) throws IOException;
+    }
+
+}
@@ -33,7 +33,12 @@ import com.jcabi.manifests.Manifests;
 import com.netbout.cached.CdBase;
 import com.netbout.dynamo.DyBase;
 import com.netbout.email.EmBase;
+import com.netbout.journal.JrBase;
 import com.netbout.rest.TkApp;
+import com.netbout.rest.TkRows;
+import com.netbout.spi.Base;
+import java.io.File;
+import java.io.IOException;
 import org.takes.http.Exit;
 import org.takes.http.FtCLI;
 
@@ -46,6 +51,11 @@ import org.takes.http.FtCLI;
  */
 public final class Launch {
 
+    /**
+     * Manifest attribute with the directory of the journal.
+     */
+    private static final String JOURNAL = "Netbout-Journal";
+
     /**
      * Utility class.
      */
@@ -60,16 +70,38 @@ public final class Launch {
      */
     public static void main(final String[] args) throws Exception {
         new FtCLI(
-            new TkApp(
-                new EmBase(
-                    new CdBase(new DyBase()),
-                    new PostNoLoops(Launch.postman())
+            new TkRows(
+                new TkApp(
+                    new EmBase(
+                        new CdBase(Launch.base()),
+                        new PostNoLoops(Launch.postman())
+                    )
                 )
             ),
             args
         ).start(Exit.NEVER);
     }
 
+    /**
+     * Create a base.
+     *
+     * <p>Bouts are kept in DynamoDB, unless a directory of the journal
+     * is configured in {@code Netbout-Journal}.
+     *
+     * @return Base
+     * @throws IOException If fails
+     */
+    private static Base base() throws IOException {
+        final Base base;
+        if (Manifests.exists(Launch.JOURNAL)
+            && !Manifests.read(Launch.JOURNAL).isEmpty()) {
+            base = new JrBase(new File(Manifests.read(Launch.JOURNAL)));
+        } else {
+            base = new DyBase();
+        }
+        return base;
+    }
+
     /**
      * Create a postman.
      * @return Postman
@@ -26,18 +26,30 @@
  */
 package com.netbout.cached;
 
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.VerboseThreads;
 import com.jcabi.urn.URN;
+import com.netbout.spi.Alias;
+import com.netbout.spi.AsyncBase;
+import com.netbout.spi.AsyncInbox;
 import com.netbout.spi.Base;
 import com.netbout.spi.User;
 import java.io.IOException;
+import java.util.concurrent.Executors;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 /**
  * Cached Base.
  *
+ * <p>Non-blocking inboxes of the origin stay reachable, while all
+ * writes made through them go through this base,
+ * see {@link AsyncBase.Wrap}.
+ *
  * @author Yegor Bugayenko (yegor@teamed.io)
  * @version $Id$
  * @since 2.0
@@ -46,7 +58,17 @@ import lombok.ToString;
 @Loggable(Loggable.DEBUG)
 @ToString(of = "origin")
 @EqualsAndHashCode(of = "origin")
-public final class CdBase implements Base {
+public final class CdBase implements Base, AsyncBase {
+
+    /**
+     * Threads writing through non-blocking inboxes.
+     */
+    private static final ListeningExecutorService WRITES =
+        MoreExecutors.listeningDecorator(
+            Executors.newFixedThreadPool(
+                Tv.FOUR, new VerboseThreads(CdBase.class)
+            )
+        );
 
     /**
      * Original base.
@@ -66,6 +88,11 @@ public final class CdBase implements Base {
         return new CdUser(this.origin.user(urn));
     }
 
+    @Override
+    public AsyncInbox inbox(final Alias alias) throws IOException {
+        return new AsyncBase.Wrap(this.origin, CdBase.WRITES).inbox(alias);
+    }
+
     @Override
     public void close() throws IOException {
         this.origin.close();
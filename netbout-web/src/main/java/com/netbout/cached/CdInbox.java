@@ -106,6 +106,24 @@ final class CdInbox implements Inbox {
         );
     }
 
+    @Override
+    public Pageable.Page<Bout> page(final String cursor) throws IOException {
+        return this.origin.page(cursor).transform(
+            new Function<Bout, Bout>() {
+                @Override
+                public Bout apply(final Bout input) {
+                    return new CdBout(input);
+                }
+            }
+        );
+    }
+
+    @Override
+    public Pageable.Page<Inbox.Row> rows(final String cursor)
+        throws IOException {
+        return this.origin.rows(cursor);
+    }
+
     @Override
     public Iterable<Bout> search(final String term) throws IOException {
         return Iterables.transform(
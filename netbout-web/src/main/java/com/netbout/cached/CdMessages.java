@@ -102,6 +102,20 @@ final class CdMessages implements Messages {
         );
     }
 
+    @Override
+    public Pageable.Page<Message> page(final String cursor)
+        throws IOException {
+        this.flag.touch();
+        return this.origin.page(cursor).transform(
+            new Function<Message, Message>() {
+                @Override
+                public Message apply(final Message input) {
+                    return new CdMessage(input);
+                }
+            }
+        );
+    }
+
     @Override
     public Iterable<Message> search(final String term) throws IOException {
         this.flag.touch();
@@ -70,21 +70,32 @@ final class CdPageable<T> implements Pageable<T> {
 
     @Override
     public Iterable<T> iterate() throws IOException {
-        return Iterables.transform(
-            this.origin.iterate(),
-            new Function<T, T>() {
-                @Override
-                @SuppressWarnings("unchecked")
-                public T apply(final T input) {
-                    final Object result;
-                    if (input instanceof Message) {
-                        result = new CdMessage(Message.class.cast(input));
-                    } else {
-                        result = new CdBout(Bout.class.cast(input));
-                    }
-                    return (T) result;
+        return Iterables.transform(this.origin.iterate(), this.wrap());
+    }
+
+    @Override
+    public Pageable.Page<T> page(final String cursor) throws IOException {
+        return this.origin.page(cursor).transform(this.wrap());
+    }
+
+    /**
+     * Function wrapping items into cached ones.
+     * @return Function
+     */
+    private Function<T, T> wrap() {
+        return new Function<T, T>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public T apply(final T input) {
+                final Object result;
+                if (input instanceof Message) {
+                    result = new CdMessage(Message.class.cast(input));
+                } else {
+                    result = new CdBout(Bout.class.cast(input));
                 }
+                return (T) result;
             }
-        );
+        };
     }
+
 }
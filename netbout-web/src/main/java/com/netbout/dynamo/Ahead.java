@@ -0,0 +1,354 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.google.common.base.FinalizableReferenceQueue;
+import com.google.common.base.FinalizableWeakReference;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.SettableFuture;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Item;
+import com.jcabi.log.VerboseThreads;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Items of a paginated query, prefetched ahead of the consumer.
+ *
+ * <p>Items are read page by page. When the consumer takes the last
+ * item of a full page, the next {@code depth} pages are requested
+ * in background, while the current page is being rendered. Prefetched
+ * pages belong to the iterator that requested them and are never
+ * shared with other iterators, that's why they are never older than
+ * the iteration itself. A consumer that stops before the end of a page
+ * doesn't cause any prefetching. The first page is always read directly.
+ *
+ * <p>When the iterator is abandoned, before all prefetched pages are
+ * taken from it, and is collected as garbage, its background work is
+ * cancelled: pages not requested from DynamoDB yet are not requested.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString(of = "start")
+@EqualsAndHashCode(of = { "pages", "start", "depth" })
+final class Ahead implements Iterable<Item> {
+
+    /**
+     * Threads fetching pages.
+     */
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(
+        Tv.FOUR, new VerboseThreads(Ahead.class)
+    );
+
+    /**
+     * Queue of abandoned iterators.
+     */
+    private static final FinalizableReferenceQueue ABANDONED =
+        new FinalizableReferenceQueue();
+
+    /**
+     * References to live iterators, which must be kept reachable
+     * until their iterators are collected.
+     */
+    private static final Set<Reference<?>> LIVE =
+        Sets.newConcurrentHashSet();
+
+    /**
+     * Pages of the query.
+     */
+    private final transient Ahead.Pages pages;
+
+    /**
+     * Where to start.
+     */
+    private final transient long start;
+
+    /**
+     * How many pages to prefetch.
+     */
+    private final transient int depth;
+
+    /**
+     * Ctor.
+     * @param src Pages
+     * @param first Where to start
+     * @param ahead How many pages to prefetch
+     */
+    Ahead(final Ahead.Pages src, final long first, final int ahead) {
+        this.pages = src;
+        this.start = first;
+        this.depth = ahead;
+    }
+
+    @Override
+    public Iterator<Item> iterator() {
+        final Ahead.Prefetch prefetch = new Ahead.Prefetch(this.pages);
+        final Iterator<Item> iterator = new AbstractIterator<Item>() {
+            private transient Iterator<Item> page =
+                Collections.<Item>emptyList().iterator();
+            private transient long cursor = Ahead.this.start;
+            private transient boolean first = true;
+            private transient boolean last;
+            private transient int left;
+            @Override
+            protected Item computeNext() {
+                try {
+                    if (!this.page.hasNext()) {
+                        if (this.last) {
+                            return this.endOfData();
+                        }
+                        final List<Item> items;
+                        if (this.first) {
+                            items = Ahead.this.pages.page(this.cursor);
+                            this.first = false;
+                        } else {
+                            items = prefetch.take(this.cursor);
+                        }
+                        this.last = items.size() < Ahead.this.pages.size();
+                        this.left = items.size();
+                        this.page = items.iterator();
+                        if (!this.page.hasNext()) {
+                            return this.endOfData();
+                        }
+                    }
+                    final Item item = this.page.next();
+                    --this.left;
+                    if (this.left == 0 && !this.last) {
+                        this.cursor = Ahead.this.pages.next(item);
+                        prefetch.start(this.cursor, Ahead.this.depth);
+                    }
+                    return item;
+                } catch (final IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        };
+        Ahead.LIVE.add(
+            new FinalizableWeakReference<Iterator<Item>>(
+                iterator, Ahead.ABANDONED
+            ) {
+                @Override
+                public void finalizeReferent() {
+                    prefetch.cancel();
+                    Ahead.LIVE.remove(this);
+                }
+            }
+        );
+        return iterator;
+    }
+
+    /**
+     * Pages of a query.
+     */
+    @Immutable
+    interface Pages {
+        /**
+         * Maximum number of items in a page.
+         * @return Size of a full page
+         */
+        int size();
+        /**
+         * Fetch one page from DynamoDB.
+         * @param from Where the page starts
+         * @return Items, not more than {@link #size()}
+         * @throws IOException If fails
+         */
+        List<Item> page(long from) throws IOException;
+        /**
+         * Where the page after this item starts.
+         * @param item The last item of a page
+         * @return Start of the next page
+         * @throws IOException If fails
+         */
+        long next(Item item) throws IOException;
+    }
+
+    /**
+     * Pages prefetched for one iterator.
+     *
+     * <p>Pages are taken by the thread of the consumer and loaded by
+     * one background task at a time, one after another.
+     */
+    private static final class Prefetch {
+        /**
+         * Pages of the query.
+         */
+        private final transient Ahead.Pages pages;
+        /**
+         * Pages requested and not taken yet, in order.
+         */
+        private final transient Queue<SettableFuture<List<Item>>> queue;
+        /**
+         * Background task, NULL if never started.
+         */
+        private transient volatile Future<?> task;
+        /**
+         * Ctor.
+         * @param src Pages
+         */
+        Prefetch(final Ahead.Pages src) {
+            this.pages = src;
+            this.queue = new ConcurrentLinkedQueue<>();
+        }
+        /**
+         * Start loading next pages, unless some are still not taken.
+         * @param from Where the first page starts
+         * @param more How many pages to load
+         */
+        public void start(final long from, final int more) {
+            if (more > 0 && this.queue.isEmpty()) {
+                final List<SettableFuture<List<Item>>> futures =
+                    new ArrayList<>(more);
+                for (int idx = 0; idx < more; ++idx) {
+                    futures.add(SettableFuture.<List<Item>>create());
+                }
+                this.queue.addAll(futures);
+                this.task = Ahead.POOL.submit(
+                    new Ahead.Load(this.pages, from, futures)
+                );
+            }
+        }
+        /**
+         * Take the next page, prefetched or not.
+         * @param from Where the page starts
+         * @return Items
+         * @throws IOException If fails
+         */
+        public List<Item> take(final long from) throws IOException {
+            final SettableFuture<List<Item>> future = this.queue.poll();
+            List<Item> items;
+            if (future == null) {
+                items = this.pages.page(from);
+            } else {
+                try {
+                    items = future.get();
+                } catch (final ExecutionException
+                    | CancellationException ex) {
+                    this.cancel();
+                    items = this.pages.page(from);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                }
+            }
+            return items;
+        }
+        /**
+         * Cancel all pages not taken yet.
+         */
+        public void cancel() {
+            if (this.task != null) {
+                this.task.cancel(true);
+            }
+            for (final SettableFuture<List<Item>> future : this.queue) {
+                future.cancel(false);
+            }
+            this.queue.clear();
+        }
+    }
+
+    /**
+     * Task loading pages one after another.
+     */
+    private static final class Load implements Runnable {
+        /**
+         * Pages of the query.
+         */
+        private final transient Ahead.Pages pages;
+        /**
+         * Where the first page starts.
+         */
+        private final transient long start;
+        /**
+         * Futures of pages to load, in order.
+         */
+        private final transient List<SettableFuture<List<Item>>> futures;
+        /**
+         * Ctor.
+         * @param src Pages
+         * @param from Where the first page starts
+         * @param all Futures of pages to load
+         */
+        Load(final Ahead.Pages src, final long from,
+            final List<SettableFuture<List<Item>>> all) {
+            this.pages = src;
+            this.start = from;
+            this.futures = all;
+        }
+        @Override
+        public void run() {
+            long from = this.start;
+            List<Item> items = null;
+            Exception error = null;
+            for (final SettableFuture<List<Item>> future : this.futures) {
+                if (Thread.currentThread().isInterrupted()
+                    || future.isCancelled()) {
+                    break;
+                }
+                if (error != null) {
+                    future.setException(error);
+                } else if (items != null && items.size() < this.pages.size()) {
+                    future.set(Collections.<Item>emptyList());
+                } else {
+                    try {
+                        if (items != null) {
+                            from = this.pages.next(
+                                items.get(items.size() - 1)
+                            );
+                        }
+                        items = this.pages.page(from);
+                        future.set(items);
+                    // @checkstyle IllegalCatchCheck (1 line)
+                    } catch (final Exception ex) {
+                        error = ex;
+                        future.setException(ex);
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,524 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Conditions;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Messages;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Archive of old messages in S3.
+ *
+ * <p>Messages older than a year are moved out of "messages" table
+ * into segments of a thousand messages each, stored in the {@link Storage} with
+ * attachments. A segment is a sequence of blocks of {@link #BLOCK}
+ * messages, every block is gzipped on its own. Every segment is
+ * registered in "archives" table, which is the manifest of the bout:
+ * the hash is the bout, the range is the number of the first message
+ * in the segment, and the offset table says where every block starts,
+ * so that a page of messages is read by a ranged GET of one or two
+ * blocks, instead of the entire segment.
+ *
+ * <p>A segment is written and registered, and the {@link View} of the
+ * bout is marked as archived, before its messages are deleted from
+ * DynamoDB, so nothing is lost if the process breaks. Older messages
+ * that don't make a full segment stay in DynamoDB.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = { "age", "size" })
+@EqualsAndHashCode(of = { "region", "storage", "age", "size" })
+@SuppressWarnings("PMD.ExcessiveImports")
+final class Archive {
+
+    /**
+     * Table name.
+     */
+    public static final String TBL = "archives";
+
+    /**
+     * Bout attribute.
+     */
+    public static final String HASH = "bout";
+
+    /**
+     * Number of the first message in the segment.
+     */
+    public static final String RANGE = "first";
+
+    /**
+     * Number of the last message in the segment.
+     */
+    public static final String ATTR_LAST = "last";
+
+    /**
+     * S3 key of the segment.
+     */
+    public static final String ATTR_KEY = "key";
+
+    /**
+     * Total messages in the segment.
+     */
+    public static final String ATTR_TOTAL = "total";
+
+    /**
+     * Offset table of the segment: the number of the first message and
+     * the offset in bytes of every block, like "1:0 17:2310 33:4501".
+     */
+    public static final String ATTR_BLOCKS = "blocks";
+
+    /**
+     * Size of the segment, in bytes.
+     */
+    public static final String ATTR_BYTES = "bytes";
+
+    /**
+     * Messages in a block.
+     */
+    private static final int BLOCK = Messages.PAGE;
+
+    /**
+     * Age of messages to archive by default, a year.
+     */
+    // @checkstyle MagicNumber (1 line)
+    private static final long AGE = TimeUnit.DAYS.toMillis(365L);
+
+    /**
+     * Bouts checked recently.
+     */
+    private static final Cache<Long, Boolean> CHECKED =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(1L, TimeUnit.DAYS)
+            .maximumSize((long) Tv.MILLION)
+            .build();
+
+    /**
+     * Region to work with.
+     */
+    private final transient Region region;
+
+    /**
+     * Storage of segments.
+     */
+    private final transient Storage storage;
+
+    /**
+     * Age of messages to archive, in milliseconds.
+     */
+    private final transient long age;
+
+    /**
+     * Messages in a segment.
+     */
+    private final transient int size;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param stg Storage of segments
+     */
+    Archive(final Region reg, final Storage stg) {
+        this(reg, stg, Archive.AGE, Tv.THOUSAND);
+    }
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param stg Storage of segments
+     * @param msec Age of messages to archive, in milliseconds
+     * @param total Messages in a segment
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    Archive(final Region reg, final Storage stg, final long msec,
+        final int total) {
+        this.region = reg;
+        this.storage = stg;
+        this.age = msec;
+        this.size = total;
+    }
+
+    /**
+     * Archived messages of the bout, newest first.
+     * @param bout Bout number
+     * @param before Number of the message to start after
+     * @param limit Maximum number of messages
+     * @return Items with the same attributes as in "messages" table
+     * @throws IOException If fails
+     */
+    public List<Item> older(final long bout, final long before,
+        final int limit) throws IOException {
+        final List<Item> items = new ArrayList<>(limit);
+        for (final Item segment : this.segments(bout, before)) {
+            if (items.size() >= limit) {
+                break;
+            }
+            final long[][] offsets = Archive.offsets(segment);
+            for (int idx = offsets.length - 2; idx >= 0; --idx) {
+                if (items.size() < limit && offsets[idx][0] < before) {
+                    for (final Item msg
+                        : Lists.reverse(this.block(segment, offsets, idx))) {
+                        if (items.size() < limit
+                            && Archive.number(msg) < before) {
+                            items.add(msg);
+                        }
+                    }
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Archived messages of the bout, by their numbers.
+     *
+     * <p>Only the blocks with the messages are read, every block once.
+     *
+     * @param bout Bout number
+     * @param numbers Numbers of messages
+     * @return Items found, in no particular order
+     * @throws IOException If fails
+     */
+    public List<Item> find(final long bout, final Collection<Long> numbers)
+        throws IOException {
+        final List<Item> items = new ArrayList<>(numbers.size());
+        if (!numbers.isEmpty()) {
+            final long min = Collections.min(numbers);
+            for (final Item segment
+                : this.segments(bout, Collections.max(numbers) + 1L)) {
+                final long[][] offsets = Archive.offsets(segment);
+                for (int idx = 0; idx < offsets.length - 1; ++idx) {
+                    if (Archive.hit(numbers, offsets[idx], offsets[idx + 1])) {
+                        for (final Item msg
+                            : this.block(segment, offsets, idx)) {
+                            if (numbers.contains(Archive.number(msg))) {
+                                items.add(msg);
+                            }
+                        }
+                    }
+                }
+                if (Long.parseLong(segment.get(Archive.RANGE).getN())
+                    <= min) {
+                    break;
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * The bout wasn't checked during the last day, and it's time
+     * to {@link #pack(long)} it.
+     * @param bout Bout number
+     * @return TRUE if it's due
+     */
+    public static boolean due(final long bout) {
+        return Archive.CHECKED.getIfPresent(bout) == null;
+    }
+
+    /**
+     * Move old messages of the bout to the archive, if it wasn't
+     * done during the last day.
+     * @param bout Bout number
+     * @throws IOException If fails
+     */
+    public void pack(final long bout) throws IOException {
+        if (Archive.due(bout)) {
+            Archive.CHECKED.put(bout, true);
+            final long threshold = System.currentTimeMillis() - this.age;
+            final Iterable<Item> messages = this.region
+                .table(DyMessages.TBL)
+                .frame()
+                .through(
+                    new QueryValve()
+                        .withLimit(this.size)
+                        .withAttributesToGet(
+                            DyMessages.ATTR_TEXT,
+                            DyMessages.ATTR_ZIP,
+                            DyMessages.ATTR_ALIAS,
+                            DyMessages.ATTR_DATE
+                        )
+                )
+                .where(DyMessages.HASH, Conditions.equalTo(bout));
+            final List<Item> chunk = new ArrayList<>(this.size);
+            for (final Item msg : messages) {
+                if (Long.parseLong(msg.get(DyMessages.ATTR_DATE).getN())
+                    >= threshold) {
+                    break;
+                }
+                chunk.add(msg);
+                if (chunk.size() == this.size) {
+                    this.save(bout, chunk);
+                    chunk.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Save the segment and delete its messages from DynamoDB.
+     * @param bout Bout number
+     * @param chunk Messages, oldest first
+     * @throws IOException If fails
+     */
+    private void save(final long bout, final List<Item> chunk)
+        throws IOException {
+        final long first = Long.parseLong(
+            chunk.get(0).get(DyMessages.RANGE).getN()
+        );
+        final long last = Long.parseLong(
+            chunk.get(chunk.size() - 1).get(DyMessages.RANGE).getN()
+        );
+        final String key = String.format(
+            "archive/%d/%d-%d.gz", bout, first, last
+        );
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Collection<String> blocks = new ArrayList<>(0);
+        for (final List<Item> part : Lists.partition(chunk, Archive.BLOCK)) {
+            blocks.add(
+                String.format("%d:%d", Archive.number(part.get(0)), baos.size())
+            );
+            baos.write(Archive.encode(part));
+        }
+        final byte[] data = baos.toByteArray();
+        this.storage.write(key, data, "application/gzip");
+        this.region.table(Archive.TBL).put(
+            new Attributes()
+                .with(Archive.HASH, bout)
+                .with(Archive.RANGE, first)
+                .with(Archive.ATTR_LAST, last)
+                .with(Archive.ATTR_KEY, key)
+                .with(Archive.ATTR_TOTAL, chunk.size())
+                .with(Archive.ATTR_BLOCKS, StringUtils.join(blocks, ' '))
+                .with(Archive.ATTR_BYTES, data.length)
+        );
+        new View(this.region, bout).archived(last);
+        final Collection<Attributes> keys = new ArrayList<>(chunk.size());
+        for (final Item msg : chunk) {
+            keys.add(
+                new Attributes()
+                    .with(DyMessages.HASH, bout)
+                    .with(DyMessages.RANGE, msg.get(DyMessages.RANGE))
+            );
+        }
+        new Batch(this.region, DyMessages.TBL).delete(keys);
+        Logger.info(
+            this, "%d message(s) of #%d archived to %s, %d bytes",
+            chunk.size(), bout, key, data.length
+        );
+    }
+
+    /**
+     * Segments of the bout, newest first.
+     * @param bout Bout number
+     * @param before Number of the message they start before
+     * @return Items of "archives" table
+     */
+    private Iterable<Item> segments(final long bout, final long before) {
+        return this.region.table(Archive.TBL)
+            .frame()
+            .through(new QueryValve().withScanIndexForward(false))
+            .where(Archive.HASH, Conditions.equalTo(bout))
+            .where(
+                Archive.RANGE,
+                new Condition()
+                    .withComparisonOperator(ComparisonOperator.LT)
+                    .withAttributeValueList(
+                        new AttributeValue().withN(Long.toString(before))
+                    )
+            );
+    }
+
+    /**
+     * Read one block of the segment, by a ranged GET.
+     * @param segment Item of "archives" table
+     * @param offsets Offset table of the segment
+     * @param idx Index of the block
+     * @return Messages of the block, oldest first
+     * @throws IOException If fails
+     */
+    private List<Item> block(final Item segment, final long[][] offsets,
+        final int idx) throws IOException {
+        final String key = segment.get(Archive.ATTR_KEY).getS();
+        return Archive.decode(
+            new ByteArrayInputStream(
+                this.storage.read(key, offsets[idx][1], offsets[idx + 1][1])
+            )
+        );
+    }
+
+    /**
+     * Offset table of the segment, with one extra row after the last
+     * block: the number after the last message and the size in bytes.
+     * @param segment Item of "archives" table
+     * @return Numbers of first messages and offsets of blocks
+     * @throws IOException If fails
+     */
+    private static long[][] offsets(final Item segment) throws IOException {
+        final String[] blocks = segment.get(Archive.ATTR_BLOCKS).getS()
+            .split(" ");
+        final long[][] offsets = new long[blocks.length + 1][];
+        for (int idx = 0; idx < blocks.length; ++idx) {
+            offsets[idx] = new long[] {
+                Long.parseLong(StringUtils.substringBefore(blocks[idx], ":")),
+                Long.parseLong(StringUtils.substringAfter(blocks[idx], ":")),
+            };
+        }
+        offsets[blocks.length] = new long[] {
+            Long.parseLong(segment.get(Archive.ATTR_LAST).getN()) + 1L,
+            Long.parseLong(segment.get(Archive.ATTR_BYTES).getN()),
+        };
+        return offsets;
+    }
+
+    /**
+     * Some of the numbers are in the block.
+     * @param numbers Numbers of messages
+     * @param block Row of the block in the offset table
+     * @param next Row of the next block
+     * @return TRUE if at least one is there
+     */
+    private static boolean hit(final Collection<Long> numbers,
+        final long[] block, final long[] next) {
+        boolean hit = false;
+        for (final Long number : numbers) {
+            if (number >= block[0] && number < next[0]) {
+                hit = true;
+                break;
+            }
+        }
+        return hit;
+    }
+
+    /**
+     * Number of the message.
+     * @param msg Item of the message
+     * @return Number
+     * @throws IOException If fails
+     */
+    private static long number(final Item msg) throws IOException {
+        return Long.parseLong(msg.get(DyMessages.RANGE).getN());
+    }
+
+    /**
+     * Encode messages into a block.
+     * @param msgs Messages
+     * @return Gzipped block
+     * @throws IOException If fails
+     */
+    static byte[] encode(final List<Item> msgs) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(
+            new GZIPOutputStream(baos)
+        )) {
+            out.writeInt(msgs.size());
+            for (final Item msg : msgs) {
+                out.writeLong(
+                    Long.parseLong(msg.get(DyMessages.RANGE).getN())
+                );
+                out.writeLong(
+                    Long.parseLong(msg.get(DyMessages.ATTR_DATE).getN())
+                );
+                out.writeUTF(msg.get(DyMessages.ATTR_ALIAS).getS());
+                final byte[] text = Zipped.text(msg).getBytes(Charsets.UTF_8);
+                out.writeInt(text.length);
+                out.write(text);
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Decode messages from a block.
+     * @param input Gzipped block
+     * @return Messages, in the same order as encoded
+     * @throws IOException If fails
+     */
+    static List<Item> decode(final InputStream input) throws IOException {
+        try (final DataInputStream data = new DataInputStream(
+            new GZIPInputStream(input)
+        )) {
+            final int total = data.readInt();
+            final List<Item> msgs = new ArrayList<>(total);
+            for (int idx = 0; idx < total; ++idx) {
+                final long number = data.readLong();
+                final long date = data.readLong();
+                final String alias = data.readUTF();
+                final byte[] text = new byte[data.readInt()];
+                data.readFully(text);
+                msgs.add(
+                    new Prefetched(
+                        new Attributes()
+                            .with(DyMessages.RANGE, number)
+                            .with(DyMessages.ATTR_DATE, date)
+                            .with(DyMessages.ATTR_ALIAS, alias)
+                            .with(
+                                DyMessages.ATTR_TEXT,
+                                new String(text, Charsets.UTF_8)
+                            )
+                    )
+                );
+            }
+            return msgs;
+        }
+    }
+
+}
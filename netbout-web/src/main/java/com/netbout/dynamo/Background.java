@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background updates of DynamoDB.
+ *
+ * <p>Background calls wait for capacity in {@link Throttled} much longer
+ * than interactive ones, so they run in their own threads, instead of
+ * the pool of {@code @Async}, which is shared with everything else.
+ * Not more than a thousand jobs wait in the queue: when it is full,
+ * the job runs in the thread which submits it, which slows down
+ * the requests that make the jobs, instead of keeping an unbounded
+ * backlog in memory.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+final class Background {
+
+    /**
+     * Threads running the jobs.
+     */
+    private static final ExecutorService POOL = new ThreadPoolExecutor(
+        Tv.FOUR, Tv.FOUR, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(Tv.THOUSAND),
+        new VerboseThreads(Background.class),
+        new ThreadPoolExecutor.CallerRunsPolicy()
+    );
+
+    /**
+     * Utility class.
+     */
+    private Background() {
+        // intentionally empty
+    }
+
+    /**
+     * Run the job in background, logging its failure, if any.
+     * @param job The job
+     */
+    static void run(final Background.Job job) {
+        Background.POOL.submit(
+            new VerboseRunnable(
+                new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        job.exec();
+                        return null;
+                    }
+                },
+                true
+            )
+        );
+    }
+
+    /**
+     * Job to run.
+     */
+    interface Job {
+        /**
+         * Run it.
+         * @throws IOException If fails
+         */
+        void exec() throws IOException;
+    }
+
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.DeleteRequest;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Region;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Batch operations with one DynamoDB table.
+ *
+ * <p>jcabi-dynamo doesn't support {@code BatchGetItem} and
+ * {@code BatchWriteItem}, that's why we talk to AWS client directly here.
+ * Keys and items are split into chunks acceptable by DynamoDB and
+ * unprocessed leftovers are re-submitted a few times.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "name")
+@EqualsAndHashCode(of = { "region", "name" })
+final class Batch {
+
+    /**
+     * Maximum number of keys in one BatchGetItem request.
+     */
+    private static final int MAX_GET = 100;
+
+    /**
+     * Maximum number of items in one BatchWriteItem request.
+     */
+    private static final int MAX_WRITE = 25;
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Table name, without prefix.
+     */
+    private final transient String name;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param table Table name
+     */
+    Batch(final Region reg, final String table) {
+        this.region = reg;
+        this.name = table;
+    }
+
+    /**
+     * Fetch items by their keys.
+     *
+     * <p>Items that don't exist are silently skipped, the order of
+     * the result is not defined.
+     *
+     * @param keys Keys of the items
+     * @param attrs Attributes to fetch, all of them if empty
+     * @return Items found
+     * @throws IOException If fails
+     */
+    public Collection<Item> get(final Collection<Attributes> keys,
+        final String... attrs) throws IOException {
+        final String table = this.region.table(this.name).name();
+        final Collection<Item> items = new ArrayList<Item>(keys.size());
+        final AmazonDynamoDB aws = this.region.aws();
+        try {
+            for (final List<Attributes> chunk
+                : Iterables.partition(keys, Batch.MAX_GET)) {
+                final KeysAndAttributes kaa = new KeysAndAttributes()
+                    .withKeys(
+                        new ArrayList<Map<String, AttributeValue>>(chunk)
+                    );
+                if (attrs.length > 0) {
+                    kaa.setAttributesToGet(Arrays.asList(attrs));
+                }
+                Map<String, KeysAndAttributes> request =
+                    Collections.singletonMap(table, kaa);
+                for (int attempt = 0; !request.isEmpty(); ++attempt) {
+                    Batch.pause(attempt);
+                    final BatchGetItemResult result = aws.batchGetItem(
+                        new BatchGetItemRequest().withRequestItems(request)
+                    );
+                    final List<Map<String, AttributeValue>> found =
+                        result.getResponses().get(table);
+                    if (found != null) {
+                        for (final Map<String, AttributeValue> attributes
+                            : found) {
+                            items.add(
+                                new Prefetched(new Attributes(attributes))
+                            );
+                        }
+                    }
+                    request = result.getUnprocessedKeys();
+                }
+            }
+        } catch (final AmazonClientException ex) {
+            throw new IOException(ex);
+        } finally {
+            aws.shutdown();
+        }
+        return items;
+    }
+
+    /**
+     * Put all items, overwriting existing ones.
+     * @param items Items to put
+     * @throws IOException If fails
+     */
+    public void put(final Collection<Attributes> items) throws IOException {
+        final Collection<WriteRequest> writes =
+            new ArrayList<WriteRequest>(items.size());
+        for (final Attributes attrs : items) {
+            writes.add(
+                new WriteRequest().withPutRequest(
+                    new PutRequest().withItem(attrs)
+                )
+            );
+        }
+        this.write(writes);
+    }
+
+    /**
+     * Delete all items, skipping absent ones.
+     * @param keys Keys of the items to delete
+     * @throws IOException If fails
+     */
+    public void delete(final Collection<Attributes> keys) throws IOException {
+        final Collection<WriteRequest> writes =
+            new ArrayList<WriteRequest>(keys.size());
+        for (final Attributes key : keys) {
+            writes.add(
+                new WriteRequest().withDeleteRequest(
+                    new DeleteRequest().withKey(key)
+                )
+            );
+        }
+        this.write(writes);
+    }
+
+    /**
+     * Submit all writes.
+     * @param writes Writes to submit
+     * @throws IOException If fails
+     */
+    private void write(final Collection<WriteRequest> writes)
+        throws IOException {
+        final String table = this.region.table(this.name).name();
+        final AmazonDynamoDB aws = this.region.aws();
+        try {
+            for (final List<WriteRequest> chunk
+                : Iterables.partition(writes, Batch.MAX_WRITE)) {
+                Map<String, List<WriteRequest>> request =
+                    Collections.singletonMap(table, chunk);
+                for (int attempt = 0; !request.isEmpty(); ++attempt) {
+                    Batch.pause(attempt);
+                    final BatchWriteItemResult result = aws.batchWriteItem(
+                        new BatchWriteItemRequest().withRequestItems(request)
+                    );
+                    request = result.getUnprocessedItems();
+                }
+            }
+        } catch (final AmazonClientException ex) {
+            throw new IOException(ex);
+        } finally {
+            aws.shutdown();
+        }
+    }
+
+    /**
+     * Wait before the next attempt, if it is not the first one.
+     * @param attempt Attempt number, starting with zero
+     * @throws IOException If too many attempts or interrupted
+     */
+    private static void pause(final int attempt) throws IOException {
+        if (attempt > Tv.FIVE) {
+            throw new IOException(
+                String.format(
+                    "unprocessed items left after %d attempts", attempt
+                )
+            );
+        }
+        if (attempt > 0) {
+            try {
+                // @checkstyle MagicNumber (1 line)
+                Thread.sleep(50L << attempt);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+        }
+    }
+
+}
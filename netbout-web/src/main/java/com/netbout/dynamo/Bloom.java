@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.ScanValve;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bloom filter of all aliases.
+ *
+ * <p>The filter is built from a scan of "aliases" table in background
+ * and rebuilt once in {@link #PERIOD} hours, since every rebuild reads
+ * the whole table. Until it is built for the first time, every name is
+ * reported as possibly existing, in order to let the caller go to
+ * DynamoDB. Aliases added in this JVM are put into the filter
+ * immediately; aliases added by other nodes become visible after the
+ * next rebuild. That's why the filter may only be used where a wrong
+ * "free" answer is harmless, like in {@link DyAliases#check(String)}.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+final class Bloom {
+
+    /**
+     * How often to rebuild the filter, in hours.
+     */
+    private static final long PERIOD = 24L;
+
+    /**
+     * Acceptable probability of false positives.
+     */
+    private static final double FPP = 0.01d;
+
+    /**
+     * Filters, by names of tables.
+     */
+    private static final ConcurrentMap<String, Bloom> ALL =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Executor that builds filters.
+     */
+    private static final ExecutorService BUILDER =
+        Executors.newSingleThreadExecutor(new VerboseThreads(Bloom.class));
+
+    /**
+     * Table with aliases.
+     */
+    private final transient String table;
+
+    /**
+     * Current filter.
+     */
+    private final transient AtomicReference<BloomFilter<CharSequence>> filter;
+
+    /**
+     * When the filter was built, in milliseconds, or zero if never.
+     */
+    private final transient AtomicLong built;
+
+    /**
+     * The filter is being rebuilt now.
+     */
+    private final transient AtomicBoolean building;
+
+    /**
+     * Names added while the filter was being rebuilt.
+     */
+    private final transient Queue<String> recent;
+
+    /**
+     * Ctor.
+     * @param tbl Name of the table
+     */
+    private Bloom(final String tbl) {
+        this.table = tbl;
+        this.filter = new AtomicReference<>(Bloom.create(Tv.THOUSAND));
+        this.built = new AtomicLong();
+        this.building = new AtomicBoolean();
+        this.recent = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Get the filter of the region.
+     * @param region Region we're in
+     * @return The filter
+     */
+    public static Bloom of(final Region region) {
+        final String name = region.table(DyAliases.TBL).name();
+        if (!Bloom.ALL.containsKey(name)) {
+            Bloom.ALL.putIfAbsent(name, new Bloom(name));
+        }
+        return Bloom.ALL.get(name);
+    }
+
+    /**
+     * This name may exist, it is worth to check it in DynamoDB.
+     * @param region Region we're in
+     * @param name The name of alias
+     * @return FALSE if it definitely doesn't exist
+     */
+    public boolean mightContain(final Region region, final String name) {
+        final long age = System.currentTimeMillis() - this.built.get();
+        if (age > TimeUnit.HOURS.toMillis(Bloom.PERIOD)
+            && this.building.compareAndSet(false, true)) {
+            Bloom.BUILDER.submit(
+                new VerboseRunnable(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            Bloom.this.rebuild(region);
+                        }
+                    },
+                    true, true
+                )
+            );
+        }
+        return this.built.get() == 0L
+            || this.filter.get().mightContain(name);
+    }
+
+    /**
+     * Put a new name into the filter.
+     * @param name The name of alias
+     */
+    public void put(final String name) {
+        synchronized (this.filter) {
+            this.recent.add(name);
+            this.filter.get().put(name);
+        }
+    }
+
+    /**
+     * Rebuild the filter from DynamoDB.
+     * @param region Region we're in
+     */
+    private void rebuild(final Region region) {
+        try {
+            this.recent.clear();
+            final long start = System.currentTimeMillis();
+            final Collection<String> names = new LinkedList<>();
+            for (final Item item : region.table(DyAliases.TBL).frame()
+                .through(new ScanValve().withAttributeToGet(DyAliases.HASH))) {
+                names.add(item.get(DyAliases.HASH).getS());
+            }
+            final BloomFilter<CharSequence> fresh = Bloom.create(
+                names.size() * 2
+            );
+            for (final String name : names) {
+                fresh.put(name);
+            }
+            synchronized (this.filter) {
+                for (final String name : this.recent) {
+                    fresh.put(name);
+                }
+                this.filter.set(fresh);
+                this.built.set(System.currentTimeMillis());
+            }
+            Logger.info(
+                this, "%d alias(es) of %s loaded into the filter in %[ms]s",
+                names.size(), this.table,
+                System.currentTimeMillis() - start
+            );
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            this.building.set(false);
+        }
+    }
+
+    /**
+     * Create an empty filter.
+     * @param size Expected number of names
+     * @return The filter
+     */
+    private static BloomFilter<CharSequence> create(final int size) {
+        return BloomFilter.create(
+            Funnels.stringFunnel(Charsets.UTF_8),
+            Math.max(size, Tv.THOUSAND),
+            Bloom.FPP
+        );
+    }
+
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.Select;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Conditions;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Pageable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Pages of bouts in an inbox, right from the index.
+ *
+ * <p>Every page is read by one query to the index and its rows are
+ * returned as {@link Prefetched} items, since the index projects all
+ * attributes. The cursor of the next page is the key of the last row,
+ * that's why bouts updated at the same moment are never lost or
+ * repeated. The alias is never taken from the cursor, so it can't
+ * open somebody else's inbox.
+ *
+ * <p>Rows of the inbox, see {@link #rows(String)}, are made of the same
+ * rows of the index, with unread messages, unseen attachments and
+ * titles, and of views of bouts, with their friends.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "self")
+@EqualsAndHashCode(of = { "region", "self" })
+final class Bouts {
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Ctor.
+     * @param reg Region we're in
+     * @param slf My alias
+     */
+    Bouts(final Region reg, final String slf) {
+        this.region = reg;
+        this.self = slf;
+    }
+
+    /**
+     * Page right after the cursor.
+     * @param cursor Cursor or empty string for the first page
+     * @return Page of rows
+     * @throws IOException If fails
+     */
+    public Pageable.Page<Item> after(final String cursor) throws IOException {
+        final Pageable.Page<Item> page;
+        if (cursor.isEmpty()) {
+            page = this.before(Inbox.NEVER);
+        } else {
+            final Pageable.Keyset key = new Pageable.Keyset(cursor, 2);
+            page = this.query(
+                new QueryRequest()
+                    .withKeyConditions(
+                        new Conditions().with(DyFriends.RANGE, this.self)
+                    )
+                    .withExclusiveStartKey(
+                        new Attributes()
+                            .with(DyFriends.RANGE, this.self)
+                            .with(DyFriends.ATTR_UPDATED, key.get(0))
+                            .with(DyFriends.HASH, key.get(1))
+                    )
+            );
+        }
+        return page;
+    }
+
+    /**
+     * Rows of the page right after the cursor, with friends of all bouts.
+     *
+     * <p>The page is read by one query and friends by one batch read of
+     * views. Only bouts without fresh views need one more query each.
+     *
+     * @param cursor Cursor or empty string for the first page
+     * @return Page of rows
+     * @throws IOException If fails
+     */
+    public Pageable.Page<Inbox.Row> rows(final String cursor)
+        throws IOException {
+        final Pageable.Page<Item> page = this.after(cursor);
+        final Collection<Long> numbers = new ArrayList<>(page.items().size());
+        for (final Item item : page.items()) {
+            numbers.add(Long.parseLong(item.get(DyFriends.HASH).getN()));
+        }
+        final Map<Long, List<String>> friends =
+            View.aliases(this.region, numbers);
+        final List<Inbox.Row> rows = new ArrayList<>(numbers.size());
+        for (final Item item : page.items()) {
+            final long number = Long.parseLong(item.get(DyFriends.HASH).getN());
+            List<String> aliases = friends.get(number);
+            if (aliases == null) {
+                aliases = this.aliases(number);
+            }
+            long unread = 0L;
+            if (item.has(DyFriends.ATTR_UNREAD)) {
+                unread = Long.parseLong(item.get(DyFriends.ATTR_UNREAD).getN());
+            }
+            int unseen = 0;
+            if (item.has(DyFriends.ATTR_UNSEEN)) {
+                unseen = item.get(DyFriends.ATTR_UNSEEN).getSS().size();
+            }
+            rows.add(
+                new Inbox.Row(
+                    number,
+                    new Date(
+                        Long.parseLong(item.get(DyFriends.ATTR_UPDATED).getN())
+                    ),
+                    unread, unseen, item.get(DyFriends.ATTR_TITLE).getS(),
+                    aliases
+                )
+            );
+        }
+        return new Pageable.Page<>(rows, page.next());
+    }
+
+    /**
+     * Page of bouts updated before the moment.
+     * @param since The moment
+     * @return Page of rows
+     * @throws IOException If fails
+     */
+    public Pageable.Page<Item> before(final long since) throws IOException {
+        return this.query(
+            new QueryRequest().withKeyConditions(
+                new Conditions()
+                    .with(DyFriends.RANGE, this.self)
+                    .with(
+                        DyFriends.ATTR_UPDATED,
+                        new Condition()
+                            .withComparisonOperator(ComparisonOperator.LT)
+                            .withAttributeValueList(
+                                new AttributeValue().withN(
+                                    Long.toString(since)
+                                )
+                            )
+                    )
+            )
+        );
+    }
+
+    /**
+     * Aliases of friends of the bout, right from the table.
+     * @param bout Bout number
+     * @return Aliases
+     * @throws IOException If fails
+     */
+    private List<String> aliases(final long bout) throws IOException {
+        final List<String> aliases = new ArrayList<>(0);
+        for (final Item item : this.region.table(DyFriends.TBL)
+            .frame()
+            .through(new QueryValve().withAttributesToGet(DyFriends.RANGE))
+            .where(DyFriends.HASH, Conditions.equalTo(bout))) {
+            aliases.add(item.get(DyFriends.RANGE).getS());
+        }
+        return aliases;
+    }
+
+    /**
+     * Run the query, reading one row more than a page, to know whether
+     * there is a next page.
+     * @param request Request with key conditions
+     * @return Page of rows
+     * @throws IOException If fails
+     */
+    private Pageable.Page<Item> query(final QueryRequest request)
+        throws IOException {
+        final AmazonDynamoDB aws = this.region.aws();
+        final List<Map<String, AttributeValue>> rows;
+        try {
+            rows = aws.query(
+                request
+                    .withTableName(this.region.table(DyFriends.TBL).name())
+                    .withIndexName(DyFriends.INDEX)
+                    .withSelect(Select.ALL_PROJECTED_ATTRIBUTES)
+                    .withScanIndexForward(false)
+                    .withConsistentRead(false)
+                    .withLimit(Inbox.PAGE + 1)
+            ).getItems();
+        } catch (final AmazonClientException ex) {
+            throw new IOException(ex);
+        } finally {
+            aws.shutdown();
+        }
+        final List<Item> items = new ArrayList<>(Inbox.PAGE);
+        for (final Map<String, AttributeValue> row
+            : rows.subList(0, Math.min(rows.size(), Inbox.PAGE))) {
+            items.add(new Prefetched(new Attributes(row)));
+        }
+        String next = "";
+        if (rows.size() > Inbox.PAGE) {
+            final Item last = items.get(Inbox.PAGE - 1);
+            next = new Pageable.Keyset(
+                Long.parseLong(last.get(DyFriends.ATTR_UPDATED).getN()),
+                Long.parseLong(last.get(DyFriends.HASH).getN())
+            ).toString();
+        }
+        return new Pageable.Page<>(items, next);
+    }
+
+}
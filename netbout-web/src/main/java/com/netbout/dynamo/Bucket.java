@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket of capacity units of one table or index.
+ *
+ * <p>Tokens are refilled at the provisioned rate and the bucket holds
+ * no more than {@link #BURST} seconds of them, so bursts are smoothed
+ * instead of being sent to DynamoDB at once. Every call takes one
+ * token before it is made and is charged the rest of the capacity it
+ * actually consumed after, so the balance may go below zero.
+ *
+ * <p>A share of the rate, {@link #SHARE}, is reserved for background
+ * calls: it fills a bucket of their own, which interactive calls never
+ * touch, so background calls are not starved under sustained
+ * interactive load. Beyond that share, background calls take tokens
+ * of the main bucket only while it is more than half full, leaving the
+ * rest to interactive ones, and they are charged the units they
+ * consumed from their own bucket. When DynamoDB throttles anyway,
+ * the rate is cut by half and then recovers slowly, up to the
+ * provisioned one.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+final class Bucket {
+
+    /**
+     * How many seconds of tokens the bucket may hold.
+     */
+    private static final double BURST = 2.0d;
+
+    /**
+     * Share of the provisioned rate restored every second.
+     */
+    private static final double RECOVERY = 0.1d;
+
+    /**
+     * Share of the rate reserved for background calls.
+     */
+    private static final double SHARE = 0.2d;
+
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final double NANOS = (double) TimeUnit.SECONDS.toNanos(1L);
+
+    /**
+     * Provisioned rate, units per second, or zero if unknown, which
+     * means that calls are not throttled.
+     */
+    private transient double provisioned;
+
+    /**
+     * When the provisioned rate was learned, in nanoseconds.
+     */
+    private transient long learned;
+
+    /**
+     * Current rate, units per second.
+     */
+    private transient double rate;
+
+    /**
+     * Tokens available to all calls.
+     */
+    private transient double tokens;
+
+    /**
+     * Tokens reserved for background calls.
+     */
+    private transient double reserved;
+
+    /**
+     * When tokens were refilled last time, in nanoseconds.
+     */
+    private transient long refilled;
+
+    /**
+     * Ctor.
+     * @param units Provisioned capacity units per second
+     */
+    Bucket(final double units) {
+        this.provisioned = units;
+        this.rate = units;
+        this.tokens = units * (1.0d - Bucket.SHARE) * Bucket.BURST;
+        this.reserved = units * Bucket.SHARE * Bucket.BURST;
+        this.refilled = System.nanoTime();
+        this.learned = this.refilled;
+    }
+
+    /**
+     * Is it time to learn the provisioned rate again?
+     *
+     * <p>It returns TRUE only once an hour, to one caller, who is
+     * supposed to call {@link #provision(double)}.
+     *
+     * @return TRUE if it's time
+     */
+    public synchronized boolean stale() {
+        final long now = System.nanoTime();
+        final boolean stale = now - this.learned > TimeUnit.HOURS.toNanos(1L);
+        if (stale) {
+            this.learned = now;
+        }
+        return stale;
+    }
+
+    /**
+     * Set new provisioned rate, keeping the current one, if it's lower.
+     * @param units Provisioned capacity units per second
+     */
+    public synchronized void provision(final double units) {
+        if (this.provisioned <= 0.0d) {
+            this.rate = units;
+        } else {
+            this.rate = Math.min(this.rate, units);
+        }
+        this.provisioned = units;
+    }
+
+    /**
+     * Take one token, waiting for it if necessary.
+     * @param background Is it a background call
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public void take(final boolean background) throws InterruptedException {
+        while (true) {
+            final long wait = this.attempt(background);
+            if (wait == 0L) {
+                break;
+            }
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Charge units consumed on top of the token taken.
+     * @param units Units actually consumed by the call
+     * @param background Is it a background call
+     */
+    public synchronized void charge(final double units,
+        final boolean background) {
+        final double extra = Math.max(units - 1.0d, 0.0d);
+        if (background) {
+            this.reserved -= extra;
+        } else {
+            this.tokens -= extra;
+        }
+    }
+
+    /**
+     * DynamoDB throttled the call, slow down.
+     */
+    public synchronized void throttled() {
+        this.rate = Math.max(this.rate / 2.0d, 1.0d);
+        this.tokens = Math.min(this.tokens, 0.0d);
+        this.reserved = Math.min(this.reserved, 0.0d);
+    }
+
+    /**
+     * Try to take one token.
+     * @param background Is it a background call
+     * @return Zero if taken, otherwise nanoseconds to wait
+     */
+    private synchronized long attempt(final boolean background) {
+        if (this.provisioned <= 0.0d) {
+            return 0L;
+        }
+        this.refill();
+        final double main = this.rate * (1.0d - Bucket.SHARE);
+        long wait;
+        if (background) {
+            final double needed = 1.0d + main * Bucket.BURST / 2.0d;
+            if (this.reserved >= 1.0d) {
+                this.reserved -= 1.0d;
+                wait = 0L;
+            } else if (this.tokens >= needed) {
+                this.tokens -= 1.0d;
+                wait = 0L;
+            } else {
+                wait = Math.min(
+                    Bucket.nanos(
+                        1.0d - this.reserved, this.rate * Bucket.SHARE
+                    ),
+                    Bucket.nanos(needed - this.tokens, main)
+                );
+            }
+        } else if (this.tokens >= 1.0d) {
+            this.tokens -= 1.0d;
+            wait = 0L;
+        } else {
+            wait = Bucket.nanos(1.0d - this.tokens, main);
+        }
+        return wait;
+    }
+
+    /**
+     * Refill tokens and restore the rate, for the time passed.
+     */
+    private void refill() {
+        final long now = System.nanoTime();
+        final double seconds = (double) (now - this.refilled) / Bucket.NANOS;
+        this.refilled = now;
+        this.rate = Math.min(
+            this.rate + this.provisioned * Bucket.RECOVERY * seconds,
+            this.provisioned
+        );
+        final double main = this.rate * (1.0d - Bucket.SHARE);
+        this.tokens = Math.min(
+            this.tokens + main * seconds, main * Bucket.BURST
+        );
+        final double share = this.rate * Bucket.SHARE;
+        this.reserved = Math.min(
+            this.reserved + share * seconds, share * Bucket.BURST
+        );
+    }
+
+    /**
+     * Nanoseconds to wait for the tokens.
+     * @param missing How many tokens are missing
+     * @param speed Tokens per second
+     * @return Nanoseconds, at least one
+     */
+    private static long nanos(final double missing, final double speed) {
+        return Math.max((long) (missing / speed * Bucket.NANOS), 1L);
+    }
+
+}
@@ -90,6 +90,18 @@ final class DyAliases implements Aliases {
      */
     public static final String ATTR_EMAIL = "email";
 
+    /**
+     * Total number of unread messages in all bouts.
+     * @since 3.0
+     */
+    public static final String ATTR_UNREAD = "unread";
+
+    /**
+     * When the total of unread messages was recalculated last time.
+     * @since 3.0
+     */
+    public static final String ATTR_CHECKED = "checked";
+
     /**
      * Index name.
      */
@@ -142,7 +154,8 @@ final class DyAliases implements Aliases {
         if (name.length() > Tv.HUNDRED) {
             throw new IllegalArgumentException("alias is too long");
         }
-        if (new Everybody(this.region).occupied(name)) {
+        final Everybody everybody = new Everybody(this.region);
+        if (everybody.exists(name)) {
             throw new IllegalArgumentException(
                 String.format("alias '%s' is occupied", name)
             );
@@ -153,7 +166,11 @@ final class DyAliases implements Aliases {
                 .with(DyAliases.HASH, name)
                 .with(DyAliases.ATTR_PHOTO, Alias.BLANK)
                 .with(DyAliases.ATTR_LOCALE, Locale.ENGLISH)
+                .with(DyAliases.ATTR_UNREAD, 0L)
+                .with(DyAliases.ATTR_CHECKED, System.currentTimeMillis())
         );
+        everybody.added(name);
+        new Prefixes(this.region).add(name);
         Logger.info(this, "alias @%s added to %s", name, this.urn);
         return new DyAlias(this.region, item);
     }
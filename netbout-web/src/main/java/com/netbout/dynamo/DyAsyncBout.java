@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Region;
+import com.netbout.spi.AsyncAttachments;
+import com.netbout.spi.AsyncBout;
+import com.netbout.spi.AsyncFriends;
+import com.netbout.spi.AsyncMessages;
+import com.netbout.spi.Bout;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.Callable;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Dynamo bout, which doesn't block its callers.
+ *
+ * <p>The row of "friends" table is already fetched, that's why
+ * the number, title, dates and subscription are returned as completed
+ * futures. Everything else is done by the pool of
+ * {@link DyAsyncInbox}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "row")
+@EqualsAndHashCode(of = { "region", "row", "self" })
+@SuppressWarnings("PMD.TooManyMethods")
+final class DyAsyncBout implements AsyncBout {
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Row in "friends" table, fetched with all attributes.
+     */
+    private final transient Item row;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Ctor.
+     * @param reg Region we're in
+     * @param item Row in "friends" table, fetched with all attributes
+     * @param slf Self alias
+     */
+    DyAsyncBout(final Region reg, final Item item, final String slf) {
+        this.region = reg;
+        this.row = item;
+        this.self = slf;
+    }
+
+    @Override
+    public ListenableFuture<Long> number() {
+        try {
+            return Futures.immediateFuture(this.fetched().number());
+        } catch (final IOException ex) {
+            return Futures.immediateFailedFuture(ex);
+        }
+    }
+
+    @Override
+    public ListenableFuture<Date> date() {
+        try {
+            return Futures.immediateFuture(this.fetched().date());
+        } catch (final IOException ex) {
+            return Futures.immediateFailedFuture(ex);
+        }
+    }
+
+    @Override
+    public ListenableFuture<Date> updated() {
+        try {
+            return Futures.immediateFuture(this.fetched().updated());
+        } catch (final IOException ex) {
+            return Futures.immediateFailedFuture(ex);
+        }
+    }
+
+    @Override
+    public ListenableFuture<String> title() {
+        try {
+            return Futures.immediateFuture(this.fetched().title());
+        } catch (final IOException ex) {
+            return Futures.immediateFailedFuture(ex);
+        }
+    }
+
+    @Override
+    public ListenableFuture<Void> rename(final String text) {
+        return DyAsyncInbox.POOL.submit(
+            new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    DyAsyncBout.this.live().rename(text);
+                    return null;
+                }
+            }
+        );
+    }
+
+    @Override
+    public ListenableFuture<Boolean> subscription() {
+        try {
+            return Futures.immediateFuture(this.fetched().subscription());
+        } catch (final IOException ex) {
+            return Futures.immediateFailedFuture(ex);
+        }
+    }
+
+    @Override
+    public ListenableFuture<Boolean> subscription(final String alias) {
+        return DyAsyncInbox.POOL.submit(
+            new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws IOException {
+                    return DyAsyncBout.this.fetched().subscription(alias);
+                }
+            }
+        );
+    }
+
+    @Override
+    public ListenableFuture<Void> subscribe(final boolean subs) {
+        return DyAsyncInbox.POOL.submit(
+            new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    DyAsyncBout.this.live().subscribe(subs);
+                    return null;
+                }
+            }
+        );
+    }
+
+    @Override
+    public AsyncMessages messages() {
+        return new AsyncMessages.Wrap(this.fetched(), DyAsyncInbox.POOL);
+    }
+
+    @Override
+    public AsyncFriends friends() {
+        return new AsyncFriends.Wrap(this.fetched(), DyAsyncInbox.POOL);
+    }
+
+    @Override
+    public AsyncAttachments attachments() {
+        return new AsyncAttachments.Wrap(this.fetched(), DyAsyncInbox.POOL);
+    }
+
+    /**
+     * Blocking bout of the fetched row, which can't be changed.
+     * @return Bout
+     */
+    private Bout fetched() {
+        return new DyBout(this.region, this.row, this.self);
+    }
+
+    /**
+     * Blocking bout of the row in DynamoDB, which can be changed.
+     * @return Bout
+     * @throws IOException If fails
+     */
+    private Bout live() throws IOException {
+        return new DyInbox(this.region, this.self).bout(
+            this.fetched().number()
+        );
+    }
+
+}
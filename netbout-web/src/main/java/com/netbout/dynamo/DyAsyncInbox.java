@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Region;
+import com.jcabi.log.VerboseThreads;
+import com.netbout.spi.AsyncBout;
+import com.netbout.spi.AsyncInbox;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Pageable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Dynamo inbox, which doesn't block its callers.
+ *
+ * <p>All calls to DynamoDB are executed by a pool of threads, shared by
+ * all inboxes and bouts, through the same metered and throttled client
+ * as blocking calls. A page of bouts is read by one query and
+ * all its rows are kept, that's why their numbers, titles, dates and
+ * subscriptions are ready without any more calls.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "self")
+@EqualsAndHashCode(of = { "region", "self", "since" })
+@SuppressWarnings("PMD.ExcessiveImports")
+final class DyAsyncInbox implements AsyncInbox {
+
+    /**
+     * Threads that call DynamoDB, shared by all inboxes and bouts.
+     *
+     * <p>Every call runs inside of the scope of {@link Rows}, opened
+     * by the thread that made it, so rows of "friends" table are loaded
+     * once per request, no matter how many threads load them.
+     */
+    static final ListeningExecutorService POOL = Rows.bound(
+        MoreExecutors.listeningDecorator(
+            Executors.newFixedThreadPool(
+                Tv.TWENTY, new VerboseThreads(DyAsyncInbox.class)
+            )
+        )
+    );
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Alias of myself.
+     */
+    private final transient String self;
+
+    /**
+     * Start moment.
+     */
+    private final transient long since;
+
+    /**
+     * Ctor.
+     * @param reg Region we're in
+     * @param slf My alias
+     */
+    DyAsyncInbox(final Region reg, final String slf) {
+        this(reg, slf, Inbox.NEVER);
+    }
+
+    /**
+     * Ctor.
+     * @param reg Region we're in
+     * @param slf My alias
+     * @param strt Start
+     */
+    DyAsyncInbox(final Region reg, final String slf, final long strt) {
+        this.region = reg;
+        this.self = slf;
+        this.since = strt;
+    }
+
+    @Override
+    public ListenableFuture<Long> start() {
+        return DyAsyncInbox.POOL.submit(
+            new Callable<Long>() {
+                @Override
+                public Long call() throws IOException {
+                    return new DyInbox(
+                        DyAsyncInbox.this.region, DyAsyncInbox.this.self
+                    ).start();
+                }
+            }
+        );
+    }
+
+    @Override
+    public ListenableFuture<Long> unread() {
+        return DyAsyncInbox.POOL.submit(
+            new Callable<Long>() {
+                @Override
+                public Long call() throws IOException {
+                    return new Unread(
+                        DyAsyncInbox.this.region, DyAsyncInbox.this.self
+                    ).value();
+                }
+            }
+        );
+    }
+
+    @Override
+    public ListenableFuture<AsyncBout> bout(final long number) {
+        return DyAsyncInbox.POOL.submit(
+            new Callable<AsyncBout>() {
+                @Override
+                public AsyncBout call() throws IOException {
+                    try {
+                        return new DyAsyncBout(
+                            DyAsyncInbox.this.region,
+                            Rows.row(
+                                DyAsyncInbox.this.region, number,
+                                DyAsyncInbox.this.self
+                            ),
+                            DyAsyncInbox.this.self
+                        );
+                    } catch (final NoSuchElementException ex) {
+                        throw new Inbox.BoutNotFoundException(number, ex);
+                    }
+                }
+            }
+        );
+    }
+
+    @Override
+    public AsyncInbox jump(final long number) {
+        return new DyAsyncInbox(this.region, this.self, number);
+    }
+
+    @Override
+    public ListenableFuture<List<AsyncBout>> iterate() {
+        return DyAsyncInbox.POOL.submit(
+            new Callable<List<AsyncBout>>() {
+                @Override
+                public List<AsyncBout> call() throws IOException {
+                    return DyAsyncInbox.this.bouts(
+                        new Bouts(
+                            DyAsyncInbox.this.region, DyAsyncInbox.this.self
+                        ).before(DyAsyncInbox.this.since)
+                    ).items();
+                }
+            }
+        );
+    }
+
+    @Override
+    public ListenableFuture<Pageable.Page<AsyncBout>> page(
+        final String cursor) {
+        return DyAsyncInbox.POOL.submit(
+            new Callable<Pageable.Page<AsyncBout>>() {
+                @Override
+                public Pageable.Page<AsyncBout> call() throws IOException {
+                    return DyAsyncInbox.this.bouts(
+                        new Bouts(
+                            DyAsyncInbox.this.region, DyAsyncInbox.this.self
+                        ).after(cursor)
+                    );
+                }
+            }
+        );
+    }
+
+    @Override
+    public ListenableFuture<List<AsyncBout>> search(final String term) {
+        return DyAsyncInbox.POOL.submit(
+            new Callable<List<AsyncBout>>() {
+                @Override
+                public List<AsyncBout> call() throws IOException {
+                    final List<AsyncBout> bouts = new ArrayList<>(Inbox.PAGE);
+                    for (final Bout bout : new DyInbox(
+                        DyAsyncInbox.this.region, DyAsyncInbox.this.self
+                    ).search(term)) {
+                        bouts.add(new AsyncBout.Wrap(bout, DyAsyncInbox.POOL));
+                    }
+                    return bouts;
+                }
+            }
+        );
+    }
+
+    /**
+     * Bouts from rows of the index.
+     * @param page Page of rows
+     * @return Page of bouts
+     */
+    private Pageable.Page<AsyncBout> bouts(final Pageable.Page<Item> page) {
+        return page.transform(
+            new Function<Item, AsyncBout>() {
+                @Override
+                public AsyncBout apply(final Item item) {
+                    return new DyAsyncBout(
+                        DyAsyncInbox.this.region, item, DyAsyncInbox.this.self
+                    );
+                }
+            }
+        );
+    }
+
+}
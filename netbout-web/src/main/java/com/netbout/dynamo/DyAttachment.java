@@ -29,10 +29,7 @@ package com.netbout.dynamo;
 import com.amazonaws.services.dynamodbv2.model.AttributeAction;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
-import com.amazonaws.services.s3.model.ObjectMetadata;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
-import com.jcabi.aspects.Async;
+import com.amazonaws.services.dynamodbv2.model.Select;
 import com.jcabi.aspects.Cacheable;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
@@ -44,20 +41,20 @@ import com.jcabi.dynamo.QueryValve;
 import com.jcabi.dynamo.Region;
 import com.jcabi.log.Logger;
 import com.jcabi.manifests.Manifests;
-import com.jcabi.s3.Bucket;
 import com.jcabi.s3.mock.MkRegion;
 import com.netbout.spi.Attachment;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.ByteBuffer;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Iterator;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.commons.codec.CharEncoding;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.io.input.CountingInputStream;
 
 /**
  * Dynamo attachment.
@@ -80,9 +77,9 @@ final class DyAttachment implements Attachment {
     private static final int MAX_SIZE = 50000;
 
     /**
-     * Bucket with attachments.
+     * Storage of big attachments.
      */
-    private final transient Bucket bucket;
+    private final transient Storage storage;
 
     /**
      * Region we're in.
@@ -112,16 +109,16 @@ final class DyAttachment implements Attachment {
     /**
      * Ctor.
      * @param reg Region
-     * @param bkt Bucket
+     * @param stg Storage of big attachments
      * @param itm Item
      * @param slf Self alias
      * @since 2.8
      * @checkstyle ParameterNumberCheck (5 lines)
      */
-    DyAttachment(final Region reg, final Bucket bkt,
+    DyAttachment(final Region reg, final Storage stg,
         final Item itm, final String slf) {
         this.region = reg;
-        this.bucket = bkt;
+        this.storage = stg;
         this.item = itm;
         this.self = slf;
     }
@@ -149,44 +146,77 @@ final class DyAttachment implements Attachment {
 
     @Override
     public boolean unseen() throws IOException {
-        final Item itm = this.region.table(DyFriends.TBL)
-            .frame()
-            .through(
-                new QueryValve()
-                    .withLimit(1)
-                    .withAttributesToGet(DyFriends.ATTR_UNSEEN)
-            )
-            .where(DyFriends.HASH, Conditions.equalTo(this.bout()))
-            .where(DyFriends.RANGE, Conditions.equalTo(this.self))
-            .iterator().next();
+        final Item itm = Rows.row(this.region, this.bout(), this.self);
         return itm.has(DyFriends.ATTR_UNSEEN)
             && itm.get(DyFriends.ATTR_UNSEEN).getSS().contains(this.name());
     }
 
     @Override
     public InputStream read() throws IOException {
+        return this.content();
+    }
+
+    @Override
+    public void write(final InputStream stream, final String ctype,
+        final String etag) throws IOException {
+        this.upload(stream, ctype, etag);
+    }
+
+    /**
+     * Read the content and mark it as seen.
+     * @return Content
+     * @throws IOException If fails
+     */
+    private InputStream content() throws IOException {
+        Rows.forget(this.bout(), this.self);
         this.seen();
-        final byte[] bytes;
+        final InputStream stream;
         if (this.item.has(DyAttachments.ATTR_KEY)) {
-            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            this.bucket.ocket(
+            stream = this.storage.read(
                 this.item.get(DyAttachments.ATTR_KEY).getS()
-            ).read(baos);
-            bytes = baos.toByteArray();
+            );
         } else {
             final ByteBuffer buf =
                 this.item.get(DyAttachments.ATTR_DATA).getB();
             if (buf == null) {
-                bytes = "temporary unavailable".getBytes(CharEncoding.UTF_8);
+                stream = new ByteArrayInputStream(
+                    "temporary unavailable".getBytes(CharEncoding.UTF_8)
+                );
             } else {
-                bytes = buf.array();
+                stream = new ByteArrayInputStream(buf.array());
             }
         }
-        return new ByteArrayInputStream(bytes);
+        return stream;
     }
 
-    @Override
-    public void write(final InputStream stream, final String ctype,
+    /**
+     * Write the content, if it is different, and tell friends.
+     * @param stream Content
+     * @param ctype Content type
+     * @param etag Etag of the content
+     * @throws IOException If fails
+     */
+    private void upload(final InputStream stream, final String ctype,
+        final String etag) throws IOException {
+        if (this.store(stream, ctype, etag)) {
+            this.updated();
+            new View(this.region, this.bout()).drop();
+            Logger.info(
+                this, "attachment %s uploaded into #%d by @%s",
+                this.name(), this.bout(), this.self
+            );
+        }
+    }
+
+    /**
+     * Write the content, if it is different, without telling anyone.
+     * @param stream Content
+     * @param ctype Content type
+     * @param etag Etag of the content
+     * @return TRUE if it was written
+     * @throws IOException If fails
+     */
+    boolean store(final InputStream stream, final String ctype,
         final String etag) throws IOException {
         if (etag.isEmpty()) {
             throw new Attachment.BrokenContentException(
@@ -208,8 +238,11 @@ final class DyAttachment implements Attachment {
                 "ctype is too long, 100 bytes maximum allowed"
             );
         }
-        final byte[] data = IOUtils.toByteArray(stream);
-        if (data.length == 0) {
+        final CountingInputStream input = new CountingInputStream(stream);
+        final byte[] head = IOUtils.toByteArray(
+            new BoundedInputStream(input, (long) DyAttachment.MAX_SIZE)
+        );
+        if (head.length == 0) {
             throw new Attachment.BrokenContentException(
                 String.format(
                     "content of attachment \"%s\" can't be empty",
@@ -217,43 +250,44 @@ final class DyAttachment implements Attachment {
                 )
             );
         }
-        if (data.length > Tv.TEN * Tv.MILLION) {
-            throw new Attachment.TooBigException(
-                "attachment is too big, 10Mb is the maximum size"
-            );
-        }
-        if (!etag.equals(this.etag())) {
-            final AttributeUpdates updates = this.save(data, ctype)
+        final boolean changed = !etag.equals(this.etag());
+        if (changed) {
+            final AttributeUpdates updates = this.save(head, input, ctype)
                 .with(DyAttachments.ATTR_ETAG, etag);
             this.item.put(updates);
-            this.updated();
             Logger.info(
-                this, "attachment %s (%d bytes) uploaded into #%d by @%s",
-                this.name(), data.length, this.bout(), this.self
+                this, "attachment %s (%d bytes) saved in #%d",
+                this.name(), input.getByteCount(), this.bout()
             );
         }
+        return changed;
     }
 
     /**
      * Save content.
-     * @param data Data to save
+     *
+     * <p>Content smaller than {@link #MAX_SIZE} is saved right into
+     * DynamoDB item, bigger content is streamed to S3.
+     *
+     * @param head The beginning of the content, up to {@link #MAX_SIZE}
+     * @param rest The rest of the content
      * @param ctype CType
      * @return Updates to apply
      * @throws IOException If fails
      */
-    private AttributeUpdates save(final byte[] data, final String ctype)
-        throws IOException {
+    private AttributeUpdates save(final byte[] head, final InputStream rest,
+        final String ctype) throws IOException {
         AttributeUpdates updates = new AttributeUpdates()
             .with(DyAttachments.ATTR_CTYPE, ctype);
-        if (data.length < DyAttachment.MAX_SIZE) {
+        if (head.length < DyAttachment.MAX_SIZE) {
             if (this.item.has(DyAttachments.ATTR_KEY)) {
-                this.bucket.remove(
+                this.storage.remove(
                     this.item.get(DyAttachments.ATTR_KEY).getS()
                 );
             }
             updates = updates.with(
                 DyAttachments.ATTR_DATA,
-                new AttributeValue().withB(ByteBuffer.wrap(data))
+                new AttributeValue().withB(ByteBuffer.wrap(head))
             );
             updates = updates.with(
                 DyAttachments.ATTR_KEY,
@@ -274,12 +308,10 @@ final class DyAttachment implements Attachment {
                     this.item.get(DyAttachments.RANGE).getS()
                 );
             }
-            final ObjectMetadata meta = new ObjectMetadata();
-            meta.setContentType(ctype);
-            meta.setContentLength((long) data.length);
-            this.bucket.ocket(key).write(
-                new ByteArrayInputStream(data),
-                meta
+            this.storage.write(
+                key,
+                new SequenceInputStream(new ByteArrayInputStream(head), rest),
+                ctype
             );
             updates = updates
                 .with(DyAttachments.ATTR_DATA, key)
@@ -299,131 +331,99 @@ final class DyAttachment implements Attachment {
 
     /**
      * It was updated just now.
-     * @throws IOException If fails
      */
-    @Async
-    private void updated() throws IOException {
-        Iterables.all(
-            this.region.table(DyFriends.TBL).frame()
-                .through(new QueryValve())
-                .where(DyFriends.HASH, Conditions.equalTo(this.bout())),
-            // @checkstyle AnonInnerLengthCheck (50 lines)
-            new Predicate<Item>() {
+    private void updated() {
+        final DyAttachment attachment = this;
+        Background.run(
+            new Background.Job() {
                 @Override
-                public boolean apply(final Item input) {
-                    AttributeUpdates updates = new AttributeUpdates().with(
-                        DyFriends.ATTR_UPDATED,
-                        System.currentTimeMillis()
-                    );
-                    try {
-                        final String alias = input.get(DyFriends.RANGE).getS();
-                        if (!alias.equals(DyAttachment.this.self)) {
-                            final Set<String> list =
-                                DyAttachment.this.list(alias);
-                            list.add(DyAttachment.this.name());
-                            updates = updates.with(
-                                DyFriends.ATTR_UNSEEN,
-                                new AttributeValueUpdate()
-                                    .withAction(AttributeAction.PUT)
-                                    .withValue(
-                                        new AttributeValue().withSS(list)
-                                    )
-                            );
-                        }
-                        input.put(updates);
-                    } catch (final IOException ex) {
-                        throw new IllegalStateException(ex);
-                    }
-                    return true;
+                public void exec() throws IOException {
+                    attachment.fanOut();
                 }
             }
         );
     }
 
     /**
-     * It was seen just now.
+     * Tell all friends that the attachment was updated.
      * @throws IOException If fails
      */
-    @Async
-    private void seen() throws IOException {
-        Iterables.all(
+    private void fanOut() throws IOException {
+        new FanOut(this.region, this.bout(), this.self).attached(
             this.region.table(DyFriends.TBL).frame()
-                .through(new QueryValve())
-                .where(DyFriends.HASH, Conditions.equalTo(this.bout()))
-                .where(DyFriends.RANGE, this.self),
-            new Predicate<Item>() {
+                .through(
+                    new QueryValve()
+                        .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                        .withAttributesToGet(DyFriends.HASH, DyFriends.RANGE)
+                )
+                .where(DyFriends.HASH, Conditions.equalTo(this.bout())),
+            this.name()
+        );
+    }
+
+    /**
+     * It was seen just now.
+     *
+     * <p>The name is removed from the set of unseen attachments by
+     * DynamoDB, and the set disappears when it gets empty.
+     */
+    private void seen() {
+        final DyAttachment attachment = this;
+        Background.run(
+            new Background.Job() {
                 @Override
-                public boolean apply(final Item input) {
-                    try {
-                        final Set<String> list =
-                            DyAttachment.this.list(DyAttachment.this.self);
-                        list.remove(DyAttachment.this.name());
-                        if (list.isEmpty()) {
-                            input.put(
-                                new AttributeUpdates().with(
-                                    DyFriends.ATTR_UNSEEN,
-                                    new AttributeValueUpdate().withAction(
-                                        AttributeAction.DELETE
-                                    )
-                                )
-                            );
-                        } else {
-                            input.put(
-                                new AttributeUpdates().with(
-                                    DyFriends.ATTR_UNSEEN,
-                                    new AttributeValueUpdate()
-                                        .withAction(AttributeAction.PUT)
-                                        .withValue(
-                                            new AttributeValue().withSS(list)
-                                        )
-                                )
-                            );
-                        }
-                    } catch (final IOException ex) {
-                        throw new IllegalStateException(ex);
-                    }
-                    return true;
+                public void exec() throws IOException {
+                    attachment.markSeen();
                 }
             }
         );
     }
 
     /**
-     * Existing list of unseen attachments.
-     * @param alias Alias
-     * @return List of attachments that are unseen
+     * Remove the name from the set of unseen attachments of the alias.
      * @throws IOException If fails
      */
-    private Set<String> list(final String alias) throws IOException {
-        final Item itm = this.region.table(DyFriends.TBL)
-            .frame().through(new QueryValve())
+    private void markSeen() throws IOException {
+        final Iterator<Item> items = this.region.table(DyFriends.TBL)
+            .frame()
+            .through(
+                new QueryValve()
+                    .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                    .withAttributesToGet(DyFriends.HASH, DyFriends.RANGE)
+            )
             .where(DyFriends.HASH, Conditions.equalTo(this.bout()))
-            .where(DyFriends.RANGE, Conditions.equalTo(alias))
-            .iterator().next();
-        final Set<String> list = new HashSet<String>(0);
-        if (itm.has(DyFriends.ATTR_UNSEEN)) {
-            list.addAll(itm.get(DyFriends.ATTR_UNSEEN).getSS());
+            .where(DyFriends.RANGE, Conditions.equalTo(this.self))
+            .iterator();
+        if (items.hasNext()) {
+            items.next().put(
+                DyFriends.ATTR_UNSEEN,
+                new AttributeValueUpdate()
+                    .withAction(AttributeAction.DELETE)
+                    .withValue(new AttributeValue().withSS(this.name()))
+            );
         }
-        return list;
     }
 
     /**
-     * S3 Bucket storage.
-     * @return Bucket
+     * Storage of big attachments and archived messages.
+     * @return Storage
      */
     @Cacheable(forever = true)
-    private static Bucket storage() {
+    static Storage storage() {
         final String key = Manifests.read("Netbout-S3Key");
-        final com.jcabi.s3.Region region;
+        final String name = Manifests.read("Netbout-S3Bucket");
+        final Storage storage;
         if (key.matches("[0-9A-Z]{20}")) {
-            region = new com.jcabi.s3.Region.Simple(
-                key,
-                Manifests.read("Netbout-S3Secret")
+            storage = new Storage.S3(
+                new com.jcabi.s3.Region.Simple(
+                    key,
+                    Manifests.read("Netbout-S3Secret")
+                ).bucket(name)
             );
         } else {
-            region = new MkRegion();
+            storage = new Storage.Simple(new MkRegion().bucket(name));
         }
-        return region.bucket(Manifests.read("Netbout-S3Bucket"));
+        return storage;
     }
 
 }
@@ -149,8 +149,29 @@ final class DyAttachments implements Attachments {
         return new DyAttachment(this.region, items.next(), this.self);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Attachments are taken from the {@link View} of the bout, when
+     * it is fresh.
+     */
     @Override
-    public Iterable<Attachment> iterate() {
+    public Iterable<Attachment> iterate() throws IOException {
+        final View view = new View(this.region, this.bout);
+        final Iterable<Attachment> atts;
+        if (view.fresh()) {
+            atts = view.attachments(this.self);
+        } else {
+            atts = this.live();
+        }
+        return atts;
+    }
+
+    /**
+     * Attachments, read from the table.
+     * @return Attachments
+     */
+    Iterable<Attachment> live() {
         return Iterables.transform(
             this.region.table(DyAttachments.TBL)
                 .frame()
@@ -176,16 +197,7 @@ final class DyAttachments implements Attachments {
 
     @Override
     public int unseen() throws IOException {
-        final Item itm = this.region.table(DyFriends.TBL)
-            .frame()
-            .through(
-                new QueryValve()
-                    .withLimit(1)
-                    .withAttributesToGet(DyFriends.ATTR_UNSEEN)
-            )
-            .where(DyFriends.HASH, Conditions.equalTo(this.bout))
-            .where(DyFriends.RANGE, Conditions.equalTo(this.self))
-            .iterator().next();
+        final Item itm = Rows.row(this.region, this.bout, this.self);
         final int unseen;
         if (itm.has(DyFriends.ATTR_UNSEEN)) {
             unseen = itm.get(DyFriends.ATTR_UNSEEN).getSS().size();
@@ -216,6 +228,7 @@ final class DyAttachments implements Attachments {
                 .with(DyAttachments.ATTR_DATA, " ")
                 .with(DyAttachments.ATTR_ETAG, "empty")
         );
+        new View(this.region, this.bout).drop();
         Logger.info(this, "attachment %s created in #%d", name, this.bout);
     }
 
@@ -247,6 +260,7 @@ final class DyAttachments implements Attachments {
         }
         items.next();
         items.remove();
+        new View(this.region, this.bout).drop();
     }
 
 }
@@ -33,7 +33,11 @@ import com.jcabi.dynamo.Region;
 import com.jcabi.dynamo.retry.ReRegion;
 import com.jcabi.manifests.Manifests;
 import com.jcabi.urn.URN;
+import com.netbout.spi.Alias;
+import com.netbout.spi.AsyncBase;
+import com.netbout.spi.AsyncInbox;
 import com.netbout.spi.Base;
+import com.netbout.spi.Restore;
 import com.netbout.spi.User;
 import java.io.IOException;
 import lombok.EqualsAndHashCode;
@@ -50,7 +54,7 @@ import lombok.ToString;
 @Loggable(Loggable.DEBUG)
 @ToString(of = "region")
 @EqualsAndHashCode(of = "region")
-public final class DyBase implements Base {
+public final class DyBase implements Base, AsyncBase {
 
     /**
      * Region we're in.
@@ -70,9 +74,11 @@ public final class DyBase implements Base {
             creds = new Credentials.Direct(
                 creds, Integer.parseInt(System.getProperty("dynamo.port"))
             );
+        } else {
+            creds = new Throttled(creds);
         }
         this.region = new Region.Prefixed(
-            new ReRegion(new Region.Simple(creds)),
+            new ReRegion(new Region.Simple(new Metered(creds))),
             Manifests.read("Netbout-DynamoPrefix")
         );
     }
@@ -82,6 +88,20 @@ public final class DyBase implements Base {
         return new DyUser(this.region, urn);
     }
 
+    @Override
+    public AsyncInbox inbox(final Alias alias) throws IOException {
+        return new DyAsyncInbox(this.region, alias.name());
+    }
+
+    /**
+     * Restore of bouts, as they were in another base.
+     * @return Restore
+     * @see DyRestore
+     */
+    public Restore restore() {
+        return new DyRestore(this.region, DyInbox.sttc(), DyMessages.sttc());
+    }
+
     @Override
     public void close() throws IOException {
         // nothing to do here
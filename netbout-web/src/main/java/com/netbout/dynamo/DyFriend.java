@@ -28,21 +28,27 @@ package com.netbout.dynamo;
 
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
+import com.jcabi.dynamo.Attributes;
 import com.jcabi.dynamo.Item;
-import com.jcabi.dynamo.QueryValve;
 import com.jcabi.dynamo.Region;
-import com.jcabi.dynamo.Table;
 import com.netbout.spi.Alias;
 import com.netbout.spi.Friend;
 import java.io.IOException;
 import java.net.URI;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 /**
  * Dynamo friend.
  *
+ * <p>The friend is backed by the item of "aliases" table, which is
+ * usually fetched together with the profiles of all other friends of
+ * the bout, see {@link DyFriends#iterate()}.
+ *
  * @author Yegor Bugayenko (yegor@teamed.io)
  * @version $Id$
  * @since 2.0
@@ -50,27 +56,72 @@ import lombok.ToString;
 @Immutable
 @Loggable(Loggable.DEBUG)
 @ToString(of = "name")
-@EqualsAndHashCode(of = { "table", "name" })
+@EqualsAndHashCode(of = "name")
 final class DyFriend implements Friend {
 
     /**
-     * Table with aliases.
+     * This alias.
      */
-    private final transient Table table;
+    private final transient String name;
 
     /**
-     * This alias.
+     * Item in "aliases" table.
      */
-    private final transient String name;
+    private final transient Item profile;
+
+    /**
+     * Ctor, for an alias that doesn't exist.
+     * @param alias Alias
+     */
+    DyFriend(final String alias) {
+        this(
+            alias,
+            new Prefetched(new Attributes().with(DyAliases.HASH, alias))
+        );
+    }
 
     /**
      * Ctor.
-     * @param region Region we're in
      * @param alias Alias
+     * @param item Item in "aliases" table
      */
-    DyFriend(final Region region, final String alias) {
-        this.table = region.table(DyAliases.TBL);
+    DyFriend(final String alias, final Item item) {
         this.name = alias;
+        this.profile = item;
+    }
+
+    /**
+     * Make friends of the aliases, fetching their profiles by one
+     * {@code BatchGetItem}.
+     * @param region Region we're in
+     * @param aliases Aliases of friends
+     * @return Friends, in the same order
+     * @throws IOException If fails
+     */
+    static Collection<Friend> all(final Region region,
+        final Collection<String> aliases) throws IOException {
+        final Collection<Attributes> keys = new ArrayList<>(aliases.size());
+        for (final String alias : aliases) {
+            keys.add(new Attributes().with(DyAliases.HASH, alias));
+        }
+        final Map<String, Item> profiles = new HashMap<>(aliases.size());
+        if (!keys.isEmpty()) {
+            for (final Item item : new Batch(region, DyAliases.TBL).get(
+                keys, DyAliases.HASH, DyAliases.ATTR_PHOTO,
+                DyAliases.ATTR_EMAIL
+            )) {
+                profiles.put(item.get(DyAliases.HASH).getS(), item);
+            }
+        }
+        final Collection<Friend> friends = new ArrayList<>(aliases.size());
+        for (final String alias : aliases) {
+            if (profiles.containsKey(alias)) {
+                friends.add(new DyFriend(alias, profiles.get(alias)));
+            } else {
+                friends.add(new DyFriend(alias));
+            }
+        }
+        return friends;
     }
 
     @Override
@@ -80,17 +131,9 @@ final class DyFriend implements Friend {
 
     @Override
     public URI photo() throws IOException {
-        final Iterator<Item> items = this.table.frame()
-            .where(DyAliases.HASH, this.name)
-            .through(
-                new QueryValve()
-                    .withLimit(1)
-                    .withAttributesToGet(DyAliases.ATTR_PHOTO)
-            )
-            .iterator();
         final URI uri;
-        if (items.hasNext()) {
-            uri = URI.create(items.next().get(DyAliases.ATTR_PHOTO).getS());
+        if (this.profile.has(DyAliases.ATTR_PHOTO)) {
+            uri = URI.create(this.profile.get(DyAliases.ATTR_PHOTO).getS());
         } else {
             uri = Alias.BLANK;
         }
@@ -99,20 +142,9 @@ final class DyFriend implements Friend {
 
     @Override
     public String email() throws IOException {
-        final Iterator<Item> items = this.table.frame()
-            .where(DyAliases.HASH, this.name)
-            .through(
-                new QueryValve()
-                    .withLimit(1)
-                    .withAttributesToGet(DyAliases.ATTR_EMAIL)
-            )
-            .iterator();
         String email = "";
-        if (items.hasNext()) {
-            final Item item = items.next();
-            if (item.has(DyAliases.ATTR_EMAIL)) {
-                email = item.get(DyAliases.ATTR_EMAIL).getS();
-            }
+        if (this.profile.has(DyAliases.ATTR_EMAIL)) {
+            email = this.profile.get(DyAliases.ATTR_EMAIL).getS();
         }
         if (email.contains("!")) {
             email = email.substring(0, email.indexOf('!'));
@@ -27,8 +27,7 @@
 package com.netbout.dynamo;
 
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
-import com.google.common.base.Function;
-import com.google.common.collect.Iterables;
+import com.amazonaws.services.dynamodbv2.model.Select;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.aspects.Tv;
@@ -41,7 +40,9 @@ import com.jcabi.log.Logger;
 import com.netbout.spi.Friend;
 import com.netbout.spi.Friends;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedList;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.commons.lang3.StringUtils;
@@ -127,7 +128,7 @@ final class DyFriends implements Friends {
     @Override
     public void invite(final String friend) throws IOException {
         final String alias = DyFriends.clean(friend);
-        if (!new Everybody(this.region).occupied(alias)) {
+        if (!new Everybody(this.region).exists(alias)) {
             throw new Friends.UnknownAliasException(
                 String.format("alias '%s' doesn't exist", friend)
             );
@@ -140,6 +141,9 @@ final class DyFriends implements Friends {
                 .with(DyFriends.ATTR_SUBSCRIPTION, true)
                 .with(DyFriends.ATTR_UPDATED, System.currentTimeMillis())
         );
+        this.view().drop();
+        this.subscriptions().forget();
+        this.mention(alias);
         Logger.info(this, "@%s invited to #%s", friend, this.bout().getN());
     }
 
@@ -156,31 +160,77 @@ final class DyFriends implements Friends {
                 String.format("alias '%s' is not in the bout", friend)
             );
         }
-        items.next();
+        final Item item = items.next();
+        if (item.has(DyFriends.ATTR_UNREAD)) {
+            new Unread(this.region, alias).add(
+                -Long.parseLong(item.get(DyFriends.ATTR_UNREAD).getN())
+            );
+        }
         items.remove();
+        this.view().drop();
+        this.subscriptions().forget();
         Logger.info(this, "@%s kicked off #%s", friend, this.bout().getN());
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Friends are taken from the {@link View} of the bout, when it
+     * is fresh.
+     */
     @Override
     public Iterable<Friend> iterate() throws IOException {
-        return Iterables.transform(
-            this.region.table(DyFriends.TBL)
-                .frame()
-                .through(new QueryValve())
-                .where(DyFriends.HASH, Conditions.equalTo(this.bout())),
-            new Function<Item, Friend>() {
-                @Override
-                public Friend apply(final Item input) {
-                    try {
-                        return new DyFriend(
-                            DyFriends.this.region,
-                            input.get(DyFriends.RANGE).getS()
-                        );
-                    } catch (final IOException ex) {
-                        throw new IllegalStateException(ex);
-                    }
-                }
-            }
+        final View view = this.view();
+        final Iterable<Friend> friends;
+        if (view.fresh()) {
+            friends = view.friends();
+        } else {
+            friends = this.live();
+        }
+        return friends;
+    }
+
+    /**
+     * Friends, read from the tables.
+     *
+     * <p>Profiles of all friends are fetched from "aliases" table by
+     * one {@code BatchGetItem}, instead of two queries per friend.
+     *
+     * @return Friends
+     * @throws IOException If fails
+     */
+    Iterable<Friend> live() throws IOException {
+        final Collection<String> aliases = new LinkedList<>();
+        for (final Item item : this.region.table(DyFriends.TBL)
+            .frame()
+            .through(
+                new QueryValve()
+                    .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                    .withAttributesToGet(DyFriends.HASH, DyFriends.RANGE)
+            )
+            .where(DyFriends.HASH, Conditions.equalTo(this.bout()))) {
+            aliases.add(item.get(DyFriends.RANGE).getS());
+        }
+        return DyFriend.all(this.region, aliases);
+    }
+
+    /**
+     * View of the bout we're in.
+     * @return View
+     * @throws IOException If fails
+     */
+    private View view() throws IOException {
+        return new View(this.region, Long.parseLong(this.bout().getN()));
+    }
+
+    /**
+     * Subscriptions of friends of the bout we're in.
+     * @return Subscriptions
+     * @throws IOException If fails
+     */
+    private Subscriptions subscriptions() throws IOException {
+        return new Subscriptions(
+            this.region, Long.parseLong(this.bout().getN())
         );
     }
 
@@ -193,6 +243,29 @@ final class DyFriends implements Friends {
         return this.item.get(DyFriends.HASH);
     }
 
+    /**
+     * Index all messages of the bout for the new friend, in background,
+     * see {@link Mentions#add(long, String, Iterable)}.
+     * @param alias Alias of the friend
+     * @throws IOException If fails
+     */
+    private void mention(final String alias) throws IOException {
+        final Region reg = this.region;
+        final long num = Long.parseLong(this.bout().getN());
+        Background.run(
+            new Background.Job() {
+                @Override
+                public void exec() throws IOException {
+                    new Mentions(reg).add(
+                        num, alias,
+                        new DyMessages(reg, num, alias)
+                            .jump(Long.MAX_VALUE).iterate()
+                    );
+                }
+            }
+        );
+    }
+
     /**
      * Clean alias.
      * @param friend Friend name
@@ -36,6 +36,7 @@ import com.amazonaws.services.dynamodbv2.model.Condition;
 import com.amazonaws.services.dynamodbv2.model.Select;
 import com.google.common.base.Function;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.jcabi.aspects.Cacheable;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
@@ -52,8 +53,11 @@ import com.netbout.spi.Inbox;
 import com.netbout.spi.Pageable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
@@ -75,6 +79,11 @@ import lombok.ToString;
 @SuppressWarnings({ "PMD.TooManyMethods", "PMD.ExcessiveImports" })
 final class DyInbox implements Inbox {
 
+    /**
+     * How many pages of bouts to prefetch.
+     */
+    private static final int AHEAD = 1;
+
     /**
      * Counter with bout number.
      */
@@ -136,40 +145,9 @@ final class DyInbox implements Inbox {
         return number;
     }
 
-    /**
-     * {@inheritDoc}
-     * @todo #1 DynamoDBLocal doesn't work with all attributes
-     *  in global index. If we remove this check for a local version,
-     *  most tests fail. I'm not sure how to fix that. I suspect, it's
-     *  a bug in DynamoDBLocal, but I don't even know how to report
-     *  it to them :( Anyway, let's try to investigate and either fix
-     *  property or introduce a better workaround. Pay attention that this
-     *  code works correctly in production.
-     */
     @Override
     public long unread() throws IOException {
-        long unread = 0L;
-        if (!"1.0-LOCAL".equals(Manifests.read("Netbout-Version"))) {
-            final Iterable<Item> items = this.region.table(DyFriends.TBL)
-                .frame()
-                .where(DyFriends.RANGE, this.self)
-                .through(
-                    new QueryValve()
-                        .withIndexName(DyFriends.INDEX)
-                        .withConsistentRead(false)
-                        .withSelect(Select.SPECIFIC_ATTRIBUTES)
-                        .withAttributesToGet(DyFriends.ATTR_UNREAD)
-                        .withScanIndexForward(false)
-                );
-            for (final Item item : items) {
-                if (item.has(DyFriends.ATTR_UNREAD)) {
-                    unread += Long.parseLong(
-                        item.get(DyFriends.ATTR_UNREAD).getN()
-                    );
-                }
-            }
-        }
-        return unread;
+        return new Unread(this.region, this.self).value();
     }
 
     @Override
@@ -204,27 +182,25 @@ final class DyInbox implements Inbox {
     @Override
     public Iterable<Bout> iterate() {
         return Iterables.transform(
-            this.region.table(DyFriends.TBL)
-                .frame()
-                .where(DyFriends.RANGE, this.self)
-                .where(
-                    DyFriends.ATTR_UPDATED,
-                    new Condition()
-                        .withComparisonOperator(ComparisonOperator.LT)
-                        .withAttributeValueList(
-                            new AttributeValue().withN(
-                                Long.toString(this.since)
-                            )
-                        )
-                )
-                .through(
-                    new QueryValve()
-                        .withIndexName(DyFriends.INDEX)
-                        .withConsistentRead(false)
-                        .withLimit(Inbox.PAGE)
-                        .withSelect(Select.ALL_PROJECTED_ATTRIBUTES)
-                        .withScanIndexForward(false)
-                ),
+            new Ahead(
+                new Ahead.Pages() {
+                    @Override
+                    public int size() {
+                        return Inbox.PAGE;
+                    }
+                    @Override
+                    public List<Item> page(final long from) {
+                        return DyInbox.this.page(from);
+                    }
+                    @Override
+                    public long next(final Item item) throws IOException {
+                        return Long.parseLong(
+                            item.get(DyFriends.ATTR_UPDATED).getN()
+                        );
+                    }
+                },
+                this.since, DyInbox.AHEAD
+            ),
             new Function<Item, Bout>() {
                 @Override
                 public Bout apply(final Item item) {
@@ -239,35 +215,160 @@ final class DyInbox implements Inbox {
         );
     }
 
+    @Override
+    public Pageable.Page<Bout> page(final String cursor) throws IOException {
+        return new Bouts(this.region, this.self).after(cursor).transform(
+            new Function<Item, Bout>() {
+                @Override
+                public Bout apply(final Item item) {
+                    return new Bout.ReadOnly(
+                        new DyBout(DyInbox.this.region, item, DyInbox.this.self)
+                    );
+                }
+            }
+        );
+    }
+
+    @Override
+    public Pageable.Page<Inbox.Row> rows(final String cursor)
+        throws IOException {
+        return new Bouts(this.region, this.self).rows(cursor);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Bouts are found by the index of mentions, see {@link Mentions},
+     * the most recently mentioned first, no matter when the bouts were
+     * updated. When the index knows nothing about the term, only
+     * the first page of bouts is checked, and only the first page of
+     * messages in each of them, see {@link #contains(long, String)}.
+     */
     @Override
     public Iterable<Bout> search(final String term) throws IOException {
-        final List<Bout> result = new ArrayList<>(16);
-        for (final Bout bout : this.iterate()) {
-            if (bout.messages().search(term).iterator().hasNext()) {
-                result.add(bout);
+        final List<Long> numbers = new Mentions(this.region)
+            .find(this.self, term, Inbox.PAGE);
+        final List<Bout> result = new ArrayList<>(numbers.size());
+        if (numbers.isEmpty()) {
+            for (final Bout bout
+                : Iterables.limit(this.iterate(), Inbox.PAGE)) {
+                if (this.contains(bout.number(), term)) {
+                    result.add(bout);
+                }
+            }
+        } else {
+            final Collection<Attributes> keys =
+                new ArrayList<>(numbers.size());
+            for (final Long number : numbers) {
+                keys.add(
+                    new Attributes()
+                        .with(DyFriends.HASH, number)
+                        .with(DyFriends.RANGE, this.self)
+                );
+            }
+            final Map<Long, Item> found = new HashMap<>(numbers.size());
+            for (final Item item : new Batch(this.region, DyFriends.TBL)
+                .get(keys)) {
+                found.put(
+                    Long.parseLong(item.get(DyFriends.HASH).getN()), item
+                );
+            }
+            for (final Long number : numbers) {
+                if (found.containsKey(number)) {
+                    result.add(
+                        new Bout.ReadOnly(
+                            new DyBout(
+                                this.region, found.get(number), this.self
+                            )
+                        )
+                    );
+                }
             }
         }
         return result;
     }
 
     /**
-     * Sttc counter.
+     * Does any of the latest messages of the bout contain the term?
+     *
+     * <p>It is the slow path of the search, when the index of mentions
+     * knows nothing about the term, that's why we look for the term as
+     * a substring of texts, not as a set of words. Only one page of
+     * the latest messages is read, the archive is not touched and
+     * messages are not marked as seen.
+     *
+     * @param bout Number of the bout
+     * @param term The term
+     * @return TRUE if it does
+     * @throws IOException If fails
+     */
+    private boolean contains(final long bout, final String term)
+        throws IOException {
+        boolean found = false;
+        for (final Item item : new DyMessages(this.region, bout, this.self)
+            .latest()) {
+            if (new DyMessage(item).text().contains(term)) {
+                found = true;
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Sttc counter, leased by blocks.
      * @return Counter
      */
     @Cacheable(forever = true)
-    private static Counter sttc() {
+    static Counter sttc() {
         try {
-            return new CdSttc(
-                new ReSttc(
-                    RtSttc.make(
-                        URN.create(Manifests.read("Netbout-SttcUrn")),
-                        Manifests.read("Netbout-SttcToken")
+            return new Leased(
+                new CdSttc(
+                    new ReSttc(
+                        RtSttc.make(
+                            URN.create(Manifests.read("Netbout-SttcUrn")),
+                            Manifests.read("Netbout-SttcToken")
+                        )
                     )
-                )
-            ).counters().get("nb-bout");
+                ).counters().get("nb-bout")
+            );
         } catch (final IOException ex) {
             throw new IllegalStateException(ex);
         }
     }
 
+    /**
+     * Fetch one page of bouts.
+     * @param from Time of update to start after
+     * @return Rows of "friends" table, not more than a page
+     */
+    private List<Item> page(final long from) {
+        return Lists.newArrayList(
+            Iterables.limit(
+                this.region.table(DyFriends.TBL)
+                    .frame()
+                    .where(DyFriends.RANGE, this.self)
+                    .where(
+                        DyFriends.ATTR_UPDATED,
+                        new Condition()
+                            .withComparisonOperator(ComparisonOperator.LT)
+                            .withAttributeValueList(
+                                new AttributeValue().withN(
+                                    Long.toString(from)
+                                )
+                            )
+                    )
+                    .through(
+                        new QueryValve()
+                            .withIndexName(DyFriends.INDEX)
+                            .withConsistentRead(false)
+                            .withLimit(Inbox.PAGE)
+                            .withSelect(Select.ALL_PROJECTED_ATTRIBUTES)
+                            .withScanIndexForward(false)
+                    ),
+                Inbox.PAGE
+            )
+        );
+    }
+
 }
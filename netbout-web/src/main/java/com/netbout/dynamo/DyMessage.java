@@ -75,7 +75,7 @@ final class DyMessage implements Message {
 
     @Override
     public String text() throws IOException {
-        return this.item.get(DyMessages.ATTR_TEXT).getS();
+        return Zipped.text(this.item);
     }
 
     @Override
@@ -35,15 +35,15 @@ import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
 import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
 import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.Select;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
-import com.jcabi.aspects.Async;
+import com.google.common.collect.Lists;
 import com.jcabi.aspects.Cacheable;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.aspects.Tv;
-import com.jcabi.dynamo.AttributeUpdates;
 import com.jcabi.dynamo.Attributes;
 import com.jcabi.dynamo.Conditions;
 import com.jcabi.dynamo.Item;
@@ -58,7 +58,11 @@ import com.netbout.spi.Messages;
 import com.netbout.spi.Pageable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.commons.lang3.StringUtils;
@@ -101,6 +105,11 @@ final class DyMessages implements Messages {
      */
     public static final String ATTR_TEXT = "text";
 
+    /**
+     * Compressed text of the message, see {@link Zipped}.
+     */
+    public static final String ATTR_ZIP = "zip";
+
     /**
      * Author of the message.
      */
@@ -111,6 +120,11 @@ final class DyMessages implements Messages {
      */
     public static final String ATTR_DATE = "date";
 
+    /**
+     * How many pages of messages to prefetch.
+     */
+    private static final int AHEAD = 1;
+
     /**
      * Counter with message number.
      */
@@ -180,29 +194,25 @@ final class DyMessages implements Messages {
         }
         final long number = this.counter.incrementAndGet(1L);
         this.region.table(DyMessages.TBL).put(
-            new Attributes()
-                .with(DyMessages.HASH, this.bout)
-                .with(DyMessages.RANGE, number)
-                .with(DyMessages.ATTR_TEXT, clean)
-                .with(DyMessages.ATTR_ALIAS, this.self)
-                .with(DyMessages.ATTR_DATE, System.currentTimeMillis())
+            Zipped.with(
+                new Attributes()
+                    .with(DyMessages.HASH, this.bout)
+                    .with(DyMessages.RANGE, number)
+                    .with(DyMessages.ATTR_ALIAS, this.self)
+                    .with(DyMessages.ATTR_DATE, System.currentTimeMillis()),
+                clean
+            )
         );
+        new Postings(this.region).add(this.bout, number, clean);
+        new View(this.region, this.bout).drop();
+        this.mention(clean);
         this.updated();
         Logger.info(this, "posted to #%d by @%s", this.bout, this.self);
     }
 
     @Override
     public long unread() throws IOException {
-        final Item item = this.region.table(DyFriends.TBL)
-            .frame()
-            .through(
-                new QueryValve()
-                    .withLimit(1)
-                    .withAttributesToGet(DyFriends.ATTR_UNREAD)
-            )
-            .where(DyFriends.HASH, Conditions.equalTo(this.bout))
-            .where(DyFriends.RANGE, Conditions.equalTo(this.self))
-            .iterator().next();
+        final Item item = Rows.row(this.region, this.bout, this.self);
         final long unread;
         if (item.has(DyFriends.ATTR_UNREAD)) {
             unread = Long.parseLong(item.get(DyFriends.ATTR_UNREAD).getN());
@@ -219,35 +229,42 @@ final class DyMessages implements Messages {
         );
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The last page of messages, when we start from {@link Inbox#NEVER}
+     * or later, is taken from the {@link View} of the bout, when it is
+     * fresh and has them.
+     */
     @Override
-    public Iterable<Message> iterate() {
+    public Iterable<Message> iterate() throws IOException {
+        Iterable<Item> items = this.ahead(this.start);
+        if (this.start >= Inbox.NEVER) {
+            this.archive();
+            final View view = new View(this.region, this.bout);
+            if (view.paged()) {
+                final List<Item> page = view.messages();
+                if (page.size() <= Messages.PAGE) {
+                    items = page;
+                } else {
+                    items = Iterables.concat(
+                        page.subList(0, Messages.PAGE),
+                        this.ahead(
+                            Long.parseLong(
+                                page.get(Messages.PAGE - 1)
+                                    .get(DyMessages.RANGE).getN()
+                            )
+                        )
+                    );
+                }
+            }
+        }
         if (this.start != Long.MAX_VALUE) {
+            Rows.forget(this.bout, this.self);
             this.seen();
         }
         return Iterables.transform(
-            this.region.table(DyMessages.TBL)
-                .frame()
-                .through(
-                    new QueryValve()
-                        .withScanIndexForward(false)
-                        .withLimit(Messages.PAGE)
-                        .withAttributesToGet(
-                            DyMessages.ATTR_TEXT,
-                            DyMessages.ATTR_ALIAS,
-                            DyMessages.ATTR_DATE
-                        )
-                )
-                .where(DyMessages.HASH, Conditions.equalTo(this.bout))
-                .where(
-                    DyMessages.RANGE,
-                    new Condition()
-                        .withComparisonOperator(ComparisonOperator.LT)
-                        .withAttributeValueList(
-                            new AttributeValue().withN(
-                                Long.toString(this.start)
-                            )
-                        )
-                ),
+            items,
             new Function<Item, Message>() {
                 @Override
                 public Message apply(final Item item) {
@@ -257,13 +274,94 @@ final class DyMessages implements Messages {
         );
     }
 
+    @Override
+    public Pageable.Page<Message> page(final String cursor)
+        throws IOException {
+        final List<Item> items;
+        if (cursor.isEmpty()) {
+            this.archive();
+            final View view = new View(this.region, this.bout);
+            if (view.paged()) {
+                items = view.messages();
+            } else {
+                items = this.page(Inbox.NEVER, Messages.PAGE + 1);
+            }
+        } else {
+            items = this.page(
+                new Pageable.Keyset(cursor, 1).get(0), Messages.PAGE + 1
+            );
+        }
+        Rows.forget(this.bout, this.self);
+        this.seen();
+        String next = "";
+        final List<Item> shown;
+        if (items.size() > Messages.PAGE) {
+            shown = items.subList(0, Messages.PAGE);
+            next = new Pageable.Keyset(
+                Long.parseLong(
+                    shown.get(Messages.PAGE - 1).get(DyMessages.RANGE).getN()
+                )
+            ).toString();
+        } else {
+            shown = items;
+        }
+        final List<Message> msgs = new ArrayList<>(shown.size());
+        for (final Item item : shown) {
+            msgs.add(new DyMessage(item));
+        }
+        return new Pageable.Page<>(msgs, next);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Messages are found by the full-text index, see {@link Postings},
+     * which matches whole words only: "hel" doesn't find "hello". When
+     * the term has no words worth indexing, like a single letter, the
+     * messages are checked one by one, and the term may be any part of
+     * their text.
+     */
     @Override
     public Iterable<Message> search(final String term) throws IOException {
-        final List<Message> result = new ArrayList<>(16);
-        for (final Message message : this.iterate()) {
-            if (message.text().contains(term)) {
-                result.add(message);
+        final List<Message> result = new ArrayList<>(Messages.PAGE);
+        if (Postings.words(term).isEmpty()) {
+            for (final Message message : this.iterate()) {
+                if (message.text().contains(term)) {
+                    result.add(message);
+                }
+            }
+        } else {
+            final List<Long> numbers = new Postings(this.region)
+                .find(this.bout, term, Messages.PAGE);
+            final Collection<Attributes> keys =
+                new ArrayList<>(numbers.size());
+            for (final Long number : numbers) {
+                keys.add(
+                    new Attributes()
+                        .with(DyMessages.HASH, this.bout)
+                        .with(DyMessages.RANGE, number)
+                );
+            }
+            final Map<Long, Message> found = new TreeMap<>(
+                Collections.<Long>reverseOrder()
+            );
+            for (final Item item : new Batch(this.region, DyMessages.TBL)
+                .get(keys)) {
+                final Message message = new DyMessage(item);
+                found.put(message.number(), message);
             }
+            final Collection<Long> missed = new ArrayList<>(numbers);
+            missed.removeAll(found.keySet());
+            if (!missed.isEmpty()
+                && new View(this.region, this.bout).archived() > 0L) {
+                for (final Item item : new Archive(
+                    this.region, DyAttachment.storage()
+                ).find(this.bout, missed)) {
+                    final Message message = new DyMessage(item);
+                    found.put(message.number(), message);
+                }
+            }
+            result.addAll(found.values());
         }
         return result;
     }
@@ -271,59 +369,239 @@ final class DyMessages implements Messages {
     /**
      * It was updated just now.
      */
-    @Async
     private void updated() {
-        final String alias = this.self;
-        Iterables.all(
+        final DyMessages messages = this;
+        Background.run(
+            new Background.Job() {
+                @Override
+                public void exec() throws IOException {
+                    messages.fanOut();
+                }
+            }
+        );
+    }
+
+    /**
+     * Index the new message for all friends of the bout, in background,
+     * since it may take a few thousands of items, see {@link Mentions}.
+     * @param text Text of the message
+     */
+    private void mention(final String text) {
+        final Region reg = this.region;
+        final long num = this.bout;
+        Background.run(
+            new Background.Job() {
+                @Override
+                public void exec() throws IOException {
+                    new Mentions(reg).add(num, text);
+                }
+            }
+        );
+    }
+
+    /**
+     * Tell all friends that the bout was updated.
+     * @throws IOException If fails
+     */
+    private void fanOut() throws IOException {
+        new FanOut(this.region, this.bout, this.self).update(
             this.region.table(DyFriends.TBL).frame()
-                .through(new QueryValve())
-                .where(DyFriends.HASH, Conditions.equalTo(this.bout)),
-            // @checkstyle AnonInnerLengthCheck (50 lines)
-            new Predicate<Item>() {
+                .through(
+                    new QueryValve()
+                        .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                        .withAttributesToGet(DyFriends.HASH, DyFriends.RANGE)
+                )
+                .where(DyFriends.HASH, Conditions.equalTo(this.bout))
+        );
+    }
+
+    /**
+     * Items of messages, read page by page, ahead of the consumer.
+     * @param from Number of the message to start after
+     * @return Items
+     */
+    private Iterable<Item> ahead(final long from) {
+        return new Ahead(
+            new Ahead.Pages() {
                 @Override
-                public boolean apply(final Item input) {
-                    AttributeUpdates updates = new AttributeUpdates().with(
-                        DyFriends.ATTR_UPDATED,
-                        System.currentTimeMillis()
-                    );
-                    try {
-                        if (!input.get(DyFriends.RANGE).getS().equals(alias)) {
-                            updates = updates.with(
-                                DyFriends.ATTR_UNREAD,
-                                new AttributeValueUpdate()
-                                    .withAction(AttributeAction.ADD)
-                                    .withValue(new AttributeValue().withN("1"))
-                            );
-                        }
-                        input.put(updates);
-                    } catch (final IOException ex) {
-                        throw new IllegalStateException(ex);
-                    }
-                    return true;
+                public int size() {
+                    return Messages.PAGE;
                 }
+                @Override
+                public List<Item> page(final long first) throws IOException {
+                    return DyMessages.this.page(first);
+                }
+                @Override
+                public long next(final Item item) throws IOException {
+                    return Long.parseLong(item.get(DyMessages.RANGE).getN());
+                }
+            },
+            from, DyMessages.AHEAD
+        );
+    }
+
+    /**
+     * Fetch one page of messages.
+     * @param from Number of the message to start after
+     * @return Messages, not more than a page
+     * @throws IOException If fails
+     */
+    List<Item> page(final long from) throws IOException {
+        return this.page(from, Messages.PAGE);
+    }
+
+    /**
+     * Fetch a few messages.
+     *
+     * <p>When there are not enough messages in DynamoDB and the
+     * {@link View} says that the bout has an archive, they are
+     * completed with older messages from the archive.
+     *
+     * @param from Number of the message to start after
+     * @param limit Maximum number of messages
+     * @return Messages, not more than the limit
+     * @throws IOException If fails
+     */
+    List<Item> page(final long from, final int limit) throws IOException {
+        final List<Item> items = this.query(from, limit);
+        if (items.size() < limit
+            && new View(this.region, this.bout).archived() > 0L) {
+            long before = from;
+            if (!items.isEmpty()) {
+                before = Long.parseLong(
+                    items.get(items.size() - 1).get(DyMessages.RANGE).getN()
+                );
             }
+            items.addAll(
+                new Archive(this.region, DyAttachment.storage()).older(
+                    this.bout, before, limit - items.size()
+                )
+            );
+        }
+        return items;
+    }
+
+    /**
+     * Fetch one page of the latest messages, only from DynamoDB,
+     * without the archive.
+     * @return Messages, not more than a page
+     * @throws IOException If fails
+     */
+    List<Item> latest() throws IOException {
+        return this.query(Inbox.NEVER, Messages.PAGE);
+    }
+
+    /**
+     * Fetch a few messages from DynamoDB.
+     * @param from Number of the message to start after
+     * @param limit Maximum number of messages
+     * @return Messages, not more than the limit
+     * @throws IOException If fails
+     */
+    private List<Item> query(final long from, final int limit)
+        throws IOException {
+        return Lists.newArrayList(
+            Iterables.limit(
+                this.region.table(DyMessages.TBL)
+                    .frame()
+                    .through(
+                        new QueryValve()
+                            .withScanIndexForward(false)
+                            .withLimit(limit)
+                            .withAttributesToGet(
+                                DyMessages.ATTR_TEXT,
+                                DyMessages.ATTR_ZIP,
+                                DyMessages.ATTR_ALIAS,
+                                DyMessages.ATTR_DATE
+                            )
+                    )
+                    .where(DyMessages.HASH, Conditions.equalTo(this.bout))
+                    .where(
+                        DyMessages.RANGE,
+                        new Condition()
+                            .withComparisonOperator(ComparisonOperator.LT)
+                            .withAttributeValueList(
+                                new AttributeValue().withN(
+                                    Long.toString(from)
+                                )
+                            )
+                    ),
+                limit
+            )
         );
     }
 
+    /**
+     * Move old messages of the bout to the archive, in background,
+     * unless it was checked recently.
+     */
+    private void archive() {
+        final Region reg = this.region;
+        final long num = this.bout;
+        if (Archive.due(num)) {
+            Background.run(
+                new Background.Job() {
+                    @Override
+                    public void exec() throws IOException {
+                        new Archive(reg, DyAttachment.storage()).pack(num);
+                    }
+                }
+            );
+        }
+    }
+
     /**
      * It was seen just now.
+     *
+     * <p>Unread counter is decreased by the value we've seen, not
+     * set to zero, in order to keep messages posted in the meantime
+     * unread, both in the bout and in the total of the alias.
      */
-    @Async
     private void seen() {
+        final DyMessages messages = this;
+        Background.run(
+            new Background.Job() {
+                @Override
+                public void exec() {
+                    messages.markSeen();
+                }
+            }
+        );
+    }
+
+    /**
+     * Decrease unread counters of the bout and of the alias.
+     */
+    private void markSeen() {
+        final Unread total = new Unread(this.region, this.self);
         Iterables.all(
             this.region.table(DyFriends.TBL).frame()
                 .through(new QueryValve())
                 .where(DyFriends.HASH, Conditions.equalTo(this.bout))
                 .where(DyFriends.RANGE, this.self),
+            // @checkstyle AnonInnerLengthCheck (50 lines)
             new Predicate<Item>() {
                 @Override
                 public boolean apply(final Item input) {
                     try {
-                        input.put(
-                            new AttributeUpdates().with(
-                                DyFriends.ATTR_UNREAD, 0L
-                            )
-                        );
+                        if (input.has(DyFriends.ATTR_UNREAD)) {
+                            final long unread = Long.parseLong(
+                                input.get(DyFriends.ATTR_UNREAD).getN()
+                            );
+                            if (unread > 0L) {
+                                input.put(
+                                    DyFriends.ATTR_UNREAD,
+                                    new AttributeValueUpdate()
+                                        .withAction(AttributeAction.ADD)
+                                        .withValue(
+                                            new AttributeValue().withN(
+                                                Long.toString(-unread)
+                                            )
+                                        )
+                                );
+                                total.add(-unread);
+                            }
+                        }
                     } catch (final IOException ex) {
                         throw new IllegalStateException(ex);
                     }
@@ -335,10 +613,15 @@ final class DyMessages implements Messages {
 
     /**
      * Sttc counter.
+     *
+     * <p>It is not {@link Leased}, since numbers of messages must grow
+     * across all JVMs: they are the range key of the table and the order
+     * of messages in a bout.
+     *
      * @return Counter
      */
     @Cacheable(forever = true)
-    private static Counter sttc() {
+    static Counter sttc() {
         try {
             return new CdSttc(
                 new ReSttc(
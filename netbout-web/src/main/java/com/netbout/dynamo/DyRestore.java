@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import co.stateful.Counter;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Conditions;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Restore;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedList;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Dynamo restore.
+ *
+ * <p>Items are put right into the tables, exactly as
+ * {@link DyInbox#start()}, {@link DyFriends#invite(String)},
+ * {@link DyMessages#post(String)} and {@link DyAttachments#create(String)}
+ * put them, but with the numbers, authors and dates given, and without
+ * fan-out: nothing becomes unread or unseen. Messages are indexed for
+ * search in {@link Postings} right away, and in {@link Mentions} of
+ * every friend when the bout is closed.
+ *
+ * <p>Counters of bouts and messages are moved forward to the restored
+ * numbers, that's why restore must be done before other servers start
+ * bouts and post messages, otherwise numbers leased by them may be
+ * given again. Attachments are attributed to the first friend of the
+ * bout, since their authors are not known.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "region")
+@EqualsAndHashCode(of = { "region", "bouts", "msgs" })
+final class DyRestore implements Restore {
+
+    /**
+     * Lock of counters.
+     */
+    private static final Object LOCK = new Object();
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Counter of bouts.
+     */
+    private final transient Counter bouts;
+
+    /**
+     * Counter of messages.
+     */
+    private final transient Counter msgs;
+
+    /**
+     * Ctor.
+     * @param reg Region we're in
+     * @param btc Counter of bouts
+     * @param mgc Counter of messages
+     */
+    DyRestore(final Region reg, final Counter btc, final Counter mgc) {
+        this.region = reg;
+        this.bouts = btc;
+        this.msgs = mgc;
+    }
+
+    @Override
+    public Restore.Bout bout(final long number, final String title,
+        final Date date) throws IOException {
+        final boolean exists = this.region.table(DyFriends.TBL)
+            .frame()
+            .through(new QueryValve().withLimit(1))
+            .where(DyFriends.HASH, Conditions.equalTo(number))
+            .iterator()
+            .hasNext();
+        if (exists) {
+            throw new IOException(
+                String.format("bout #%d already exists", number)
+            );
+        }
+        DyRestore.forward(this.bouts, number);
+        return new DyRestore.Bout(this, number, title, date);
+    }
+
+    /**
+     * Move the counter forward to the value, if it's behind.
+     *
+     * <p>One number is taken from it in order to find out where it is,
+     * that's why it's synchronized: otherwise a number taken by one
+     * thread could be set back by another one.
+     *
+     * @param counter The counter
+     * @param value The value
+     * @throws IOException If fails
+     */
+    private static void forward(final Counter counter, final long value)
+        throws IOException {
+        synchronized (DyRestore.LOCK) {
+            if (counter.incrementAndGet(1L) < value) {
+                counter.set(value);
+            }
+        }
+    }
+
+    /**
+     * Bout being restored.
+     */
+    @ToString(of = "number")
+    @EqualsAndHashCode(of = { "restore", "number" })
+    private static final class Bout implements Restore.Bout {
+        /**
+         * Restore.
+         */
+        private final transient DyRestore restore;
+        /**
+         * Number of the bout.
+         */
+        private final transient long number;
+        /**
+         * Its title.
+         */
+        private final transient String title;
+        /**
+         * When it was updated.
+         */
+        private final transient long date;
+        /**
+         * Aliases of friends restored.
+         */
+        private final transient Collection<String> friends =
+            new LinkedList<>();
+        /**
+         * The biggest number of a message restored.
+         */
+        private transient long top;
+        /**
+         * Ctor.
+         * @param rst Restore
+         * @param num Number of the bout
+         * @param ttl Its title
+         * @param when When it was updated
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Bout(final DyRestore rst, final long num, final String ttl,
+            final Date when) {
+            this.restore = rst;
+            this.number = num;
+            this.title = ttl;
+            this.date = when.getTime();
+        }
+        @Override
+        public void friend(final String alias) throws IOException {
+            this.restore.region.table(DyFriends.TBL).put(
+                new Attributes()
+                    .with(DyFriends.RANGE, alias)
+                    .with(DyFriends.HASH, this.number)
+                    .with(DyFriends.ATTR_SUBSCRIPTION, true)
+                    .with(DyFriends.ATTR_UPDATED, this.date)
+                    .with(DyFriends.ATTR_TITLE, this.title)
+            );
+            this.friends.add(alias);
+        }
+        @Override
+        public void message(final long num, final String author,
+            final Date when, final String text) throws IOException {
+            this.restore.region.table(DyMessages.TBL).put(
+                Zipped.with(
+                    new Attributes()
+                        .with(DyMessages.HASH, this.number)
+                        .with(DyMessages.RANGE, num)
+                        .with(DyMessages.ATTR_ALIAS, author)
+                        .with(DyMessages.ATTR_DATE, when.getTime()),
+                    text
+                )
+            );
+            new Postings(this.restore.region).add(this.number, num, text);
+            this.top = Math.max(this.top, num);
+        }
+        @Override
+        public void attachment(final String name, final String ctype,
+            final String etag, final InputStream content) throws IOException {
+            if (this.friends.isEmpty()) {
+                throw new IOException(
+                    String.format(
+                        "attachment %s of #%d goes before friends",
+                        name, this.number
+                    )
+                );
+            }
+            final String alias = this.friends.iterator().next();
+            final Item item = this.restore.region.table(DyAttachments.TBL)
+                .put(
+                    new Attributes()
+                        .with(DyAttachments.HASH, this.number)
+                        .with(DyAttachments.RANGE, name)
+                        .with(DyAttachments.ATTR_ALIAS, alias)
+                        .with(DyAttachments.ATTR_CTYPE, ctype)
+                        .with(DyAttachments.ATTR_DATA, " ")
+                        .with(DyAttachments.ATTR_ETAG, "empty")
+                );
+            new DyAttachment(this.restore.region, item, alias)
+                .store(content, ctype, etag);
+        }
+        @Override
+        public void close() throws IOException {
+            DyRestore.forward(this.restore.msgs, this.top);
+            final Mentions mentions = new Mentions(this.restore.region);
+            for (final String alias : this.friends) {
+                mentions.add(
+                    this.number, alias,
+                    new DyMessages(this.restore.region, this.number, alias)
+                        .jump(Long.MAX_VALUE).iterate()
+                );
+            }
+            new View(this.restore.region, this.number).drop();
+            Logger.info(
+                this, "bout #%d restored with %d friend(s)",
+                this.number, this.friends.size()
+            );
+        }
+    }
+
+}
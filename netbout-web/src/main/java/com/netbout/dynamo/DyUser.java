@@ -26,12 +26,11 @@
  */
 package com.netbout.dynamo;
 
-import com.google.common.base.Function;
-import com.google.common.collect.Iterables;
+import com.amazonaws.services.dynamodbv2.model.Select;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
 import com.jcabi.dynamo.Conditions;
-import com.jcabi.dynamo.Item;
 import com.jcabi.dynamo.QueryValve;
 import com.jcabi.dynamo.Region;
 import com.jcabi.urn.URN;
@@ -39,6 +38,7 @@ import com.netbout.spi.Aliases;
 import com.netbout.spi.Friend;
 import com.netbout.spi.User;
 import java.io.IOException;
+import java.util.List;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
@@ -55,6 +55,11 @@ import lombok.ToString;
 @EqualsAndHashCode(of = { "region", "urn" })
 final class DyUser implements User {
 
+    /**
+     * How many friends to suggest.
+     */
+    private static final int SUGGESTIONS = Tv.TEN;
+
     /**
      * Region to work with.
      */
@@ -80,27 +85,38 @@ final class DyUser implements User {
         return new DyAliases(this.region, this.urn);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Aliases are found in the prefix index, see {@link Prefixes}.
+     * The alias equal to the text always goes first, if it exists. When
+     * it is not in the index, since it was created before the index was
+     * introduced, it is looked up in "aliases" table and added to the
+     * index.
+     */
     @Override
-    public Iterable<Friend> friends(final String text) {
-        return Iterables.transform(
-            this.region.table(DyAliases.TBL)
+    public Iterable<Friend> friends(final String text) throws IOException {
+        final List<String> aliases = new Prefixes(this.region)
+            .find(text, DyUser.SUGGESTIONS);
+        if (!text.isEmpty() && !aliases.contains(text)
+            && this.region.table(DyAliases.TBL)
                 .frame()
-                .through(new QueryValve())
-                .where(DyAliases.HASH, Conditions.equalTo(text)),
-            new Function<Item, Friend>() {
-                @Override
-                public Friend apply(final Item input) {
-                    try {
-                        return new DyFriend(
-                            DyUser.this.region,
-                            input.get(DyAliases.HASH).getS()
-                        );
-                    } catch (final IOException ex) {
-                        throw new IllegalStateException(ex);
-                    }
-                }
+                .through(
+                    new QueryValve()
+                        .withLimit(1)
+                        .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                        .withAttributesToGet(DyAliases.HASH)
+                )
+                .where(DyAliases.HASH, Conditions.equalTo(text))
+                .iterator()
+                .hasNext()) {
+            new Prefixes(this.region).add(text);
+            aliases.add(0, text);
+            if (aliases.size() > DyUser.SUGGESTIONS) {
+                aliases.remove(aliases.size() - 1);
             }
-        );
+        }
+        return DyFriend.all(this.region, aliases);
     }
 
 }
@@ -63,21 +63,54 @@ final class Everybody {
 
     /**
      * This name is occupied.
+     *
+     * <p>The answer comes from the {@link Bloom} filter if the name
+     * is definitely free, and from DynamoDB otherwise. Names added by
+     * other nodes may be reported as free until the filter is rebuilt,
+     * use {@link #exists(String)} when it matters.
+     *
      * @param name The name
      * @return TRUE if occupied
      */
     public boolean occupied(final String name) {
+        Everybody.validate(name);
+        return Bloom.of(this.region).mightContain(this.region, name)
+            && this.exists(name);
+    }
+
+    /**
+     * This name exists in DynamoDB.
+     * @param name The name
+     * @return TRUE if exists
+     */
+    public boolean exists(final String name) {
+        Everybody.validate(name);
+        return this.region.table(DyAliases.TBL).frame()
+            .through(new QueryValve().withLimit(1))
+            .where(DyAliases.HASH, Conditions.equalTo(name))
+            .iterator()
+            .hasNext();
+    }
+
+    /**
+     * The name was just added.
+     * @param name The name
+     */
+    public void added(final String name) {
+        Bloom.of(this.region).put(name);
+    }
+
+    /**
+     * Validate the name.
+     * @param name The name
+     */
+    private static void validate(final String name) {
         if (name.isEmpty()) {
             throw new IllegalArgumentException("alias can't be empty");
         }
         if (name.length() > Tv.HUNDRED) {
             throw new IllegalArgumentException("alias is too long");
         }
-        return this.region.table(DyAliases.TBL).frame()
-            .through(new QueryValve().withLimit(1))
-            .where(DyAliases.HASH, Conditions.equalTo(name))
-            .iterator()
-            .hasNext();
     }
 
 }
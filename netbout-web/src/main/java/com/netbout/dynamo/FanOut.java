@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeAction;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.AttributeUpdates;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Region;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseThreads;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Fan-out of a new message or attachment to all friends of a bout.
+ *
+ * <p>DynamoDB can't update items in batches, that's why every friend
+ * gets its own UpdateItem request. They are executed in parallel,
+ * by a small pool of threads shared by all bouts, and the total time
+ * of the fan-out is logged when all of them are finished. Totals
+ * of unread messages of friends are incremented by the same tasks.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString
+@EqualsAndHashCode(of = { "region", "bout", "author" })
+final class FanOut {
+
+    /**
+     * Threads that update friends, shared by all bouts.
+     *
+     * <p>When a thousand updates are waiting, the next one runs in
+     * the thread of {@link Background}, which submits it, so the
+     * backlog doesn't grow without limits.
+     */
+    private static final ListeningExecutorService POOL =
+        MoreExecutors.listeningDecorator(
+            new ThreadPoolExecutor(
+                Tv.EIGHT, Tv.EIGHT, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(Tv.THOUSAND),
+                new VerboseThreads(FanOut.class),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+            )
+        );
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Bout number.
+     */
+    private final transient long bout;
+
+    /**
+     * Alias of the author of the message or attachment.
+     */
+    private final transient String author;
+
+    /**
+     * Ctor.
+     * @param reg Region we're in
+     * @param num Bout number
+     * @param alias Author of the message or attachment
+     */
+    FanOut(final Region reg, final long num, final String alias) {
+        this.region = reg;
+        this.bout = num;
+        this.author = alias;
+    }
+
+    /**
+     * Update all friends in parallel, without waiting for them.
+     * @param friends Items in "friends" table of the bout
+     * @throws IOException If fails
+     */
+    public void update(final Iterable<Item> friends) throws IOException {
+        final long start = System.nanoTime();
+        final AttributeUpdates mine = new AttributeUpdates().with(
+            DyFriends.ATTR_UPDATED, System.currentTimeMillis()
+        );
+        final AttributeUpdates theirs = mine.with(
+            DyFriends.ATTR_UNREAD,
+            new AttributeValueUpdate()
+                .withAction(AttributeAction.ADD)
+                .withValue(new AttributeValue().withN("1"))
+        );
+        final List<ListenableFuture<Item>> futures = new ArrayList<>(0);
+        for (final Item friend : friends) {
+            final String alias = friend.get(DyFriends.RANGE).getS();
+            final Callable<Item> task;
+            if (alias.equals(this.author)) {
+                task = FanOut.task(friend, mine);
+            } else {
+                task = FanOut.task(
+                    friend, theirs, new Unread(this.region, alias)
+                );
+            }
+            futures.add(FanOut.POOL.submit(task));
+        }
+        this.report(futures, start);
+    }
+
+    /**
+     * Mark new attachment as unseen for all friends, in parallel,
+     * without waiting for them.
+     *
+     * <p>The name is added to the set of unseen attachments by
+     * DynamoDB itself, that's why concurrent uploads don't overwrite
+     * each other and the set doesn't have to be read first.
+     *
+     * @param friends Items in "friends" table of the bout
+     * @param name Name of the attachment
+     * @throws IOException If fails
+     */
+    public void attached(final Iterable<Item> friends, final String name)
+        throws IOException {
+        final long start = System.nanoTime();
+        final AttributeUpdates mine = new AttributeUpdates().with(
+            DyFriends.ATTR_UPDATED, System.currentTimeMillis()
+        );
+        final AttributeUpdates theirs = mine.with(
+            DyFriends.ATTR_UNSEEN,
+            new AttributeValueUpdate()
+                .withAction(AttributeAction.ADD)
+                .withValue(new AttributeValue().withSS(name))
+        );
+        final List<ListenableFuture<Item>> futures = new ArrayList<>(0);
+        for (final Item friend : friends) {
+            final AttributeUpdates updates;
+            if (friend.get(DyFriends.RANGE).getS().equals(this.author)) {
+                updates = mine;
+            } else {
+                updates = theirs;
+            }
+            futures.add(FanOut.POOL.submit(FanOut.task(friend, updates)));
+        }
+        this.report(futures, start);
+    }
+
+    /**
+     * Log the outcome of the fan-out, when it's finished.
+     * @param futures Updates being executed
+     * @param start When the fan-out started, in nanoseconds
+     */
+    private void report(final Collection<ListenableFuture<Item>> futures,
+        final long start) {
+        final int total = futures.size();
+        Futures.addCallback(
+            Futures.allAsList(futures),
+            new FutureCallback<List<Item>>() {
+                @Override
+                public void onSuccess(final List<Item> items) {
+                    Logger.info(
+                        FanOut.class,
+                        "#%d updated for %d friend(s) in %[nano]s",
+                        FanOut.this.bout, total,
+                        System.nanoTime() - start
+                    );
+                }
+                @Override
+                public void onFailure(final Throwable error) {
+                    Logger.error(
+                        FanOut.class,
+                        "#%d failed to update %d friend(s) in %[nano]s: %s",
+                        FanOut.this.bout, total,
+                        System.nanoTime() - start, error
+                    );
+                }
+            }
+        );
+    }
+
+    /**
+     * Update of a friend.
+     * @param friend Item in "friends" table
+     * @param updates Updates to apply
+     * @return Task to execute
+     */
+    private static Callable<Item> task(final Item friend,
+        final AttributeUpdates updates) {
+        return new Callable<Item>() {
+            @Override
+            public Item call() throws IOException {
+                friend.put(updates);
+                return friend;
+            }
+        };
+    }
+
+    /**
+     * Update of a friend, who didn't read the message yet.
+     * @param friend Item in "friends" table
+     * @param updates Updates to apply
+     * @param unread Total of unread messages of the friend
+     * @return Task to execute
+     */
+    private static Callable<Item> task(final Item friend,
+        final AttributeUpdates updates, final Unread unread) {
+        return new Callable<Item>() {
+            @Override
+            public Item call() throws IOException {
+                friend.put(updates);
+                unread.add(1L);
+                return friend;
+            }
+        };
+    }
+
+}
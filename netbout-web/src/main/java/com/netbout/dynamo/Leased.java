@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import co.stateful.Counter;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseThreads;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.ToString;
+
+/**
+ * Counter that leases blocks of numbers from another counter.
+ *
+ * <p>Instead of asking the origin counter for every number, it leases
+ * a block of them at once and hands them out from memory, without
+ * locking. When three quarters of the block are used, the next block
+ * is leased in background. Blocks are always leased one after another,
+ * that's why numbers returned by one instance of this class are always
+ * growing. Numbers returned by different JVMs are unique, but not ordered
+ * between each other, and the unused rest of a block is lost when JVM
+ * stops. That's why it must not be used where the order of numbers
+ * matters across JVMs, like for numbers of messages.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Loggable(Loggable.DEBUG)
+@ToString(of = { "origin", "size" })
+final class Leased implements Counter {
+
+    /**
+     * Threads that lease next blocks, shared by all counters.
+     */
+    private static final ExecutorService REFILL =
+        Executors.newSingleThreadExecutor(new VerboseThreads(Leased.class));
+
+    /**
+     * Original counter.
+     */
+    private final transient Counter origin;
+
+    /**
+     * Size of a block.
+     */
+    private final transient long size;
+
+    /**
+     * Block we're taking numbers from.
+     */
+    private final transient AtomicReference<Leased.Block> current;
+
+    /**
+     * Blocks leased in advance, also used as a lock for leasing.
+     */
+    private final transient Queue<Leased.Block> reserve;
+
+    /**
+     * Is the next block being leased in background?
+     */
+    private final transient AtomicBoolean refilling;
+
+    /**
+     * Ctor.
+     * @param ctr Original counter
+     */
+    Leased(final Counter ctr) {
+        this(ctr, Tv.THOUSAND);
+    }
+
+    /**
+     * Ctor.
+     * @param ctr Original counter
+     * @param total How many numbers to lease at once
+     */
+    Leased(final Counter ctr, final long total) {
+        this.origin = ctr;
+        this.size = total;
+        this.current = new AtomicReference<>(Leased.Block.empty());
+        this.reserve = new ConcurrentLinkedQueue<>();
+        this.refilling = new AtomicBoolean();
+    }
+
+    @Override
+    public String name() {
+        return this.origin.name();
+    }
+
+    @Override
+    public void set(final long value) throws IOException {
+        synchronized (this.reserve) {
+            this.origin.set(value);
+            this.reserve.clear();
+            this.current.set(Leased.Block.empty());
+        }
+    }
+
+    @Override
+    public long incrementAndGet(final long delta) throws IOException {
+        while (true) {
+            final Leased.Block block = this.current.get();
+            final long number = block.take(delta);
+            if (number <= block.last()) {
+                if (block.last() - number < this.size / Tv.FOUR) {
+                    this.refill();
+                }
+                return number;
+            }
+            this.renew(block, delta);
+        }
+    }
+
+    /**
+     * Replace exhausted block with a new one.
+     * @param block The block that is exhausted
+     * @param delta How many numbers we need in it, at least
+     * @throws IOException If fails
+     */
+    private void renew(final Leased.Block block, final long delta)
+        throws IOException {
+        synchronized (this.reserve) {
+            if (this.current.get() == block) {
+                final Leased.Block next;
+                if (this.reserve.isEmpty()) {
+                    next = this.lease(Math.max(this.size, delta));
+                } else {
+                    next = this.reserve.remove();
+                }
+                this.current.set(next);
+            }
+        }
+    }
+
+    /**
+     * Lease next block in background, if it's not leased yet.
+     */
+    private void refill() {
+        if (this.reserve.isEmpty()
+            && this.refilling.compareAndSet(false, true)) {
+            Leased.REFILL.submit(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            synchronized (Leased.this.reserve) {
+                                Leased.this.reserve.add(
+                                    Leased.this.lease(Leased.this.size)
+                                );
+                            }
+                        } catch (final IOException ex) {
+                            Logger.warn(
+                                Leased.this, "failed to lease %d: %s",
+                                Leased.this.size, ex
+                            );
+                        } finally {
+                            Leased.this.refilling.set(false);
+                        }
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Lease a block of numbers from the origin.
+     * @param total How many numbers to lease
+     * @return The block
+     * @throws IOException If fails
+     */
+    private Leased.Block lease(final long total) throws IOException {
+        final long last = this.origin.incrementAndGet(total);
+        return new Leased.Block(last - total + 1L, last);
+    }
+
+    /**
+     * Block of numbers.
+     */
+    private static final class Block {
+        /**
+         * Last number of the block.
+         */
+        private final transient long end;
+        /**
+         * Last number taken.
+         */
+        private final transient AtomicLong taken;
+        /**
+         * Ctor.
+         * @param first First number
+         * @param last Last number
+         */
+        Block(final long first, final long last) {
+            this.end = last;
+            this.taken = new AtomicLong(first - 1L);
+        }
+        /**
+         * Take the next number (may be bigger than the last one).
+         * @param delta How far to move
+         * @return The number
+         */
+        public long take(final long delta) {
+            return this.taken.addAndGet(delta);
+        }
+        /**
+         * Block without numbers.
+         * @return The block
+         */
+        public static Leased.Block empty() {
+            return new Leased.Block(1L, 0L);
+        }
+        /**
+         * Last number of the block.
+         * @return The number
+         */
+        public long last() {
+            return this.end;
+        }
+    }
+
+}
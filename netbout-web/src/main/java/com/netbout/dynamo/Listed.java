@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Region;
+import com.netbout.spi.Attachment;
+import java.io.IOException;
+import java.io.InputStream;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Attachment listed in the {@link View} of a bout.
+ *
+ * <p>The view has the name, the type and the etag of the attachment,
+ * but not its content, that's why the content is read and written
+ * through the attachment in the table.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+final class Listed implements Attachment {
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Bout we're in.
+     */
+    private final transient long bout;
+
+    /**
+     * Self alias.
+     */
+    private final transient String self;
+
+    /**
+     * The attachment, as the view has it.
+     */
+    private final transient Attachment origin;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     * @param num Bout number
+     * @param attrs Attributes from the view
+     * @param slf Self alias
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    Listed(final Region reg, final long num, final Attributes attrs,
+        final String slf) {
+        this.region = reg;
+        this.bout = num;
+        this.self = slf;
+        this.origin = new DyAttachment(
+            reg, new Prefetched(attrs.with(DyAttachments.HASH, num)), slf
+        );
+    }
+
+    @Override
+    public String name() throws IOException {
+        return this.origin.name();
+    }
+
+    @Override
+    public String ctype() throws IOException {
+        return this.origin.ctype();
+    }
+
+    @Override
+    public String etag() throws IOException {
+        return this.origin.etag();
+    }
+
+    @Override
+    public boolean unseen() throws IOException {
+        return this.origin.unseen();
+    }
+
+    @Override
+    public InputStream read() throws IOException {
+        return this.live().read();
+    }
+
+    @Override
+    public void write(final InputStream stream, final String ctype,
+        final String etag) throws IOException {
+        this.live().write(stream, ctype, etag);
+    }
+
+    /**
+     * The same attachment, read from the table.
+     * @return Attachment
+     * @throws IOException If fails
+     */
+    private Attachment live() throws IOException {
+        return new DyAttachments(this.region, this.bout, this.self)
+            .get(this.name());
+    }
+
+}
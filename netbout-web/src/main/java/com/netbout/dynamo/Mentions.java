@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.Select;
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Conditions;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import com.netbout.spi.Message;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Full-text index of bouts, visible to one alias.
+ *
+ * <p>When a message is posted, every word of it is registered in
+ * "mentions" table for every friend of the bout, where the hash is
+ * the alias and the word, the range is the bout number and "updated"
+ * is the time of the latest message with this word. A friend invited
+ * later gets all words of earlier messages of the bout. Search
+ * in an inbox costs one query per word, no matter how many
+ * bouts the alias has. Bouts found are ordered by the time of
+ * the latest mention of the term, not by the time of their update.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString
+@EqualsAndHashCode(of = "region")
+final class Mentions {
+
+    /**
+     * Table name.
+     */
+    public static final String TBL = "mentions";
+
+    /**
+     * Term attribute, alias and word.
+     */
+    public static final String HASH = "term";
+
+    /**
+     * Bout attribute.
+     */
+    public static final String RANGE = "bout";
+
+    /**
+     * When the word was mentioned last time.
+     */
+    public static final String ATTR_UPDATED = "updated";
+
+    /**
+     * Region to work with.
+     */
+    private final transient Region region;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     */
+    Mentions(final Region reg) {
+        this.region = reg;
+    }
+
+    /**
+     * Index a new message for all friends of the bout.
+     * @param bout Bout number
+     * @param text Text of the message
+     * @throws IOException If fails
+     */
+    public void add(final long bout, final String text) throws IOException {
+        final Collection<String> words = Postings.words(text);
+        final Collection<Attributes> items = new ArrayList<>(words.size());
+        final long now = System.currentTimeMillis();
+        final Iterable<Item> friends = this.region.table(DyFriends.TBL)
+            .frame()
+            .through(
+                new QueryValve()
+                    .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                    .withAttributesToGet(DyFriends.RANGE)
+            )
+            .where(DyFriends.HASH, Conditions.equalTo(bout));
+        for (final Item friend : friends) {
+            final String alias = friend.get(DyFriends.RANGE).getS();
+            for (final String word : words) {
+                items.add(
+                    new Attributes()
+                        .with(Mentions.HASH, Mentions.term(alias, word))
+                        .with(Mentions.RANGE, bout)
+                        .with(Mentions.ATTR_UPDATED, now)
+                );
+            }
+        }
+        new Batch(this.region, Mentions.TBL).put(items);
+    }
+
+    /**
+     * Index all messages of the bout for a friend, who was just invited.
+     *
+     * <p>Every word is registered once, with the date of the latest
+     * message that mentions it.
+     *
+     * @param bout Bout number
+     * @param alias Alias of the friend
+     * @param messages All messages of the bout, latest first
+     * @throws IOException If fails
+     */
+    public void add(final long bout, final String alias,
+        final Iterable<Message> messages) throws IOException {
+        final Map<String, Long> words = new HashMap<>(0);
+        for (final Message message : messages) {
+            final long date = message.date().getTime();
+            for (final String word : Postings.words(message.text())) {
+                if (!words.containsKey(word)) {
+                    words.put(word, date);
+                }
+            }
+        }
+        final Collection<Attributes> items = new ArrayList<>(words.size());
+        for (final Map.Entry<String, Long> word : words.entrySet()) {
+            items.add(
+                new Attributes()
+                    .with(Mentions.HASH, Mentions.term(alias, word.getKey()))
+                    .with(Mentions.RANGE, bout)
+                    .with(Mentions.ATTR_UPDATED, word.getValue())
+            );
+        }
+        new Batch(this.region, Mentions.TBL).put(items);
+    }
+
+    /**
+     * Find bouts that mention all words of the term.
+     * @param alias Alias who is searching
+     * @param term The term
+     * @param limit Maximum number of bouts to return
+     * @return Numbers of bouts found, most recently mentioned first, or
+     *  empty if the term has no words that could be indexed
+     * @throws IOException If fails
+     */
+    public List<Long> find(final String alias, final String term,
+        final int limit) throws IOException {
+        final Iterator<String> words =
+            Iterables.limit(Postings.words(term), Tv.FIVE).iterator();
+        final List<Long> result = new ArrayList<>(limit);
+        if (words.hasNext()) {
+            final Map<Long, Long> found = this.bouts(alias, words.next());
+            while (words.hasNext() && !found.isEmpty()) {
+                found.keySet().retainAll(
+                    this.bouts(alias, words.next()).keySet()
+                );
+            }
+            final List<Map.Entry<Long, Long>> entries =
+                new ArrayList<>(found.entrySet());
+            Collections.sort(
+                entries,
+                new Comparator<Map.Entry<Long, Long>>() {
+                    @Override
+                    public int compare(final Map.Entry<Long, Long> left,
+                        final Map.Entry<Long, Long> right) {
+                        return right.getValue().compareTo(left.getValue());
+                    }
+                }
+            );
+            for (final Map.Entry<Long, Long> entry
+                : Iterables.limit(entries, limit)) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All bouts of the alias with the given word.
+     * @param alias The alias
+     * @param word The word
+     * @return Bout numbers and times of their last mention
+     * @throws IOException If fails
+     */
+    private Map<Long, Long> bouts(final String alias, final String word)
+        throws IOException {
+        final Map<Long, Long> bouts = new HashMap<>(0);
+        final Iterable<Item> items = this.region.table(Mentions.TBL)
+            .frame()
+            .through(
+                new QueryValve()
+                    .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                    .withAttributesToGet(Mentions.RANGE, Mentions.ATTR_UPDATED)
+            )
+            .where(
+                Mentions.HASH,
+                Conditions.equalTo(Mentions.term(alias, word))
+            );
+        for (final Item item : items) {
+            bouts.put(
+                Long.parseLong(item.get(Mentions.RANGE).getN()),
+                Long.parseLong(item.get(Mentions.ATTR_UPDATED).getN())
+            );
+        }
+        return bouts;
+    }
+
+    /**
+     * Hash of the mention.
+     * @param alias The alias
+     * @param word The word
+     * @return Hash value
+     */
+    private static String term(final String alias, final String word) {
+        return String.format("%s %s", alias, word);
+    }
+
+}
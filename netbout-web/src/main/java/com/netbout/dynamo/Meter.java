@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics of calls to DynamoDB made from one place.
+ *
+ * <p>Latencies are kept in a histogram, where every bucket is twice
+ * as wide as the previous one, starting with one millisecond.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+final class Meter {
+
+    /**
+     * How many buckets in the histogram.
+     */
+    private static final int BUCKETS = 16;
+
+    /**
+     * Capacity units are stored in thousandths.
+     */
+    private static final double MILLI = 1000.0d;
+
+    /**
+     * Total calls.
+     */
+    private final transient AtomicLong calls = new AtomicLong();
+
+    /**
+     * Total items returned or written.
+     */
+    private final transient AtomicLong items = new AtomicLong();
+
+    /**
+     * Total capacity units consumed, in thousandths.
+     */
+    private final transient AtomicLong units = new AtomicLong();
+
+    /**
+     * Total time spent, in nanoseconds.
+     */
+    private final transient AtomicLong nanos = new AtomicLong();
+
+    /**
+     * Histogram of latencies.
+     */
+    private final transient AtomicLongArray latencies =
+        new AtomicLongArray(Meter.BUCKETS);
+
+    /**
+     * Register a call.
+     * @param total How many items
+     * @param capacity Capacity units consumed
+     * @param time Latency, in nanoseconds
+     */
+    public void add(final long total, final double capacity,
+        final long time) {
+        this.calls.incrementAndGet();
+        this.items.addAndGet(total);
+        this.units.addAndGet(Math.round(capacity * Meter.MILLI));
+        this.nanos.addAndGet(time);
+        final long msec = TimeUnit.NANOSECONDS.toMillis(time);
+        final int bucket = Math.min(
+            Long.SIZE - Long.numberOfLeadingZeros(msec), Meter.BUCKETS - 1
+        );
+        this.latencies.incrementAndGet(bucket);
+    }
+
+    /**
+     * Capacity units consumed.
+     * @return Units
+     */
+    public double capacity() {
+        return (double) this.units.get() / Meter.MILLI;
+    }
+
+    @Override
+    public String toString() {
+        final long total = this.calls.get();
+        return String.format(
+            "calls=%d items=%d capacity=%.1f avg=%dms p50<%dms %s",
+            total, this.items.get(), this.capacity(),
+            TimeUnit.NANOSECONDS.toMillis(
+                this.nanos.get() / Math.max(total, 1L)
+            ),
+            // @checkstyle MagicNumber (4 lines)
+            this.percentile(0.5d),
+            String.format(
+                "p90<%dms p99<%dms",
+                this.percentile(0.9d), this.percentile(0.99d)
+            )
+        );
+    }
+
+    /**
+     * Upper bound of the latency for the share of calls.
+     * @param share Share of calls, between zero and one
+     * @return Milliseconds
+     */
+    private long percentile(final double share) {
+        final double limit = share * this.calls.get();
+        long seen = 0L;
+        int bucket = 0;
+        while (bucket < Meter.BUCKETS - 1) {
+            seen += this.latencies.get(bucket);
+            if (seen >= limit) {
+                break;
+            }
+            ++bucket;
+        }
+        return 1L << bucket;
+    }
+
+}
@@ -0,0 +1,448 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.dynamo.Credentials;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Credentials that meter all calls to DynamoDB.
+ *
+ * <p>Every call made through the client is counted, together with
+ * the number of items, consumed capacity units and latency, by table,
+ * index and operation. Walking the stack to find the class and method
+ * of netbout that made the call is expensive, so only one call in
+ * {@link #SAMPLE} is attributed to its caller. The report is available
+ * through {@link #report()}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = "origin")
+@SuppressWarnings("PMD.ExcessiveImports")
+public final class Metered implements Credentials {
+
+    /**
+     * Meters, by places.
+     */
+    private static final ConcurrentMap<String, Meter> METERS =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Only one call in this many is attributed to its caller.
+     */
+    private static final long SAMPLE = 64L;
+
+    /**
+     * Calls attributed to callers, by places.
+     */
+    private static final ConcurrentMap<String, AtomicLong> CALLERS =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Calls made so far.
+     */
+    private static final AtomicLong CALLS = new AtomicLong();
+
+    /**
+     * Original credentials.
+     */
+    private final transient Credentials origin;
+
+    /**
+     * Ctor.
+     * @param creds Original credentials
+     */
+    public Metered(final Credentials creds) {
+        this.origin = creds;
+    }
+
+    @Override
+    public AmazonDynamoDB aws() {
+        return AmazonDynamoDB.class.cast(
+            Proxy.newProxyInstance(
+                Metered.class.getClassLoader(),
+                new Class<?>[] {AmazonDynamoDB.class},
+                new Metered.Handler(this.origin.aws())
+            )
+        );
+    }
+
+    /**
+     * Report about all calls, the most expensive first.
+     * @return Lines of text
+     */
+    public static List<String> report() {
+        final List<Map.Entry<String, Meter>> entries =
+            new ArrayList<>(Metered.METERS.entrySet());
+        Collections.sort(
+            entries,
+            new Comparator<Map.Entry<String, Meter>>() {
+                @Override
+                public int compare(final Map.Entry<String, Meter> left,
+                    final Map.Entry<String, Meter> right) {
+                    return Double.compare(
+                        right.getValue().capacity(),
+                        left.getValue().capacity()
+                    );
+                }
+            }
+        );
+        final List<String> lines = new ArrayList<>(entries.size());
+        for (final Map.Entry<String, Meter> entry : entries) {
+            lines.add(
+                String.format("%s: %s", entry.getKey(), entry.getValue())
+            );
+        }
+        lines.add(
+            String.format("callers, one call in %d:", Metered.SAMPLE)
+        );
+        final List<Map.Entry<String, AtomicLong>> callers =
+            new ArrayList<>(Metered.CALLERS.entrySet());
+        Collections.sort(
+            callers,
+            new Comparator<Map.Entry<String, AtomicLong>>() {
+                @Override
+                public int compare(final Map.Entry<String, AtomicLong> left,
+                    final Map.Entry<String, AtomicLong> right) {
+                    return Long.compare(
+                        right.getValue().get(), left.getValue().get()
+                    );
+                }
+            }
+        );
+        for (final Map.Entry<String, AtomicLong> entry : callers) {
+            lines.add(
+                String.format("%s: %d", entry.getKey(), entry.getValue().get())
+            );
+        }
+        return lines;
+    }
+
+    /**
+     * Meter of the place.
+     * @param place Table, index and operation
+     * @return Meter
+     */
+    private static Meter meter(final String place) {
+        if (!Metered.METERS.containsKey(place)) {
+            Metered.METERS.putIfAbsent(place, new Meter());
+        }
+        return Metered.METERS.get(place);
+    }
+
+    /**
+     * Attribute one call in {@link #SAMPLE} to its caller.
+     * @param place Table, index and operation
+     */
+    private static void sample(final String place) {
+        if (Metered.CALLS.incrementAndGet() % Metered.SAMPLE == 0L) {
+            final String key = String.format(
+                "%s %s", place, Metered.caller()
+            );
+            if (!Metered.CALLERS.containsKey(key)) {
+                Metered.CALLERS.putIfAbsent(key, new AtomicLong());
+            }
+            Metered.CALLERS.get(key).incrementAndGet();
+        }
+    }
+
+    /**
+     * Class and method of netbout that makes the call.
+     * @return Name of the caller
+     */
+    private static String caller() {
+        String caller = "unknown";
+        for (final StackTraceElement frame
+            : Thread.currentThread().getStackTrace()) {
+            final String cls = frame.getClassName();
+            if (cls.startsWith("com.netbout.")
+                && !cls.startsWith(Metered.class.getName())
+                && !cls.contains("$Ajc")) {
+                caller = String.format(
+                    "%s.%s",
+                    StringUtils.substringAfterLast(cls, "."),
+                    frame.getMethodName().replaceAll("_aroundBody\\d+$", "")
+                );
+                break;
+            }
+        }
+        return caller;
+    }
+
+    /**
+     * Table and index of the request, asking DynamoDB to report
+     * consumed capacity.
+     * @param request The request
+     * @return Table name and, optionally, index name
+     */
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    static String table(final AmazonWebServiceRequest request) {
+        final String table;
+        if (request instanceof QueryRequest) {
+            final QueryRequest query = QueryRequest.class.cast(request);
+            query.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+            table = Metered.indexed(query.getTableName(), query.getIndexName());
+        } else if (request instanceof ScanRequest) {
+            final ScanRequest scan = ScanRequest.class.cast(request);
+            scan.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+            table = scan.getTableName();
+        } else if (request instanceof GetItemRequest) {
+            final GetItemRequest get = GetItemRequest.class.cast(request);
+            get.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+            table = get.getTableName();
+        } else if (request instanceof PutItemRequest) {
+            final PutItemRequest put = PutItemRequest.class.cast(request);
+            put.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+            table = put.getTableName();
+        } else if (request instanceof UpdateItemRequest) {
+            final UpdateItemRequest upd =
+                UpdateItemRequest.class.cast(request);
+            upd.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+            table = upd.getTableName();
+        } else if (request instanceof DeleteItemRequest) {
+            final DeleteItemRequest del =
+                DeleteItemRequest.class.cast(request);
+            del.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+            table = del.getTableName();
+        } else if (request instanceof BatchGetItemRequest) {
+            final BatchGetItemRequest batch =
+                BatchGetItemRequest.class.cast(request);
+            batch.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+            table = StringUtils.join(batch.getRequestItems().keySet(), ",");
+        } else if (request instanceof BatchWriteItemRequest) {
+            final BatchWriteItemRequest batch =
+                BatchWriteItemRequest.class.cast(request);
+            batch.setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+            table = StringUtils.join(batch.getRequestItems().keySet(), ",");
+        } else {
+            table = "-";
+        }
+        return table;
+    }
+
+    /**
+     * Table name with an optional index.
+     * @param table Table name
+     * @param index Index name or NULL
+     * @return Name
+     */
+    private static String indexed(final String table, final String index) {
+        final String name;
+        if (index == null) {
+            name = table;
+        } else {
+            name = String.format("%s/%s", table, index);
+        }
+        return name;
+    }
+
+    /**
+     * How many items were read or written.
+     * @param request The request
+     * @param result The result
+     * @return Items
+     */
+    private static long items(final Object request, final Object result) {
+        long items = 1L;
+        if (result instanceof QueryResult) {
+            items = QueryResult.class.cast(result).getCount();
+        } else if (result instanceof ScanResult) {
+            items = ScanResult.class.cast(result).getCount();
+        } else if (result instanceof GetItemResult) {
+            if (GetItemResult.class.cast(result).getItem() == null) {
+                items = 0L;
+            }
+        } else if (result instanceof BatchGetItemResult) {
+            items = 0L;
+            for (final Collection<?> found : BatchGetItemResult.class
+                .cast(result).getResponses().values()) {
+                items += found.size();
+            }
+        } else if (request instanceof BatchWriteItemRequest) {
+            items = 0L;
+            for (final List<WriteRequest> writes : BatchWriteItemRequest
+                .class.cast(request).getRequestItems().values()) {
+                items += writes.size();
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Capacity units consumed by the call.
+     * @param result The result
+     * @return Units
+     */
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    static double capacity(final Object result) {
+        final Collection<ConsumedCapacity> all = new ArrayList<>(1);
+        if (result instanceof QueryResult) {
+            all.add(QueryResult.class.cast(result).getConsumedCapacity());
+        } else if (result instanceof ScanResult) {
+            all.add(ScanResult.class.cast(result).getConsumedCapacity());
+        } else if (result instanceof GetItemResult) {
+            all.add(GetItemResult.class.cast(result).getConsumedCapacity());
+        } else if (result instanceof PutItemResult) {
+            all.add(PutItemResult.class.cast(result).getConsumedCapacity());
+        } else if (result instanceof UpdateItemResult) {
+            all.add(
+                UpdateItemResult.class.cast(result).getConsumedCapacity()
+            );
+        } else if (result instanceof DeleteItemResult) {
+            all.add(
+                DeleteItemResult.class.cast(result).getConsumedCapacity()
+            );
+        } else if (result instanceof BatchGetItemResult) {
+            Metered.addAll(
+                all,
+                BatchGetItemResult.class.cast(result).getConsumedCapacity()
+            );
+        } else if (result instanceof BatchWriteItemResult) {
+            Metered.addAll(
+                all,
+                BatchWriteItemResult.class.cast(result).getConsumedCapacity()
+            );
+        }
+        double units = 0.0d;
+        for (final ConsumedCapacity capacity : all) {
+            if (capacity != null && capacity.getCapacityUnits() != null) {
+                units += capacity.getCapacityUnits();
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Add capacities reported by a batch, if any.
+     * @param all Where to add
+     * @param batch Capacities of the batch or NULL
+     */
+    private static void addAll(final Collection<ConsumedCapacity> all,
+        final Collection<ConsumedCapacity> batch) {
+        if (batch != null) {
+            all.addAll(batch);
+        }
+    }
+
+    /**
+     * Handler of calls to the client.
+     */
+    private static final class Handler implements InvocationHandler {
+        /**
+         * Original client.
+         */
+        private final transient AmazonDynamoDB client;
+        /**
+         * Ctor.
+         * @param aws Original client
+         */
+        Handler(final AmazonDynamoDB aws) {
+            this.client = aws;
+        }
+        @Override
+        public Object invoke(final Object proxy, final Method method,
+            final Object[] args) throws Throwable {
+            final Object result;
+            if (args != null && args.length == 1
+                && args[0] instanceof AmazonWebServiceRequest) {
+                final String place = String.format(
+                    "%s %s",
+                    Metered.table(AmazonWebServiceRequest.class.cast(args[0])),
+                    method.getName()
+                );
+                Metered.sample(place);
+                final long start = System.nanoTime();
+                result = this.call(method, args);
+                Metered.meter(place).add(
+                    Metered.items(args[0], result), Metered.capacity(result),
+                    System.nanoTime() - start
+                );
+            } else {
+                result = this.call(method, args);
+            }
+            return result;
+        }
+        /**
+         * Call the original client.
+         * @param method The method
+         * @param args Arguments
+         * @return Result
+         * @throws Throwable If fails
+         */
+        private Object call(final Method method, final Object[] args)
+            throws Throwable {
+            try {
+                return method.invoke(this.client, args);
+            } catch (final InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.Select;
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Conditions;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Full-text index of messages, inside one bout.
+ *
+ * <p>Every word of a message becomes a posting in "postings" table,
+ * where the hash is the word prefixed by bout number and the range is
+ * the number of the message. Search for a term is an intersection
+ * of postings of its words, read latest first only until enough
+ * messages are found. Only first five words of the term are
+ * taken into account. Words are matched as a whole, there are
+ * no postings for their prefixes, which would multiply writes
+ * of every message by the length of its words.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString
+@EqualsAndHashCode(of = "region")
+final class Postings {
+
+    /**
+     * Table name.
+     */
+    public static final String TBL = "postings";
+
+    /**
+     * Term attribute, bout number and word.
+     */
+    public static final String HASH = "term";
+
+    /**
+     * Message attribute.
+     */
+    public static final String RANGE = "message";
+
+    /**
+     * Separator of words.
+     */
+    private static final Pattern SPACES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Region to work with.
+     */
+    private final transient Region region;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     */
+    Postings(final Region reg) {
+        this.region = reg;
+    }
+
+    /**
+     * Index a new message.
+     * @param bout Bout number
+     * @param message Message number
+     * @param text Text of the message
+     * @throws IOException If fails
+     */
+    public void add(final long bout, final long message, final String text)
+        throws IOException {
+        final Collection<String> words = Postings.words(text);
+        final Collection<Attributes> items =
+            new ArrayList<Attributes>(words.size());
+        for (final String word : words) {
+            items.add(
+                new Attributes()
+                    .with(Postings.HASH, Postings.term(bout, word))
+                    .with(Postings.RANGE, message)
+            );
+        }
+        new Batch(this.region, Postings.TBL).put(items);
+    }
+
+    /**
+     * Find messages that contain all words of the term.
+     *
+     * <p>Postings of all words are read lazily, latest first, and
+     * intersected on the fly, so reading stops as soon as enough messages
+     * are found, no matter how common the words are.
+     *
+     * @param bout Bout number
+     * @param term The term
+     * @param limit Maximum number of messages to return
+     * @return Numbers of messages found, latest first, or empty if the
+     *  term has no words that could be indexed
+     */
+    public List<Long> find(final long bout, final String term,
+        final int limit) {
+        final List<Iterator<Long>> lists = new ArrayList<Iterator<Long>>(0);
+        for (final String word
+            : Iterables.limit(Postings.words(term), Tv.FIVE)) {
+            lists.add(this.messages(bout, word).iterator());
+        }
+        return Postings.intersect(lists, limit);
+    }
+
+    /**
+     * Intersect lists of numbers, each sorted latest first, reading them
+     * only as far as needed.
+     * @param lists Lists of numbers
+     * @param limit Maximum number of numbers to return
+     * @return Numbers present in all lists, latest first
+     */
+    static List<Long> intersect(final List<Iterator<Long>> lists,
+        final int limit) {
+        final List<PeekingIterator<Long>> heads =
+            new ArrayList<PeekingIterator<Long>>(lists.size());
+        for (final Iterator<Long> list : lists) {
+            heads.add(Iterators.peekingIterator(list));
+        }
+        final List<Long> result = new ArrayList<Long>(limit);
+        while (result.size() < limit && Postings.ready(heads)) {
+            long target = Long.MAX_VALUE;
+            for (final PeekingIterator<Long> head : heads) {
+                target = Math.min(target, head.peek());
+            }
+            boolean all = true;
+            for (final PeekingIterator<Long> head : heads) {
+                while (head.hasNext() && head.peek() > target) {
+                    head.next();
+                }
+                all &= head.hasNext() && head.peek() == target;
+            }
+            if (all) {
+                result.add(target);
+                for (final PeekingIterator<Long> head : heads) {
+                    head.next();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All lists have more numbers?
+     * @param heads Lists
+     * @return TRUE if none of them is empty, and there is at least one
+     */
+    private static boolean ready(
+        final Collection<PeekingIterator<Long>> heads) {
+        boolean ready = !heads.isEmpty();
+        for (final PeekingIterator<Long> head : heads) {
+            ready &= head.hasNext();
+        }
+        return ready;
+    }
+
+    /**
+     * Numbers of all messages with the given word, read lazily.
+     * @param bout Bout number
+     * @param word The word
+     * @return Numbers of messages, latest first
+     */
+    private Iterable<Long> messages(final long bout, final String word) {
+        return Iterables.transform(
+            this.region.table(Postings.TBL)
+                .frame()
+                .through(
+                    new QueryValve()
+                        .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                        .withAttributesToGet(Postings.RANGE)
+                        .withScanIndexForward(false)
+                )
+                .where(
+                    Postings.HASH,
+                    Conditions.equalTo(Postings.term(bout, word))
+                ),
+            new Function<Item, Long>() {
+                @Override
+                public Long apply(final Item item) {
+                    try {
+                        return Long.parseLong(item.get(Postings.RANGE).getN());
+                    } catch (final IOException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            }
+        );
+    }
+
+    /**
+     * Words of the text that are worth indexing.
+     * @param text The text
+     * @return Unique words, lower case
+     */
+    public static Collection<String> words(final String text) {
+        final Set<String> words = new LinkedHashSet<String>(0);
+        for (final String word
+            : Postings.SPACES.split(text.toLowerCase(Locale.ENGLISH))) {
+            if (word.length() > 1 && word.length() <= Tv.FIFTY) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Hash of the posting.
+     * @param bout Bout number
+     * @param word The word
+     * @return Hash value
+     */
+    private static String term(final long bout, final String word) {
+        return String.format("%d %s", bout, word);
+    }
+
+}
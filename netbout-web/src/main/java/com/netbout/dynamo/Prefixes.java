@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.Select;
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Conditions;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Prefix index of aliases.
+ *
+ * <p>Every alias is registered in "prefixes" table a few times, once
+ * per its first one, two, ..., {@link #DEPTH} letters, which are the
+ * hash, while the alias is the range. Aliases starting with any text
+ * are found by one query, where the hash is the beginning of the text
+ * and the range begins with the text. Since ranges are sorted, the
+ * alias equal to the text, if it exists, is always the first one.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString
+@EqualsAndHashCode(of = "region")
+final class Prefixes {
+
+    /**
+     * Table name.
+     */
+    public static final String TBL = "prefixes";
+
+    /**
+     * Prefix attribute.
+     */
+    public static final String HASH = "prefix";
+
+    /**
+     * Alias attribute.
+     */
+    public static final String RANGE = "alias";
+
+    /**
+     * Maximum length of a prefix.
+     */
+    private static final int DEPTH = 3;
+
+    /**
+     * Region to work with.
+     */
+    private final transient Region region;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     */
+    Prefixes(final Region reg) {
+        this.region = reg;
+    }
+
+    /**
+     * Register a new alias.
+     * @param alias The alias
+     * @throws IOException If fails
+     */
+    public void add(final String alias) throws IOException {
+        final int depth = Math.min(alias.length(), Prefixes.DEPTH);
+        final Collection<Attributes> items = new ArrayList<>(depth);
+        for (int len = 1; len <= depth; ++len) {
+            items.add(
+                new Attributes()
+                    .with(Prefixes.HASH, alias.substring(0, len))
+                    .with(Prefixes.RANGE, alias)
+            );
+        }
+        new Batch(this.region, Prefixes.TBL).put(items);
+    }
+
+    /**
+     * Find aliases starting with the text.
+     * @param text The text
+     * @param limit Maximum number of aliases to return
+     * @return Aliases, sorted alphabetically
+     * @throws IOException If fails
+     */
+    public List<String> find(final String text, final int limit)
+        throws IOException {
+        final List<String> aliases = new ArrayList<>(limit);
+        if (!text.isEmpty()) {
+            final Iterable<Item> items = this.region.table(Prefixes.TBL)
+                .frame()
+                .through(
+                    new QueryValve()
+                        .withLimit(limit)
+                        .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                        .withAttributesToGet(Prefixes.RANGE)
+                )
+                .where(
+                    Prefixes.HASH,
+                    Conditions.equalTo(
+                        text.substring(
+                            0, Math.min(text.length(), Prefixes.DEPTH)
+                        )
+                    )
+                )
+                .where(
+                    Prefixes.RANGE,
+                    new Condition()
+                        .withComparisonOperator(ComparisonOperator.BEGINS_WITH)
+                        .withAttributeValueList(
+                            new AttributeValue().withS(text)
+                        )
+                );
+            for (final Item item : Iterables.limit(items, limit)) {
+                aliases.add(item.get(Prefixes.RANGE).getS());
+            }
+        }
+        return aliases;
+    }
+
+}
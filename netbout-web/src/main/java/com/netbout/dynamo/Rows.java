@@ -0,0 +1,348 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.google.common.util.concurrent.ForwardingListeningExecutorService;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Region;
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rows of "friends" table, loaded once per scope.
+ *
+ * <p>Rendering of a page asks for unread messages and unseen
+ * attachments of the same bout many times, and every time the same
+ * row of "friends" table is needed. Inside of a scope, opened by
+ * {@link #within(Callable)}, the row is loaded only once and then
+ * reused, until the scope is closed. Outside of a scope, every call
+ * loads the row again, and no scope is created for the thread, that's
+ * why background threads don't keep anything. Scopes are bound to
+ * threads. Other items, needed many times by one page, like
+ * a {@link View} of the bout, are kept the same way,
+ * see {@link #item(String, Callable)}. Rows are read eventually
+ * consistent, as everywhere else, since a row modified inside
+ * the scope is forgotten, see {@link #forget(long, String)}.
+ *
+ * <p>A scope may be shared with other threads, which serve the same
+ * request, see {@link #bound(Callable)}.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class Rows {
+
+    /**
+     * Scope of the current thread.
+     */
+    private static final ThreadLocal<Rows.Scope> SCOPE = new ThreadLocal<>();
+
+    /**
+     * Total of reads saved since start.
+     */
+    private static final AtomicLong SAVED = new AtomicLong();
+
+    /**
+     * Utility class.
+     */
+    private Rows() {
+        // intentionally empty
+    }
+
+    /**
+     * Run the action inside a scope.
+     * @param action The action
+     * @param <T> Type of result
+     * @return Result of the action
+     * @throws IOException If fails
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public static <T> T within(final Callable<T> action) throws IOException {
+        Rows.Scope scope = Rows.SCOPE.get();
+        if (scope == null) {
+            scope = new Rows.Scope();
+            Rows.SCOPE.set(scope);
+        }
+        ++scope.depth;
+        // @checkstyle IllegalCatchCheck (7 lines)
+        try {
+            return action.call();
+        } catch (final IOException | RuntimeException ex) {
+            throw ex;
+        } catch (final Exception ex) {
+            throw new IOException(ex);
+        } finally {
+            --scope.depth;
+            if (scope.depth == 0) {
+                if (scope.saved.get() > 0L) {
+                    Logger.debug(
+                        Rows.class, "%d friend row read(s) saved",
+                        scope.saved.get()
+                    );
+                }
+                Rows.SCOPE.remove();
+            }
+        }
+    }
+
+    /**
+     * The current thread is inside a scope, serving a request.
+     * @return TRUE if inside
+     */
+    public static boolean inside() {
+        final Rows.Scope scope = Rows.SCOPE.get();
+        return scope != null && scope.depth > 0;
+    }
+
+    /**
+     * The same action, which runs inside of the scope of the current
+     * thread, in whatever thread it is called.
+     *
+     * <p>Rows loaded by the action are shared with the scope, since
+     * the action serves the same request. If the current thread is
+     * outside of a scope, the action is returned as is.
+     *
+     * @param action The action
+     * @param <T> Type of result
+     * @return Bound action
+     */
+    static <T> Callable<T> bound(final Callable<T> action) {
+        final Rows.Scope scope = Rows.SCOPE.get();
+        final Callable<T> bound;
+        if (scope == null) {
+            bound = action;
+        } else {
+            bound = new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    final Rows.Scope before = Rows.SCOPE.get();
+                    final Rows.Scope mine =
+                        new Rows.Scope(scope.rows, scope.saved);
+                    mine.depth = 1;
+                    Rows.SCOPE.set(mine);
+                    try {
+                        return action.call();
+                    } finally {
+                        if (before == null) {
+                            Rows.SCOPE.remove();
+                        } else {
+                            Rows.SCOPE.set(before);
+                        }
+                    }
+                }
+            };
+        }
+        return bound;
+    }
+
+    /**
+     * Executor, which runs every task inside of the scope of the thread
+     * that submitted it, see {@link #bound(Callable)}.
+     * @param svc Original executor
+     * @return Executor
+     */
+    static ListeningExecutorService bound(final ListeningExecutorService svc) {
+        return new ForwardingListeningExecutorService() {
+            @Override
+            protected ListeningExecutorService delegate() {
+                return svc;
+            }
+            @Override
+            public <T> ListenableFuture<T> submit(final Callable<T> task) {
+                return super.submit(Rows.bound(task));
+            }
+        };
+    }
+
+    /**
+     * How many reads were saved since start, in all scopes.
+     * @return Total
+     */
+    public static long saved() {
+        return Rows.SAVED.get();
+    }
+
+    /**
+     * Get the row of the friend of the bout.
+     * @param region Region we're in
+     * @param bout Bout number
+     * @param alias Alias of the friend
+     * @return The row, with all attributes
+     * @throws IOException If fails
+     */
+    static Item row(final Region region, final long bout, final String alias)
+        throws IOException {
+        return Rows.item(
+            String.format("%d %s", bout, alias),
+            new Callable<Item>() {
+                @Override
+                public Item call() throws IOException {
+                    return Rows.load(region, bout, alias);
+                }
+            }
+        );
+    }
+
+    /**
+     * Get the item, loading it only once per scope.
+     * @param key Unique key of the item
+     * @param load How to load it
+     * @return The item
+     * @throws IOException If fails
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    static Item item(final String key, final Callable<Item> load)
+        throws IOException {
+        final Rows.Scope scope = Rows.SCOPE.get();
+        final Item item;
+        if (scope != null && scope.rows.containsKey(key)) {
+            item = scope.rows.get(key);
+            scope.saved.incrementAndGet();
+            Rows.SAVED.incrementAndGet();
+        } else {
+            // @checkstyle IllegalCatchCheck (7 lines)
+            try {
+                item = load.call();
+            } catch (final IOException | RuntimeException ex) {
+                throw ex;
+            } catch (final Exception ex) {
+                throw new IOException(ex);
+            }
+            if (scope != null) {
+                scope.rows.put(key, item);
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Forget the row, since it was just modified.
+     * @param bout Bout number
+     * @param alias Alias of the friend
+     */
+    static void forget(final long bout, final String alias) {
+        Rows.forget(String.format("%d %s", bout, alias));
+    }
+
+    /**
+     * Forget the item, since it was just modified.
+     * @param key Unique key of the item
+     */
+    static void forget(final String key) {
+        final Rows.Scope scope = Rows.SCOPE.get();
+        if (scope != null) {
+            scope.rows.remove(key);
+        }
+    }
+
+    /**
+     * Load the row from DynamoDB.
+     * @param region Region we're in
+     * @param bout Bout number
+     * @param alias Alias of the friend
+     * @return The row
+     * @throws IOException If fails
+     */
+    private static Item load(final Region region, final long bout,
+        final String alias) throws IOException {
+        final AmazonDynamoDB aws = region.aws();
+        final Map<String, AttributeValue> attrs;
+        try {
+            attrs = aws.getItem(
+                new GetItemRequest()
+                    .withTableName(region.table(DyFriends.TBL).name())
+                    .withKey(
+                        new Attributes()
+                            .with(DyFriends.HASH, bout)
+                            .with(DyFriends.RANGE, alias)
+                    )
+            ).getItem();
+        } catch (final AmazonClientException ex) {
+            throw new IOException(ex);
+        } finally {
+            aws.shutdown();
+        }
+        if (attrs == null) {
+            throw new NoSuchElementException(
+                String.format("@%s is not a friend of #%d", alias, bout)
+            );
+        }
+        return new Prefetched(new Attributes(attrs));
+    }
+
+    /**
+     * Scope of one thread.
+     *
+     * <p>Rows and the counter of saved reads may be shared with scopes
+     * of other threads, see {@link Rows#bound(Callable)}.
+     */
+    private static final class Scope {
+        /**
+         * Rows loaded.
+         */
+        private final transient Map<String, Item> rows;
+        /**
+         * Reads saved.
+         */
+        private final transient AtomicLong saved;
+        /**
+         * How many scopes are open in this thread.
+         */
+        private transient int depth;
+        /**
+         * Ctor.
+         */
+        Scope() {
+            this(new ConcurrentHashMap<String, Item>(0), new AtomicLong());
+        }
+        /**
+         * Ctor.
+         * @param items Rows loaded
+         * @param total Reads saved
+         */
+        Scope(final Map<String, Item> items, final AtomicLong total) {
+            this.rows = items;
+            this.saved = total;
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream of a known size.
+ *
+ * <p>It reports all bytes that are left as available, even if they
+ * are not received yet. Takes framework uses {@link #available()} to
+ * set {@code Content-Length} of a response, that's why a stream of
+ * an attachment, which is being downloaded from S3, has to know its
+ * size upfront.
+ *
+ * <p>The class is not thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+final class Sized extends FilterInputStream {
+
+    /**
+     * How many bytes are left.
+     */
+    private transient long left;
+
+    /**
+     * Ctor.
+     * @param stream Original stream
+     * @param size Total size of it
+     */
+    Sized(final InputStream stream, final long size) {
+        super(stream);
+        this.left = size;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(this.left, (long) Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int data = super.read();
+        if (data >= 0) {
+            this.left = Math.max(0L, this.left - 1L);
+        }
+        return data;
+    }
+
+    @Override
+    public int read(final byte[] buf, final int off, final int len)
+        throws IOException {
+        final int total = super.read(buf, off, len);
+        if (total > 0) {
+            this.left = Math.max(0L, this.left - (long) total);
+        }
+        return total;
+    }
+
+    @Override
+    public long skip(final long num) throws IOException {
+        final long total = super.skip(num);
+        this.left = Math.max(0L, this.left - total);
+        return total;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.s3.Bucket;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+/**
+ * Storage of big objects: attachments and archived messages.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+interface Storage {
+
+    /**
+     * Read the object.
+     * @param key Its key
+     * @return Stream of its content
+     * @throws IOException If fails
+     */
+    InputStream read(String key) throws IOException;
+
+    /**
+     * Read a range of bytes of the object.
+     * @param key Its key
+     * @param start First byte, inclusive
+     * @param end Last byte, exclusive
+     * @return Bytes
+     * @throws IOException If fails
+     */
+    byte[] read(String key, long start, long end) throws IOException;
+
+    /**
+     * Write the object, from a stream of unknown size.
+     * @param key Its key
+     * @param stream Content
+     * @param ctype Content type
+     * @return Total size of the content, in bytes
+     * @throws IOException If fails or the stream is too big
+     */
+    long write(String key, InputStream stream, String ctype)
+        throws IOException;
+
+    /**
+     * Write the object, which is in memory already.
+     * @param key Its key
+     * @param data Content
+     * @param ctype Content type
+     * @throws IOException If fails
+     */
+    void write(String key, byte[] data, String ctype) throws IOException;
+
+    /**
+     * Remove the object.
+     * @param key Its key
+     * @throws IOException If fails
+     */
+    void remove(String key) throws IOException;
+
+    /**
+     * Amazon S3, through its client.
+     *
+     * <p>Objects are streamed while being read, read by ranged GETs and
+     * written by {@link Upload}, that's why nothing but a buffer is kept
+     * in memory, no matter how big they are. The bucket must belong to
+     * a region with a client, see {@link com.jcabi.s3.Region#aws()}.
+     */
+    @Immutable
+    @ToString
+    @EqualsAndHashCode(of = "bucket")
+    final class S3 implements Storage {
+        /**
+         * Bucket.
+         */
+        private final transient Bucket bucket;
+        /**
+         * Ctor.
+         * @param bkt Bucket
+         */
+        S3(final Bucket bkt) {
+            this.bucket = bkt;
+        }
+        @Override
+        public InputStream read(final String key) throws IOException {
+            try {
+                final S3Object object = this.bucket.region().aws().getObject(
+                    this.bucket.name(), key
+                );
+                return new Sized(
+                    object.getObjectContent(),
+                    object.getObjectMetadata().getContentLength()
+                );
+            } catch (final AmazonClientException ex) {
+                throw new IOException(
+                    String.format("failed to download %s", key), ex
+                );
+            }
+        }
+        @Override
+        public byte[] read(final String key, final long start,
+            final long end) throws IOException {
+            try {
+                final S3Object object = this.bucket.region().aws().getObject(
+                    new GetObjectRequest(this.bucket.name(), key)
+                        .withRange(start, end - 1L)
+                );
+                try (final InputStream input = object.getObjectContent()) {
+                    return IOUtils.toByteArray(input);
+                }
+            } catch (final AmazonClientException ex) {
+                throw new IOException(
+                    String.format("failed to read %s", key), ex
+                );
+            }
+        }
+        @Override
+        public long write(final String key, final InputStream stream,
+            final String ctype) throws IOException {
+            return new Upload(this.bucket.ocket(key)).write(stream, ctype);
+        }
+        @Override
+        public void write(final String key, final byte[] data,
+            final String ctype) throws IOException {
+            final ObjectMetadata meta = new ObjectMetadata();
+            meta.setContentLength((long) data.length);
+            meta.setContentType(ctype);
+            this.bucket.ocket(key).write(new ByteArrayInputStream(data), meta);
+        }
+        @Override
+        public void remove(final String key) throws IOException {
+            this.bucket.remove(key);
+        }
+    }
+
+    /**
+     * Any bucket, through its objects only.
+     *
+     * <p>Objects are read into memory entirely and written in one piece,
+     * up to the same limit as {@link Upload} has. This is what works with
+     * the mock of S3, which doesn't have a client, see
+     * {@code com.jcabi.s3.mock.MkRegion#aws()}.
+     */
+    @Immutable
+    @ToString
+    @EqualsAndHashCode(of = "bucket")
+    final class Simple implements Storage {
+        /**
+         * Bucket.
+         */
+        private final transient Bucket bucket;
+        /**
+         * Ctor.
+         * @param bkt Bucket
+         */
+        Simple(final Bucket bkt) {
+            this.bucket = bkt;
+        }
+        @Override
+        public InputStream read(final String key) throws IOException {
+            return new ByteArrayInputStream(this.bytes(key));
+        }
+        @Override
+        public byte[] read(final String key, final long start,
+            final long end) throws IOException {
+            return Arrays.copyOfRange(this.bytes(key), (int) start, (int) end);
+        }
+        @Override
+        public long write(final String key, final InputStream stream,
+            final String ctype) throws IOException {
+            final byte[] data = IOUtils.toByteArray(
+                new BoundedInputStream(stream, Upload.LIMIT + 1L)
+            );
+            Upload.check((long) data.length);
+            this.write(key, data, ctype);
+            return (long) data.length;
+        }
+        @Override
+        public void write(final String key, final byte[] data,
+            final String ctype) throws IOException {
+            final ObjectMetadata meta = new ObjectMetadata();
+            meta.setContentLength((long) data.length);
+            meta.setContentType(ctype);
+            this.bucket.ocket(key).write(new ByteArrayInputStream(data), meta);
+        }
+        @Override
+        public void remove(final String key) throws IOException {
+            this.bucket.remove(key);
+        }
+        /**
+         * Read the whole object.
+         * @param key Its key
+         * @return Bytes
+         * @throws IOException If fails
+         */
+        private byte[] bytes(final String key) throws IOException {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            this.bucket.ocket(key).read(baos);
+            return baos.toByteArray();
+        }
+    }
+
+}
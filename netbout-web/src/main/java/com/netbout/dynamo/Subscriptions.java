@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.Select;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Conditions;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Subscriptions of friends of a bout.
+ *
+ * <p>Notifications about a new message need subscriptions of all
+ * friends of the bout. Inside of a scope, see {@link Rows}, they are
+ * read by one query for all friends, together, and then reused by
+ * the scope. Outside of a scope, every subscription is read by its
+ * own query. A friend without "subscription" attribute is subscribed.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "bout")
+@EqualsAndHashCode(of = { "region", "bout" })
+final class Subscriptions {
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Bout number.
+     */
+    private final transient long bout;
+
+    /**
+     * Ctor.
+     * @param reg Region we're in
+     * @param num Bout number
+     */
+    Subscriptions(final Region reg, final long num) {
+        this.region = reg;
+        this.bout = num;
+    }
+
+    /**
+     * Is this friend subscribed to the bout?
+     * @param alias Alias of the friend
+     * @return TRUE if subscribed
+     * @throws IOException If fails
+     */
+    public boolean subscribed(final String alias) throws IOException {
+        final Item item;
+        if (Rows.inside()) {
+            item = this.all();
+        } else {
+            item = this.one(alias);
+        }
+        boolean subs = true;
+        if (item.has(alias)) {
+            subs = Boolean.parseBoolean(item.get(alias).getS());
+        }
+        return subs;
+    }
+
+    /**
+     * Subscriptions were just modified.
+     */
+    public void forget() {
+        Rows.forget(this.key());
+    }
+
+    /**
+     * Subscriptions of all friends, loaded once per scope.
+     * @return Item with subscriptions by aliases
+     * @throws IOException If fails
+     */
+    private Item all() throws IOException {
+        return Rows.item(
+            this.key(),
+            new Callable<Item>() {
+                @Override
+                public Item call() throws IOException {
+                    Attributes subs = new Attributes();
+                    for (final Item row : Subscriptions.this.rows()) {
+                        if (row.has(DyFriends.ATTR_SUBSCRIPTION)) {
+                            subs = subs.with(
+                                row.get(DyFriends.RANGE).getS(),
+                                row.get(DyFriends.ATTR_SUBSCRIPTION)
+                            );
+                        }
+                    }
+                    return new Prefetched(subs);
+                }
+            }
+        );
+    }
+
+    /**
+     * Subscription of one friend.
+     * @param alias Alias of the friend
+     * @return Item with the subscription by alias
+     * @throws IOException If fails
+     */
+    private Item one(final String alias) throws IOException {
+        final Iterator<Item> items = this.region.table(DyFriends.TBL).frame()
+            .through(
+                new QueryValve()
+                    .withLimit(1)
+                    .withAttributesToGet(DyFriends.ATTR_SUBSCRIPTION)
+            )
+            .where(DyFriends.RANGE, alias)
+            .where(DyFriends.HASH, Conditions.equalTo(this.bout))
+            .iterator();
+        Attributes subs = new Attributes();
+        if (items.hasNext()) {
+            final Item row = items.next();
+            if (row.has(DyFriends.ATTR_SUBSCRIPTION)) {
+                subs = subs.with(alias, row.get(DyFriends.ATTR_SUBSCRIPTION));
+            }
+        }
+        return new Prefetched(subs);
+    }
+
+    /**
+     * Rows of all friends, with their subscriptions.
+     * @return Rows of "friends" table
+     */
+    private Iterable<Item> rows() {
+        return this.region.table(DyFriends.TBL).frame()
+            .through(
+                new QueryValve()
+                    .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                    .withAttributesToGet(
+                        DyFriends.HASH, DyFriends.RANGE,
+                        DyFriends.ATTR_SUBSCRIPTION
+                    )
+            )
+            .where(DyFriends.HASH, Conditions.equalTo(this.bout));
+    }
+
+    /**
+     * Key of subscriptions in the scope.
+     * @return Key
+     */
+    private String key() {
+        return String.format("subscriptions %d", this.bout);
+    }
+
+}
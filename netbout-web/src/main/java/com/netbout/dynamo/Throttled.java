@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputDescription;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.dynamo.Credentials;
+import com.jcabi.log.Logger;
+import com.jcabi.manifests.Manifests;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * Credentials that throttle calls to DynamoDB on the client side.
+ *
+ * <p>There is a {@link Bucket} of read and a bucket of write capacity
+ * units for every table and index, filled at the provisioned rate,
+ * which is learned from {@code DescribeTable} and refreshed every
+ * hour. Buckets are kept while they are used, together with the rate
+ * they learned from throttling. Every node of the cluster has its own
+ * buckets, so the rate is divided by the number of nodes, configured
+ * in {@code Netbout-Nodes}.
+ * Calls made while serving a request (see {@link Rows#inside()}) are
+ * interactive, all others, including {@link Background} updates, are
+ * background ones and wait longer.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = "origin")
+public final class Throttled implements Credentials {
+
+    /**
+     * Buckets, by tables, indexes and kinds of calls.
+     */
+    private static final Cache<String, Bucket> BUCKETS =
+        CacheBuilder.newBuilder()
+            .expireAfterAccess(1L, TimeUnit.HOURS)
+            .build();
+
+    /**
+     * Nodes of the cluster, sharing the provisioned capacity.
+     */
+    private static final double NODES = (double) Math.max(
+        NumberUtils.toInt(Manifests.read("Netbout-Nodes").trim(), 1), 1
+    );
+
+    /**
+     * Operations that read.
+     */
+    private static final Collection<String> READS = ImmutableSet.of(
+        "query", "scan", "getItem", "batchGetItem"
+    );
+
+    /**
+     * Error code of DynamoDB when it throttles.
+     */
+    private static final String THROTTLED =
+        "ProvisionedThroughputExceededException";
+
+    /**
+     * Original credentials.
+     */
+    private final transient Credentials origin;
+
+    /**
+     * Ctor.
+     * @param creds Original credentials
+     */
+    public Throttled(final Credentials creds) {
+        this.origin = creds;
+    }
+
+    @Override
+    public AmazonDynamoDB aws() {
+        return AmazonDynamoDB.class.cast(
+            Proxy.newProxyInstance(
+                Throttled.class.getClassLoader(),
+                new Class<?>[] {AmazonDynamoDB.class},
+                new Throttled.Handler(this.origin.aws())
+            )
+        );
+    }
+
+    /**
+     * Bucket of the table or index.
+     * @param aws The client
+     * @param table Table name and, optionally, index name
+     * @param read Is it a bucket of read units
+     * @return Bucket
+     * @throws ExecutionException If fails
+     */
+    private static Bucket bucket(final AmazonDynamoDB aws, final String table,
+        final boolean read) throws ExecutionException {
+        final Bucket bucket = Throttled.BUCKETS.get(
+            String.format("%s %b", table, read),
+            new Callable<Bucket>() {
+                @Override
+                public Bucket call() {
+                    return new Bucket(
+                        Throttled.units(aws, table, read) / Throttled.NODES
+                    );
+                }
+            }
+        );
+        if (bucket.stale()) {
+            bucket.provision(
+                Throttled.units(aws, table, read) / Throttled.NODES
+            );
+        }
+        return bucket;
+    }
+
+    /**
+     * Provisioned capacity units of the table or index.
+     * @param aws The client
+     * @param table Table name and, optionally, index name
+     * @param read Read units or write units
+     * @return Units per second or zero if unknown
+     */
+    private static double units(final AmazonDynamoDB aws, final String table,
+        final boolean read) {
+        double units = 0.0d;
+        try {
+            final TableDescription desc = aws.describeTable(
+                new DescribeTableRequest().withTableName(
+                    StringUtils.substringBefore(table, "/")
+                )
+            ).getTable();
+            ProvisionedThroughputDescription thr =
+                desc.getProvisionedThroughput();
+            final String index = StringUtils.substringAfter(table, "/");
+            if (!index.isEmpty() && desc.getGlobalSecondaryIndexes() != null) {
+                for (final GlobalSecondaryIndexDescription gsi
+                    : desc.getGlobalSecondaryIndexes()) {
+                    if (gsi.getIndexName().equals(index)) {
+                        thr = gsi.getProvisionedThroughput();
+                    }
+                }
+            }
+            if (read) {
+                units = thr.getReadCapacityUnits();
+            } else {
+                units = thr.getWriteCapacityUnits();
+            }
+        } catch (final AmazonClientException ex) {
+            Logger.warn(
+                Throttled.class, "can't describe %s, not throttled: %s",
+                table, ex.getLocalizedMessage()
+            );
+        }
+        return units;
+    }
+
+    /**
+     * Handler of calls to the client.
+     */
+    private static final class Handler implements InvocationHandler {
+        /**
+         * Original client.
+         */
+        private final transient AmazonDynamoDB client;
+        /**
+         * Ctor.
+         * @param aws Original client
+         */
+        Handler(final AmazonDynamoDB aws) {
+            this.client = aws;
+        }
+        @Override
+        public Object invoke(final Object proxy, final Method method,
+            final Object[] args) throws Throwable {
+            final Object result;
+            if (args != null && args.length == 1
+                && args[0] instanceof AmazonWebServiceRequest) {
+                final String table = StringUtils.substringBefore(
+                    Metered.table(AmazonWebServiceRequest.class.cast(args[0])),
+                    ","
+                );
+                if ("-".equals(table)) {
+                    result = this.call(method, args);
+                } else {
+                    result = this.throttle(
+                        Throttled.bucket(
+                            this.client, table,
+                            Throttled.READS.contains(method.getName())
+                        ),
+                        method, args
+                    );
+                }
+            } else {
+                result = this.call(method, args);
+            }
+            return result;
+        }
+        /**
+         * Call the original client through the bucket.
+         * @param bucket The bucket
+         * @param method The method
+         * @param args Arguments
+         * @return Result
+         * @throws Throwable If fails
+         */
+        private Object throttle(final Bucket bucket, final Method method,
+            final Object[] args) throws Throwable {
+            final boolean background = !Rows.inside();
+            bucket.take(background);
+            try {
+                final Object result = this.call(method, args);
+                bucket.charge(Metered.capacity(result), background);
+                return result;
+            } catch (final AmazonServiceException ex) {
+                if (Throttled.THROTTLED.equals(ex.getErrorCode())) {
+                    bucket.throttled();
+                }
+                throw ex;
+            }
+        }
+        /**
+         * Call the original client.
+         * @param method The method
+         * @param args Arguments
+         * @return Result
+         * @throws Throwable If fails
+         */
+        private Object call(final Method method, final Object[] args)
+            throws Throwable {
+            try {
+                return method.invoke(this.client, args);
+            } catch (final InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+
+}
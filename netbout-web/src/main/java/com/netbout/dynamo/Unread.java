@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeAction;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.dynamodbv2.model.Select;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.dynamo.AttributeUpdates;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Conditions;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Inbox;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Total of unread messages of an alias, in all bouts.
+ *
+ * <p>The total is kept in "unread" attribute of "aliases" table,
+ * next to the counters in "friends" table, and it is changed together
+ * with them. Once a day, or when it is lost or broken, the total is
+ * recalculated from "friends" table, in background. While it is lost,
+ * the unread messages of the first page of the inbox are reported.
+ * The total is never created for an alias that doesn't exist.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "alias")
+@EqualsAndHashCode(of = { "region", "alias" })
+final class Unread {
+
+    /**
+     * How often to recalculate, in milliseconds.
+     */
+    private static final long PERIOD = TimeUnit.DAYS.toMillis(1L);
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Alias.
+     */
+    private final transient String alias;
+
+    /**
+     * Ctor.
+     * @param reg Region we're in
+     * @param name Alias
+     */
+    Unread(final Region reg, final String name) {
+        this.region = reg;
+        this.alias = name;
+    }
+
+    /**
+     * Get the total, reading one item.
+     * @return Total of unread messages
+     * @throws IOException If fails
+     */
+    public long value() throws IOException {
+        final Iterator<Item> items = this.region.table(DyAliases.TBL)
+            .frame()
+            .through(
+                new QueryValve()
+                    .withLimit(1)
+                    .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                    .withAttributesToGet(
+                        DyAliases.ATTR_UNREAD, DyAliases.ATTR_CHECKED
+                    )
+            )
+            .where(DyAliases.HASH, Conditions.equalTo(this.alias))
+            .iterator();
+        long total = -1L;
+        boolean fresh = false;
+        if (items.hasNext()) {
+            final Item item = items.next();
+            if (item.has(DyAliases.ATTR_UNREAD)) {
+                total = Long.parseLong(item.get(DyAliases.ATTR_UNREAD).getN());
+            }
+            if (item.has(DyAliases.ATTR_CHECKED)) {
+                fresh = Long.parseLong(item.get(DyAliases.ATTR_CHECKED).getN())
+                    > System.currentTimeMillis() - Unread.PERIOD;
+            }
+        }
+        if (total < 0L) {
+            this.recheck();
+            total = this.estimate();
+        } else if (!fresh) {
+            this.recheck();
+        }
+        return total;
+    }
+
+    /**
+     * Change the total, if the alias exists.
+     * @param delta How much to add, may be negative
+     * @throws IOException If fails
+     */
+    public void add(final long delta) throws IOException {
+        this.update(
+            new AttributeUpdates().with(
+                DyAliases.ATTR_UNREAD,
+                new AttributeValueUpdate()
+                    .withAction(AttributeAction.ADD)
+                    .withValue(
+                        new AttributeValue().withN(Long.toString(delta))
+                    )
+            ),
+            Collections.<String, ExpectedAttributeValue>emptyMap()
+        );
+    }
+
+    /**
+     * Recalculate the total from "friends" table and save it.
+     *
+     * <p>The total is replaced only if it wasn't changed while we were
+     * counting, otherwise it is left as is and will be recalculated
+     * next time.
+     *
+     * @return Total of unread messages
+     * @throws IOException If fails
+     */
+    public long repair() throws IOException {
+        final Iterator<Item> aliases = this.region.table(DyAliases.TBL)
+            .frame()
+            .through(new QueryValve().withLimit(1))
+            .where(DyAliases.HASH, Conditions.equalTo(this.alias))
+            .iterator();
+        long total = 0L;
+        if (aliases.hasNext()) {
+            final Item item = aliases.next();
+            ExpectedAttributeValue before = new ExpectedAttributeValue(false);
+            if (item.has(DyAliases.ATTR_UNREAD)) {
+                before = new ExpectedAttributeValue(
+                    item.get(DyAliases.ATTR_UNREAD)
+                );
+            }
+            total = this.count();
+            if (this.update(
+                new AttributeUpdates()
+                    .with(DyAliases.ATTR_UNREAD, total)
+                    .with(DyAliases.ATTR_CHECKED, System.currentTimeMillis()),
+                Collections.singletonMap(DyAliases.ATTR_UNREAD, before)
+            )) {
+                Logger.info(
+                    this, "@%s has %d unread message(s)", this.alias, total
+                );
+            } else {
+                Logger.info(
+                    this, "@%s got new unread messages while counting",
+                    this.alias
+                );
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Count unread messages in "friends" table.
+     * @return Total of unread messages
+     * @throws IOException If fails
+     */
+    private long count() throws IOException {
+        return Unread.sum(
+            this.region.table(DyFriends.TBL)
+                .frame()
+                .where(DyFriends.RANGE, this.alias)
+                .through(
+                    new QueryValve()
+                        .withIndexName(DyFriends.INDEX)
+                        .withConsistentRead(false)
+                        .withSelect(Select.ALL_PROJECTED_ATTRIBUTES)
+                )
+        );
+    }
+
+    /**
+     * Count unread messages in the first page of the inbox, which
+     * is one query, while the total is being recalculated.
+     * @return Unread messages in recent bouts
+     * @throws IOException If fails
+     */
+    private long estimate() throws IOException {
+        return Unread.sum(
+            new Bouts(this.region, this.alias).before(Inbox.NEVER).items()
+        );
+    }
+
+    /**
+     * Sum of unread counters of "friends" rows.
+     * @param items Rows
+     * @return Total of unread messages
+     * @throws IOException If fails
+     */
+    private static long sum(final Iterable<Item> items)
+        throws IOException {
+        long total = 0L;
+        for (final Item item : items) {
+            if (item.has(DyFriends.ATTR_UNREAD)) {
+                total += Long.parseLong(
+                    item.get(DyFriends.ATTR_UNREAD).getN()
+                );
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Update the item of the alias, if it exists and other attributes
+     * are as expected.
+     * @param updates Updates to apply
+     * @param expected Expected values of other attributes
+     * @return TRUE if updated, FALSE if the condition failed
+     * @throws IOException If fails
+     */
+    private boolean update(final AttributeUpdates updates,
+        final Map<String, ExpectedAttributeValue> expected)
+        throws IOException {
+        final Map<String, ExpectedAttributeValue> conditions =
+            new HashMap<>(expected);
+        conditions.put(
+            DyAliases.HASH,
+            new ExpectedAttributeValue(new AttributeValue(this.alias))
+        );
+        final AmazonDynamoDB aws = this.region.aws();
+        boolean done = true;
+        try {
+            aws.updateItem(
+                new UpdateItemRequest()
+                    .withTableName(this.region.table(DyAliases.TBL).name())
+                    .withKey(new Attributes().with(DyAliases.HASH, this.alias))
+                    .withAttributeUpdates(updates)
+                    .withExpected(conditions)
+            );
+        } catch (final ConditionalCheckFailedException ex) {
+            done = false;
+        } catch (final AmazonClientException ex) {
+            throw new IOException(ex);
+        } finally {
+            aws.shutdown();
+        }
+        return done;
+    }
+
+    /**
+     * Recalculate the total in background.
+     */
+    private void recheck() {
+        final Unread unread = this;
+        Background.run(
+            new Background.Job() {
+                @Override
+                public void exec() throws IOException {
+                    unread.repair();
+                }
+            }
+        );
+    }
+
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.s3.Ocket;
+import com.netbout.spi.Attachment;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedList;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+/**
+ * Upload of a stream of unknown size to S3.
+ *
+ * <p>The first 5Mb of the stream are read into memory. When the stream
+ * ends inside them, it is sent to S3 by one request, with a known
+ * length. Otherwise it is sent as a multipart upload, by parts of
+ * 5Mb, which is the minimum S3 accepts. Only one part is kept in memory
+ * at a time, no matter how big is the stream. When the stream turns out
+ * to be bigger than 10Mb, the upload is aborted.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "ocket")
+@EqualsAndHashCode(of = "ocket")
+final class Upload {
+
+    /**
+     * Maximum size of the stream.
+     */
+    static final long LIMIT = (long) (Tv.TEN * Tv.MILLION);
+
+    /**
+     * Size of one part.
+     */
+    private static final int PART = 5 * 1024 * 1024;
+
+    /**
+     * S3 object to write.
+     */
+    private final transient Ocket ocket;
+
+    /**
+     * Ctor.
+     * @param okt S3 object to write
+     */
+    Upload(final Ocket okt) {
+        this.ocket = okt;
+    }
+
+    /**
+     * Upload the stream.
+     * @param stream Content to upload
+     * @param ctype Content type
+     * @return Total size of the content, in bytes
+     * @throws IOException If fails or the stream is too big
+     */
+    public long write(final InputStream stream, final String ctype)
+        throws IOException {
+        final ObjectMetadata meta = new ObjectMetadata();
+        meta.setContentType(ctype);
+        final byte[] head = IOUtils.toByteArray(
+            new BoundedInputStream(stream, (long) Upload.PART)
+        );
+        final long size;
+        if (head.length < Upload.PART) {
+            size = this.simple(new ByteArrayInputStream(head), meta);
+        } else {
+            size = this.multipart(
+                this.ocket.bucket().region().aws(), head, stream, meta
+            );
+        }
+        return size;
+    }
+
+    /**
+     * Upload by parts.
+     * @param aws S3 client
+     * @param head The first part, which is also used as a buffer
+     * @param stream The rest of the content
+     * @param meta Metadata
+     * @return Total size
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private long multipart(final AmazonS3 aws, final byte[] head,
+        final InputStream stream, final ObjectMetadata meta)
+        throws IOException {
+        final String bucket = this.ocket.bucket().name();
+        final String key = this.ocket.key();
+        final String upload = aws.initiateMultipartUpload(
+            new InitiateMultipartUploadRequest(bucket, key, meta)
+        ).getUploadId();
+        final List<PartETag> etags = new LinkedList<>();
+        long total = 0L;
+        try {
+            int len = head.length;
+            while (len > 0) {
+                total += (long) len;
+                Upload.check(total);
+                etags.add(
+                    aws.uploadPart(
+                        new UploadPartRequest()
+                            .withBucketName(bucket)
+                            .withKey(key)
+                            .withUploadId(upload)
+                            .withPartNumber(etags.size() + 1)
+                            .withPartSize((long) len)
+                            .withInputStream(
+                                new ByteArrayInputStream(head, 0, len)
+                            )
+                    ).getPartETag()
+                );
+                if (len < head.length) {
+                    break;
+                }
+                len = IOUtils.read(stream, head);
+            }
+            aws.completeMultipartUpload(
+                new CompleteMultipartUploadRequest(bucket, key, upload, etags)
+            );
+        } catch (final IOException | AmazonClientException ex) {
+            aws.abortMultipartUpload(
+                new AbortMultipartUploadRequest(bucket, key, upload)
+            );
+            if (ex instanceof IOException) {
+                throw (IOException) ex;
+            }
+            throw new IOException(ex);
+        }
+        return total;
+    }
+
+    /**
+     * Upload in one piece, with a known length.
+     *
+     * <p>This happens when the stream is smaller than one part.
+     * @param stream Content to upload
+     * @param meta Metadata
+     * @return Total size
+     * @throws IOException If fails
+     */
+    private long simple(final InputStream stream, final ObjectMetadata meta)
+        throws IOException {
+        final byte[] data = IOUtils.toByteArray(
+            new BoundedInputStream(stream, Upload.LIMIT + 1L)
+        );
+        Upload.check((long) data.length);
+        meta.setContentLength((long) data.length);
+        this.ocket.write(new ByteArrayInputStream(data), meta);
+        return (long) data.length;
+    }
+
+    /**
+     * Check the size.
+     * @param total Size of the stream, so far
+     * @throws IOException If it is too big
+     */
+    static void check(final long total) throws IOException {
+        if (total > Upload.LIMIT) {
+            throw new Attachment.TooBigException(
+                "attachment is too big, 10Mb is the maximum size"
+            );
+        }
+    }
+
+}
@@ -0,0 +1,657 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeAction;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.Select;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.dynamo.AttributeUpdates;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Conditions;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.QueryValve;
+import com.jcabi.dynamo.Region;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Attachment;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Messages;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * View of a bout, materialized in one item of "views" table.
+ *
+ * <p>The view keeps everything a page of the bout shows to all its
+ * friends: aliases of friends, attachments without their content, and
+ * the last page of messages. With a fresh view the page is rendered by
+ * one {@code GetItem} and one {@code BatchGetItem} of profiles of the
+ * friends, instead of a few queries. Profiles are not copied into the
+ * view, since they change without touching the bout. Things that
+ * differ from friend to friend, like unread messages or unseen
+ * attachments, stay in "friends" table.
+ *
+ * <p>Every write to the bout drops the view and rebuilds it in
+ * background. Until it is rebuilt, readers fall back to the tables.
+ * The view is not fresh any more after {@link #AGE}, just in case a
+ * drop was lost. When the view gets bigger than {@link #MAX}, the page
+ * of messages is left out of it, and messages are read from the
+ * tables. Concurrent rebuilds
+ * are resolved by "version" attribute, incremented on every drop: a
+ * view built before the latest drop is never saved.
+ *
+ * <p>The view also remembers the number of the last message moved to
+ * the {@link Archive}, which survives drops and rebuilds, so that
+ * readers go to the archive only for bouts that have one.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "bout")
+@EqualsAndHashCode(of = { "region", "bout" })
+@SuppressWarnings({ "PMD.TooManyMethods", "PMD.ExcessiveImports" })
+final class View {
+
+    /**
+     * Table name.
+     */
+    public static final String TBL = "views";
+
+    /**
+     * Bout attribute.
+     */
+    public static final String HASH = "bout";
+
+    /**
+     * Version of the view, incremented on every drop.
+     */
+    public static final String ATTR_VERSION = "version";
+
+    /**
+     * When the view was built, in milliseconds.
+     */
+    public static final String ATTR_DATE = "date";
+
+    /**
+     * Aliases of friends, gzipped.
+     */
+    public static final String ATTR_FRIENDS = "friends";
+
+    /**
+     * Attachments, gzipped.
+     */
+    public static final String ATTR_ATTACHMENTS = "attachments";
+
+    /**
+     * The last page of messages, gzipped.
+     */
+    public static final String ATTR_MESSAGES = "messages";
+
+    /**
+     * Number of the last archived message, if any.
+     */
+    public static final String ATTR_ARCHIVED = "archived";
+
+    /**
+     * How long the view stays fresh, in milliseconds.
+     */
+    private static final long AGE = TimeUnit.HOURS.toMillis(1L);
+
+    /**
+     * Maximum size of the view, in bytes; it is read by a consistent
+     * {@code GetItem} on every page of the bout, which costs a read
+     * unit per every 4KB.
+     */
+    // @checkstyle MagicNumber (1 line)
+    private static final int MAX = 16 * 1024;
+
+    /**
+     * Bouts being rebuilt now.
+     */
+    private static final Set<Long> BUSY = Collections.newSetFromMap(
+        new ConcurrentHashMap<Long, Boolean>(0)
+    );
+
+    /**
+     * Region we're in.
+     */
+    private final transient Region region;
+
+    /**
+     * Bout number.
+     */
+    private final transient long bout;
+
+    /**
+     * Ctor.
+     * @param reg Region we're in
+     * @param num Bout number
+     */
+    View(final Region reg, final long num) {
+        this.region = reg;
+        this.bout = num;
+    }
+
+    /**
+     * The view is complete and fresh, and may be used instead of the
+     * tables; if it is not, it will be rebuilt soon.
+     * @return TRUE if fresh
+     * @throws IOException If fails
+     */
+    public boolean fresh() throws IOException {
+        final Item item = this.item();
+        final boolean fresh = item.has(View.ATTR_DATE)
+            && Long.parseLong(item.get(View.ATTR_DATE).getN())
+            > System.currentTimeMillis() - View.AGE;
+        if (!fresh) {
+            this.refresh();
+        }
+        return fresh;
+    }
+
+    /**
+     * Friends of the bout, with their profiles read by one batch.
+     * @return Friends
+     * @throws IOException If fails
+     */
+    public Collection<Friend> friends() throws IOException {
+        return DyFriend.all(
+            this.region,
+            View.names(this.item().get(View.ATTR_FRIENDS).getB())
+        );
+    }
+
+    /**
+     * Attachments of the bout, without their content.
+     * @param self Alias of the friend reading them
+     * @return Attachments
+     * @throws IOException If fails
+     */
+    public Collection<Attachment> attachments(final String self)
+        throws IOException {
+        final List<Attributes> all = View.decode(
+            this.item().get(View.ATTR_ATTACHMENTS).getB(),
+            DyAttachments.RANGE, DyAttachments.ATTR_CTYPE,
+            DyAttachments.ATTR_ETAG
+        );
+        final Collection<Attachment> atts = new ArrayList<>(all.size());
+        for (final Attributes attrs : all) {
+            atts.add(new Listed(this.region, this.bout, attrs, self));
+        }
+        return atts;
+    }
+
+    /**
+     * The view is fresh and has the last page of messages, which is not
+     * kept in the view when it is too big.
+     * @return TRUE if fresh and has messages
+     * @throws IOException If fails
+     */
+    public boolean paged() throws IOException {
+        return this.fresh() && this.item().has(View.ATTR_MESSAGES);
+    }
+
+    /**
+     * The last page of messages, newest first, with one more message
+     * after it, if there is one.
+     * @return Items of "messages" table
+     * @throws IOException If fails
+     */
+    public List<Item> messages() throws IOException {
+        return Archive.decode(
+            View.stream(this.item().get(View.ATTR_MESSAGES).getB())
+        );
+    }
+
+    /**
+     * Number of the last archived message.
+     * @return Number or zero, if nothing is archived
+     * @throws IOException If fails
+     */
+    public long archived() throws IOException {
+        final Item item = this.item();
+        long last = 0L;
+        if (item.has(View.ATTR_ARCHIVED)) {
+            last = Long.parseLong(item.get(View.ATTR_ARCHIVED).getN());
+        }
+        return last;
+    }
+
+    /**
+     * Messages were moved to the archive, remember the last one, drop
+     * the view and rebuild it.
+     * @param last Number of the last archived message
+     * @throws IOException If fails
+     */
+    public void archived(final long last) throws IOException {
+        this.drop(
+            new AttributeUpdates().with(
+                View.ATTR_ARCHIVED,
+                new AttributeValue().withN(Long.toString(last))
+            )
+        );
+    }
+
+    /**
+     * The bout was just modified, drop the view and rebuild it.
+     * @throws IOException If fails
+     */
+    public void drop() throws IOException {
+        this.drop(new AttributeUpdates());
+    }
+
+    /**
+     * Drop the view, making other updates of the item, and rebuild it.
+     * @param updates Other updates
+     * @throws IOException If fails
+     */
+    private void drop(final AttributeUpdates updates) throws IOException {
+        final AmazonDynamoDB aws = this.region.aws();
+        try {
+            aws.updateItem(
+                new UpdateItemRequest()
+                    .withTableName(this.region.table(View.TBL).name())
+                    .withKey(new Attributes().with(View.HASH, this.bout))
+                    .withAttributeUpdates(
+                        updates
+                            .with(
+                                View.ATTR_VERSION,
+                                new AttributeValueUpdate()
+                                    .withAction(AttributeAction.ADD)
+                                    .withValue(
+                                        new AttributeValue().withN("1")
+                                    )
+                            )
+                            .with(View.ATTR_DATE, View.delete())
+                            .with(View.ATTR_FRIENDS, View.delete())
+                            .with(View.ATTR_ATTACHMENTS, View.delete())
+                            .with(View.ATTR_MESSAGES, View.delete())
+                    )
+            );
+        } catch (final AmazonClientException ex) {
+            throw new IOException(ex);
+        } finally {
+            aws.shutdown();
+        }
+        Rows.forget(this.key());
+        this.refresh();
+    }
+
+    /**
+     * Rebuild the view from the tables, in background.
+     */
+    public void refresh() {
+        final View view = this;
+        Background.run(
+            new Background.Job() {
+                @Override
+                public void exec() throws IOException {
+                    if (View.BUSY.add(view.bout)) {
+                        try {
+                            view.rebuild();
+                        } finally {
+                            View.BUSY.remove(view.bout);
+                        }
+                    }
+                }
+            }
+        );
+    }
+
+    /**
+     * Aliases of friends of a few bouts, from their views, read by one
+     * batch; stale views are rebuilt soon.
+     * @param region Region we're in
+     * @param bouts Numbers of bouts
+     * @return Aliases of friends by bout numbers, only for fresh views
+     * @throws IOException If fails
+     */
+    static Map<Long, List<String>> aliases(final Region region,
+        final Collection<Long> bouts) throws IOException {
+        final Collection<Attributes> keys = new ArrayList<>(bouts.size());
+        for (final Long bout : bouts) {
+            keys.add(new Attributes().with(View.HASH, bout));
+        }
+        final Map<Long, List<String>> aliases = new HashMap<>(bouts.size());
+        for (final Item item : new Batch(region, View.TBL).get(
+            keys, View.HASH, View.ATTR_DATE, View.ATTR_FRIENDS
+        )) {
+            if (item.has(View.ATTR_DATE) && Long.parseLong(
+                item.get(View.ATTR_DATE).getN()
+            ) > System.currentTimeMillis() - View.AGE) {
+                aliases.put(
+                    Long.parseLong(item.get(View.HASH).getN()),
+                    View.names(item.get(View.ATTR_FRIENDS).getB())
+                );
+            }
+        }
+        for (final Long bout : bouts) {
+            if (!aliases.containsKey(bout)) {
+                new View(region, bout).refresh();
+            }
+        }
+        return aliases;
+    }
+
+    /**
+     * Decode aliases of friends.
+     * @param data Gzipped aliases
+     * @return Aliases, in the same order as encoded
+     * @throws IOException If fails
+     */
+    private static List<String> names(final ByteBuffer data)
+        throws IOException {
+        final List<Attributes> all = View.decode(data, DyAliases.HASH);
+        final List<String> names = new ArrayList<>(all.size());
+        for (final Attributes attrs : all) {
+            names.add(attrs.get(DyAliases.HASH).getS());
+        }
+        return names;
+    }
+
+    /**
+     * Encode items into a gzipped list of strings.
+     * @param items Items
+     * @param names Names of attributes to encode, all of type S
+     * @return Gzipped items
+     * @throws IOException If fails
+     */
+    static byte[] encode(final Collection<Attributes> items,
+        final String... names) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(
+            new GZIPOutputStream(baos)
+        )) {
+            out.writeInt(items.size());
+            for (final Attributes item : items) {
+                for (final String name : names) {
+                    final boolean has = item.containsKey(name);
+                    out.writeBoolean(has);
+                    if (has) {
+                        final byte[] value = item.get(name).getS()
+                            .getBytes(Charsets.UTF_8);
+                        out.writeInt(value.length);
+                        out.write(value);
+                    }
+                }
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Decode items from a gzipped list of strings.
+     * @param data Gzipped items
+     * @param names Names of attributes, as they were encoded
+     * @return Attributes of items, in the same order as encoded
+     * @throws IOException If fails
+     */
+    static List<Attributes> decode(final ByteBuffer data,
+        final String... names) throws IOException {
+        try (final DataInputStream input = new DataInputStream(
+            new GZIPInputStream(View.stream(data))
+        )) {
+            final int total = input.readInt();
+            final List<Attributes> items = new ArrayList<>(total);
+            for (int idx = 0; idx < total; ++idx) {
+                Attributes attrs = new Attributes();
+                for (final String name : names) {
+                    if (input.readBoolean()) {
+                        final byte[] value = new byte[input.readInt()];
+                        input.readFully(value);
+                        attrs = attrs.with(
+                            name, new String(value, Charsets.UTF_8)
+                        );
+                    }
+                }
+                items.add(attrs);
+            }
+            return items;
+        }
+    }
+
+    /**
+     * Build the view from the tables and save it, unless it was dropped
+     * in the meantime.
+     * @throws IOException If fails
+     */
+    private void rebuild() throws IOException {
+        final Map<String, AttributeValue> before = this.load();
+        final Collection<Attributes> friends = new ArrayList<>(0);
+        for (final Item item : this.region.table(DyFriends.TBL)
+            .frame()
+            .through(
+                new QueryValve()
+                    .withSelect(Select.SPECIFIC_ATTRIBUTES)
+                    .withAttributesToGet(DyFriends.HASH, DyFriends.RANGE)
+            )
+            .where(DyFriends.HASH, Conditions.equalTo(this.bout))) {
+            friends.add(
+                new Attributes().with(
+                    DyAliases.HASH, item.get(DyFriends.RANGE).getS()
+                )
+            );
+        }
+        final Collection<Attributes> atts = new ArrayList<>(0);
+        for (final Attachment att : new DyAttachments(
+            this.region, this.bout, ""
+        ).live()) {
+            atts.add(
+                new Attributes()
+                    .with(DyAttachments.RANGE, att.name())
+                    .with(DyAttachments.ATTR_CTYPE, att.ctype())
+                    .with(DyAttachments.ATTR_ETAG, att.etag())
+            );
+        }
+        final byte[] fdata = View.encode(friends, DyAliases.HASH);
+        final byte[] adata = View.encode(
+            atts, DyAttachments.RANGE, DyAttachments.ATTR_CTYPE,
+            DyAttachments.ATTR_ETAG
+        );
+        final byte[] mdata = Archive.encode(
+            new DyMessages(this.region, this.bout, "")
+                .page(Long.MAX_VALUE, Messages.PAGE + 1)
+        );
+        if (fdata.length + adata.length > View.MAX) {
+            Logger.info(
+                this, "view of #%d is too big, %d+%d bytes",
+                this.bout, fdata.length, adata.length
+            );
+        } else {
+            Attributes attrs = new Attributes()
+                .with(View.HASH, this.bout)
+                .with(View.ATTR_DATE, System.currentTimeMillis())
+                .with(View.ATTR_FRIENDS, View.binary(fdata))
+                .with(View.ATTR_ATTACHMENTS, View.binary(adata));
+            if (fdata.length + adata.length + mdata.length <= View.MAX) {
+                attrs = attrs.with(View.ATTR_MESSAGES, View.binary(mdata));
+            }
+            if (before.containsKey(View.ATTR_ARCHIVED)) {
+                attrs = attrs.with(
+                    View.ATTR_ARCHIVED, before.get(View.ATTR_ARCHIVED)
+                );
+            }
+            this.save(before, attrs);
+        }
+    }
+
+    /**
+     * Save the view, if its version is still the same.
+     * @param before Item as it was before the build
+     * @param attrs Attributes of the view, without version
+     * @throws IOException If fails
+     */
+    private void save(final Map<String, AttributeValue> before,
+        final Attributes attrs) throws IOException {
+        final ExpectedAttributeValue expected;
+        final Attributes item;
+        if (before.containsKey(View.ATTR_VERSION)) {
+            expected = new ExpectedAttributeValue(
+                before.get(View.ATTR_VERSION)
+            );
+            item = attrs.with(View.ATTR_VERSION, before.get(View.ATTR_VERSION));
+        } else {
+            expected = new ExpectedAttributeValue(false);
+            item = attrs.with(View.ATTR_VERSION, 0L);
+        }
+        final AmazonDynamoDB aws = this.region.aws();
+        try {
+            aws.putItem(
+                new PutItemRequest()
+                    .withTableName(this.region.table(View.TBL).name())
+                    .withItem(item)
+                    .withExpected(
+                        ImmutableMap.of(View.ATTR_VERSION, expected)
+                    )
+            );
+            Logger.debug(this, "view of #%d rebuilt", this.bout);
+        } catch (final ConditionalCheckFailedException ex) {
+            Logger.debug(this, "view of #%d dropped meanwhile", this.bout);
+        } catch (final AmazonClientException ex) {
+            throw new IOException(ex);
+        } finally {
+            aws.shutdown();
+        }
+    }
+
+    /**
+     * The item of the view, loaded once per scope.
+     * @return The item, maybe without any attributes
+     * @throws IOException If fails
+     */
+    private Item item() throws IOException {
+        return Rows.item(
+            this.key(),
+            new Callable<Item>() {
+                @Override
+                public Item call() throws IOException {
+                    return new Prefetched(new Attributes(View.this.load()));
+                }
+            }
+        );
+    }
+
+    /**
+     * Load the item from DynamoDB.
+     * @return Attributes, empty if there is no item
+     * @throws IOException If fails
+     */
+    private Map<String, AttributeValue> load() throws IOException {
+        final AmazonDynamoDB aws = this.region.aws();
+        final Map<String, AttributeValue> attrs;
+        try {
+            attrs = aws.getItem(
+                new GetItemRequest()
+                    .withTableName(this.region.table(View.TBL).name())
+                    .withKey(new Attributes().with(View.HASH, this.bout))
+                    .withConsistentRead(true)
+            ).getItem();
+        } catch (final AmazonClientException ex) {
+            throw new IOException(ex);
+        } finally {
+            aws.shutdown();
+        }
+        final Map<String, AttributeValue> item;
+        if (attrs == null) {
+            item = Collections.emptyMap();
+        } else {
+            item = attrs;
+        }
+        return item;
+    }
+
+    /**
+     * Key of the view in the scope.
+     * @return Key
+     */
+    private String key() {
+        return String.format("view %d", this.bout);
+    }
+
+    /**
+     * Binary attribute value.
+     * @param data Data
+     * @return Value
+     */
+    private static AttributeValue binary(final byte[] data) {
+        return new AttributeValue().withB(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Update that deletes the attribute.
+     * @return Update
+     */
+    private static AttributeValueUpdate delete() {
+        return new AttributeValueUpdate().withAction(AttributeAction.DELETE);
+    }
+
+    /**
+     * Stream of binary data.
+     * @param data Data
+     * @return Stream
+     */
+    private static ByteArrayInputStream stream(final ByteBuffer data) {
+        final ByteBuffer buf = data.duplicate();
+        final byte[] bytes = new byte[buf.remaining()];
+        buf.get(bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+
+}
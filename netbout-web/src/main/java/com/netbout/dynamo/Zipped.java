@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.google.common.base.Charsets;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Item;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Text of a message, compressed when it is big.
+ *
+ * <p>Texts longer than {@link #THRESHOLD} bytes are deflated and
+ * stored in a binary attribute {@link DyMessages#ATTR_ZIP}, where the
+ * first byte is the codec, instead of {@link DyMessages#ATTR_TEXT}.
+ * Capacity units of DynamoDB are proportional to the size of items,
+ * so big messages get cheaper both to post and to read. If deflating
+ * doesn't make the text shorter, it is stored as is.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class Zipped {
+
+    /**
+     * Texts longer than this, in bytes, are compressed.
+     */
+    private static final int THRESHOLD = 1024;
+
+    /**
+     * Codec marker of deflated texts.
+     */
+    private static final byte DEFLATE = 1;
+
+    /**
+     * Bytes of texts posted since start.
+     */
+    private static final AtomicLong RAW = new AtomicLong();
+
+    /**
+     * Bytes of texts stored since start.
+     */
+    private static final AtomicLong STORED = new AtomicLong();
+
+    /**
+     * Utility class.
+     */
+    private Zipped() {
+        // intentionally empty
+    }
+
+    /**
+     * Add the text to the attributes of a message.
+     * @param attrs Attributes of the message
+     * @param text The text
+     * @return Attributes with the text
+     * @throws IOException If fails
+     */
+    static Attributes with(final Attributes attrs, final String text)
+        throws IOException {
+        final byte[] raw = text.getBytes(Charsets.UTF_8);
+        Zipped.RAW.addAndGet((long) raw.length);
+        final Attributes result;
+        if (raw.length > Zipped.THRESHOLD) {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            baos.write(Zipped.DEFLATE);
+            try (final OutputStream out = new DeflaterOutputStream(baos)) {
+                out.write(raw);
+            }
+            if (baos.size() < raw.length) {
+                Zipped.STORED.addAndGet((long) baos.size());
+                result = attrs.with(
+                    DyMessages.ATTR_ZIP,
+                    new AttributeValue().withB(
+                        ByteBuffer.wrap(baos.toByteArray())
+                    )
+                );
+            } else {
+                Zipped.STORED.addAndGet((long) raw.length);
+                result = attrs.with(DyMessages.ATTR_TEXT, text);
+            }
+        } else {
+            Zipped.STORED.addAndGet((long) raw.length);
+            result = attrs.with(DyMessages.ATTR_TEXT, text);
+        }
+        return result;
+    }
+
+    /**
+     * Text of the message.
+     * @param item Item of the message
+     * @return The text
+     * @throws IOException If fails
+     */
+    static String text(final Item item) throws IOException {
+        final String text;
+        if (item.has(DyMessages.ATTR_ZIP)) {
+            final ByteBuffer buf = item.get(DyMessages.ATTR_ZIP).getB()
+                .duplicate();
+            final byte[] data = new byte[buf.remaining()];
+            buf.get(data);
+            if (data.length == 0 || data[0] != Zipped.DEFLATE) {
+                throw new IOException("unknown codec of the message");
+            }
+            text = IOUtils.toString(
+                new InflaterInputStream(
+                    new ByteArrayInputStream(data, 1, data.length - 1)
+                ),
+                Charsets.UTF_8
+            );
+        } else {
+            text = item.get(DyMessages.ATTR_TEXT).getS();
+        }
+        return text;
+    }
+
+    /**
+     * Report about savings since start.
+     * @return Text
+     */
+    public static String report() {
+        final long raw = Zipped.RAW.get();
+        final long stored = Zipped.STORED.get();
+        return String.format(
+            "message texts: %d bytes posted, %d stored, %d saved (%.1f%%)",
+            raw, stored, raw - stored,
+            // @checkstyle MagicNumber (1 line)
+            100.0d * (double) (raw - stored) / (double) Math.max(raw, 1L)
+        );
+    }
+
+}
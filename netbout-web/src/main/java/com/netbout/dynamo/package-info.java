@@ -31,10 +31,16 @@
  * <p>There are the following tables in DynamoDB:
  *
  * <pre>
- * aliases: (hash:alias, urn, photo, locale) -> GSI(urn,alias)
+ * aliases: (hash:alias, urn, photo, locale, unread, checked)
+ *   -> GSI(urn,alias)
  * friends: (hash:bout, range:alias, title, updated, new) -> GSI(alias,updated)
- * messages: (hash:bout, range:msg, text, alias, date)
+ * messages: (hash:bout, range:msg, text, zip, alias, date)
  * attachments: (hash:bout, range:name, owner, ctype, data)
+ * postings: (hash:term, range:msg)
+ * mentions: (hash:term, range:bout, updated)
+ * prefixes: (hash:prefix, range:alias)
+ * archives: (hash:bout, range:first, last, key, total)
+ * views: (hash:bout, version, date, friends, attachments, messages)
  * </pre>
  *
  * @author Yegor Bugayenko (yegor@teamed.io)
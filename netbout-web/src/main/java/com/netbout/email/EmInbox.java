@@ -35,8 +35,6 @@ import com.netbout.spi.Bout;
 import com.netbout.spi.Inbox;
 import com.netbout.spi.Pageable;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
@@ -123,14 +121,40 @@ final class EmInbox implements Inbox {
         );
     }
 
+    @Override
+    public Pageable.Page<Bout> page(final String cursor) throws IOException {
+        return this.origin.page(cursor).transform(
+            new Function<Bout, Bout>() {
+                @Override
+                public Bout apply(final Bout input) {
+                    return new EmBout(
+                        input,
+                        EmInbox.this.postman, EmInbox.this.self
+                    );
+                }
+            }
+        );
+    }
+
+    @Override
+    public Pageable.Page<Inbox.Row> rows(final String cursor)
+        throws IOException {
+        return this.origin.rows(cursor);
+    }
+
     @Override
     public Iterable<Bout> search(final String term) throws IOException {
-        final List<Bout> result = new ArrayList<>(16);
-        for (final Bout bout : this.iterate()) {
-            if (bout.messages().search(term).iterator().hasNext()) {
-                result.add(bout);
+        return Iterables.transform(
+            this.origin.search(term),
+            new Function<Bout, Bout>() {
+                @Override
+                public Bout apply(final Bout input) {
+                    return new EmBout(
+                        input,
+                        EmInbox.this.postman, EmInbox.this.self
+                    );
+                }
             }
-        }
-        return result;
+        );
     }
 }
@@ -140,6 +140,12 @@ final class EmMessages implements Messages {
         return this.origin.iterate();
     }
 
+    @Override
+    public Pageable.Page<Message> page(final String cursor)
+        throws IOException {
+        return this.origin.page(cursor);
+    }
+
     @Override
     public Iterable<Message> search(final String term) throws IOException {
         return this.origin.search(term);
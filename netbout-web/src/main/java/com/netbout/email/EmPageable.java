@@ -88,24 +88,35 @@ final class EmPageable<T> implements Pageable<T> {
 
     @Override
     public Iterable<T> iterate() throws IOException {
-        return Iterables.transform(
-            this.origin.iterate(),
-            new Function<T, T>() {
-                @Override
-                @SuppressWarnings("unchecked")
-                public T apply(final T input) {
-                    final Object result;
-                    if (input instanceof Message) {
-                        result = input;
-                    } else {
-                        result = new EmBout(
-                            Bout.class.cast(input),
-                            EmPageable.this.postman, EmPageable.this.self
-                        );
-                    }
-                    return (T) result;
+        return Iterables.transform(this.origin.iterate(), this.wrap());
+    }
+
+    @Override
+    public Pageable.Page<T> page(final String cursor) throws IOException {
+        return this.origin.page(cursor).transform(this.wrap());
+    }
+
+    /**
+     * Function wrapping bouts into emailing ones.
+     * @return Function
+     */
+    private Function<T, T> wrap() {
+        return new Function<T, T>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public T apply(final T input) {
+                final Object result;
+                if (input instanceof Message) {
+                    result = input;
+                } else {
+                    result = new EmBout(
+                        Bout.class.cast(input),
+                        EmPageable.this.postman, EmPageable.this.self
+                    );
                 }
+                return (T) result;
             }
-        );
+        };
     }
+
 }
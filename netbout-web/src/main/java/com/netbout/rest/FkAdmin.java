@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.jcabi.manifests.Manifests;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.facets.auth.Identity;
+import org.takes.facets.auth.RqAuth;
+import org.takes.facets.fork.FkWrap;
+import org.takes.facets.fork.Fork;
+import org.takes.misc.Opt;
+
+/**
+ * When authenticated as one of the administrators, listed by their
+ * URNs, separated by spaces, in {@code Netbout-Admins}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+final class FkAdmin extends FkWrap {
+
+    /**
+     * Ctor.
+     * @param fork Fork
+     */
+    FkAdmin(final Fork fork) {
+        this(
+            Arrays.asList(
+                Manifests.read("Netbout-Admins").trim().split("\\s+")
+            ),
+            fork
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param admins URNs of administrators
+     * @param fork Fork
+     */
+    FkAdmin(final Collection<String> admins, final Fork fork) {
+        super(FkAdmin.make(admins, fork));
+    }
+
+    /**
+     * Make a fork.
+     * @param admins URNs of administrators
+     * @param fork Fork
+     * @return Fork
+     */
+    private static Fork make(final Collection<String> admins,
+        final Fork fork) {
+        return new Fork() {
+            @Override
+            public Opt<Response> route(final Request req)
+                throws IOException {
+                final Identity identity = new RqAuth(req).identity();
+                final Opt<Response> opt;
+                if (!identity.equals(Identity.ANONYMOUS)
+                    && admins.contains(identity.urn())) {
+                    opt = fork.route(req);
+                } else {
+                    opt = new Opt.Empty<>();
+                }
+                return opt;
+            }
+        };
+    }
+}
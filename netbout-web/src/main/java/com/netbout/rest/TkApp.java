@@ -219,6 +219,7 @@ public final class TkApp extends TkWrap {
             ),
             new FkAuthenticated(
                 new TkFork(
+                    new FkAdmin(new FkRegex("/meters", new TkMeters())),
                     new FkRegistered(
                         base,
                         new TkFork(
@@ -29,11 +29,14 @@ package com.netbout.rest;
 import com.google.common.collect.Iterables;
 import com.netbout.spi.Base;
 import com.netbout.spi.Bout;
-import com.netbout.spi.Friend;
 import com.netbout.spi.Inbox;
+import com.netbout.spi.Pageable;
 import java.io.IOException;
-import java.util.Iterator;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.lang3.StringUtils;
+import org.takes.HttpException;
 import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
@@ -93,66 +96,77 @@ final class TkInbox implements Take {
      */
     private Iterable<XeSource> bouts(final Request req, final String query)
         throws IOException {
-        final Iterable<Bout> bouts;
+        final Iterable<Inbox.Row> rows;
+        final String next;
         final Inbox inbox = new RqAlias(this.base, req).alias().inbox();
         if (StringUtils.isBlank(query)) {
-            long since = Inbox.NEVER;
-            final Iterator<String> param = new RqHref.Base(req).href()
-                .param("since").iterator();
-            if (param.hasNext()) {
-                since = Long.parseLong(param.next());
+            final Pageable.Page<Inbox.Row> page;
+            try {
+                page = inbox.rows(
+                    new RqHref.Smart(new RqHref.Base(req)).single("cursor", "")
+                );
+            } catch (final IllegalArgumentException ex) {
+                throw new HttpException(HttpURLConnection.HTTP_BAD_REQUEST, ex);
             }
-            bouts = inbox.jump(since).iterate();
+            rows = page.items();
+            next = page.next();
         } else {
-            bouts = inbox.search(query);
+            final List<Inbox.Row> found = new ArrayList<>(Inbox.PAGE);
+            for (final Bout bout : Iterables.limit(
+                inbox.search(query), Inbox.PAGE
+            )) {
+                found.add(new Inbox.Row(bout));
+            }
+            rows = found;
+            next = "";
         }
         return new XeTransform<>(
-            Iterables.limit(bouts, Inbox.PAGE),
-            new XeTransform.Func<Bout>() {
+            rows,
+            new XeTransform.Func<Inbox.Row>() {
                 @Override
-                public XeSource transform(final Bout bout) throws IOException {
-                    return TkInbox.source(bout);
+                public XeSource transform(final Inbox.Row row) {
+                    return TkInbox.source(row, next);
                 }
             }
         );
     }
 
     /**
-     * Convert bout to bundle.
-     * @param bout Bout to convert
+     * Convert row of the inbox to bundle.
+     * @param row Row to convert
+     * @param next Cursor of the next page, empty if there is none
      * @return Bundle
-     * @throws IOException If fails
      */
-    private static XeSource source(final Bout bout) throws IOException {
+    private static XeSource source(final Inbox.Row row, final String next) {
+        XeSource more = XeSource.EMPTY;
+        if (!next.isEmpty()) {
+            more = new XeLink("more", new Href().with("cursor", next));
+        }
         return new XeAppend(
             "bout",
             new XeDirectives(
                 new Directives()
                     .add("number")
-                    .set(Long.toString(bout.number())).up()
+                    .set(Long.toString(row.number())).up()
                     .add("updated")
-                    .set(Long.toString(bout.updated().getTime())).up()
+                    .set(Long.toString(row.updated().getTime())).up()
                     .add("unread")
-                    .set(Long.toString(bout.messages().unread())).up()
+                    .set(Long.toString(row.unread())).up()
                     .add("unseen")
-                    .set(Integer.toString(bout.attachments().unseen())).up()
+                    .set(Integer.toString(row.unseen())).up()
                     .add("title")
-                    .set(bout.title()).up()
-            ),
-            new XeLink("open", new Href("/b").path(bout.number())),
-            new XeLink(
-                "more",
-                new Href().with("since", bout.updated().getTime())
+                    .set(row.title()).up()
             ),
+            new XeLink("open", new Href("/b").path(row.number())),
+            more,
             new XeAppend(
                 "friends",
                 new XeTransform<>(
-                    bout.friends().iterate(),
-                    new XeTransform.Func<Friend>() {
+                    row.friends(),
+                    new XeTransform.Func<String>() {
                         @Override
-                        public XeSource transform(final Friend friend)
-                            throws IOException {
-                            return TkInbox.source(bout, friend);
+                        public XeSource transform(final String alias) {
+                            return TkInbox.source(row.number(), alias);
                         }
                     }
                 )
@@ -162,28 +176,26 @@ final class TkInbox implements Take {
 
     /**
      * Convert friend to Xembly source.
-     * @param bout The bout
-     * @param friend The friend
+     * @param bout Number of the bout
+     * @param alias Alias of the friend
      * @return Xembly source
-     * @throws IOException If fails
      */
-    private static XeSource source(final Bout bout, final Friend friend)
-        throws IOException {
+    private static XeSource source(final long bout, final String alias) {
         return new XeAppend(
             "friend",
             new XeDirectives(
-                new Directives().add("alias").set(friend.alias())
+                new Directives().add("alias").set(alias)
             ),
             new XeLink(
                 "photo",
-                new Href("/f").path(String.format("%s.png", friend.alias()))
+                new Href("/f").path(String.format("%s.png", alias))
             ),
             new XeLink(
                 "kick",
                 new Href("/b")
-                    .path(bout.number())
+                    .path(bout)
                     .path("kick")
-                    .with("name", friend.alias())
+                    .with("name", alias)
             )
         );
     }
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.netbout.dynamo.Rows;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import lombok.EqualsAndHashCode;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+
+/**
+ * Take that loads rows of "friends" table only once per request.
+ *
+ * <p>Response bodies are usually rendered lazily, after the take
+ * returns, that's why the scope of {@link Rows} is opened separately
+ * for the take itself, for the head and for the body of the response.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+@EqualsAndHashCode(of = "origin")
+public final class TkRows implements Take {
+
+    /**
+     * Original take.
+     */
+    private final transient Take origin;
+
+    /**
+     * Ctor.
+     * @param take Original take
+     */
+    public TkRows(final Take take) {
+        this.origin = take;
+    }
+
+    @Override
+    public Response act(final Request req) throws IOException {
+        final Response response = Rows.within(
+            new Callable<Response>() {
+                @Override
+                public Response call() throws IOException {
+                    return TkRows.this.origin.act(req);
+                }
+            }
+        );
+        return new Response() {
+            @Override
+            public Iterable<String> head() throws IOException {
+                return Rows.within(
+                    new Callable<Iterable<String>>() {
+                        @Override
+                        public Iterable<String> call() throws IOException {
+                            return response.head();
+                        }
+                    }
+                );
+            }
+            @Override
+            public InputStream body() throws IOException {
+                return Rows.within(
+                    new Callable<InputStream>() {
+                        @Override
+                        public InputStream call() throws IOException {
+                            return response.body();
+                        }
+                    }
+                );
+            }
+        };
+    }
+
+}
@@ -33,17 +33,15 @@ import com.netbout.spi.Base;
 import com.netbout.spi.Bout;
 import eu.medsea.mimeutil.MimeUtil;
 import eu.medsea.mimeutil.detector.MagicMimeMimeDetector;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLDecoder;
 import java.util.Collection;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.codec.CharEncoding;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
@@ -95,8 +93,6 @@ final class TkAttach implements Take {
             new RqMultipart.Base(req)
         ).single("file");
         final String name = this.name(file);
-        final File temp = File.createTempFile("netbout", "bin");
-        IOUtils.copy(file.body(), new FileOutputStream(temp));
         final Bout bout = new RqBout(this.base, req).bout();
         final StringBuilder msg = new StringBuilder(Tv.HUNDRED);
         if (new Attachments.Search(bout.attachments()).exists(name)) {
@@ -109,19 +105,19 @@ final class TkAttach implements Take {
             }
             msg.append(String.format("attachment \"%s\" uploaded", name));
         }
-        final String ctype = TkAttach.ctype(temp);
-        msg.append(" (").append(temp.length())
-            .append(" bytes, ").append(ctype).append(')');
+        final InputStream body = new BufferedInputStream(file.body());
+        final String ctype = TkAttach.ctype(body);
+        final CountingInputStream input = new CountingInputStream(body);
         try {
             bout.attachments().get(name).write(
-                new FileInputStream(temp),
-                ctype, Long.toString(System.currentTimeMillis())
+                input, ctype, Long.toString(System.currentTimeMillis())
             );
         } catch (final Attachment.TooBigException
             | Attachment.BrokenContentException ex) {
             throw new RsFailure(ex);
         }
-        FileUtils.forceDelete(temp);
+        msg.append(" (").append(input.getByteCount())
+            .append(" bytes, ").append(ctype).append(')');
         bout.messages().post(msg.toString());
         throw new RsForward(new RsFlash(msg.toString()));
     }
@@ -146,12 +142,12 @@ final class TkAttach implements Take {
     }
 
     /**
-     * Get CType of file.
-     * @param file File
+     * Get CType of the content, without consuming it.
+     * @param stream Stream, which supports marks
      * @return MIME type
      */
-    private static String ctype(final File file) {
-        final Collection<?> ctypes = MimeUtil.getMimeTypes(file);
+    private static String ctype(final InputStream stream) {
+        final Collection<?> ctypes = MimeUtil.getMimeTypes(stream);
         final String ctype;
         if (ctypes.isEmpty()) {
             ctype = "application/octet-stream";
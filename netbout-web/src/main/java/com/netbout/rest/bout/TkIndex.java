@@ -26,17 +26,18 @@
  */
 package com.netbout.rest.bout;
 
-import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.netbout.rest.RsPage;
 import com.netbout.spi.Attachment;
 import com.netbout.spi.Base;
 import com.netbout.spi.Bout;
 import com.netbout.spi.Friend;
-import com.netbout.spi.Inbox;
 import com.netbout.spi.Message;
-import com.netbout.spi.Messages;
+import com.netbout.spi.Pageable;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import org.apache.commons.lang3.StringUtils;
+import org.takes.HttpException;
 import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
@@ -79,6 +80,7 @@ final class TkIndex implements Take {
         );
         final Bout bout = new RqBout(this.base, req).bout();
         final Href home = new Href("/b").path(bout.number());
+        final Pageable.Page<Message> page = this.messages(bout, req, query);
         return new RsPage(
             "/xsl/bout.xsl",
             this.base,
@@ -126,12 +128,12 @@ final class TkIndex implements Take {
                 new XeAppend(
                     "messages",
                     new XeTransform<>(
-                        this.messages(bout, req, query),
+                        page.items(),
                         new XeTransform.Func<Message>() {
                             @Override
                             public XeSource transform(final Message msg)
                                 throws IOException {
-                                return new XeMessage(bout, msg);
+                                return new XeMessage(bout, msg, page.next());
                             }
                         }
                     )
@@ -154,27 +156,26 @@ final class TkIndex implements Take {
      * @param bout Bout
      * @param req Request to use
      * @param query Search term
-     * @return Messages
+     * @return Page of messages
      * @throws IOException If fails
      */
-    private Iterable<Message> messages(final Bout bout, final Request req,
-        final String query) throws IOException {
-        final Iterable<Message> messages;
+    private Pageable.Page<Message> messages(final Bout bout,
+        final Request req, final String query) throws IOException {
+        final Pageable.Page<Message> page;
         if (StringUtils.isBlank(query)) {
-            final long start = Long.parseLong(
-                new RqHref.Smart(new RqHref.Base(req)).single(
-                    "start",
-                    Long.toString(Inbox.NEVER)
-                )
-            );
-            messages = Iterables.limit(
-                bout.messages().jump(start).iterate(),
-                Messages.PAGE
-            );
+            try {
+                page = bout.messages().page(
+                    new RqHref.Smart(new RqHref.Base(req)).single("cursor", "")
+                );
+            } catch (final IllegalArgumentException ex) {
+                throw new HttpException(HttpURLConnection.HTTP_BAD_REQUEST, ex);
+            }
         } else {
-            messages = bout.messages().search(query);
+            page = new Pageable.Page<>(
+                Lists.newArrayList(bout.messages().search(query)), ""
+            );
         }
-        return messages;
+        return page;
     }
 
 }
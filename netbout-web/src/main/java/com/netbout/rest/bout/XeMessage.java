@@ -60,18 +60,39 @@ final class XeMessage extends XeWrap {
      */
     XeMessage(final Bout bout, final Message msg)
         throws IOException {
-        super(XeMessage.make(bout, msg));
+        this(bout, msg, "");
+    }
+
+    /**
+     * Ctor.
+     * @param bout Bout
+     * @param msg Message
+     * @param next Cursor of the next page, empty if there is none
+     * @throws IOException In case of failure
+     * @since 3.0
+     */
+    XeMessage(final Bout bout, final Message msg, final String next)
+        throws IOException {
+        super(XeMessage.make(bout, msg, next));
     }
 
     /**
      * Convert message to Xembly source.
      * @param bout Bout
      * @param msg Message
+     * @param next Cursor of the next page, empty if there is none
      * @return Xembly source
      * @throws IOException In case of failure
      */
-    private static XeSource make(final Bout bout, final Message msg)
-        throws IOException {
+    private static XeSource make(final Bout bout, final Message msg,
+        final String next) throws IOException {
+        XeSource more = XeSource.EMPTY;
+        if (!next.isEmpty()) {
+            more = new XeLink(
+                "more",
+                new Href().path("b").path(bout.number()).with("cursor", next)
+            );
+        }
         return new XeAppend(
             "message",
             new XeDirectives(
@@ -102,12 +123,7 @@ final class XeMessage extends XeWrap {
                     String.format("%s.png", msg.author())
                 )
             ),
-            new XeLink(
-                "more",
-                new Href().path("b")
-                    .path(bout.number())
-                    .with("start", msg.number())
-            )
+            more
         );
     }
 
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Item;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Ahead}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class AheadTest {
+
+    /**
+     * Ahead can iterate all items, page by page.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void iteratesAllPages() throws Exception {
+        final AheadTest.Fake pages = new AheadTest.Fake(Tv.FIFTY);
+        final List<Long> numbers = new ArrayList<>(Tv.FIFTY);
+        for (final Item item : new Ahead(pages, Tv.FIFTY + 1, 2)) {
+            numbers.add(pages.next(item));
+        }
+        MatcherAssert.assertThat(numbers, Matchers.hasSize(Tv.FIFTY));
+        MatcherAssert.assertThat(
+            numbers.get(0), Matchers.equalTo((long) Tv.FIFTY)
+        );
+        MatcherAssert.assertThat(
+            numbers.get(Tv.FIFTY - 1), Matchers.equalTo(1L)
+        );
+    }
+
+    /**
+     * Ahead can prefetch next pages when a page is over.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void prefetchesNextPages() throws Exception {
+        final AheadTest.Fake pages = new AheadTest.Fake(Tv.HUNDRED);
+        final Iterator<Item> items = new Ahead(
+            pages, Tv.HUNDRED + 1, 2
+        ).iterator();
+        Iterables.getLast(Iterables.limit(new Once(items), Tv.TEN));
+        for (int idx = 0; idx < Tv.FIFTY && pages.calls() < 2 + 1; ++idx) {
+            TimeUnit.MILLISECONDS.sleep((long) Tv.HUNDRED);
+        }
+        MatcherAssert.assertThat(pages.calls(), Matchers.equalTo(2 + 1));
+        Iterables.getLast(Iterables.limit(new Once(items), Tv.TEN));
+        MatcherAssert.assertThat(
+            pages.calls(), Matchers.lessThanOrEqualTo(2 + 2)
+        );
+    }
+
+    /**
+     * Ahead can skip prefetching when the consumer stops early.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void doesntPrefetchWhenStoppedEarly() throws Exception {
+        final AheadTest.Fake pages = new AheadTest.Fake(Tv.HUNDRED);
+        Iterables.getLast(
+            Iterables.limit(
+                new Ahead(pages, Tv.HUNDRED + 1, 2), Tv.FIVE
+            )
+        );
+        TimeUnit.MILLISECONDS.sleep((long) Tv.HUNDRED);
+        MatcherAssert.assertThat(pages.calls(), Matchers.equalTo(1));
+    }
+
+    /**
+     * Ahead can keep prefetched pages to the iterator.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void doesntSharePagesBetweenIterators() throws Exception {
+        final AheadTest.Fake pages = new AheadTest.Fake(Tv.HUNDRED);
+        final Ahead ahead = new Ahead(pages, Tv.HUNDRED + 1, 1);
+        Iterables.getLast(Iterables.limit(ahead, Tv.FIFTEEN));
+        final int calls = pages.calls();
+        Iterables.getLast(Iterables.limit(ahead, Tv.FIFTEEN));
+        MatcherAssert.assertThat(
+            pages.calls(), Matchers.greaterThanOrEqualTo(calls + 2)
+        );
+    }
+
+    /**
+     * Ahead can cancel prefetching when the iterator is abandoned.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void cancelsPrefetchingOfAbandonedIterator() throws Exception {
+        final AheadTest.Fake pages = new AheadTest.Fake(
+            (long) Tv.THOUSAND, Tv.HUNDRED
+        );
+        Iterables.getLast(
+            Iterables.limit(
+                new Ahead(pages, Tv.THOUSAND + 1, Tv.FIFTY), Tv.TEN
+            )
+        );
+        for (int idx = 0; idx < Tv.TWENTY; ++idx) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep((long) Tv.FIFTY);
+        }
+        final int calls = pages.calls();
+        TimeUnit.MILLISECONDS.sleep((long) Tv.FIVE * Tv.HUNDRED);
+        MatcherAssert.assertThat(pages.calls(), Matchers.equalTo(calls));
+        MatcherAssert.assertThat(calls, Matchers.lessThan(Tv.TWENTY));
+    }
+
+    /**
+     * Iterable over an existing iterator.
+     */
+    private static final class Once implements Iterable<Item> {
+        /**
+         * The iterator.
+         */
+        private final transient Iterator<Item> iterator;
+        /**
+         * Ctor.
+         * @param itr The iterator
+         */
+        Once(final Iterator<Item> itr) {
+            this.iterator = itr;
+        }
+        @Override
+        public Iterator<Item> iterator() {
+            return this.iterator;
+        }
+    }
+
+    /**
+     * Fake pages of numbers, in reverse order, ten per page.
+     */
+    private static final class Fake implements Ahead.Pages {
+        /**
+         * The biggest number.
+         */
+        private final transient long max;
+        /**
+         * How many pages were fetched.
+         */
+        private final transient AtomicInteger fetched = new AtomicInteger();
+        /**
+         * How long to fetch one page, in milliseconds.
+         */
+        private final transient long delay;
+        /**
+         * Ctor.
+         * @param total How many numbers
+         */
+        Fake(final long total) {
+            this(total, 0);
+        }
+        /**
+         * Ctor.
+         * @param total How many numbers
+         * @param msec How long to fetch one page, in milliseconds
+         */
+        Fake(final long total, final int msec) {
+            this.max = total;
+            this.delay = (long) msec;
+        }
+        /**
+         * How many pages were fetched.
+         * @return Total
+         */
+        public int calls() {
+            return this.fetched.get();
+        }
+        @Override
+        public int size() {
+            return Tv.TEN;
+        }
+        @Override
+        public List<Item> page(final long from) throws IOException {
+            this.fetched.incrementAndGet();
+            try {
+                TimeUnit.MILLISECONDS.sleep(this.delay);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+            final List<Item> items = new ArrayList<>(Tv.TEN);
+            for (long num = Math.min(from - 1L, this.max);
+                num > 0L && items.size() < Tv.TEN; --num) {
+                items.add(
+                    new Prefetched(
+                        new Attributes().with(DyMessages.RANGE, num)
+                    )
+                );
+            }
+            return items;
+        }
+        @Override
+        public long next(final Item item) throws IOException {
+            return Long.parseLong(item.get(DyMessages.RANGE).getN());
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.google.common.collect.Lists;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Credentials;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Region;
+import com.jcabi.manifests.Manifests;
+import com.jcabi.urn.URN;
+import com.netbout.spi.Aliases;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Messages;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Integration case for {@link Archive}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class ArchiveITCase {
+
+    /**
+     * Archive can move messages to S3 and read them back by pages
+     * and by numbers.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void readsArchivedMessages() throws Exception {
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:771902")).aliases();
+        aliases.add("archie");
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        final Messages messages = bout.messages();
+        final int total = Tv.FIFTY - Tv.FIVE;
+        for (int idx = 0; idx < total; ++idx) {
+            messages.post(String.format("msg #%d", idx));
+        }
+        TimeUnit.MILLISECONDS.sleep((long) Tv.TEN);
+        final Region region = ArchiveITCase.region();
+        final Archive archive = new Archive(
+            region, new Storage.Simple(new MemBucket()), 1L, Tv.TWENTY
+        );
+        MatcherAssert.assertThat(
+            Archive.due(bout.number()), Matchers.is(true)
+        );
+        archive.pack(bout.number());
+        MatcherAssert.assertThat(
+            Archive.due(bout.number()), Matchers.is(false)
+        );
+        final List<Item> all =
+            archive.older(bout.number(), Long.MAX_VALUE, Tv.HUNDRED);
+        MatcherAssert.assertThat(all, Matchers.hasSize(Tv.FORTY));
+        final List<Long> numbers = new ArrayList<>(all.size());
+        for (final Item item : Lists.reverse(all)) {
+            numbers.add(Long.parseLong(item.get(DyMessages.RANGE).getN()));
+        }
+        MatcherAssert.assertThat(
+            new View(region, bout.number()).archived(),
+            Matchers.equalTo(numbers.get(Tv.FORTY - 1))
+        );
+        final List<Item> page = archive.older(
+            bout.number(), numbers.get(Tv.TWENTY - 2), Messages.PAGE
+        );
+        MatcherAssert.assertThat(page, Matchers.hasSize(Messages.PAGE));
+        MatcherAssert.assertThat(
+            page.get(0).get(DyMessages.RANGE).getN(),
+            Matchers.equalTo(numbers.get(Tv.TWENTY - Tv.THREE).toString())
+        );
+        MatcherAssert.assertThat(
+            archive.find(
+                bout.number(),
+                Arrays.asList(numbers.get(0), numbers.get(Tv.TWENTY + 2))
+            ),
+            Matchers.hasSize(2)
+        );
+    }
+
+    /**
+     * Region of the local DynamoDB.
+     * @return Region
+     */
+    private static Region region() {
+        return new Region.Prefixed(
+            new Region.Simple(
+                new Credentials.Direct(
+                    new Credentials.Simple(
+                        Manifests.read("Netbout-DynamoKey"),
+                        Manifests.read("Netbout-DynamoSecret")
+                    ),
+                    Integer.parseInt(System.getProperty("dynamo.port"))
+                )
+            ),
+            Manifests.read("Netbout-DynamoPrefix")
+        );
+    }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.jcabi.dynamo.Attributes;
+import com.jcabi.dynamo.Item;
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Archive}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class ArchiveTest {
+
+    /**
+     * Archive can encode and decode a segment.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void encodesAndDecodesSegment() throws Exception {
+        final String text = "\u043f\u0440\u0438\u0432\u0435\u0442, how are you?";
+        final List<Item> msgs = Archive.decode(
+            new ByteArrayInputStream(
+                Archive.encode(
+                    Arrays.<Item>asList(
+                        ArchiveTest.message(1L, "hello"),
+                        ArchiveTest.message(2L, text)
+                    )
+                )
+            )
+        );
+        MatcherAssert.assertThat(msgs, Matchers.hasSize(2));
+        MatcherAssert.assertThat(
+            msgs.get(1).get(DyMessages.RANGE).getN(),
+            Matchers.equalTo("2")
+        );
+        MatcherAssert.assertThat(
+            msgs.get(1).get(DyMessages.ATTR_TEXT).getS(),
+            Matchers.equalTo(text)
+        );
+        MatcherAssert.assertThat(
+            new DyMessage(msgs.get(0)).author(),
+            Matchers.equalTo("jeff")
+        );
+    }
+
+    /**
+     * Make a message.
+     * @param number Number
+     * @param text Text
+     * @return Item
+     */
+    private static Item message(final long number, final String text) {
+        return new Prefetched(
+            new Attributes()
+                .with(DyMessages.RANGE, number)
+                .with(DyMessages.ATTR_DATE, System.currentTimeMillis())
+                .with(DyMessages.ATTR_ALIAS, "jeff")
+                .with(DyMessages.ATTR_TEXT, text)
+        );
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.jcabi.aspects.Tv;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Bucket}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class BucketTest {
+
+    /**
+     * Bucket can let interactive calls through within the burst.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void letsBurstThrough() throws Exception {
+        final Bucket bucket = new Bucket((double) Tv.TEN);
+        final long start = System.nanoTime();
+        for (int idx = 0; idx < Tv.FIFTEEN; ++idx) {
+            bucket.take(false);
+        }
+        MatcherAssert.assertThat(
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            Matchers.lessThan((long) Tv.HUNDRED)
+        );
+    }
+
+    /**
+     * Bucket can hold background calls, leaving tokens to others.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void holdsBackgroundCalls() throws Exception {
+        final Bucket bucket = new Bucket((double) Tv.TEN);
+        final long start = System.nanoTime();
+        for (int idx = 0; idx < Tv.FIFTEEN; ++idx) {
+            bucket.take(true);
+        }
+        MatcherAssert.assertThat(
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            Matchers.greaterThanOrEqualTo((long) Tv.THREE * Tv.HUNDRED)
+        );
+    }
+
+    /**
+     * Bucket can let everything through if capacity is unknown.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void ignoresUnknownCapacity() throws Exception {
+        final Bucket bucket = new Bucket(0.0d);
+        final long start = System.nanoTime();
+        for (int idx = 0; idx < Tv.THOUSAND; ++idx) {
+            bucket.take(true);
+            bucket.charge((double) Tv.TEN, true);
+        }
+        MatcherAssert.assertThat(
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            Matchers.lessThan((long) Tv.HUNDRED)
+        );
+    }
+
+    /**
+     * Bucket can let background calls through, when interactive ones
+     * took all tokens they could.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void reservesShareForBackground() throws Exception {
+        final Bucket bucket = new Bucket((double) Tv.TEN);
+        for (int idx = 0; idx < Tv.FIFTEEN; ++idx) {
+            bucket.take(false);
+        }
+        bucket.charge((double) Tv.TEN, false);
+        final long start = System.nanoTime();
+        for (int idx = 0; idx < Tv.THREE; ++idx) {
+            bucket.take(true);
+        }
+        MatcherAssert.assertThat(
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            Matchers.lessThan((long) Tv.HUNDRED)
+        );
+    }
+
+    /**
+     * Bucket can keep the rate it learned from throttling, when
+     * the provisioned rate is refreshed.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void keepsLearnedRate() throws Exception {
+        final Bucket bucket = new Bucket((double) Tv.TEN);
+        bucket.throttled();
+        bucket.provision((double) Tv.TEN);
+        final long start = System.nanoTime();
+        bucket.take(false);
+        MatcherAssert.assertThat(
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            Matchers.greaterThanOrEqualTo((long) (2 * Tv.HUNDRED))
+        );
+    }
+
+}
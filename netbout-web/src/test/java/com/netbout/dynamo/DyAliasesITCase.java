@@ -26,9 +26,11 @@
  */
 package com.netbout.dynamo;
 
+import com.jcabi.aspects.Tv;
 import com.jcabi.urn.URN;
 import com.netbout.spi.Alias;
 import com.netbout.spi.Aliases;
+import java.util.concurrent.TimeUnit;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -66,4 +68,31 @@ public final class DyAliasesITCase {
         );
     }
 
+    /**
+     * DyAliases can tell free and occupied aliases while the filter
+     * of all aliases is being built.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void checksAliasesThroughFilter() throws Exception {
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:8831421")).aliases();
+        final String name = "zinaida10";
+        aliases.add(name);
+        final String free = String.format(
+            "free%d", System.nanoTime() % Tv.MILLION
+        );
+        for (int idx = 0; idx < Tv.TWENTY; ++idx) {
+            MatcherAssert.assertThat(
+                aliases.check(name),
+                Matchers.not(Matchers.isEmptyOrNullString())
+            );
+            MatcherAssert.assertThat(
+                aliases.check(free),
+                Matchers.isEmptyOrNullString()
+            );
+            TimeUnit.MILLISECONDS.sleep((long) Tv.HUNDRED);
+        }
+    }
+
 }
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.google.common.util.concurrent.Futures;
+import com.jcabi.urn.URN;
+import com.netbout.cached.CdBase;
+import com.netbout.spi.Alias;
+import com.netbout.spi.AsyncBout;
+import com.netbout.spi.AsyncInbox;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Message;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Integration case for {@link DyAsyncInbox}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class DyAsyncInboxITCase {
+
+    /**
+     * DyAsyncInbox can start bouts and list them.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void startsAndListsBouts() throws Exception {
+        final DyBase base = new DyBase();
+        final AsyncInbox inbox = base.inbox(
+            base.user(new URN("urn:test:7712")).aliases().add("kristina")
+        );
+        final List<Long> numbers = Futures.allAsList(
+            Arrays.asList(inbox.start(), inbox.start())
+        ).get();
+        final AsyncBout bout = inbox.bout(numbers.get(0)).get();
+        bout.rename("hello, world").get();
+        bout.messages().post("how are you?").get();
+        MatcherAssert.assertThat(
+            inbox.bout(numbers.get(0)).get().title().get(),
+            Matchers.equalTo("hello, world")
+        );
+        MatcherAssert.assertThat(
+            bout.messages().iterate().get(),
+            Matchers.<Message>iterableWithSize(1)
+        );
+        final List<AsyncBout> page = inbox.iterate().get();
+        MatcherAssert.assertThat(
+            page, Matchers.<AsyncBout>iterableWithSize(2)
+        );
+        MatcherAssert.assertThat(
+            page.get(0).number().get(),
+            Matchers.isIn(numbers)
+        );
+    }
+
+    /**
+     * DyAsyncInbox can be reached through a decorator of the base.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void staysReachableThroughDecorators() throws Exception {
+        final CdBase base = new CdBase(new DyBase());
+        final Alias alias = base.user(new URN("urn:test:7714"))
+            .aliases().add("valentina");
+        final AsyncInbox inbox = base.inbox(alias);
+        final long number = inbox.start().get();
+        inbox.bout(number).get().rename("through the cache").get();
+        MatcherAssert.assertThat(
+            alias.inbox().bout(number).title(),
+            Matchers.equalTo("through the cache")
+        );
+        MatcherAssert.assertThat(
+            inbox.bout(number).get().title().get(),
+            Matchers.equalTo("through the cache")
+        );
+    }
+
+    /**
+     * DyAsyncInbox can fail when bout is absent.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void failsOnAbsentBout() throws Exception {
+        final DyBase base = new DyBase();
+        final AsyncInbox inbox = base.inbox(
+            base.user(new URN("urn:test:7713")).aliases().add("ludmila")
+        );
+        try {
+            inbox.bout(Long.MAX_VALUE - 1L).get();
+            MatcherAssert.assertThat("exception expected", false);
+        } catch (final ExecutionException ex) {
+            MatcherAssert.assertThat(
+                ex.getCause(),
+                Matchers.instanceOf(Inbox.BoutNotFoundException.class)
+            );
+        }
+    }
+
+}
@@ -34,6 +34,7 @@ import com.netbout.spi.Attachments;
 import com.netbout.spi.Bout;
 import com.netbout.spi.Inbox;
 import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
 import javax.ws.rs.core.MediaType;
 import org.apache.commons.io.IOUtils;
 import org.hamcrest.MatcherAssert;
@@ -84,4 +85,49 @@ public final class DyAttachmentITCase {
         );
     }
 
+    /**
+     * DyAttachment can track attachments not seen by friends.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void tracksUnseenAttachments() throws Exception {
+        final String author = "ursula8";
+        final String reader = "victor8";
+        final Aliases first =
+            new DyBase().user(new URN("urn:test:8963502")).aliases();
+        first.add(author);
+        final Aliases second =
+            new DyBase().user(new URN("urn:test:8963503")).aliases();
+        second.add(reader);
+        final Inbox inbox = first.iterate().iterator().next().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.friends().invite(reader);
+        final String name = "notes";
+        bout.attachments().create(name);
+        bout.attachments().get(name).write(
+            new ByteArrayInputStream(new byte[Tv.TEN]),
+            MediaType.TEXT_PLAIN, "notes-etag"
+        );
+        final Attachment attachment = second.iterate().iterator().next()
+            .inbox().bout(bout.number()).attachments().get(name);
+        DyAttachmentITCase.await(attachment, true);
+        attachment.read();
+        DyAttachmentITCase.await(attachment, false);
+    }
+
+    /**
+     * Wait until the attachment is seen or unseen.
+     * @param attachment The attachment
+     * @param unseen Expected status
+     * @throws Exception If there is some problem inside
+     */
+    private static void await(final Attachment attachment,
+        final boolean unseen) throws Exception {
+        for (int attempt = 0; attempt < Tv.FIFTY
+            && attachment.unseen() != unseen; ++attempt) {
+            TimeUnit.MILLISECONDS.sleep((long) Tv.HUNDRED);
+        }
+        MatcherAssert.assertThat(attachment.unseen(), Matchers.is(unseen));
+    }
+
 }
@@ -74,4 +74,40 @@ public final class DyAttachmentsITCase {
         attachments.delete(name);
     }
 
+    /**
+     * DyAttachments can list attachments, which can be read and written.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void readsAndWritesListedAttachments() throws Exception {
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:840919")).aliases();
+        aliases.add("billy");
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        final String name = "listed-1";
+        bout.attachments().create(name);
+        bout.attachments().get(name).write(
+            IOUtils.toInputStream("first", CharEncoding.UTF_8),
+            MediaType.TEXT_PLAIN, "first"
+        );
+        final Attachment listed =
+            bout.attachments().iterate().iterator().next();
+        MatcherAssert.assertThat(
+            IOUtils.toString(listed.read(), CharEncoding.UTF_8),
+            Matchers.equalTo("first")
+        );
+        listed.write(
+            IOUtils.toInputStream("second", CharEncoding.UTF_8),
+            MediaType.TEXT_PLAIN, "second"
+        );
+        MatcherAssert.assertThat(
+            IOUtils.toString(
+                bout.attachments().iterate().iterator().next().read(),
+                CharEncoding.UTF_8
+            ),
+            Matchers.equalTo("second")
+        );
+    }
+
 }
@@ -26,9 +26,19 @@
  */
 package com.netbout.dynamo;
 
+import com.jcabi.aspects.Tv;
 import com.jcabi.urn.URN;
+import com.netbout.spi.Alias;
 import com.netbout.spi.Base;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Message;
+import com.netbout.spi.Restore;
 import com.netbout.spi.User;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import org.apache.commons.io.IOUtils;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -54,4 +64,68 @@ public final class DyBaseITCase {
         );
     }
 
+    /**
+     * DyBase can meter calls to DynamoDB.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void metersCalls() throws Exception {
+        new DyBase().user(new URN("urn:test:6522")).aliases().add("tamara14");
+        MatcherAssert.assertThat(
+            Metered.report(),
+            Matchers.hasItem(
+                Matchers.allOf(
+                    Matchers.containsString("aliases putItem: "),
+                    Matchers.containsString("calls=")
+                )
+            )
+        );
+    }
+
+    /**
+     * DyBase can restore a bout with its number, authors and dates.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void restoresBoutAsItWas() throws Exception {
+        final DyBase base = new DyBase();
+        final User user = base.user(new URN("urn:test:6523"));
+        user.aliases().add("rita");
+        final Alias alias = user.aliases().iterate().iterator().next();
+        final Inbox inbox = alias.inbox();
+        final long number = inbox.start() + Tv.THOUSAND;
+        final Date date = new Date(Tv.MILLION);
+        try (final Restore.Bout restored =
+            base.restore().bout(number, "restored", date)) {
+            restored.friend(alias.name());
+            restored.friend("somebody");
+            restored.message(Tv.FIVE, "somebody", date, "restored walrus");
+            restored.attachment(
+                "notes.txt", "text/plain", "etag-9",
+                IOUtils.toInputStream("some notes", StandardCharsets.UTF_8)
+            );
+        }
+        final Bout bout = inbox.bout(number);
+        MatcherAssert.assertThat(bout.title(), Matchers.equalTo("restored"));
+        MatcherAssert.assertThat(bout.updated(), Matchers.equalTo(date));
+        final Message msg = bout.messages().iterate().iterator().next();
+        MatcherAssert.assertThat(msg.number(), Matchers.equalTo(5L));
+        MatcherAssert.assertThat(msg.author(), Matchers.equalTo("somebody"));
+        MatcherAssert.assertThat(msg.date(), Matchers.equalTo(date));
+        MatcherAssert.assertThat(inbox.unread(), Matchers.equalTo(0L));
+        try (final InputStream stream =
+            bout.attachments().get("notes.txt").read()) {
+            MatcherAssert.assertThat(
+                IOUtils.toString(stream, StandardCharsets.UTF_8),
+                Matchers.equalTo("some notes")
+            );
+        }
+        MatcherAssert.assertThat(
+            inbox.search("walrus"), Matchers.<Bout>iterableWithSize(1)
+        );
+        MatcherAssert.assertThat(
+            inbox.start(), Matchers.greaterThan(number)
+        );
+    }
+
 }
@@ -26,10 +26,16 @@
  */
 package com.netbout.dynamo;
 
+import com.jcabi.aspects.Tv;
 import com.jcabi.urn.URN;
 import com.netbout.spi.Aliases;
+import com.netbout.spi.Attachment;
 import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
 import com.netbout.spi.Inbox;
+import com.netbout.spi.Message;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -80,4 +86,93 @@ public final class DyBoutITCase {
         );
     }
 
+    /**
+     * DyBout can serve friends, attachments and messages from its view.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void servesBoutFromView() throws Exception {
+        final String alias = "viola";
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:1891")).aliases();
+        aliases.add(alias);
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        final String name = "view.txt";
+        bout.attachments().create(name);
+        bout.messages().post("first");
+        for (int attempt = 0; attempt < Tv.FIFTY; ++attempt) {
+            if (Metered.report().toString().contains("views putItem")) {
+                break;
+            }
+            TimeUnit.MILLISECONDS.sleep((long) Tv.HUNDRED);
+        }
+        MatcherAssert.assertThat(
+            bout.friends().iterate(),
+            Matchers.<Friend>iterableWithSize(1)
+        );
+        MatcherAssert.assertThat(
+            bout.attachments().iterate().iterator().next().name(),
+            Matchers.equalTo(name)
+        );
+        final String text = "second";
+        bout.messages().post(text);
+        MatcherAssert.assertThat(
+            bout.messages().iterate().iterator().next().text(),
+            Matchers.equalTo(text)
+        );
+        MatcherAssert.assertThat(
+            bout.messages().iterate(),
+            Matchers.<Message>iterableWithSize(2)
+        );
+        MatcherAssert.assertThat(
+            bout.attachments().iterate(),
+            Matchers.<Attachment>iterableWithSize(1)
+        );
+    }
+
+    /**
+     * DyBout can read subscriptions of all friends once per scope.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void readsSubscriptionsOncePerScope() throws Exception {
+        final String alias = "vitaly";
+        final String friend = "vitaly-friend";
+        new DyBase().user(new URN("urn:test:1893")).aliases().add(friend);
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:1892")).aliases();
+        aliases.add(alias);
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.friends().invite(friend);
+        final long before = Rows.saved();
+        MatcherAssert.assertThat(
+            Rows.within(
+                new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        final boolean subs = bout.subscription(friend);
+                        bout.subscribe(false);
+                        return subs && !bout.subscription(alias);
+                    }
+                }
+            ),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            Rows.within(
+                new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        return bout.subscription(friend)
+                            && !bout.subscription(alias);
+                    }
+                }
+            ),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(Rows.saved(), Matchers.greaterThan(before));
+    }
+
 }
@@ -27,11 +27,13 @@
 package com.netbout.dynamo;
 
 import com.jcabi.urn.URN;
+import com.netbout.spi.Alias;
 import com.netbout.spi.Aliases;
 import com.netbout.spi.Bout;
 import com.netbout.spi.Friend;
 import com.netbout.spi.Friends;
 import com.netbout.spi.Inbox;
+import java.net.URI;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -66,4 +68,24 @@ public final class DyFriendsITCase {
         );
     }
 
+    /**
+     * DyFriends can fetch profiles of all friends.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void fetchesProfilesOfFriends() throws Exception {
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:8530011")).aliases();
+        final Alias alias = aliases.add("gleb11");
+        final String email = "gleb@example.com";
+        alias.email(email);
+        final URI photo = URI.create("http://localhost/gleb.png");
+        alias.photo(photo);
+        final Inbox inbox = alias.inbox();
+        final Friends friends = inbox.bout(inbox.start()).friends();
+        final Friend friend = friends.iterate().iterator().next();
+        MatcherAssert.assertThat(friend.email(), Matchers.equalTo(email));
+        MatcherAssert.assertThat(friend.photo(), Matchers.equalTo(photo));
+    }
+
 }
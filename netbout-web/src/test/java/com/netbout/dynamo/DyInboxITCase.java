@@ -26,7 +26,14 @@
  */
 package com.netbout.dynamo;
 
+import com.amazonaws.services.dynamodbv2.model.AttributeAction;
+import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
 import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Credentials;
+import com.jcabi.dynamo.Item;
+import com.jcabi.dynamo.Region;
+import com.jcabi.dynamo.Table;
+import com.jcabi.manifests.Manifests;
 import com.jcabi.urn.URN;
 import com.netbout.spi.Aliases;
 import com.netbout.spi.Bout;
@@ -79,6 +86,73 @@ public final class DyInboxITCase {
         );
     }
 
+    /**
+     * DyInbox can search in bouts beyond the first page.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void searchesInOlderBouts() throws Exception {
+        final String alias = "mikhail";
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:8831417")).aliases();
+        aliases.add(alias);
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Bout first = inbox.bout(inbox.start());
+        first.messages().post("The quick brown fox");
+        for (int idx = 0; idx < Inbox.PAGE; ++idx) {
+            inbox.bout(inbox.start()).messages().post(
+                String.format("jumps over #%d", idx)
+            );
+        }
+        final Iterator<Bout> result =
+            DyInboxITCase.found(inbox, "FOX quick").iterator();
+        MatcherAssert.assertThat(
+            "search result is empty",
+            result.hasNext()
+        );
+        MatcherAssert.assertThat(
+            result.next().number(),
+            Matchers.equalTo(first.number())
+        );
+        MatcherAssert.assertThat(
+            "more results than expected",
+            !result.hasNext()
+        );
+    }
+
+    /**
+     * DyInbox can find messages posted before the friend was invited.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void searchesMessagesBeforeInvitation() throws Exception {
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:8831420")).aliases();
+        aliases.add("boris");
+        final Aliases others =
+            new DyBase().user(new URN("urn:test:8831421")).aliases();
+        others.add("gleb");
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.messages().post("a zebra is crossing");
+        MatcherAssert.assertThat(
+            DyInboxITCase.found(inbox, "zebra"),
+            Matchers.<Bout>iterableWithSize(1)
+        );
+        bout.friends().invite("gleb");
+        final Iterator<Bout> result = DyInboxITCase.found(
+            others.iterate().iterator().next().inbox(), "zebra"
+        ).iterator();
+        MatcherAssert.assertThat(
+            "search result is empty",
+            result.hasNext()
+        );
+        MatcherAssert.assertThat(
+            result.next().number(),
+            Matchers.equalTo(bout.number())
+        );
+    }
+
     /**
      * DyInbox can list bouts and create.
      * @throws Exception If there is some problem inside
@@ -127,6 +201,71 @@ public final class DyInboxITCase {
         );
     }
 
+    /**
+     * DyInbox can count unread messages posted by friends.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void countsUnreadMessagesOfFriends() throws Exception {
+        final String author = "olga7";
+        final String reader = "boris7";
+        final Aliases first =
+            new DyBase().user(new URN("urn:test:8831418")).aliases();
+        first.add(author);
+        final Aliases second =
+            new DyBase().user(new URN("urn:test:8831419")).aliases();
+        second.add(reader);
+        final Inbox inbox = first.iterate().iterator().next().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.friends().invite(reader);
+        bout.messages().post("how are you?");
+        bout.messages().post("are you there?");
+        final Inbox other = second.iterate().iterator().next().inbox();
+        DyInboxITCase.await(other, 2L);
+        other.bout(bout.number()).messages().iterate();
+        DyInboxITCase.await(other, 0L);
+    }
+
+    /**
+     * DyInbox can report unread messages of recent bouts, when the total
+     * is lost, and restore the total in background.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void restoresLostUnreadTotal() throws Exception {
+        final String author = "olga8";
+        final String reader = "boris8";
+        final Aliases first =
+            new DyBase().user(new URN("urn:test:8831424")).aliases();
+        first.add(author);
+        final Aliases second =
+            new DyBase().user(new URN("urn:test:8831425")).aliases();
+        second.add(reader);
+        final Inbox inbox = first.iterate().iterator().next().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.friends().invite(reader);
+        bout.messages().post("are you still there?");
+        final Inbox other = second.iterate().iterator().next().inbox();
+        DyInboxITCase.await(other, 1L);
+        final Table table = DyInboxITCase.region().table(DyAliases.TBL);
+        table.frame().where(DyAliases.HASH, reader).iterator().next().put(
+            DyAliases.ATTR_UNREAD,
+            new AttributeValueUpdate().withAction(AttributeAction.DELETE)
+        );
+        MatcherAssert.assertThat(other.unread(), Matchers.equalTo(1L));
+        Item item = table.frame().where(DyAliases.HASH, reader)
+            .iterator().next();
+        for (int attempt = 0; attempt < Tv.FIFTY
+            && !item.has(DyAliases.ATTR_UNREAD); ++attempt) {
+            TimeUnit.MILLISECONDS.sleep((long) Tv.HUNDRED);
+            item = table.frame().where(DyAliases.HASH, reader)
+                .iterator().next();
+        }
+        MatcherAssert.assertThat(
+            item.get(DyAliases.ATTR_UNREAD).getN(), Matchers.equalTo("1")
+        );
+    }
+
     /**
      * DyInbox can jump over the list.
      * @throws Exception If there is some problem inside
@@ -159,4 +298,112 @@ public final class DyInboxITCase {
         MatcherAssert.assertThat(found, Matchers.equalTo(bouts));
     }
 
+    /**
+     * DyInbox can list bouts page by page, by cursors, without losing
+     * bouts updated at the same moment.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void pagesBoutsByCursor() throws Exception {
+        final String alias = "carla5";
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:89126657")).aliases();
+        aliases.add(alias);
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final int total = Inbox.PAGE + Tv.THREE;
+        final List<Long> bouts = new ArrayList<Long>(total);
+        for (int idx = 0; idx < total; ++idx) {
+            bouts.add(inbox.start());
+        }
+        final List<Long> found = new ArrayList<Long>(total);
+        String cursor = "";
+        do {
+            final Pageable.Page<Bout> page = inbox.page(cursor);
+            for (final Bout bout : page.items()) {
+                found.add(bout.number());
+            }
+            cursor = page.next();
+        } while (!cursor.isEmpty());
+        MatcherAssert.assertThat(found, Matchers.hasSize(total));
+        MatcherAssert.assertThat(
+            found, Matchers.containsInAnyOrder(bouts.toArray())
+        );
+    }
+
+    /**
+     * DyInbox can read rows of the inbox with friends.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void readsRowsWithFriends() throws Exception {
+        final String alias = "ruby7";
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:55412098")).aliases();
+        aliases.add(alias);
+        new DyBase().user(new URN("urn:test:55412099")).aliases().add("mary2");
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.rename("the row");
+        bout.friends().invite("mary2");
+        bout.messages().post("how are you?");
+        final Inbox.Row row = inbox.rows("").items().iterator().next();
+        MatcherAssert.assertThat(row.number(), Matchers.equalTo(bout.number()));
+        MatcherAssert.assertThat(row.title(), Matchers.equalTo("the row"));
+        MatcherAssert.assertThat(
+            row.friends(), Matchers.containsInAnyOrder(alias, "mary2")
+        );
+    }
+
+    /**
+     * Search in the inbox, waiting until the term is indexed.
+     * @param inbox The inbox
+     * @param term The term
+     * @return Bouts found
+     * @throws Exception If there is some problem inside
+     */
+    private static Iterable<Bout> found(final Inbox inbox, final String term)
+        throws Exception {
+        Iterable<Bout> bouts = inbox.search(term);
+        for (int attempt = 0; attempt < Tv.FIFTY
+            && !bouts.iterator().hasNext(); ++attempt) {
+            TimeUnit.MILLISECONDS.sleep((long) Tv.HUNDRED);
+            bouts = inbox.search(term);
+        }
+        return bouts;
+    }
+
+    /**
+     * Region of the local DynamoDB.
+     * @return Region
+     */
+    private static Region region() {
+        return new Region.Prefixed(
+            new Region.Simple(
+                new Credentials.Direct(
+                    new Credentials.Simple(
+                        Manifests.read("Netbout-DynamoKey"),
+                        Manifests.read("Netbout-DynamoSecret")
+                    ),
+                    Integer.parseInt(System.getProperty("dynamo.port"))
+                )
+            ),
+            Manifests.read("Netbout-DynamoPrefix")
+        );
+    }
+
+    /**
+     * Wait until the inbox has the given number of unread messages.
+     * @param inbox The inbox
+     * @param expected Expected number of unread messages
+     * @throws Exception If there is some problem inside
+     */
+    private static void await(final Inbox inbox, final long expected)
+        throws Exception {
+        for (int attempt = 0; attempt < Tv.FIFTY
+            && inbox.unread() != expected; ++attempt) {
+            TimeUnit.MILLISECONDS.sleep((long) Tv.HUNDRED);
+        }
+        MatcherAssert.assertThat(inbox.unread(), Matchers.equalTo(expected));
+    }
+
 }
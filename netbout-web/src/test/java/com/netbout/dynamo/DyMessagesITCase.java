@@ -35,6 +35,8 @@ import com.netbout.spi.Message;
 import com.netbout.spi.Messages;
 import com.netbout.spi.Pageable;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import org.apache.commons.lang3.StringUtils;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -128,4 +130,116 @@ public final class DyMessagesITCase {
             !result.hasNext()
         );
     }
+
+    /**
+     * DyMessages can find words in messages that are not on the first page.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void searchesInOlderMessages() throws Exception {
+        final String alias = "fedor";
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:8831416")).aliases();
+        aliases.add(alias);
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.messages().post("The quick brown fox");
+        for (int idx = 0; idx < Messages.PAGE; ++idx) {
+            bout.messages().post(String.format("jumps #%d", idx));
+        }
+        final Iterator<Message> result =
+            bout.messages().search("QUICK fox").iterator();
+        MatcherAssert.assertThat(
+            "search result is empty",
+            result.hasNext()
+        );
+        MatcherAssert.assertThat(
+            result.next().text(),
+            Matchers.startsWith("The quick")
+        );
+        MatcherAssert.assertThat(
+            "more results than expected",
+            !result.hasNext()
+        );
+        MatcherAssert.assertThat(
+            "parts of words are not matched",
+            !bout.messages().search("qui").iterator().hasNext()
+        );
+    }
+
+    /**
+     * DyMessages can read the row of the friend only once in a scope.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void readsFriendRowOncePerScope() throws Exception {
+        final String alias = "fedor9";
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:8831420")).aliases();
+        aliases.add(alias);
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Messages messages = inbox.bout(inbox.start()).messages();
+        final long before = Rows.saved();
+        final long unread = Rows.within(
+            new Callable<Long>() {
+                @Override
+                public Long call() throws Exception {
+                    messages.unread();
+                    return messages.unread();
+                }
+            }
+        );
+        MatcherAssert.assertThat(unread, Matchers.equalTo(0L));
+        MatcherAssert.assertThat(
+            Rows.saved(),
+            Matchers.greaterThan(before)
+        );
+    }
+
+    /**
+     * DyMessages can store big messages compressed.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void compressesBigMessages() throws Exception {
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:8831421")).aliases();
+        aliases.add("gustav");
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        final String text = StringUtils.repeat(
+            "\u0444\u043e\u043e", " ", Tv.THOUSAND
+        );
+        bout.messages().post(text);
+        MatcherAssert.assertThat(
+            bout.messages().iterate().iterator().next().text(),
+            Matchers.equalTo(text)
+        );
+        MatcherAssert.assertThat(
+            Zipped.report(),
+            Matchers.not(Matchers.containsString(" 0 saved"))
+        );
+    }
+
+    /**
+     * DyMessages can tell that a full page is the last one.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void endsWithFullPage() throws Exception {
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:8110723")).aliases();
+        aliases.add("pavel");
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Messages messages = inbox.bout(inbox.start()).messages();
+        for (int idx = 0; idx < Messages.PAGE; ++idx) {
+            messages.post(String.format("message #%d", idx));
+        }
+        final Pageable.Page<Message> page = messages.page("");
+        MatcherAssert.assertThat(
+            page.items(), Matchers.<Message>hasSize(Messages.PAGE)
+        );
+        MatcherAssert.assertThat(page.next(), Matchers.isEmptyString());
+    }
+
 }
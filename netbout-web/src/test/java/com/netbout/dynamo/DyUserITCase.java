@@ -28,6 +28,7 @@ package com.netbout.dynamo;
 
 import com.jcabi.urn.URN;
 import com.netbout.spi.Alias;
+import com.netbout.spi.Friend;
 import com.netbout.spi.User;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
@@ -55,4 +56,29 @@ public final class DyUserITCase {
         );
     }
 
+    /**
+     * DyUser can suggest friends by the beginning of their aliases.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void suggestsFriendsByPrefix() throws Exception {
+        final User user = new DyBase().user(new URN("urn:test:654322"));
+        user.aliases().add("xenia12");
+        user.aliases().add("xenia12b");
+        MatcherAssert.assertThat(
+            user.friends("xenia1"),
+            Matchers.<Friend>iterableWithSize(2)
+        );
+        MatcherAssert.assertThat(
+            user.friends("xenia12").iterator().next().alias(),
+            Matchers.equalTo("xenia12")
+        );
+        MatcherAssert.assertThat(
+            user.friends("xe"),
+            Matchers.hasItem(
+                new Friend.HasAlias(Matchers.equalTo("xenia12b"))
+            )
+        );
+    }
+
 }
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import co.stateful.Counter;
+import com.jcabi.aspects.Tv;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Leased}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class LeasedTest {
+
+    /**
+     * Leased can hand out growing numbers, leasing them by blocks.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void leasesNumbersByBlocks() throws Exception {
+        final Counter origin = new LeasedTest.Fake();
+        final Counter counter = new Leased(origin, Tv.TEN);
+        long previous = 0L;
+        for (int idx = 0; idx < Tv.FIFTY; ++idx) {
+            final long number = counter.incrementAndGet(1L);
+            MatcherAssert.assertThat(number, Matchers.greaterThan(previous));
+            previous = number;
+        }
+        MatcherAssert.assertThat(
+            origin.incrementAndGet(0L),
+            Matchers.lessThanOrEqualTo((long) Tv.SEVENTY)
+        );
+    }
+
+    /**
+     * Leased can hand out unique numbers to many threads.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void handsOutUniqueNumbersConcurrently() throws Exception {
+        final Counter counter = new Leased(
+            new LeasedTest.Fake(), Tv.FIVE
+        );
+        final Set<Long> numbers = new ConcurrentSkipListSet<>();
+        final ExecutorService svc = Executors.newFixedThreadPool(Tv.TEN);
+        try {
+            final Callable<Void> task = new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int idx = 0; idx < Tv.HUNDRED; ++idx) {
+                        numbers.add(counter.incrementAndGet(1L));
+                    }
+                    return null;
+                }
+            };
+            for (final Future<Void> future
+                : svc.invokeAll(Collections.nCopies(Tv.TEN, task))) {
+                future.get();
+            }
+        } finally {
+            svc.shutdown();
+        }
+        MatcherAssert.assertThat(numbers, Matchers.hasSize(Tv.THOUSAND));
+    }
+
+    /**
+     * Leased can hand out unique numbers from many instances, which
+     * share one origin, like many JVMs do.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void handsOutUniqueNumbersFromManyInstances() throws Exception {
+        final Counter origin = new LeasedTest.Fake();
+        final Counter first = new Leased(origin, Tv.TEN);
+        final Counter second = new Leased(origin, Tv.TEN);
+        final long early = first.incrementAndGet(1L);
+        final long late = second.incrementAndGet(1L);
+        MatcherAssert.assertThat(
+            "numbers of different instances are not ordered",
+            first.incrementAndGet(1L),
+            Matchers.allOf(
+                Matchers.greaterThan(early), Matchers.lessThan(late)
+            )
+        );
+        final Set<Long> numbers = new ConcurrentSkipListSet<>();
+        for (int idx = 0; idx < Tv.FIFTY; ++idx) {
+            numbers.add(first.incrementAndGet(1L));
+            numbers.add(second.incrementAndGet(1L));
+        }
+        MatcherAssert.assertThat(numbers, Matchers.hasSize(Tv.HUNDRED));
+    }
+
+    /**
+     * Counter in memory, which increments by the given delta.
+     */
+    private static final class Fake implements Counter {
+        /**
+         * Value.
+         */
+        private final transient AtomicLong value = new AtomicLong();
+        @Override
+        public String name() {
+            return "fake";
+        }
+        @Override
+        public void set(final long num) {
+            this.value.set(num);
+        }
+        @Override
+        public long incrementAndGet(final long delta) {
+            return this.value.addAndGet(delta);
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.google.common.io.ByteStreams;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Ocket;
+import com.jcabi.s3.Region;
+import com.jcabi.s3.mock.MkRegion;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * S3 bucket in memory, since the mock of jcabi-s3 doesn't keep
+ * the content of objects.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+final class MemBucket implements Bucket {
+
+    /**
+     * Objects, by keys.
+     */
+    private final transient ConcurrentMap<String, byte[]> objects =
+        new ConcurrentHashMap<>(0);
+
+    @Override
+    public Region region() {
+        return new MkRegion();
+    }
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public Ocket ocket(final String key) {
+        final Bucket bucket = this;
+        return new Ocket() {
+            @Override
+            public Bucket bucket() {
+                return bucket;
+            }
+            @Override
+            public String key() {
+                return key;
+            }
+            @Override
+            public ObjectMetadata meta() {
+                return new ObjectMetadata();
+            }
+            @Override
+            public boolean exists() {
+                return MemBucket.this.objects.containsKey(key);
+            }
+            @Override
+            public void read(final OutputStream output)
+                throws IOException {
+                output.write(MemBucket.this.objects.get(key));
+            }
+            @Override
+            public void write(final InputStream input,
+                final ObjectMetadata meta) throws IOException {
+                MemBucket.this.objects.put(key, ByteStreams.toByteArray(input));
+            }
+            @Override
+            public int compareTo(final Ocket ocket) {
+                return key.compareTo(ocket.key());
+            }
+        };
+    }
+
+    @Override
+    public void remove(final String key) {
+        this.objects.remove(key);
+    }
+
+    @Override
+    public Iterable<String> list(final String pfx) {
+        return this.objects.keySet();
+    }
+
+    @Override
+    public int compareTo(final Bucket bucket) {
+        return this.name().compareTo(bucket.name());
+    }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Range;
+import com.jcabi.aspects.Tv;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Postings}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class PostingsTest {
+
+    /**
+     * Postings can break text into unique lower-case words.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void breaksTextIntoWords() throws Exception {
+        MatcherAssert.assertThat(
+            Postings.words("Hello, world! hello\n\tПривет, x 42"),
+            Matchers.contains("hello", "world", "привет", "42")
+        );
+    }
+
+    /**
+     * Postings can ignore text without words worth indexing.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void ignoresTooShortWords() throws Exception {
+        MatcherAssert.assertThat(
+            Postings.words("a, b . c"),
+            Matchers.emptyIterable()
+        );
+    }
+
+    /**
+     * Postings can intersect lists and stop reading them early.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void intersectsListsLazily() throws Exception {
+        final AtomicInteger read = new AtomicInteger();
+        final Iterator<Long> all = Iterators.transform(
+            ContiguousSet.create(
+                Range.closed(1L, (long) Tv.THOUSAND),
+                DiscreteDomain.longs()
+            ).descendingIterator(),
+            new Function<Long, Long>() {
+                @Override
+                public Long apply(final Long num) {
+                    read.incrementAndGet();
+                    return num;
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            Postings.intersect(
+                Arrays.asList(
+                    all,
+                    Arrays.asList(999L, 997L, 500L, 2L, 1L).iterator()
+                ),
+                2
+            ),
+            Matchers.contains(999L, 997L)
+        );
+        MatcherAssert.assertThat(read.get(), Matchers.lessThan(Tv.TEN));
+    }
+
+}
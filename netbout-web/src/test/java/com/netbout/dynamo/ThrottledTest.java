@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputDescription;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Credentials;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link Throttled}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class ThrottledTest {
+
+    /**
+     * Throttled can pace background calls at the provisioned rate.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void pacesBackgroundCalls() throws Exception {
+        final AmazonDynamoDB aws = ThrottledTest.client("paced");
+        final AmazonDynamoDB client = new Throttled(
+            ThrottledTest.creds(aws)
+        ).aws();
+        final long start = System.nanoTime();
+        for (int idx = 0; idx < Tv.THIRTY; ++idx) {
+            client.getItem(new GetItemRequest().withTableName("paced"));
+        }
+        MatcherAssert.assertThat(
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            Matchers.greaterThanOrEqualTo((long) Tv.THOUSAND)
+        );
+        Mockito.verify(aws, Mockito.times(1)).describeTable(
+            Mockito.any(DescribeTableRequest.class)
+        );
+    }
+
+    /**
+     * Throttled can pass errors of throttling through.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = AmazonServiceException.class)
+    public void passesThrottlingThrough() throws Exception {
+        final AmazonDynamoDB aws = ThrottledTest.client("busy");
+        final AmazonServiceException error =
+            new AmazonServiceException("too many");
+        error.setErrorCode("ProvisionedThroughputExceededException");
+        Mockito.doThrow(error).when(aws).getItem(
+            Mockito.any(GetItemRequest.class)
+        );
+        new Throttled(ThrottledTest.creds(aws)).aws().getItem(
+            new GetItemRequest().withTableName("busy")
+        );
+    }
+
+    /**
+     * Stubbed client with a table of ten read units per second.
+     * @param table Name of the table
+     * @return Client
+     */
+    private static AmazonDynamoDB client(final String table) {
+        final AmazonDynamoDB aws = Mockito.mock(AmazonDynamoDB.class);
+        Mockito.doReturn(
+            new DescribeTableResult().withTable(
+                new TableDescription()
+                    .withTableName(table)
+                    .withProvisionedThroughput(
+                        new ProvisionedThroughputDescription()
+                            .withReadCapacityUnits((long) Tv.TEN)
+                            .withWriteCapacityUnits((long) Tv.TEN)
+                    )
+            )
+        ).when(aws).describeTable(Mockito.any(DescribeTableRequest.class));
+        Mockito.doReturn(new GetItemResult()).when(aws).getItem(
+            Mockito.any(GetItemRequest.class)
+        );
+        return aws;
+    }
+
+    /**
+     * Credentials of the client.
+     * @param aws The client
+     * @return Credentials
+     */
+    private static Credentials creds(final AmazonDynamoDB aws) {
+        final Credentials creds = Mockito.mock(Credentials.class);
+        Mockito.doReturn(aws).when(creds).aws();
+        return creds;
+    }
+
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.jcabi.aspects.Tv;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Ocket;
+import com.jcabi.s3.Region;
+import com.jcabi.s3.mock.MkRegion;
+import com.netbout.spi.Attachment;
+import org.apache.commons.io.input.NullInputStream;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link Upload}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class UploadTest {
+
+    /**
+     * Upload can upload a stream and report its size.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void uploadsStream() throws Exception {
+        MatcherAssert.assertThat(
+            new Upload(new MkRegion().bucket("test").ocket("a/b")).write(
+                new NullInputStream((long) Tv.MILLION), "text/plain"
+            ),
+            Matchers.equalTo((long) Tv.MILLION)
+        );
+    }
+
+    /**
+     * Upload can upload a big stream by parts.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void uploadsStreamByParts() throws Exception {
+        final AmazonS3 aws = UploadTest.aws();
+        MatcherAssert.assertThat(
+            new Upload(UploadTest.ocket(aws)).write(
+                new NullInputStream((long) Tv.SIX * Tv.MILLION), "text/plain"
+            ),
+            Matchers.equalTo((long) Tv.SIX * Tv.MILLION)
+        );
+        Mockito.verify(aws, Mockito.times(2)).uploadPart(
+            Mockito.any(UploadPartRequest.class)
+        );
+        Mockito.verify(aws).completeMultipartUpload(
+            Mockito.any(CompleteMultipartUploadRequest.class)
+        );
+    }
+
+    /**
+     * Upload can reject too big stream and abort the upload.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rejectsTooBigStream() throws Exception {
+        final AmazonS3 aws = UploadTest.aws();
+        try {
+            new Upload(UploadTest.ocket(aws)).write(
+                new NullInputStream((long) Tv.TEN * Tv.MILLION + 1L),
+                "text/plain"
+            );
+            MatcherAssert.assertThat("too big stream accepted", false);
+        } catch (final Attachment.TooBigException ex) {
+            Mockito.verify(aws).abortMultipartUpload(
+                Mockito.any(AbortMultipartUploadRequest.class)
+            );
+        }
+    }
+
+    /**
+     * S3 client, which accepts everything.
+     * @return Client
+     */
+    private static AmazonS3 aws() {
+        final AmazonS3 aws = Mockito.mock(AmazonS3.class);
+        final InitiateMultipartUploadResult init =
+            new InitiateMultipartUploadResult();
+        init.setUploadId("up");
+        Mockito.doReturn(init).when(aws).initiateMultipartUpload(
+            Mockito.any(InitiateMultipartUploadRequest.class)
+        );
+        final UploadPartResult part = new UploadPartResult();
+        part.setPartNumber(1);
+        part.setETag("tag");
+        Mockito.doReturn(part).when(aws).uploadPart(
+            Mockito.any(UploadPartRequest.class)
+        );
+        return aws;
+    }
+
+    /**
+     * S3 object in a region with this client.
+     * @param aws Client
+     * @return Object
+     */
+    private static Ocket ocket(final AmazonS3 aws) {
+        final Region region = Mockito.mock(Region.class);
+        Mockito.doReturn(aws).when(region).aws();
+        final Bucket bucket = Mockito.mock(Bucket.class);
+        Mockito.doReturn(region).when(bucket).region();
+        Mockito.doReturn("test").when(bucket).name();
+        final Ocket ocket = Mockito.mock(Ocket.class);
+        Mockito.doReturn(bucket).when(ocket).bucket();
+        Mockito.doReturn("a/c").when(ocket).key();
+        return ocket;
+    }
+
+}
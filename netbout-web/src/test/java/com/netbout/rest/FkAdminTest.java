@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2009-2015, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.facets.auth.RqWithAuth;
+import org.takes.facets.fork.FkRegex;
+import org.takes.rq.RqFake;
+
+/**
+ * Test case for {@link FkAdmin}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 3.0
+ */
+public final class FkAdminTest {
+
+    /**
+     * FkAdmin can route administrators only.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void routesAdminsOnly() throws Exception {
+        final FkAdmin fork = new FkAdmin(
+            Collections.singleton("urn:test:7"),
+            new FkRegex("/meters", "all calls")
+        );
+        MatcherAssert.assertThat(
+            fork.route(
+                new RqWithAuth("urn:test:7", new RqFake("GET", "/meters"))
+            ).has(),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            fork.route(
+                new RqWithAuth("urn:test:8", new RqFake("GET", "/meters"))
+            ).has(),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            fork.route(new RqFake("GET", "/meters")).has(),
+            Matchers.is(false)
+        );
+    }
+
+}
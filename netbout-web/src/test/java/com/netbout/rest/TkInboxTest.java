@@ -125,4 +125,24 @@ public final class TkInboxTest {
             Matchers.not(Matchers.containsString(firstTitle))
         );
     }
+
+    /**
+     * TkInbox can reject a broken cursor.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rejectsBrokenCursor() throws Exception {
+        final String urn = "urn:test:3";
+        final MkBase base = new MkBase();
+        base.user(new URN(urn)).aliases().add("test3");
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkAuth(
+                    new TkApp(base),
+                    new PsFixed(new Identity.Simple(urn))
+                ).act(new RqFake(RqMethod.GET, "/?cursor=broken"))
+            ).printHead(),
+            Matchers.startsWith("HTTP/1.1 400")
+        );
+    }
 }